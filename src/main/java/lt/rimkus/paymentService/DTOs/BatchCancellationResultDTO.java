@@ -0,0 +1,42 @@
+package lt.rimkus.paymentService.DTOs;
+
+import lt.rimkus.paymentService.enums.CancellationOutcome;
+import lt.rimkus.paymentService.models.Money;
+
+public class BatchCancellationResultDTO {
+    private Long paymentId;
+    private CancellationOutcome outcome;
+    private Money cancellationFee;
+
+    public BatchCancellationResultDTO() {
+    }
+
+    public BatchCancellationResultDTO(Long paymentId, CancellationOutcome outcome) {
+        this.paymentId = paymentId;
+        this.outcome = outcome;
+    }
+
+    public Long getPaymentId() {
+        return paymentId;
+    }
+
+    public void setPaymentId(Long paymentId) {
+        this.paymentId = paymentId;
+    }
+
+    public CancellationOutcome getOutcome() {
+        return outcome;
+    }
+
+    public void setOutcome(CancellationOutcome outcome) {
+        this.outcome = outcome;
+    }
+
+    public Money getCancellationFee() {
+        return cancellationFee;
+    }
+
+    public void setCancellationFee(Money cancellationFee) {
+        this.cancellationFee = cancellationFee;
+    }
+}
@@ -0,0 +1,40 @@
+package lt.rimkus.paymentService.DTOs;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class BatchPaymentResultDTO {
+    /**
+     * Position of the item in the batch request
+     */
+    private int index;
+    private Long paymentId;
+    private final List<String> validationErrors = new ArrayList<>();
+
+    public BatchPaymentResultDTO() {
+    }
+
+    public BatchPaymentResultDTO(int index) {
+        this.index = index;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public void setIndex(int index) {
+        this.index = index;
+    }
+
+    public Long getPaymentId() {
+        return paymentId;
+    }
+
+    public void setPaymentId(Long paymentId) {
+        this.paymentId = paymentId;
+    }
+
+    public List<String> getValidationErrors() {
+        return validationErrors;
+    }
+}
@@ -0,0 +1,21 @@
+package lt.rimkus.paymentService.DTOs;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class CancelPaymentsBatchResponseDTO {
+    private final List<String> validationErrors = new ArrayList<>();
+    private List<BatchCancellationResultDTO> results = new ArrayList<>();
+
+    public List<String> getValidationErrors() {
+        return validationErrors;
+    }
+
+    public List<BatchCancellationResultDTO> getResults() {
+        return results;
+    }
+
+    public void setResults(List<BatchCancellationResultDTO> results) {
+        this.results = results;
+    }
+}
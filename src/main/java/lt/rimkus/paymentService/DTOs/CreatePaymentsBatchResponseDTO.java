@@ -0,0 +1,39 @@
+package lt.rimkus.paymentService.DTOs;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class CreatePaymentsBatchResponseDTO {
+    private final List<String> validationErrors = new ArrayList<>();
+    private int createdCount;
+    private int failedCount;
+    private List<BatchPaymentResultDTO> results = new ArrayList<>();
+
+    public List<String> getValidationErrors() {
+        return validationErrors;
+    }
+
+    public int getCreatedCount() {
+        return createdCount;
+    }
+
+    public void setCreatedCount(int createdCount) {
+        this.createdCount = createdCount;
+    }
+
+    public int getFailedCount() {
+        return failedCount;
+    }
+
+    public void setFailedCount(int failedCount) {
+        this.failedCount = failedCount;
+    }
+
+    public List<BatchPaymentResultDTO> getResults() {
+        return results;
+    }
+
+    public void setResults(List<BatchPaymentResultDTO> results) {
+        this.results = results;
+    }
+}
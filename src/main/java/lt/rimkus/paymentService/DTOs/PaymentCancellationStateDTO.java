@@ -0,0 +1,49 @@
+package lt.rimkus.paymentService.DTOs;
+
+import java.time.LocalDate;
+
+public class PaymentCancellationStateDTO {
+    private Long id;
+    private String type;
+    private LocalDate createdDate;
+    private boolean cancelled;
+
+    public PaymentCancellationStateDTO(Long id, String type, LocalDate createdDate, boolean cancelled) {
+        this.id = id;
+        this.type = type;
+        this.createdDate = createdDate;
+        this.cancelled = cancelled;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public LocalDate getCreatedDate() {
+        return createdDate;
+    }
+
+    public void setCreatedDate(LocalDate createdDate) {
+        this.createdDate = createdDate;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    public void setCancelled(boolean cancelled) {
+        this.cancelled = cancelled;
+    }
+}
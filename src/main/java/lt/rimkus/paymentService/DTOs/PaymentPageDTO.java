@@ -0,0 +1,28 @@
+package lt.rimkus.paymentService.DTOs;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class PaymentPageDTO {
+    private List<PaymentDTO> payments = new ArrayList<>();
+    /**
+     * Id to pass as afterId for the next page, null when there are no more payments to read
+     */
+    private Long nextAfterId;
+
+    public List<PaymentDTO> getPayments() {
+        return payments;
+    }
+
+    public void setPayments(List<PaymentDTO> payments) {
+        this.payments = payments;
+    }
+
+    public Long getNextAfterId() {
+        return nextAfterId;
+    }
+
+    public void setNextAfterId(Long nextAfterId) {
+        this.nextAfterId = nextAfterId;
+    }
+}
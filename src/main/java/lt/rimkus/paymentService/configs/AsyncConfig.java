@@ -1,19 +1,30 @@
 package lt.rimkus.paymentService.configs;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lt.rimkus.paymentService.utilities.ResizableBlockingQueue;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.web.client.RestTemplate;
 
 import java.time.Duration;
-import java.util.concurrent.Executor;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
 
 @Configuration
 @EnableAsync
 public class AsyncConfig {
 
+    private static final String GEO_LOCATION_EXECUTOR = "geoLocationExecutor";
+
     @Bean
     public RestTemplate restTemplate(RestTemplateBuilder builder) {
         return builder
@@ -22,33 +33,69 @@ public class AsyncConfig {
                 .build();
     }
 
+    /**
+     * Pool of the geolocation lookups. Publishes executor.rejected and the queue wait and run time histograms, tagged
+     * name=geoLocationExecutor like the executor.* pool, queue and completed task gauges Boot binds for the bean. Its
+     * pool sizes and queue capacity can be changed at runtime through the executors actuator endpoint.
+     */
     @Bean("geoLocationExecutor")
-    public Executor geoLocationExecutor() {
-        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+    @ConditionalOnThreading(Threading.PLATFORM)
+    public ThreadPoolTaskExecutor geoLocationExecutor(MeterRegistry meterRegistry) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor() {
+            @Override
+            protected BlockingQueue<Runnable> createQueue(int queueCapacity) {
+                return new ResizableBlockingQueue<>(queueCapacity);
+            }
+        };
         executor.setCorePoolSize(2);
         executor.setMaxPoolSize(5);
         executor.setQueueCapacity(100);
         executor.setThreadNamePrefix("GeoLocation-");
+        executor.setTaskDecorator(new TaskTimingDecorator(GEO_LOCATION_EXECUTOR, meterRegistry));
+        Counter rejectedTasks = rejectedTasksCounter(GEO_LOCATION_EXECUTOR, meterRegistry);
         executor.setRejectedExecutionHandler((r, executor1) -> {
-            // Log when queue is full - this helps with monitoring
-            System.err.println("Geolocation task rejected - queue is full");
+            rejectedTasks.increment();
+            // GeolocationService shares one future per IP, a silently dropped task would leave it incomplete.
+            // It answers "Unknown" to the caller and spills a rejected log lookup to disk for GeoLogSpillover to replay.
+            throw new RejectedExecutionException("Geolocation queue is full");
         });
         executor.initialize();
         return executor;
     }
 
-    @Bean("notificationExecutor")
-    public Executor notificationExecutor() {
-        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
-        executor.setCorePoolSize(2);
-        executor.setMaxPoolSize(5);
-        executor.setQueueCapacity(100);
-        executor.setThreadNamePrefix("Notification-");
-        executor.setRejectedExecutionHandler((r, executor1) -> {
-            // Log when queue is full - this helps with monitoring
-            System.err.println("Notification task rejected - queue is full");
-        });
-        executor.initialize();
+    /**
+     * Runs every geolocation lookup on its own virtual thread, used instead of the pool when
+     * spring.threads.virtual.enabled=true. A lookup blocked on HTTP then holds no platform thread.
+     * The concurrency limit takes the place of the pool and queue bounds, tasks over it are rejected like on a full queue.
+     */
+    @Bean("geoLocationExecutor")
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    public SimpleAsyncTaskExecutor virtualGeoLocationExecutor(@Value("${app.geo.virtual-threads.concurrency-limit:1000}") int concurrencyLimit,
+                                                              MeterRegistry meterRegistry) {
+        Counter rejectedTasks = rejectedTasksCounter(GEO_LOCATION_EXECUTOR, meterRegistry);
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("GeoLocation-") {
+            @Override
+            public void execute(Runnable task) {
+                try {
+                    super.execute(task);
+                } catch (TaskRejectedException e) {
+                    rejectedTasks.increment();
+                    throw e;
+                }
+            }
+        };
+        executor.setVirtualThreads(true);
+        executor.setConcurrencyLimit(concurrencyLimit);
+        executor.setRejectTasksWhenLimitReached(true);
+        // No queue, the wait is the time to start the thread
+        executor.setTaskDecorator(new TaskTimingDecorator(GEO_LOCATION_EXECUTOR, meterRegistry));
         return executor;
     }
-}
\ No newline at end of file
+
+    private static Counter rejectedTasksCounter(String executorName, MeterRegistry meterRegistry) {
+        return Counter.builder("executor.rejected")
+                .description("Tasks the executor rejected because it was saturated")
+                .tag("name", executorName)
+                .register(meterRegistry);
+    }
+}
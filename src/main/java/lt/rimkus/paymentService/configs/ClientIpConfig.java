@@ -0,0 +1,21 @@
+package lt.rimkus.paymentService.configs;
+
+import lt.rimkus.paymentService.utilities.CidrMatcher;
+import lt.rimkus.paymentService.utilities.ClientIpExtractor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+@Configuration
+public class ClientIpConfig {
+
+    /**
+     * Forwarding headers are only believed for hops in the trusted proxy ranges, loopback by default
+     */
+    @Bean
+    public ClientIpExtractor clientIpExtractor(@Value("${app.client-ip.trusted-proxies:127.0.0.0/8,::1/128}") List<String> trustedProxies) {
+        return new ClientIpExtractor(CidrMatcher.of(trustedProxies));
+    }
+}
@@ -0,0 +1,96 @@
+package lt.rimkus.paymentService.configs;
+
+import lt.rimkus.paymentService.utilities.ResizableBlockingQueue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Actuator endpoint showing the application's thread pools and resizing them without a restart, to size them from the
+ * executor.* metrics instead of guessing. GET /actuator/executors lists the pools, POST /actuator/executors/{name}
+ * with any of corePoolSize, maxPoolSize and queueCapacity changes one. Changes last until the next restart.
+ * The endpoint has no authentication of its own and is not exposed over HTTP by default, add executors to
+ * management.endpoints.web.exposure.include only where the management port is not reachable by clients.
+ */
+@Component
+@Endpoint(id = "executors")
+public class ExecutorsEndpoint {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExecutorsEndpoint.class);
+
+    private final Map<String, ThreadPoolTaskExecutor> executors;
+
+    public ExecutorsEndpoint(Map<String, ThreadPoolTaskExecutor> executors) {
+        this.executors = new TreeMap<>(executors);
+    }
+
+    @ReadOperation
+    public Map<String, ExecutorDescriptor> executors() {
+        Map<String, ExecutorDescriptor> descriptors = new TreeMap<>();
+        executors.forEach((name, executor) -> descriptors.put(name, ExecutorDescriptor.of(executor)));
+        return descriptors;
+    }
+
+    @ReadOperation
+    public ExecutorDescriptor executor(@Selector String name) {
+        ThreadPoolTaskExecutor executor = executors.get(name);
+        return executor != null ? ExecutorDescriptor.of(executor) : null;
+    }
+
+    @WriteOperation
+    public ExecutorDescriptor resize(@Selector String name, @Nullable Integer corePoolSize, @Nullable Integer maxPoolSize,
+                                     @Nullable Integer queueCapacity) {
+        ThreadPoolTaskExecutor executor = executors.get(name);
+        if (executor == null) {
+            return null;
+        }
+        int core = corePoolSize != null ? corePoolSize : executor.getCorePoolSize();
+        int max = maxPoolSize != null ? maxPoolSize : executor.getMaxPoolSize();
+        if (core < 0 || max <= 0 || core > max) {
+            throw new InvalidEndpointRequestException("Pool sizes must satisfy 0 <= corePoolSize <= maxPoolSize and maxPoolSize > 0",
+                    "Invalid pool sizes");
+        }
+        if (queueCapacity != null) {
+            if (!(executor.getThreadPoolExecutor().getQueue() instanceof ResizableBlockingQueue<Runnable> queue)) {
+                throw new InvalidEndpointRequestException("The queue capacity of " + name + " is fixed", "Fixed queue capacity");
+            }
+            if (queueCapacity < 0) {
+                throw new InvalidEndpointRequestException("Queue capacity must not be negative", "Invalid queue capacity");
+            }
+            queue.setCapacity(queueCapacity);
+            executor.setQueueCapacity(queueCapacity);
+        }
+        // The pool requires core <= max after each change, so the size moving away from the other one goes first
+        if (max >= executor.getMaxPoolSize()) {
+            executor.setMaxPoolSize(max);
+            executor.setCorePoolSize(core);
+        } else {
+            executor.setCorePoolSize(core);
+            executor.setMaxPoolSize(max);
+        }
+        ExecutorDescriptor descriptor = ExecutorDescriptor.of(executor);
+        logger.info("Resized executor {}: core pool size {}, max pool size {}, queue capacity {}",
+                name, descriptor.corePoolSize(), descriptor.maxPoolSize(), descriptor.queueCapacity());
+        return descriptor;
+    }
+
+    public record ExecutorDescriptor(int corePoolSize, int maxPoolSize, int poolSize, int activeCount, int queueSize,
+                                     int queueCapacity, long completedTaskCount) {
+
+        static ExecutorDescriptor of(ThreadPoolTaskExecutor executor) {
+            return new ExecutorDescriptor(executor.getCorePoolSize(), executor.getMaxPoolSize(), executor.getPoolSize(),
+                    executor.getActiveCount(), executor.getQueueSize(), executor.getQueueCapacity(),
+                    executor.getThreadPoolExecutor().getCompletedTaskCount());
+        }
+    }
+}
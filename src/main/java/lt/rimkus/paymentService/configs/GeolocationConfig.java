@@ -0,0 +1,40 @@
+package lt.rimkus.paymentService.configs;
+
+import lt.rimkus.paymentService.utilities.CidrMatcher;
+import lt.rimkus.paymentService.utilities.IpRangeTable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+@Configuration
+public class GeolocationConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(GeolocationConfig.class);
+
+    /**
+     * Loopback, private and link-local addresses, GeolocationService answers "Local" for them without a lookup
+     */
+    @Bean
+    public CidrMatcher privateIpRanges(@Value("${app.geo.private-ranges:127.0.0.0/8,10.0.0.0/8,172.16.0.0/12,192.168.0.0/16,169.254.0.0/16,::1/128,fc00::/7,fe80::/10}")
+                                       List<String> ranges) {
+        return CidrMatcher.of(ranges);
+    }
+
+    /**
+     * Local IP range dataset, used by GeolocationService before the remote service when app.geo.provider=offline
+     */
+    @Bean
+    @ConditionalOnProperty(name = "app.geo.provider", havingValue = "offline")
+    public IpRangeTable ipRangeTable(@Value("${app.geo.offline.file}") Path file) throws IOException {
+        IpRangeTable table = IpRangeTable.load(file);
+        logger.info("Loaded {} IP ranges from {}", table.size(), file);
+        return table;
+    }
+}
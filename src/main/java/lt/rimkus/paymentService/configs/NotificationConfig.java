@@ -0,0 +1,80 @@
+package lt.rimkus.paymentService.configs;
+
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedBulkheadMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import lt.rimkus.paymentService.utilities.AdaptiveConcurrencyLimit;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+public class NotificationConfig {
+
+    /**
+     * Circuit breakers of the notification channels, one per channel. A breaker opens when the failure rate or the
+     * rate of calls slower than slow-call-duration passes its threshold, fails calls fast while open and lets a few
+     * probe calls through once open-duration is over. State, call counts and rates are published as
+     * resilience4j.circuitbreaker.* metrics tagged with the channel name.
+     */
+    @Bean
+    public CircuitBreakerRegistry notificationCircuitBreakers(MeterRegistry meterRegistry,
+                                                             @Value("${app.notifications.circuit-breaker.failure-rate-threshold:50}") float failureRateThreshold,
+                                                             @Value("${app.notifications.circuit-breaker.slow-call-rate-threshold:50}") float slowCallRateThreshold,
+                                                             @Value("${app.notifications.circuit-breaker.slow-call-duration:PT2S}") Duration slowCallDuration,
+                                                             @Value("${app.notifications.circuit-breaker.sliding-window-size:50}") int slidingWindowSize,
+                                                             @Value("${app.notifications.circuit-breaker.minimum-calls:20}") int minimumCalls,
+                                                             @Value("${app.notifications.circuit-breaker.open-duration:PT30S}") Duration openDuration,
+                                                             @Value("${app.notifications.circuit-breaker.half-open-calls:5}") int halfOpenCalls) {
+        CircuitBreakerRegistry registry = CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+                .failureRateThreshold(failureRateThreshold)
+                .slowCallRateThreshold(slowCallRateThreshold)
+                .slowCallDurationThreshold(slowCallDuration)
+                .slidingWindowSize(slidingWindowSize)
+                .minimumNumberOfCalls(minimumCalls)
+                .waitDurationInOpenState(openDuration)
+                .permittedNumberOfCallsInHalfOpenState(halfOpenCalls)
+                .build());
+        TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(registry).bindTo(meterRegistry);
+        return registry;
+    }
+
+    /**
+     * Bulkheads of the notification channels, one per channel. Each allows max-pending notifications queued or in
+     * flight on its channel and rejects more at once, so a slow channel fills only its own bulkhead and never delays
+     * the other channel. Use is published as resilience4j.bulkhead.* metrics tagged with the channel name.
+     */
+    @Bean
+    public BulkheadRegistry notificationBulkheads(MeterRegistry meterRegistry,
+                                                  @Value("${app.notifications.max-pending:10000}") int maxPending) {
+        BulkheadRegistry registry = BulkheadRegistry.of(BulkheadConfig.custom()
+                .maxConcurrentCalls(maxPending)
+                .maxWaitDuration(Duration.ZERO)
+                .build());
+        TaggedBulkheadMetrics.ofBulkheadRegistry(registry).bindTo(meterRegistry);
+        return registry;
+    }
+
+    /**
+     * Adaptive concurrency limit and timeout of each notification channel, see {@link AdaptiveConcurrencyLimit}.
+     * app.notifications.max-concurrency caps the limit.
+     */
+    @Bean
+    public AdaptiveConcurrencyLimit.Settings notificationConcurrencyLimit(@Value("${app.notifications.max-concurrency:256}") int maxConcurrency,
+                                                                         @Value("${app.notifications.adaptive-limit.min-limit:1}") int minLimit,
+                                                                         @Value("${app.notifications.adaptive-limit.initial-limit:20}") int initialLimit,
+                                                                         @Value("${app.notifications.adaptive-limit.rtt-tolerance:2.0}") double rttTolerance,
+                                                                         @Value("${app.notifications.adaptive-limit.backoff-ratio:0.9}") double backoffRatio,
+                                                                         @Value("${app.notifications.adaptive-limit.min-timeout:PT0.5S}") Duration minTimeout,
+                                                                         @Value("${app.notifications.adaptive-limit.max-timeout:PT5S}") Duration maxTimeout,
+                                                                         @Value("${app.notifications.adaptive-limit.timeout-multiplier:2.0}") double timeoutMultiplier) {
+        return new AdaptiveConcurrencyLimit.Settings(minLimit, Math.min(initialLimit, maxConcurrency), maxConcurrency,
+                rttTolerance, backoffRatio, minTimeout, maxTimeout, timeoutMultiplier);
+    }
+}
@@ -0,0 +1,76 @@
+package lt.rimkus.paymentService.configs;
+
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.http.client.ClientHttpRequestFactoryBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ClientHttpConnector;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+
+/**
+ * One outbound HTTP layer for every RestTemplate and WebClient built from the Spring Boot builders, so
+ * GeolocationService, the notification services and the restTemplate bean share keep-alive connections.
+ * Reactor Netty keeps a separate pool per destination host and publishes Micrometer metrics for each of them:
+ * reactor.netty.connection.provider.* for pool utilization and the wait for a connection,
+ * reactor.netty.http.client.* for connect and response time, all tagged with remote.address.
+ */
+@Configuration
+public class OutboundHttpConfig {
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider outboundConnectionProvider(@Value("${app.http.client.max-connections-per-host:500}") int maxConnections,
+                                                         @Value("${app.http.client.pending-acquire-timeout:PT5S}") Duration pendingAcquireTimeout,
+                                                         @Value("${app.http.client.max-idle-time:PT30S}") Duration maxIdleTime) {
+        return ConnectionProvider.builder("outbound")
+                .maxConnections(maxConnections)
+                .pendingAcquireTimeout(pendingAcquireTimeout)
+                // Closes connections before servers and load balancers silently drop them
+                .maxIdleTime(maxIdleTime)
+                .evictInBackground(maxIdleTime)
+                .metrics(true)
+                .build();
+    }
+
+    /**
+     * @param http2 negotiates HTTP/2 with servers that offer it over TLS, plain http:// destinations keep using HTTP/1.1
+     */
+    @Bean
+    public HttpClient outboundHttpClient(ConnectionProvider outboundConnectionProvider,
+                                         @Value("${app.http.client.http2:false}") boolean http2) {
+        HttpClient httpClient = HttpClient.create(outboundConnectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) Duration.ofSeconds(3).toMillis())
+                .metrics(true, OutboundHttpConfig::uriTagValue);
+        return http2 ? httpClient.protocol(HttpProtocol.H2, HttpProtocol.HTTP11) : httpClient;
+    }
+
+    /**
+     * Used by RestTemplateBuilder, which still applies each caller's connect and read timeouts
+     */
+    @Bean
+    public ClientHttpRequestFactoryBuilder<?> clientHttpRequestFactoryBuilder(HttpClient outboundHttpClient) {
+        return ClientHttpRequestFactoryBuilder.reactor().withHttpClientFactory(() -> outboundHttpClient);
+    }
+
+    /**
+     * Used by WebClient.Builder
+     */
+    @Bean
+    public ClientHttpConnector clientHttpConnector(HttpClient outboundHttpClient) {
+        return new ReactorClientHttpConnector(outboundHttpClient);
+    }
+
+    /**
+     * Keeps the uri tag to the path without its last segment and query, which hold IPs and user names
+     */
+    static String uriTagValue(String uri) {
+        int query = uri.indexOf('?');
+        String path = query < 0 ? uri : uri.substring(0, query);
+        return path.substring(0, path.lastIndexOf('/') + 1);
+    }
+}
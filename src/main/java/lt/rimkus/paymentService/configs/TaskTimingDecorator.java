@@ -0,0 +1,45 @@
+package lt.rimkus.paymentService.configs;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.core.task.TaskDecorator;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times every task of an executor from submission, the executor decorates a task when it is submitted. Records the
+ * wait in the queue in executor.idle and the run in executor, the names Micrometer's own executor metrics use, as
+ * percentile histograms tagged with the executor name.
+ */
+public class TaskTimingDecorator implements TaskDecorator {
+
+    private final Timer queueWaitTimer;
+    private final Timer executionTimer;
+
+    public TaskTimingDecorator(String executorName, MeterRegistry meterRegistry) {
+        this.queueWaitTimer = Timer.builder("executor.idle")
+                .description("Time tasks waited in the executor queue before running")
+                .tag("name", executorName)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.executionTimer = Timer.builder("executor")
+                .description("Time tasks took to run on the executor")
+                .tag("name", executorName)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Runnable decorate(Runnable task) {
+        long submitted = System.nanoTime();
+        return () -> {
+            long started = System.nanoTime();
+            queueWaitTimer.record(started - submitted, TimeUnit.NANOSECONDS);
+            try {
+                task.run();
+            } finally {
+                executionTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            }
+        };
+    }
+}
@@ -0,0 +1,78 @@
+package lt.rimkus.paymentService.configs;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Reports virtual threads that stay pinned to their carrier thread, for example while blocking inside a synchronized
+ * block or a native call, because a pinned virtual thread blocks a platform thread the same way a pool thread does.
+ * Listens to the JDK Flight Recorder jdk.VirtualThreadPinned event in-process: every pin longer than the threshold is
+ * recorded in the jvm.threads.virtual.pinned timer and logged with the frames where it happened.
+ * Active only with virtual threads, the -Djdk.tracePinnedThreads=short JVM flag gives the same stacks on stderr.
+ */
+@Component
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadPinningMonitor {
+
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadPinningMonitor.class);
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final int LOGGED_FRAMES = 5;
+
+    private final Timer pinnedTimer;
+    private final Duration threshold;
+    private RecordingStream recordingStream;
+
+    public VirtualThreadPinningMonitor(MeterRegistry meterRegistry,
+                                       @Value("${app.virtual-threads.pinned-threshold:PT0.02S}") Duration threshold) {
+        this.pinnedTimer = Timer.builder("jvm.threads.virtual.pinned")
+                .description("Time virtual threads stayed pinned to their carrier thread")
+                .register(meterRegistry);
+        this.threshold = threshold;
+    }
+
+    @PostConstruct
+    public void start() {
+        recordingStream = new RecordingStream();
+        recordingStream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+        recordingStream.onEvent(PINNED_EVENT, this::onPinned);
+        recordingStream.startAsync();
+    }
+
+    @PreDestroy
+    public void stop() {
+        recordingStream.close();
+    }
+
+    private void onPinned(RecordedEvent event) {
+        pinnedTimer.record(event.getDuration());
+        if (logger.isWarnEnabled()) {
+            logger.warn("Virtual thread pinned for {} ms at {}", event.getDuration().toMillis(), topFrames(event.getStackTrace()));
+        }
+    }
+
+    private static String topFrames(RecordedStackTrace stackTrace) {
+        if (stackTrace == null) {
+            return "unknown location";
+        }
+        StringBuilder frames = new StringBuilder();
+        for (RecordedFrame frame : stackTrace.getFrames().subList(0, Math.min(LOGGED_FRAMES, stackTrace.getFrames().size()))) {
+            frames.append("\n\tat ").append(frame.getMethod().getType().getName()).append('.')
+                    .append(frame.getMethod().getName()).append(':').append(frame.getLineNumber());
+        }
+        return frames.toString();
+    }
+}
@@ -1,19 +1,27 @@
 package lt.rimkus.paymentService.controllers;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
 import io.swagger.v3.oas.annotations.Operation;
 import jakarta.servlet.http.HttpServletRequest;
 import lt.rimkus.paymentService.DTOs.CancelPaymentResponseDTO;
+import lt.rimkus.paymentService.DTOs.CancelPaymentsBatchResponseDTO;
 import lt.rimkus.paymentService.DTOs.CreatePaymentRequestDTO;
 import lt.rimkus.paymentService.DTOs.CreatePaymentResponseDTO;
+import lt.rimkus.paymentService.DTOs.CreatePaymentsBatchResponseDTO;
 import lt.rimkus.paymentService.DTOs.GetNotCancelledPaymentsDTO;
 import lt.rimkus.paymentService.DTOs.PaymentCancellationInfoDTO;
-import lt.rimkus.paymentService.DTOs.PaymentDTO;
-import lt.rimkus.paymentService.models.Payment;
+import lt.rimkus.paymentService.DTOs.PaymentPageDTO;
 import lt.rimkus.paymentService.services.GeolocationService;
+import lt.rimkus.paymentService.services.PaymentBatchService;
+import lt.rimkus.paymentService.services.PaymentBulkheads;
 import lt.rimkus.paymentService.services.PaymentService;
-import lt.rimkus.paymentService.utilities.IpAddressUtil;
+import lt.rimkus.paymentService.utilities.ClientIpExtractor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -21,11 +29,15 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
-import java.util.stream.Collectors;
 
+import static lt.rimkus.paymentService.messages.OtherMessages.TOO_MANY_PAYMENTS_IN_PROGRESS;
 import static lt.rimkus.paymentService.messages.ValidationErrorMessages.PAYMENT_WITH_ID;
 import static lt.rimkus.paymentService.messages.ValidationErrorMessages.WAS_CANCELLED_WITH_FEE;
 
@@ -36,23 +48,58 @@ public class PaymentController {
     @Autowired
     private PaymentService paymentService;
     @Autowired
+    private PaymentBatchService paymentBatchService;
+    @Autowired
     private GeolocationService geolocationService;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private ClientIpExtractor clientIpExtractor;
+    @Autowired
+    private PaymentBulkheads paymentBulkheads;
 
     @GetMapping
-    @Operation(summary = "Retrieve all payments")
-    public List<PaymentDTO> getAllPayments() {
-        return paymentService.getAllPayments().stream().map(Payment::convertToDTO).collect(Collectors.toList());
+    @Operation(summary = "Retrieve a page of payments ordered by id, starting after the given id")
+    public PaymentPageDTO getPayments(@RequestParam(required = false) Long afterId, @RequestParam(required = false) Integer limit) {
+        return paymentService.getPaymentsPage(afterId, limit);
+    }
+
+    @GetMapping(value = "stream", produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Stream all payments as a JSON array")
+    public ResponseEntity<StreamingResponseBody> streamAllPayments() {
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                generator.writeStartArray();
+                paymentService.streamAllPayments(paymentDTO -> {
+                    try {
+                        generator.writeObject(paymentDTO);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                generator.writeEndArray();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
     }
 
     @PostMapping
     @Operation(summary = "Create a new payment")
     public ResponseEntity<CreatePaymentResponseDTO> createPayment(@RequestBody CreatePaymentRequestDTO newPayment, HttpServletRequest httpRequest) {
 
-        String clientIp = IpAddressUtil.getClientIpAddress(httpRequest);
+        String clientIp = clientIpExtractor.getClientIpAddress(httpRequest);
         geolocationService.logCountryAsync(clientIp, "<Payment creation>");
 
-        CreatePaymentResponseDTO responseDTO = new CreatePaymentResponseDTO();
-        responseDTO = paymentService.createPayment(newPayment, responseDTO);
+        CreatePaymentResponseDTO responseDTO;
+        try {
+            // Outside the payment's transaction, a rejected payment takes no database connection
+            responseDTO = paymentBulkheads.executeCreation(newPayment != null ? newPayment.getType() : null,
+                    () -> paymentService.createPayment(newPayment, new CreatePaymentResponseDTO()));
+        } catch (BulkheadFullException e) {
+            responseDTO = new CreatePaymentResponseDTO();
+            responseDTO.getValidationErrors().add(TOO_MANY_PAYMENTS_IN_PROGRESS + newPayment.getType());
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).header(HttpHeaders.RETRY_AFTER, "1").body(responseDTO);
+        }
         if (!responseDTO.getValidationErrors().isEmpty()) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(responseDTO);
         } else {
@@ -60,11 +107,28 @@ public class PaymentController {
         }
     }
 
+    @PostMapping("batch")
+    @Operation(summary = "Create multiple payments in one request")
+    public ResponseEntity<CreatePaymentsBatchResponseDTO> createPayments(@RequestBody List<CreatePaymentRequestDTO> newPayments, HttpServletRequest httpRequest) {
+
+        String clientIp = clientIpExtractor.getClientIpAddress(httpRequest);
+        geolocationService.logCountryAsync(clientIp, "<Batch payment creation>");
+
+        CreatePaymentsBatchResponseDTO responseDTO = paymentBatchService.createPayments(newPayments);
+        if (!responseDTO.getValidationErrors().isEmpty() || responseDTO.getCreatedCount() == 0) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(responseDTO);
+        } else if (responseDTO.getFailedCount() > 0) {
+            return ResponseEntity.status(HttpStatus.MULTI_STATUS).body(responseDTO);
+        } else {
+            return ResponseEntity.status(HttpStatus.CREATED).body(responseDTO);
+        }
+    }
+
     @DeleteMapping
     @Operation(summary = "Cancel an existing payment")
     public ResponseEntity<CancelPaymentResponseDTO> cancelPayment(@RequestBody Long paymentId, HttpServletRequest httpRequest) {
 
-        String clientIp = IpAddressUtil.getClientIpAddress(httpRequest);
+        String clientIp = clientIpExtractor.getClientIpAddress(httpRequest);
         geolocationService.logCountryAsync(clientIp, "<Payment cancellation>");
 
         CancelPaymentResponseDTO responseDTO = paymentService.cancelPayment(paymentId);
@@ -78,6 +142,21 @@ public class PaymentController {
         }
     }
 
+    @DeleteMapping("batch")
+    @Operation(summary = "Cancel multiple payments in one request")
+    public ResponseEntity<CancelPaymentsBatchResponseDTO> cancelPayments(@RequestBody List<Long> paymentIds, HttpServletRequest httpRequest) {
+
+        String clientIp = clientIpExtractor.getClientIpAddress(httpRequest);
+        geolocationService.logCountryAsync(clientIp, "<Batch payment cancellation>");
+
+        CancelPaymentsBatchResponseDTO responseDTO = paymentBatchService.cancelPayments(paymentIds);
+        if (!responseDTO.getValidationErrors().isEmpty()) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(responseDTO);
+        } else {
+            return ResponseEntity.ok(responseDTO);
+        }
+    }
+
     @Operation(summary = "Get all payments that are not canceled")
     @RequestMapping(value = "querying/notCancelled", method = RequestMethod.POST)
     public ResponseEntity<List<Long>> getNotCanceledPaymentIds(@RequestBody GetNotCancelledPaymentsDTO requestDTO) {
@@ -0,0 +1,8 @@
+package lt.rimkus.paymentService.enums;
+
+public enum CancellationOutcome {
+    CANCELLED,
+    ALREADY_CANCELLED,
+    NOT_SAME_DAY,
+    NOT_FOUND
+}
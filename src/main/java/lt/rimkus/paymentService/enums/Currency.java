@@ -3,6 +3,9 @@ package lt.rimkus.paymentService.enums;
 import lt.rimkus.paymentService.exceptions.RequestValidationException;
 
 import java.util.Arrays;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import static lt.rimkus.paymentService.messages.ValidationErrorMessages.CURRENCY_NOT_SUPPORTED;
 
@@ -10,6 +13,10 @@ public enum Currency {
     EUR("EUR"),
     USD("USD");
 
+    // Built once, lookups are on the request validation path
+    private static final Map<String, Currency> BY_CODE = Arrays.stream(values())
+            .collect(Collectors.toUnmodifiableMap(Currency::getCode, Function.identity()));
+
     private final String code;
 
     Currency(String code) {
@@ -17,23 +24,25 @@ public enum Currency {
     }
 
     public static boolean checkCurrencyValidity(String code) throws RequestValidationException {
-        for (Currency currencyType : values()) {
-            if (currencyType.code.equals(code)) {
-                return true;
-            }
+        if (isSupported(code)) {
+            return true;
         }
         throw new RequestValidationException(CURRENCY_NOT_SUPPORTED + code);
     }
 
+    /**
+     * Exact match of the code, unlike fromCode it does not trim
+     */
+    public static boolean isSupported(String code) {
+        return code != null && BY_CODE.containsKey(code);
+    }
+
     public static Currency fromCode(String code) {
         if (code == null) {
             return null;
         }
 
-        return Arrays.stream(values())
-                .filter(c -> c.code.equals(code.trim()))
-                .findFirst()
-                .orElse(null);
+        return BY_CODE.get(code.trim());
     }
 
     public String getCode() {
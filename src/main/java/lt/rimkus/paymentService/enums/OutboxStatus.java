@@ -0,0 +1,7 @@
+package lt.rimkus.paymentService.enums;
+
+public enum OutboxStatus {
+    PENDING,
+    DELIVERED,
+    FAILED
+}
@@ -1,16 +1,19 @@
 package lt.rimkus.paymentService.enums;
 
-import lt.rimkus.paymentService.exceptions.RequestValidationException;
-
 import java.util.Arrays;
-
-import static lt.rimkus.paymentService.messages.ValidationErrorMessages.UNSUPPORTED_TYPE;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 public enum PaymentType {
     TYPE1("TYPE1"),
     TYPE2("TYPE2"),
     TYPE3("TYPE3");
 
+    // Built once, lookups are on the request validation path
+    private static final Map<String, PaymentType> BY_CODE = Arrays.stream(values())
+            .collect(Collectors.toUnmodifiableMap(PaymentType::getCode, Function.identity()));
+
     private final String code;
 
     PaymentType(String code) {
@@ -22,10 +25,7 @@ public enum PaymentType {
             return null;
         }
 
-        return Arrays.stream(values())
-                .filter(t -> t.code.equals(code))
-                .findFirst()
-                .orElse(null);
+        return BY_CODE.get(code);
     }
 
     public String getCode() {
@@ -1,7 +1,6 @@
 package lt.rimkus.paymentService.factories;
 
 import lt.rimkus.paymentService.DTOs.CreatePaymentRequestDTO;
-import lt.rimkus.paymentService.exceptions.RequestValidationException;
 import lt.rimkus.paymentService.enums.PaymentType;
 import lt.rimkus.paymentService.models.Payment;
 import lt.rimkus.paymentService.models.TYPE1Payment;
@@ -9,12 +8,23 @@ import lt.rimkus.paymentService.models.TYPE2Payment;
 import lt.rimkus.paymentService.models.TYPE3Payment;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
+
 @Component
 public class PaymentCreationFactory {
 
-    public Payment createNewPayment(CreatePaymentRequestDTO requestDTO) throws RequestValidationException {
+    /**
+     * Creates the payment of the requested type
+     *
+     * @return the populated payment, or null when the request is invalid, its errors are then added to validationErrors
+     */
+    public Payment createNewPayment(CreatePaymentRequestDTO requestDTO, List<String> validationErrors) {
         Payment payment = createPayment(requestDTO);
-        payment.validateEntityCreationRequest(requestDTO);
+        int errorsBefore = validationErrors.size();
+        payment.validateEntityCreationRequest(requestDTO, validationErrors);
+        if (validationErrors.size() > errorsBefore) {
+            return null;
+        }
         payment.populateEntityData(requestDTO);
         return payment;
     }
@@ -7,8 +7,9 @@ public class OtherMessages {
     public static final String CREDITOR_IBAN_NOT_NULL = "Creditor IBAN cannot be null";
     public static final String AMOUNT_NOT_NULL = "Amount cannot be null";
     public static final String CURRENCY_NOT_NULL = "Currency cannot be null";
-    public static final String HOURS_CANNOT_BE_NEGATIVE = "Hours cannot be negative";
     public static final String SUCCESS = "Success";
     public static final String FAILURE = "Failure";
     public static final String FAILED_TO_SEND_OUT_NOTIFICATION = "Failed to send out notification for payment type: ";
+    public static final String FAILED_TO_SAVE_PAYMENT = "Failed to save payment: ";
+    public static final String TOO_MANY_PAYMENTS_IN_PROGRESS = "Too many payments are being created, retry later. Payment type: ";
 }
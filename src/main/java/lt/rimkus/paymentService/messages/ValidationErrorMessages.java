@@ -23,4 +23,7 @@ public class ValidationErrorMessages {
     public static final String NO_DATA_FOR_PAYMENT_TYPE = "No data found for payment type: ";
     public static final String WAS_CANCELLED_WITH_FEE = " was successfully cancelled. Cancellation fee is: ";
     public static final String PAYMENT_DOES_NOT_EXIST = "Provided payment id does not exist";
+
+    public static final String BATCH_EMPTY = "Batch request must contain at least one payment";
+    public static final String BATCH_TOO_LARGE = "Batch request cannot contain more than ";
 }
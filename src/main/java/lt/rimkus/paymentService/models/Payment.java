@@ -8,11 +8,12 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import lt.rimkus.paymentService.DTOs.CreatePaymentRequestDTO;
 import lt.rimkus.paymentService.DTOs.MoneyDTO;
 import lt.rimkus.paymentService.DTOs.PaymentDTO;
-import lt.rimkus.paymentService.exceptions.RequestValidationException;
+import lt.rimkus.paymentService.enums.PaymentType;
 import lt.rimkus.paymentService.utilities.CurrencyValidationUtils;
 import lt.rimkus.paymentService.utilities.PaymentTypeValidationUtils;
 import org.apache.commons.lang3.StringUtils;
@@ -20,6 +21,8 @@ import org.apache.commons.lang3.StringUtils;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.BiConsumer;
 
 import static lt.rimkus.paymentService.messages.OtherMessages.CREDITOR_IBAN_NOT_NULL;
 import static lt.rimkus.paymentService.messages.OtherMessages.DEBTOR_IBAN_NOT_NULL;
@@ -39,7 +42,8 @@ import static lt.rimkus.paymentService.messages.ValidationErrorMessages.UNSUPPOR
 @Table(name = "payments")
 public abstract class Payment implements Transaction {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "payment_id_generator")
+    @SequenceGenerator(name = "payment_id_generator", sequenceName = "payment_id_seq", allocationSize = 50)
     private Long id;
     @Column(nullable = false)
     private String type;
@@ -70,61 +74,67 @@ public abstract class Payment implements Transaction {
     public Payment() {
     }
 
-    @Override
-    public void validateEntityCreationRequest(CreatePaymentRequestDTO requestDTO) throws RequestValidationException {
-        validateCommonMandatoryFields(requestDTO);
-        validateTypeSpecificRequirements(requestDTO);
-    }
+    /**
+     * Built once and shared by all payments. Rules add errors instead of throwing, so one pass reports every problem
+     * of the request without paying for exceptions. A rule skips checks that depend on a field already reported.
+     */
+    private static final List<BiConsumer<CreatePaymentRequestDTO, List<String>>> COMMON_RULES = List.of(
+            Payment::validatePaymentType,
+            Payment::validateAmount,
+            Payment::validateCurrency,
+            Payment::validateIBANs
+    );
 
-    private void validateCommonMandatoryFields(CreatePaymentRequestDTO requestDTO) throws RequestValidationException {
-        validatePaymentType(requestDTO);
-        validateAmount(requestDTO);
-        validateCurrency(requestDTO);
-        validateIBANs(requestDTO);
+    @Override
+    public void validateEntityCreationRequest(CreatePaymentRequestDTO requestDTO, List<String> validationErrors) {
+        for (BiConsumer<CreatePaymentRequestDTO, List<String>> rule : COMMON_RULES) {
+            rule.accept(requestDTO, validationErrors);
+        }
+        validateTypeSpecificRequirements(requestDTO, validationErrors);
     }
 
-    private void validatePaymentType(CreatePaymentRequestDTO requestDTO) throws RequestValidationException {
+    private static void validatePaymentType(CreatePaymentRequestDTO requestDTO, List<String> validationErrors) {
         String paymentType = requestDTO.getType();
         if (StringUtils.isEmpty(paymentType)) {
-            throw new RequestValidationException(TYPE_MANDATORY);
-        }
-        if (PaymentTypeValidationUtils.isPaymentTypeNotValid(paymentType)) {
-            throw new RequestValidationException(UNSUPPORTED_TYPE + paymentType);
+            validationErrors.add(TYPE_MANDATORY);
+        } else if (PaymentTypeValidationUtils.isPaymentTypeNotValid(paymentType)) {
+            validationErrors.add(UNSUPPORTED_TYPE + paymentType);
         }
     }
 
-    private void validateAmount(CreatePaymentRequestDTO requestDTO) throws RequestValidationException {
-        if (requestDTO.getMoney() == null) {
-            throw new RequestValidationException(MONEY_MISSING);
-        }
-        if (requestDTO.getMoney().getAmount() == null || !(requestDTO.getMoney().getAmount().compareTo(BigDecimal.ZERO) > 0)) {
-            throw new RequestValidationException(AMOUNT_MANDATORY);
-        }
-        if (requestDTO.getMoney().getAmount().scale() > 2) {
-            throw new RequestValidationException(INCORRECT_AMOUNT_VALUE);
+    private static void validateAmount(CreatePaymentRequestDTO requestDTO, List<String> validationErrors) {
+        MoneyDTO money = requestDTO.getMoney();
+        if (money == null) {
+            validationErrors.add(MONEY_MISSING);
+        } else if (money.getAmount() == null || !(money.getAmount().compareTo(BigDecimal.ZERO) > 0)) {
+            validationErrors.add(AMOUNT_MANDATORY);
+        } else if (money.getAmount().scale() > 2) {
+            validationErrors.add(INCORRECT_AMOUNT_VALUE);
         }
     }
 
-    private void validateCurrency(CreatePaymentRequestDTO requestDTO) throws RequestValidationException {
+    private static void validateCurrency(CreatePaymentRequestDTO requestDTO, List<String> validationErrors) {
+        if (requestDTO.getMoney() == null) {
+            return;
+        }
         String currency = requestDTO.getMoney().getCurrency();
         String paymentType = requestDTO.getType();
         if (StringUtils.isEmpty(currency)) {
-            throw new RequestValidationException(CURRENCY_MANDATORY);
-        }
-        if (CurrencyValidationUtils.isCurrencyNotValid(currency)) {
-            throw new RequestValidationException(CURRENCY_NOT_SUPPORTED + currency);
-        }
-        if (CurrencyValidationUtils.isCurrencyNotValidForPaymentType(currency, paymentType)) {
-            throw new RequestValidationException(paymentType + TYPE_NOT_COMPATIBLE_WITH_CURRENCY + currency);
+            validationErrors.add(CURRENCY_MANDATORY);
+        } else if (CurrencyValidationUtils.isCurrencyNotValid(currency)) {
+            validationErrors.add(CURRENCY_NOT_SUPPORTED + currency);
+        } else if (PaymentType.fromCode(paymentType) != null
+                && CurrencyValidationUtils.isCurrencyNotValidForPaymentType(currency, paymentType)) {
+            validationErrors.add(paymentType + TYPE_NOT_COMPATIBLE_WITH_CURRENCY + currency);
         }
     }
 
-    private void validateIBANs(CreatePaymentRequestDTO requestDTO) throws RequestValidationException {
+    private static void validateIBANs(CreatePaymentRequestDTO requestDTO, List<String> validationErrors) {
         if (StringUtils.isEmpty(requestDTO.getDebtor_iban())) {
-            throw new RequestValidationException(DEBTOR_IBAN_MANDATORY);
+            validationErrors.add(DEBTOR_IBAN_MANDATORY);
         }
         if (StringUtils.isEmpty(requestDTO.getCreditor_iban())) {
-            throw new RequestValidationException(CREDITOR_IBAN_MANDATORY);
+            validationErrors.add(CREDITOR_IBAN_MANDATORY);
         }
     }
 
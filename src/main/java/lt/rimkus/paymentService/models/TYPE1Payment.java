@@ -4,9 +4,10 @@ import jakarta.persistence.Entity;
 import lt.rimkus.paymentService.DTOs.CreatePaymentRequestDTO;
 import lt.rimkus.paymentService.DTOs.PaymentDTO;
 import lt.rimkus.paymentService.DTOs.TYPE1PaymentDTO;
-import lt.rimkus.paymentService.exceptions.RequestValidationException;
 import org.apache.commons.lang3.StringUtils;
 
+import java.util.List;
+
 import static lt.rimkus.paymentService.messages.ValidationErrorMessages.DETAILS_MANDATORY_FOR_TYPE1;
 
 @Entity
@@ -22,9 +23,9 @@ public class TYPE1Payment extends Payment {
     }
 
     @Override
-    public void validateTypeSpecificRequirements(CreatePaymentRequestDTO requestDTO) throws RequestValidationException {
+    public void validateTypeSpecificRequirements(CreatePaymentRequestDTO requestDTO, List<String> validationErrors) {
         if (requestDTO.getDetails() == null || StringUtils.isEmpty(requestDTO.getDetails().trim())) {
-            throw new RequestValidationException(DETAILS_MANDATORY_FOR_TYPE1);
+            validationErrors.add(DETAILS_MANDATORY_FOR_TYPE1);
         }
     }
 
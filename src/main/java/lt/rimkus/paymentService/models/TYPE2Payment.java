@@ -4,14 +4,15 @@ import jakarta.persistence.Entity;
 import lt.rimkus.paymentService.DTOs.CreatePaymentRequestDTO;
 import lt.rimkus.paymentService.DTOs.PaymentDTO;
 import lt.rimkus.paymentService.DTOs.TYPE2PaymentDTO;
-import lt.rimkus.paymentService.exceptions.RequestValidationException;
+
+import java.util.List;
 
 @Entity
 public class TYPE2Payment extends Payment {
     private String details;
 
     @Override
-    public void validateTypeSpecificRequirements(CreatePaymentRequestDTO requestDTO) {
+    public void validateTypeSpecificRequirements(CreatePaymentRequestDTO requestDTO, List<String> validationErrors) {
         //currency is validated in parent class, details are optional
     }
 
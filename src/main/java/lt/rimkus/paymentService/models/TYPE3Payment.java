@@ -4,9 +4,10 @@ import jakarta.persistence.Entity;
 import lt.rimkus.paymentService.DTOs.CreatePaymentRequestDTO;
 import lt.rimkus.paymentService.DTOs.PaymentDTO;
 import lt.rimkus.paymentService.DTOs.TYPE3PaymentDTO;
-import lt.rimkus.paymentService.exceptions.RequestValidationException;
 import org.apache.commons.lang3.StringUtils;
 
+import java.util.List;
+
 import static lt.rimkus.paymentService.messages.ValidationErrorMessages.CREDITOR_BANK_BIC_MANDATORY_FOR_TYPE3;
 
 @Entity
@@ -14,9 +15,9 @@ public class TYPE3Payment extends Payment {
     private String creditorBankBIC;
 
     @Override
-    public void validateTypeSpecificRequirements(CreatePaymentRequestDTO requestDTO) throws RequestValidationException {
+    public void validateTypeSpecificRequirements(CreatePaymentRequestDTO requestDTO, List<String> validationErrors) {
         if (requestDTO.getCreditorBankBIC() == null || StringUtils.isEmpty(requestDTO.getCreditorBankBIC().trim())) {
-            throw new RequestValidationException(CREDITOR_BANK_BIC_MANDATORY_FOR_TYPE3);
+            validationErrors.add(CREDITOR_BANK_BIC_MANDATORY_FOR_TYPE3);
         }
     }
 
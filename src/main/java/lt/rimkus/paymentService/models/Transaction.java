@@ -2,11 +2,15 @@ package lt.rimkus.paymentService.models;
 
 import lt.rimkus.paymentService.DTOs.CreatePaymentRequestDTO;
 import lt.rimkus.paymentService.DTOs.PaymentDTO;
-import lt.rimkus.paymentService.exceptions.RequestValidationException;
+
+import java.util.List;
 
 public interface Transaction {
-    void validateEntityCreationRequest(CreatePaymentRequestDTO requestDTO) throws RequestValidationException;
-    void validateTypeSpecificRequirements(CreatePaymentRequestDTO requestDTO) throws RequestValidationException;
+    /**
+     * Adds every problem of the request to validationErrors, a valid request leaves the list untouched
+     */
+    void validateEntityCreationRequest(CreatePaymentRequestDTO requestDTO, List<String> validationErrors);
+    void validateTypeSpecificRequirements(CreatePaymentRequestDTO requestDTO, List<String> validationErrors);
     void populateEntityData(CreatePaymentRequestDTO requestDTO);
     PaymentDTO convertToDTO();
 }
@@ -0,0 +1,88 @@
+package lt.rimkus.paymentService.repositories;
+
+import org.hibernate.HibernateException;
+import org.hibernate.id.IdentifierGeneratorHelper;
+import org.hibernate.id.IntegralDataTypeHolder;
+import org.hibernate.id.enhanced.AccessCallback;
+import org.hibernate.id.enhanced.Optimizer;
+
+import java.io.Serializable;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Pooled-lo optimizer that hands out ids from the current block with a CAS instead of Hibernate's synchronized one.
+ * Every value read from the database sequence reserves the block [value, value + incrementSize), so several
+ * application instances can share the sequence. A thread that loses the race to install a new block keeps the
+ * first id of its own block and the rest is skipped, which only leaves a gap in the id range.
+ * Registered through the hibernate.id.optimizer.pooled.preferred property.
+ */
+public class LockFreePooledLoOptimizer implements Optimizer {
+
+    private final Class<?> returnClass;
+    private final int incrementSize;
+    private final AtomicReference<IdBlock> currentBlock = new AtomicReference<>();
+    private volatile IntegralDataTypeHolder lastSourceValue;
+
+    public LockFreePooledLoOptimizer(Class<?> returnClass, int incrementSize) {
+        if (returnClass == null) {
+            throw new HibernateException("Return class is required");
+        }
+        if (incrementSize < 1) {
+            throw new HibernateException("Increment size cannot be less than 1");
+        }
+        this.returnClass = returnClass;
+        this.incrementSize = incrementSize;
+    }
+
+    @Override
+    public Serializable generate(AccessCallback callback) {
+        while (true) {
+            IdBlock block = currentBlock.get();
+            if (block != null) {
+                long value = block.next.getAndIncrement();
+                if (value < block.upperBound) {
+                    return toIdentifier(value);
+                }
+            }
+            if (currentBlock.get() != block) {
+                // another thread has already installed a fresh block
+                continue;
+            }
+            IntegralDataTypeHolder sourceValue = callback.getNextValue();
+            lastSourceValue = sourceValue;
+            long low = IdentifierGeneratorHelper.extractLong(sourceValue);
+            currentBlock.compareAndSet(block, new IdBlock(low + 1, low + incrementSize));
+            return toIdentifier(low);
+        }
+    }
+
+    private Serializable toIdentifier(long value) {
+        return (Serializable) IdentifierGeneratorHelper.getIntegralDataTypeHolder(returnClass).initialize(value).makeValue();
+    }
+
+    @Override
+    public IntegralDataTypeHolder getLastSourceValue() {
+        return lastSourceValue;
+    }
+
+    @Override
+    public int getIncrementSize() {
+        return incrementSize;
+    }
+
+    @Override
+    public boolean applyIncrementSizeToSourceValues() {
+        return true;
+    }
+
+    private static final class IdBlock {
+        private final AtomicLong next;
+        private final long upperBound;
+
+        private IdBlock(long next, long upperBound) {
+            this.next = new AtomicLong(next);
+            this.upperBound = upperBound;
+        }
+    }
+}
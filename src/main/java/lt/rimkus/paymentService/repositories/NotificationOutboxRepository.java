@@ -0,0 +1,64 @@
+package lt.rimkus.paymentService.repositories;
+
+import lt.rimkus.paymentService.enums.OutboxStatus;
+import lt.rimkus.paymentService.models.NotificationOutboxEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface NotificationOutboxRepository extends JpaRepository<NotificationOutboxEntry, Long> {
+
+    /**
+     * Locks up to limit due entries that were never attempted. Entries locked by another relay transaction are skipped
+     * instead of waited for, so every relay thread gets a different batch. Must run inside the transaction that extends
+     * their lease.
+     * There is no ORDER BY on purpose: H2 sorts and limits before skipping locked rows, which would hand a second relay
+     * an empty batch. Walking the (status, attempts, next_attempt_at) index already returns the oldest entries first.
+     */
+    @Query(value = "SELECT * FROM notification_outbox WHERE status = 'PENDING' AND attempts = 0 AND next_attempt_at <= :now " +
+            "LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<NotificationOutboxEntry> findNewDueForUpdateSkipLocked(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    /**
+     * Locks up to limit due entries that already failed at least once, the same way as findNewDueForUpdateSkipLocked
+     */
+    @Query(value = "SELECT * FROM notification_outbox WHERE status = 'PENDING' AND attempts > 0 AND next_attempt_at <= :now " +
+            "LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<NotificationOutboxEntry> findRetriesDueForUpdateSkipLocked(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    /**
+     * Hides claimed entries from other relays until the lease ends. If the relay dies before completing them,
+     * they become due again after the lease. Clears the persistence context, so the claimed entities are detached.
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE NotificationOutboxEntry o SET o.attempts = o.attempts + 1, o.nextAttemptAt = :leaseEnd WHERE o.id IN :ids")
+    int extendLease(@Param("ids") Collection<Long> ids, @Param("leaseEnd") LocalDateTime leaseEnd);
+
+    @Modifying
+    @Query("UPDATE NotificationOutboxEntry o SET o.status = lt.rimkus.paymentService.enums.OutboxStatus.DELIVERED, o.deliveredAt = :deliveredAt WHERE o.id IN :ids")
+    int markDelivered(@Param("ids") Collection<Long> ids, @Param("deliveredAt") LocalDateTime deliveredAt);
+
+    @Modifying
+    @Query("UPDATE NotificationOutboxEntry o SET o.nextAttemptAt = :nextAttemptAt WHERE o.id IN :ids")
+    int scheduleRetry(@Param("ids") Collection<Long> ids, @Param("nextAttemptAt") LocalDateTime nextAttemptAt);
+
+    @Modifying
+    @Query("UPDATE NotificationOutboxEntry o SET o.status = lt.rimkus.paymentService.enums.OutboxStatus.FAILED WHERE o.id IN :ids")
+    int markFailed(@Param("ids") Collection<Long> ids);
+
+    long countByStatus(OutboxStatus status);
+
+    /**
+     * @return when the earliest pending entry is due, including entries claimed until their lease ends, null when
+     * no entry is pending
+     */
+    @Query("SELECT MIN(o.nextAttemptAt) FROM NotificationOutboxEntry o WHERE o.status = lt.rimkus.paymentService.enums.OutboxStatus.PENDING")
+    LocalDateTime findEarliestPendingAttemptAt();
+}
@@ -0,0 +1,11 @@
+package lt.rimkus.paymentService.repositories;
+
+import java.util.Map;
+
+public interface PaymentNotificationStatusRepository {
+
+    /**
+     * Writes the notification status of many payments with one UPDATE ... SET notification_status = CASE id ... END statement
+     */
+    int updateNotificationStatuses(Map<Long, String> statusesByPaymentId);
+}
@@ -0,0 +1,42 @@
+package lt.rimkus.paymentService.repositories;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Map;
+
+public class PaymentNotificationStatusRepositoryImpl implements PaymentNotificationStatusRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional
+    public int updateNotificationStatuses(Map<Long, String> statusesByPaymentId) {
+        if (statusesByPaymentId.isEmpty()) {
+            return 0;
+        }
+        StringBuilder sql = new StringBuilder("UPDATE payments SET notification_status = CASE id");
+        for (int i = 0; i < statusesByPaymentId.size(); i++) {
+            sql.append(" WHEN ? THEN ?");
+        }
+        sql.append(" END WHERE id IN (");
+        for (int i = 0; i < statusesByPaymentId.size(); i++) {
+            sql.append(i == 0 ? "?" : ", ?");
+        }
+        sql.append(')');
+
+        Query update = entityManager.createNativeQuery(sql.toString());
+        int position = 1;
+        for (Map.Entry<Long, String> status : statusesByPaymentId.entrySet()) {
+            update.setParameter(position++, status.getKey());
+            update.setParameter(position++, status.getValue());
+        }
+        for (Long id : statusesByPaymentId.keySet()) {
+            update.setParameter(position++, id);
+        }
+        return update.executeUpdate();
+    }
+}
@@ -1,24 +1,107 @@
 package lt.rimkus.paymentService.repositories;
 
+import jakarta.persistence.QueryHint;
 import lt.rimkus.paymentService.DTOs.PaymentCancellationInfoDTO;
+import lt.rimkus.paymentService.DTOs.PaymentCancellationStateDTO;
 import lt.rimkus.paymentService.models.Payment;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
-public interface PaymentRepository extends JpaRepository<Payment, Long> {
-    @Query("SELECT id FROM Payment p " +
-            "WHERE p.cancelled = false " +
-            "AND (:minAmount IS NULL OR p.money.amount >= :minAmount) " +
-            "AND (:maxAmount IS NULL OR p.money.amount <= :maxAmount)")
-    List<Long> getNotCancelledPaymentsWithinRange(@Param("minAmount") BigDecimal minAmount, @Param("maxAmount") BigDecimal maxAmount);
+public interface PaymentRepository extends JpaRepository<Payment, Long>, PaymentNotificationStatusRepository {
+    /**
+     * Picks the query variant for the bounds that are present. A single query with "(:bound IS NULL OR ...)" conditions
+     * has one plan for every combination of bounds, so the database cannot use a range seek on the amount index.
+     */
+    default List<Long> getNotCancelledPaymentsWithinRange(BigDecimal minAmount, BigDecimal maxAmount) {
+        if (minAmount != null && maxAmount != null) {
+            return getNotCancelledPaymentIdsBetween(minAmount, maxAmount);
+        }
+        if (minAmount != null) {
+            return getNotCancelledPaymentIdsFrom(minAmount);
+        }
+        if (maxAmount != null) {
+            return getNotCancelledPaymentIdsUpTo(maxAmount);
+        }
+        return getNotCancelledPaymentIds();
+    }
+
+    @Query("SELECT p.id FROM Payment p WHERE p.cancelled = false")
+    List<Long> getNotCancelledPaymentIds();
+
+    @Query("SELECT p.id FROM Payment p WHERE p.cancelled = false AND p.money.amount >= :minAmount")
+    List<Long> getNotCancelledPaymentIdsFrom(@Param("minAmount") BigDecimal minAmount);
+
+    @Query("SELECT p.id FROM Payment p WHERE p.cancelled = false AND p.money.amount <= :maxAmount")
+    List<Long> getNotCancelledPaymentIdsUpTo(@Param("maxAmount") BigDecimal maxAmount);
+
+    @Query("SELECT p.id FROM Payment p WHERE p.cancelled = false AND p.money.amount BETWEEN :minAmount AND :maxAmount")
+    List<Long> getNotCancelledPaymentIdsBetween(@Param("minAmount") BigDecimal minAmount, @Param("maxAmount") BigDecimal maxAmount);
 
     @Query("SELECT new lt.rimkus.paymentService.DTOs.PaymentCancellationInfoDTO(p.id, p.cancellationFee) FROM Payment p WHERE p.id = :id")
     PaymentCancellationInfoDTO getPaymentCancellationDetails(@Param("id") Long id);
 
+    /**
+     * Keyset page: seeks past the last id of the previous page using the primary key index instead of an OFFSET scan
+     */
+    List<Payment> findByIdGreaterThanOrderByIdAsc(Long afterId, Limit limit);
+
+    /**
+     * Reads all payments through a JDBC cursor, must be consumed inside a transaction and closed afterwards
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT p FROM Payment p ORDER BY p.id")
+    Stream<Payment> streamAllOrderedById();
+
+    @Query("SELECT new lt.rimkus.paymentService.DTOs.PaymentCancellationStateDTO(p.id, p.type, p.createdDate, p.cancelled) " +
+            "FROM Payment p WHERE p.id IN :ids")
+    List<PaymentCancellationStateDTO> getCancellationStates(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Cancels same day payments of one type in a single statement. The fee is the number of full hours since
+     * creation multiplied by the coefficient of the type from PaymentCancellationService.getCancellationCoefficient.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE Payment p SET p.cancelled = true, p.cancellationTime = :cancellationTime, " +
+            "p.cancellationFee.amount = CAST(:coefficient AS BigDecimal) * FLOOR(((:cancellationTime - p.createdAt) BY SECOND) / 3600), " +
+            "p.cancellationFee.currency = 'EUR' " +
+            "WHERE p.id IN :ids AND p.type = :type AND p.cancelled = false AND p.createdDate = :cancellationDate")
+    int cancelSameDayPayments(@Param("ids") Collection<Long> ids, @Param("type") String type, @Param("coefficient") BigDecimal coefficient,
+                              @Param("cancellationTime") LocalDateTime cancellationTime, @Param("cancellationDate") LocalDate cancellationDate);
+
+    /**
+     * Cancels one payment only if it is still not cancelled and was created on the cancellation date. The check and the
+     * write happen in one statement, so of several concurrent calls for the same id exactly one gets 1 as the result.
+     */
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Payment p SET p.cancelled = true, p.cancellationTime = :cancellationTime, " +
+            "p.cancellationFee.amount = CAST(:coefficient AS BigDecimal) * FLOOR(((:cancellationTime - p.createdAt) BY SECOND) / 3600), " +
+            "p.cancellationFee.currency = 'EUR' " +
+            "WHERE p.id = :id AND p.cancelled = false AND p.createdDate = :cancellationDate")
+    int cancelSameDayPayment(@Param("id") Long id, @Param("coefficient") BigDecimal coefficient,
+                             @Param("cancellationTime") LocalDateTime cancellationTime, @Param("cancellationDate") LocalDate cancellationDate);
+
+    @Query("SELECT new lt.rimkus.paymentService.DTOs.PaymentCancellationInfoDTO(p.id, p.cancellationFee) FROM Payment p " +
+            "WHERE p.id IN :ids AND p.cancellationTime = :cancellationTime")
+    List<PaymentCancellationInfoDTO> getPaymentsCancelledAt(@Param("ids") Collection<Long> ids, @Param("cancellationTime") LocalDateTime cancellationTime);
+
 }
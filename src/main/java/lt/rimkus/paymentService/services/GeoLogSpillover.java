@@ -0,0 +1,149 @@
+package lt.rimkus.paymentService.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lt.rimkus.paymentService.utilities.SpillFile;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
+import java.util.function.IntSupplier;
+
+/**
+ * Keeps the country log lookups that geoLocationExecutor rejects in a {@link SpillFile} instead of dropping them, and
+ * replays them once the executor has spare capacity again. The file survives restarts, so lookups spilled before a
+ * shutdown are replayed after the next start. Lookups are only dropped when the file itself is full.
+ * Off unless app.geo.spill.enabled=true, since the file is locked while open and every instance needs a path of its own.
+ */
+@Service
+@ConditionalOnProperty(name = "app.geo.spill.enabled", havingValue = "true")
+public class GeoLogSpillover {
+
+    private static final Logger logger = LoggerFactory.getLogger(GeoLogSpillover.class);
+
+    private final SpillFile spillFile;
+    private final Duration drainInterval;
+    private final int drainBatchSize;
+    private final Counter spilledLookups;
+    private final Counter droppedLookups;
+    private final Counter drainedLookups;
+    // Set by every spill, the drain loop forces the file to disk when it is set
+    private final AtomicBoolean unforced = new AtomicBoolean();
+    private final ScheduledExecutorService drainScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "GeoLocation-spill-drain");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public GeoLogSpillover(@Value("${app.geo.spill.file:data/geo-spill.dat}") Path file,
+                           @Value("${app.geo.spill.max-size:16MB}") DataSize maxSize,
+                           @Value("${app.geo.spill.drain-interval:PT1S}") Duration drainInterval,
+                           @Value("${app.geo.spill.drain-batch-size:50}") int drainBatchSize,
+                           MeterRegistry meterRegistry) throws IOException {
+        this.spillFile = SpillFile.open(file, Math.toIntExact(maxSize.toBytes()));
+        this.drainInterval = drainInterval;
+        this.drainBatchSize = drainBatchSize;
+        this.spilledLookups = Counter.builder("geolocation.spill.spilled")
+                .description("Rejected geolocation log lookups written to the spill file")
+                .register(meterRegistry);
+        this.droppedLookups = Counter.builder("geolocation.spill.dropped")
+                .description("Rejected geolocation log lookups lost because the spill file was full")
+                .register(meterRegistry);
+        this.drainedLookups = Counter.builder("geolocation.spill.drained")
+                .description("Spilled geolocation log lookups replayed on the executor, its rate is the drain rate")
+                .register(meterRegistry);
+        Gauge.builder("geolocation.spill.backlog", spillFile, SpillFile::size)
+                .description("Spilled geolocation log lookups waiting to be replayed")
+                .register(meterRegistry);
+        if (spillFile.size() > 0) {
+            logger.info("{} spilled geolocation lookups left from the previous run in {}", spillFile.size(), file);
+        }
+    }
+
+    /**
+     * Starts replaying spilled lookups every drain interval, at most drain-batch-size and spareCapacity at a time
+     */
+    public void startDraining(IntSupplier spareCapacity, BiConsumer<String, String> replay) {
+        drainScheduler.scheduleWithFixedDelay(() -> {
+            try {
+                drain(Math.min(spareCapacity.getAsInt(), drainBatchSize), replay);
+            } catch (RuntimeException e) {
+                logger.error("Could not drain spilled geolocation lookups", e);
+            }
+        }, drainInterval.toMillis(), drainInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() throws IOException {
+        drainScheduler.shutdownNow();
+        spillFile.close();
+    }
+
+    public void spill(String ipAddress, String additionalContext) {
+        if (spillFile.append(encode(ipAddress, additionalContext))) {
+            spilledLookups.increment();
+            unforced.set(true);
+        } else {
+            droppedLookups.increment();
+            logger.warn("Geolocation lookup for IP {} dropped, the spill file is full", ipAddress);
+        }
+    }
+
+    /**
+     * @return the number of lookups replayed
+     */
+    int drain(int maxLookups, BiConsumer<String, String> replay) {
+        int replayed = 0;
+        byte[] record;
+        while (replayed < maxLookups && (record = spillFile.poll()) != null) {
+            try (DataInputStream input = new DataInputStream(new ByteArrayInputStream(record))) {
+                String ipAddress = input.readUTF();
+                String additionalContext = input.readUTF();
+                replay.accept(ipAddress, additionalContext);
+                replayed++;
+            } catch (IOException e) {
+                // Only a record garbled by a crash during compaction
+                logger.warn("Skipped an unreadable spilled geolocation lookup");
+            }
+        }
+        drainedLookups.increment(replayed);
+        if (unforced.getAndSet(false)) {
+            spillFile.force();
+        }
+        return replayed;
+    }
+
+    int getBacklog() {
+        return spillFile.size();
+    }
+
+    private static byte[] encode(String ipAddress, String additionalContext) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        try (DataOutputStream output = new DataOutputStream(bytes)) {
+            output.writeUTF(ipAddress);
+            output.writeUTF(Objects.toString(additionalContext, ""));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+}
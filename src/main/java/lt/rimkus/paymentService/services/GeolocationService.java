@@ -2,52 +2,285 @@ package lt.rimkus.paymentService.services;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lt.rimkus.paymentService.utilities.CidrMatcher;
+import lt.rimkus.paymentService.utilities.IpRangeTable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.client.RestClientException;
 
 import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
 
 @Service
 public class GeolocationService {
 
     private static final Logger logger = LoggerFactory.getLogger(GeolocationService.class);
 
+    private static final String UNKNOWN = "Unknown";
+
     private final RestTemplate restTemplate;
     private final String geoServiceUrl;
+    private final String geoServiceBatchUrl;
+    private final Executor geoLocationExecutor;
+    private final CidrMatcher privateIpRanges;
+    // Most traffic comes from a few gateway IPs, so cached countries spare almost every outbound call.
+    // An entry is added as soon as its lookup starts, so concurrent callers for one IP share that lookup.
+    private final AsyncCache<String, String> countryCache;
+    // Present when app.geo.provider=offline
+    private final IpRangeTable offlineDatabase;
+    // Present when app.geo.spill.enabled=true
+    private final GeoLogSpillover spillover;
+
+    // Cache misses are gathered for up to batchLinger or batchMaxSize IPs and resolved with one call
+    private final int batchMaxSize;
+    private final Duration batchLinger;
+    private final DistributionSummary batchFillRatio;
+    // Null when batching is off (max size 1)
+    private final ScheduledExecutorService batchScheduler;
+    // Not a monitor, a virtual thread blocked on a monitor pins its carrier thread before Java 24
+    private final ReentrantLock batchLock = new ReentrantLock();
+    private Map<String, CompletableFuture<String>> pendingBatch = new HashMap<>();
+    private ScheduledFuture<?> lingerTimeout;
 
-    public GeolocationService(RestTemplateBuilder restTemplateBuilder, @Value("${app.geo.service.url:https://get.geojs.io/v1/ip/geo/}") String geoServiceUrl) {
+    public GeolocationService(RestTemplateBuilder restTemplateBuilder,
+                              @Value("${app.geo.service.url:https://get.geojs.io/v1/ip/geo/}") String geoServiceUrl,
+                              @Value("${app.geo.service.batch-url:https://get.geojs.io/v1/ip/geo.json}") String geoServiceBatchUrl,
+                              @Qualifier("geoLocationExecutor") Executor geoLocationExecutor,
+                              @Qualifier("privateIpRanges") CidrMatcher privateIpRanges,
+                              Optional<IpRangeTable> offlineDatabase,
+                              Optional<GeoLogSpillover> spillover,
+                              MeterRegistry meterRegistry,
+                              @Value("${app.geo.cache.max-size:10000}") long cacheMaxSize,
+                              @Value("${app.geo.cache.ttl:PT6H}") Duration cacheTtl,
+                              @Value("${app.geo.cache.negative-ttl:PT1M}") Duration negativeCacheTtl,
+                              @Value("${app.geo.batch.max-size:25}") int batchMaxSize,
+                              @Value("${app.geo.batch.linger:PT0.005S}") Duration batchLinger) {
         this.restTemplate = restTemplateBuilder
                 .connectTimeout(Duration.ofSeconds(3))
                 .readTimeout(Duration.ofSeconds(5))
                 .build();
         this.geoServiceUrl = geoServiceUrl;
+        this.geoServiceBatchUrl = geoServiceBatchUrl;
+        this.geoLocationExecutor = geoLocationExecutor;
+        this.privateIpRanges = privateIpRanges;
+        this.offlineDatabase = offlineDatabase.orElse(null);
+        this.spillover = spillover.orElse(null);
+        this.countryCache = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfter(new CountryExpiry(cacheTtl, negativeCacheTtl))
+                .recordStats()
+                // Evict on the calling thread, the cache is small and this keeps the statistics current
+                .executor(Runnable::run)
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, countryCache, "geolocation.country");
+
+        this.batchMaxSize = batchMaxSize;
+        this.batchLinger = batchLinger;
+        this.batchFillRatio = DistributionSummary.builder("geolocation.batch.fill.ratio")
+                .description("Size of each geolocation batch relative to the maximum batch size")
+                .register(meterRegistry);
+        this.batchScheduler = batchMaxSize > 1 ? Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "GeoLocation-batch");
+            thread.setDaemon(true);
+            return thread;
+        }) : null;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (spillover != null) {
+            spillover.startDraining(this::spareCapacity, this::logCountryAsync);
+        }
     }
 
-    @Async("geoLocationExecutor")
+    @PreDestroy
+    public void stop() {
+        if (batchScheduler != null) {
+            // Lets the pending linger timeout flush the last batch
+            batchScheduler.shutdown();
+        }
+    }
+
+    /**
+     * Resolves the country on geoLocationExecutor. Only the first caller for an IP queues a lookup, concurrent callers
+     * for the same IP get the same future, and later ones the cached result.
+     * The future fails with RejectedExecutionException when the executor is saturated.
+     */
     public CompletableFuture<String> resolveCountryByIpAsync(String ipAddress) {
-        String country = resolveCountryByIp(ipAddress);
-        return CompletableFuture.completedFuture(country);
+        try {
+            return resolveOrLookUpCountry(ipAddress);
+        } catch (RejectedExecutionException e) {
+            logger.warn("Geolocation lookup for IP {} rejected, the executor is saturated", ipAddress);
+            return CompletableFuture.completedFuture(UNKNOWN);
+        }
     }
 
     public String resolveCountryByIp(String ipAddress) {
+        try {
+            return resolveCountryByIpAsync(ipAddress).join();
+        } catch (CompletionException e) {
+            logger.warn("Could not resolve country for IP {}: {}", ipAddress, e.getCause().getMessage());
+            return UNKNOWN;
+        }
+    }
+
+    /**
+     * Hit, miss and eviction counts of the country cache, also published as the geolocation.country cache meters
+     */
+    public CacheStats getCacheStats() {
+        return countryCache.synchronous().stats();
+    }
+
+    /**
+     * @throws RejectedExecutionException when a lookup is needed and the executor is saturated
+     */
+    private CompletableFuture<String> resolveOrLookUpCountry(String ipAddress) {
+        String country = resolveWithoutLookup(ipAddress);
+        if (country != null) {
+            return CompletableFuture.completedFuture(country);
+        }
+        return countryCache.get(ipAddress, (ip, cacheExecutor) -> lookUpCountryAsync(ip));
+    }
+
+    /**
+     * @return the country when it is known without a remote call, otherwise null
+     */
+    private String resolveWithoutLookup(String ipAddress) {
         if (ipAddress == null || ipAddress.trim().isEmpty()) {
             logger.warn("IP address is null or empty");
-            return "Unknown";
+            return UNKNOWN;
         }
 
         // Handle localhost and private IPs
-        if (isLocalOrPrivateIp(ipAddress)) {
+        if (privateIpRanges.matches(ipAddress)) {
             logger.debug("Local or private IP detected: {}", ipAddress);
             return "Local";
         }
 
+        // Addresses the local dataset does not cover fall back to the remote service
+        return offlineDatabase != null ? offlineDatabase.lookup(ipAddress) : null;
+    }
+
+    private CompletableFuture<String> lookUpCountryAsync(String ipAddress) {
+        if (batchScheduler == null) {
+            return CompletableFuture.supplyAsync(() -> lookUpCountry(ipAddress), geoLocationExecutor);
+        }
+        CompletableFuture<String> country = new CompletableFuture<>();
+        batchLock.lock();
+        try {
+            pendingBatch.put(ipAddress, country);
+            if (pendingBatch.size() >= batchMaxSize) {
+                Map<String, CompletableFuture<String>> batch = takePendingBatch();
+                // This runs inside the cache's computation for the IP, so the batch is handed off instead of completed here
+                batchScheduler.execute(() -> dispatch(batch));
+            } else if (pendingBatch.size() == 1) {
+                lingerTimeout = batchScheduler.schedule(this::flushPendingBatch, batchLinger.toNanos(), TimeUnit.NANOSECONDS);
+            }
+        } finally {
+            batchLock.unlock();
+        }
+        return country;
+    }
+
+    // Callers hold batchLock
+    private Map<String, CompletableFuture<String>> takePendingBatch() {
+        Map<String, CompletableFuture<String>> batch = pendingBatch;
+        pendingBatch = new HashMap<>();
+        if (lingerTimeout != null) {
+            lingerTimeout.cancel(false);
+            lingerTimeout = null;
+        }
+        return batch;
+    }
+
+    private void flushPendingBatch() {
+        Map<String, CompletableFuture<String>> batch;
+        batchLock.lock();
+        try {
+            batch = takePendingBatch();
+        } finally {
+            batchLock.unlock();
+        }
+        if (!batch.isEmpty()) {
+            dispatch(batch);
+        }
+    }
+
+    private void dispatch(Map<String, CompletableFuture<String>> batch) {
+        batchFillRatio.record((double) batch.size() / batchMaxSize);
+        try {
+            geoLocationExecutor.execute(() -> resolveBatch(batch));
+        } catch (RejectedExecutionException e) {
+            logger.warn("Geolocation batch of {} IPs rejected, the executor is saturated", batch.size());
+            batch.values().forEach(country -> country.completeExceptionally(e));
+        }
+    }
+
+    private void resolveBatch(Map<String, CompletableFuture<String>> batch) {
+        try {
+            // A lone IP after the linger time goes to the single IP endpoint
+            Map<String, String> countries = batch.size() == 1
+                    ? Map.of(batch.keySet().iterator().next(), lookUpCountry(batch.keySet().iterator().next()))
+                    : lookUpCountries(batch.keySet());
+            batch.forEach((ip, country) -> country.complete(countries.getOrDefault(ip, UNKNOWN)));
+        } catch (RuntimeException e) {
+            // Every caller of the batch waits on its future
+            batch.values().forEach(country -> country.completeExceptionally(e));
+        }
+    }
+
+    private Map<String, String> lookUpCountries(Set<String> ipAddresses) {
+        try {
+            String url = geoServiceBatchUrl + "?ip=" + String.join(",", ipAddresses);
+            logger.debug("Calling geolocation service: {}", url);
+
+            GeoResponse[] responses = restTemplate.getForObject(url, GeoResponse[].class);
+            if (responses == null) {
+                logger.warn("No country data returned for IPs: {}", ipAddresses);
+                return Map.of();
+            }
+            Map<String, String> countries = Arrays.stream(responses)
+                    .filter(response -> response.getIp() != null && response.getCountry() != null)
+                    .collect(Collectors.toMap(GeoResponse::getIp, GeoResponse::getCountry, (first, second) -> first));
+            logger.info("Resolved countries for {} of {} IPs in one call", countries.size(), ipAddresses.size());
+            return countries;
+
+        } catch (RestClientException e) {
+            logger.error("Error resolving countries for IPs {}: {}", ipAddresses, e.getMessage());
+            return Map.of();
+        }
+    }
+
+    private String lookUpCountry(String ipAddress) {
         try {
             String url = geoServiceUrl + ipAddress + ".json";
             logger.debug("Calling geolocation service: {}", url);
@@ -60,39 +293,78 @@ public class GeolocationService {
                 return country;
             } else {
                 logger.warn("No country data returned for IP: {}", ipAddress);
-                return "Unknown";
+                return UNKNOWN;
             }
 
         } catch (RestClientException e) {
             logger.error("Error resolving country for IP {}: {}", ipAddress, e.getMessage());
-            return "Unknown";
+            return UNKNOWN;
         }
     }
 
-    @Async("geoLocationExecutor")
+    /**
+     * Not @Async itself, so a burst from one IP queues a single lookup task instead of one task per request.
+     * A lookup the saturated executor rejects is spilled to disk and logged once the spillover replays it.
+     */
     public void logCountryAsync(String ipAddress, String additionalContext) {
-        String country = resolveCountryByIp(ipAddress);
-        logger.info("[ASYNC] Country resolved for IP {}: {} | Context: client action {}",
-                ipAddress, country, additionalContext);
-    }
-
-    private boolean isLocalOrPrivateIp(String ip) {
-        return ip.equals("127.0.0.1") ||
-                ip.equals("::1") ||
-                ip.equals("0:0:0:0:0:0:0:1") ||
-                ip.startsWith("192.168.") ||
-                ip.startsWith("10.") ||
-                ip.startsWith("172.16.") ||
-                ip.startsWith("172.17.") ||
-                ip.startsWith("172.18.") ||
-                ip.startsWith("172.19.") ||
-                ip.startsWith("172.2") ||
-                ip.startsWith("172.30.") ||
-                ip.startsWith("172.31.");
+        CompletableFuture<String> country;
+        try {
+            country = resolveOrLookUpCountry(ipAddress);
+        } catch (RejectedExecutionException e) {
+            country = CompletableFuture.failedFuture(e);
+        }
+        country.whenComplete((resolved, e) -> {
+            if (spillover != null && isRejection(e)) {
+                spillover.spill(ipAddress, additionalContext);
+            } else {
+                logger.info("[ASYNC] Country resolved for IP {}: {} | Context: client action {}",
+                        ipAddress, e == null ? resolved : UNKNOWN, additionalContext);
+            }
+        });
+    }
+
+    private static boolean isRejection(Throwable e) {
+        return (e instanceof CompletionException ? e.getCause() : e) instanceof RejectedExecutionException;
+    }
+
+    /**
+     * Lookups the spillover may replay now, half of the free queue so replays never fill the queue live traffic needs
+     */
+    private int spareCapacity() {
+        if (geoLocationExecutor instanceof ThreadPoolTaskExecutor pool) {
+            return (pool.getQueueCapacity() - pool.getQueueSize()) / 2;
+        }
+        // No queue to measure, replays over the virtual thread limit are rejected and spilled again
+        return Integer.MAX_VALUE;
+    }
+
+    /**
+     * Keeps resolved countries for the full TTL and "Unknown" results, failed lookups included, only for the short
+     * negative TTL, so an IP the service could not resolve is retried soon without being looked up on every request
+     */
+    private record CountryExpiry(Duration ttl, Duration negativeTtl) implements Expiry<String, String> {
+
+        @Override
+        public long expireAfterCreate(String ipAddress, String country, long currentTime) {
+            return (UNKNOWN.equals(country) ? negativeTtl : ttl).toNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(String ipAddress, String country, long currentTime, long currentDuration) {
+            return expireAfterCreate(ipAddress, country, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String ipAddress, String country, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
     }
 
     @JsonIgnoreProperties(ignoreUnknown = true)
     public static class GeoResponse {
+        @JsonProperty("ip")
+        private String ip;
+
         @JsonProperty("country")
         private String country;
 
@@ -102,6 +374,14 @@ public class GeolocationService {
         @JsonProperty("city")
         private String city;
 
+        public String getIp() {
+            return ip;
+        }
+
+        public void setIp(String ip) {
+            this.ip = ip;
+        }
+
         public String getCountry() {
             return country;
         }
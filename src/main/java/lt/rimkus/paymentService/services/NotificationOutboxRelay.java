@@ -0,0 +1,302 @@
+package lt.rimkus.paymentService.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lt.rimkus.paymentService.enums.OutboxStatus;
+import lt.rimkus.paymentService.exceptions.RequestValidationException;
+import lt.rimkus.paymentService.models.NotificationOutboxEntry;
+import lt.rimkus.paymentService.repositories.NotificationOutboxRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static lt.rimkus.paymentService.messages.OtherMessages.FAILED_TO_SEND_OUT_NOTIFICATION;
+import static lt.rimkus.paymentService.messages.OtherMessages.FAILURE;
+import static lt.rimkus.paymentService.messages.OtherMessages.SUCCESS;
+
+/**
+ * Delivers the payment created notifications stored in the outbox. Each relay thread claims a batch of due entries,
+ * sends one notification per payment type of the batch (the types are notified concurrently) and then, in one
+ * transaction, marks the entries as delivered. The notification status of their payments is handed to
+ * NotificationStatusWriter after that commit, which writes the statuses of all relay threads in batches; the outbox
+ * stays the record of delivery when a status write is lost.
+ * Failed entries are retried with an exponential, jittered delay until max attempts, after which the entry is dead
+ * lettered as FAILED and the payment status is Failure. Entries never attempted are claimed first and retries only fill
+ * what is left of a batch, up to retry-batch-size, so a retry backlog cannot slow down new notifications.
+ * An idle relay does not query the outbox. It polls when woken up after new entries are committed, when the earliest
+ * pending entry it saw in its last pass is due, and otherwise once per idle-poll-interval-ms for entries it was not
+ * told about, like those of another instance.
+ */
+@Component
+public class NotificationOutboxRelay {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationOutboxRelay.class);
+
+    @Autowired
+    private NotificationOutboxRepository notificationOutboxRepository;
+    @Autowired
+    private NotificationStatusWriter notificationStatusWriter;
+    @Autowired
+    private NotificationProcessor notificationProcessor;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.notifications.outbox.relay-threads:2}")
+    private int relayThreads;
+    @Value("${app.notifications.outbox.batch-size:50}")
+    private int batchSize;
+    @Value("${app.notifications.outbox.poll-interval-ms:200}")
+    private long pollIntervalMs;
+    @Value("${app.notifications.outbox.dispatch-timeout-ms:10000}")
+    private long dispatchTimeoutMs;
+    @Value("${app.notifications.outbox.lease-ms:30000}")
+    private long leaseMs;
+    @Value("${app.notifications.outbox.max-attempts:5}")
+    private int maxAttempts;
+    @Value("${app.notifications.outbox.retry-backoff-ms:1000}")
+    private long retryBackoffMs;
+    @Value("${app.notifications.outbox.retry-max-backoff-ms:300000}")
+    private long retryMaxBackoffMs;
+    @Value("${app.notifications.outbox.retry-batch-size:10}")
+    private int retryBatchSize;
+    @Value("${app.notifications.outbox.idle-poll-interval-ms:30000}")
+    private long idlePollIntervalMs;
+
+    private ScheduledExecutorService scheduler;
+    private Timer relayTimer;
+    private Counter deliveredEntries;
+    private Counter failedEntries;
+    private Counter retriedEntries;
+    // Set, the first poll runs a pass and fills in the backlog
+    private final AtomicBoolean wakeUpRequested = new AtomicBoolean(true);
+    // As of the last pass, so scraping the metric does not query the outbox
+    private final AtomicLong pendingEntries = new AtomicLong();
+    private final AtomicReference<LocalDateTime> earliestPendingAttemptAt = new AtomicReference<>();
+    private volatile long lastPassNanos;
+
+    @PostConstruct
+    public void start() {
+        Gauge.builder("payments.notification.outbox.pending", pendingEntries, AtomicLong::get)
+                .description("Outbox entries not delivered yet, as of the last relay pass")
+                .register(meterRegistry);
+        relayTimer = Timer.builder("payments.notification.outbox.relay")
+                .description("Time to deliver and complete one claimed batch")
+                .register(meterRegistry);
+        deliveredEntries = Counter.builder("payments.notification.outbox.delivered").register(meterRegistry);
+        failedEntries = Counter.builder("payments.notification.outbox.failed").register(meterRegistry);
+        retriedEntries = Counter.builder("payments.notification.outbox.retried").register(meterRegistry);
+
+        lastPassNanos = System.nanoTime();
+        AtomicInteger threadNumber = new AtomicInteger();
+        scheduler = Executors.newScheduledThreadPool(relayThreads, runnable -> {
+            Thread thread = new Thread(runnable, "NotificationOutboxRelay-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int i = 0; i < relayThreads; i++) {
+            scheduler.scheduleWithFixedDelay(this::relayDueEntries, pollIntervalMs, pollIntervalMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        scheduler.shutdown();
+        scheduler.awaitTermination(dispatchTimeoutMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Makes the relay look for due entries at its next poll. Inside a transaction it takes effect after the commit,
+     * so the relay does not look before the new entries are visible to it.
+     */
+    public void wakeUp() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    wakeUpRequested.set(true);
+                }
+            });
+        } else {
+            wakeUpRequested.set(true);
+        }
+    }
+
+    void relayDueEntries() {
+        try {
+            if (!isWorkDue()) {
+                return;
+            }
+            lastPassNanos = System.nanoTime();
+            // Keep going while full batches are claimed, there are probably more new entries due. Batches short of
+            // new entries hold at most retry-batch-size retries, so retries are throttled to those per poll
+            int claimed;
+            do {
+                claimed = relayBatch();
+            } while (claimed == batchSize);
+            refreshBacklog();
+        } catch (RuntimeException e) {
+            // An exception would cancel the scheduled task, entries of a failed batch are claimed again after their lease
+            logger.error("Outbox relay failed - {}", e.getMessage());
+        }
+    }
+
+    private boolean isWorkDue() {
+        if (wakeUpRequested.getAndSet(false)) {
+            return true;
+        }
+        LocalDateTime earliestAttemptAt = earliestPendingAttemptAt.get();
+        if (earliestAttemptAt != null && !earliestAttemptAt.isAfter(LocalDateTime.now())) {
+            return true;
+        }
+        return System.nanoTime() - lastPassNanos >= TimeUnit.MILLISECONDS.toNanos(idlePollIntervalMs);
+    }
+
+    // A retry another relay thread schedules while this one reads can be missed, the idle poll picks it up then
+    private void refreshBacklog() {
+        pendingEntries.set(notificationOutboxRepository.countByStatus(OutboxStatus.PENDING));
+        earliestPendingAttemptAt.set(notificationOutboxRepository.findEarliestPendingAttemptAt());
+    }
+
+    /**
+     * Claims, delivers and completes one batch of due entries
+     *
+     * @return the number of claimed entries
+     */
+    protected int relayBatch() {
+        List<NotificationOutboxEntry> claimed = transactionTemplate.execute(status -> claimDueEntries());
+        if (claimed == null || claimed.isEmpty()) {
+            return 0;
+        }
+        relayTimer.record(() -> {
+            Map<String, String> resultsByType = dispatch(claimed);
+            Map<Long, String> statusesByPaymentId = transactionTemplate.execute(status -> complete(claimed, resultsByType));
+            if (statusesByPaymentId != null) {
+                statusesByPaymentId.forEach(notificationStatusWriter::enqueue);
+            }
+        });
+        return claimed.size();
+    }
+
+    private List<NotificationOutboxEntry> claimDueEntries() {
+        LocalDateTime now = LocalDateTime.now();
+        List<NotificationOutboxEntry> due = new ArrayList<>(notificationOutboxRepository.findNewDueForUpdateSkipLocked(now, batchSize));
+        int retryLimit = Math.min(batchSize - due.size(), retryBatchSize);
+        if (retryLimit > 0) {
+            due.addAll(notificationOutboxRepository.findRetriesDueForUpdateSkipLocked(now, retryLimit));
+        }
+        if (!due.isEmpty()) {
+            notificationOutboxRepository.extendLease(due.stream().map(NotificationOutboxEntry::getId).toList(),
+                    now.plusNanos(TimeUnit.MILLISECONDS.toNanos(leaseMs)));
+            // Detached by the lease update, so this only keeps the in memory copies in line with the database
+            due.forEach(entry -> entry.setAttempts(entry.getAttempts() + 1));
+        }
+        return due;
+    }
+
+    /**
+     * Sends one notification per payment type and waits for all of them
+     *
+     * @return notification result per payment type, null for types that cannot be notified
+     */
+    private Map<String, String> dispatch(List<NotificationOutboxEntry> claimed) {
+        Map<String, CompletableFuture<String>> notifications = new LinkedHashMap<>();
+        for (NotificationOutboxEntry entry : claimed) {
+            notifications.computeIfAbsent(entry.getPaymentType(), this::notifyService);
+        }
+        CompletableFuture.allOf(notifications.values().toArray(CompletableFuture[]::new)).join();
+
+        Map<String, String> resultsByType = new LinkedHashMap<>();
+        notifications.forEach((paymentType, notification) -> resultsByType.put(paymentType, notification.join()));
+        return resultsByType;
+    }
+
+    private CompletableFuture<String> notifyService(String paymentType) {
+        try {
+            return notificationProcessor.notifyServiceAboutCreatedPayments(paymentType)
+                    // Bounds the wait for a notification stuck behind a slow endpoint, the timeout turns it into a retry
+                    .orTimeout(dispatchTimeoutMs, TimeUnit.MILLISECONDS)
+                    .exceptionally(e -> FAILURE);
+        } catch (RequestValidationException rve) {
+            logger.warn(FAILED_TO_SEND_OUT_NOTIFICATION + "{}", paymentType);
+            return CompletableFuture.completedFuture(null);
+        }
+    }
+
+    /**
+     * Marks the entries by the notification results of their types
+     *
+     * @return the notification status to write per payment
+     */
+    private Map<Long, String> complete(List<NotificationOutboxEntry> claimed, Map<String, String> resultsByType) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> delivered = new ArrayList<>();
+        List<Long> failed = new ArrayList<>();
+        Map<Integer, List<Long>> retriesByAttempt = new LinkedHashMap<>();
+        Map<Long, String> statusesByPaymentId = new LinkedHashMap<>();
+        for (NotificationOutboxEntry entry : claimed) {
+            String result = resultsByType.get(entry.getPaymentType());
+            if (SUCCESS.equals(result)) {
+                delivered.add(entry.getId());
+                statusesByPaymentId.put(entry.getPaymentId(), SUCCESS);
+            } else if (result == null) {
+                // Type without a notification channel, only in entries written before those were left out of the outbox.
+                // Retrying will not help and the payment keeps no notification status
+                failed.add(entry.getId());
+            } else if (entry.getAttempts() >= maxAttempts) {
+                failed.add(entry.getId());
+                statusesByPaymentId.put(entry.getPaymentId(), FAILURE);
+            } else {
+                retriesByAttempt.computeIfAbsent(entry.getAttempts(), attempts -> new ArrayList<>()).add(entry.getId());
+            }
+        }
+
+        if (!delivered.isEmpty()) {
+            notificationOutboxRepository.markDelivered(delivered, now);
+        }
+        if (!failed.isEmpty()) {
+            notificationOutboxRepository.markFailed(failed);
+        }
+        retriesByAttempt.forEach((attempts, ids) -> notificationOutboxRepository.scheduleRetry(ids,
+                now.plusNanos(TimeUnit.MILLISECONDS.toNanos(retryDelayMs(attempts)))));
+
+        deliveredEntries.increment(delivered.size());
+        failedEntries.increment(failed.size());
+        retriedEntries.increment(retriesByAttempt.values().stream().mapToInt(List::size).sum());
+        return statusesByPaymentId;
+    }
+
+    /**
+     * Doubles the delay with every attempt up to retry-max-backoff-ms. Half of the delay is random, so entries that
+     * failed together in different batches, for example during an outage, do not all come back at the same moment.
+     */
+    long retryDelayMs(int attempts) {
+        long backoff = Math.min(retryBackoffMs << Math.min(attempts - 1, 30), retryMaxBackoffMs);
+        return backoff / 2 + ThreadLocalRandom.current().nextLong(backoff / 2 + 1);
+    }
+}
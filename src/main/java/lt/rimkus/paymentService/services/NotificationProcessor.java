@@ -1,7 +1,6 @@
 package lt.rimkus.paymentService.services;
 
 import lt.rimkus.paymentService.exceptions.RequestValidationException;
-import lt.rimkus.paymentService.models.Payment;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -18,13 +17,23 @@ public class NotificationProcessor {
     @Autowired
     NotificationServiceTwo notificationServiceTwo;
 
-    public CompletableFuture<String> notifyServiceAboutCreatedPayment(Payment payment) throws RequestValidationException {
-        if (TYPE1.getCode().equals(payment.getType())) {
+    /**
+     * Payment types without a channel are not notified, the outbox gets no entries for them
+     */
+    public static boolean hasNotificationChannel(String paymentType) {
+        return TYPE1.getCode().equals(paymentType) || TYPE2.getCode().equals(paymentType);
+    }
+
+    /**
+     * Sends one notification for any number of created payments of the given type
+     */
+    public CompletableFuture<String> notifyServiceAboutCreatedPayments(String paymentType) throws RequestValidationException {
+        if (TYPE1.getCode().equals(paymentType)) {
             return notificationServiceOne.notifyServiceAsync("osvaldasrimkus");
-        } else if (TYPE2.getCode().equals(payment.getType())) {
+        } else if (TYPE2.getCode().equals(paymentType)) {
             return notificationServiceTwo.notifyServiceAsync("osvaldasrimkus");
         } else {
-            throw new RequestValidationException(UNSUPPORTED_TYPE + payment.getType());
+            throw new RequestValidationException(UNSUPPORTED_TYPE + paymentType);
         }
     }
 }
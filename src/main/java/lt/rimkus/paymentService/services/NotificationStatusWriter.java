@@ -0,0 +1,128 @@
+package lt.rimkus.paymentService.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lt.rimkus.paymentService.repositories.PaymentRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Collects the notification results of delivered and dead lettered outbox entries and writes them to the database in
+ * batches. A flush runs every flush interval, or as soon as a full batch is pending, and sends one UPDATE for up to
+ * batch size payments, so the statuses of all relay threads share statements instead of one UPDATE per relay batch.
+ */
+@Component
+public class NotificationStatusWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationStatusWriter.class);
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.notifications.status-writer.batch-size:200}")
+    private int batchSize;
+    @Value("${app.notifications.status-writer.flush-interval-ms:20}")
+    private long flushIntervalMs;
+
+    private final Queue<PendingStatus> pendingStatuses = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queueDepth = new AtomicInteger();
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private ScheduledExecutorService scheduler;
+    private Timer flushTimer;
+    private Counter failedWrites;
+
+    @PostConstruct
+    public void start() {
+        Gauge.builder("payments.notification.status.queue.depth", queueDepth, AtomicInteger::get)
+                .description("Notification statuses waiting to be written")
+                .register(meterRegistry);
+        flushTimer = Timer.builder("payments.notification.status.flush")
+                .description("Time to write one batch of notification statuses")
+                .register(meterRegistry);
+        failedWrites = Counter.builder("payments.notification.status.write.failures")
+                .description("Notification statuses dropped because their batch could not be written")
+                .register(meterRegistry);
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "NotificationStatusWriter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::flush, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        scheduler.shutdown();
+        scheduler.awaitTermination(5, TimeUnit.SECONDS);
+        flush();
+    }
+
+    public void enqueue(Long paymentId, String notificationStatus) {
+        pendingStatuses.add(new PendingStatus(paymentId, notificationStatus));
+        if (queueDepth.incrementAndGet() >= batchSize && flushRequested.compareAndSet(false, true)) {
+            scheduler.execute(() -> {
+                flushRequested.set(false);
+                flush();
+            });
+        }
+    }
+
+    protected void flush() {
+        flushLock.lock();
+        try {
+            Map<Long, String> batch = nextBatch();
+            while (!batch.isEmpty()) {
+                write(batch);
+                batch = nextBatch();
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private Map<Long, String> nextBatch() {
+        // Later statuses of the same payment replace earlier ones, so the batch keeps the latest result
+        Map<Long, String> batch = new LinkedHashMap<>();
+        PendingStatus pendingStatus;
+        while (batch.size() < batchSize && (pendingStatus = pendingStatuses.poll()) != null) {
+            queueDepth.decrementAndGet();
+            batch.put(pendingStatus.paymentId(), pendingStatus.notificationStatus());
+        }
+        return batch;
+    }
+
+    private void write(Map<Long, String> batch) {
+        try {
+            flushTimer.record(() -> paymentRepository.updateNotificationStatuses(batch));
+        } catch (DataAccessException e) {
+            failedWrites.increment(batch.size());
+            logger.error("Failed to write notification status of {} payments - {}", batch.size(), e.getMessage());
+        }
+    }
+
+    private record PendingStatus(Long paymentId, String notificationStatus) {
+    }
+}
@@ -0,0 +1,269 @@
+package lt.rimkus.paymentService.services;
+
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lt.rimkus.paymentService.DTOs.BatchCancellationResultDTO;
+import lt.rimkus.paymentService.DTOs.BatchPaymentResultDTO;
+import lt.rimkus.paymentService.DTOs.CancelPaymentsBatchResponseDTO;
+import lt.rimkus.paymentService.DTOs.CreatePaymentRequestDTO;
+import lt.rimkus.paymentService.DTOs.CreatePaymentsBatchResponseDTO;
+import lt.rimkus.paymentService.DTOs.PaymentCancellationInfoDTO;
+import lt.rimkus.paymentService.DTOs.PaymentCancellationStateDTO;
+import lt.rimkus.paymentService.adapters.PaymentTypeValidationAdapter;
+import lt.rimkus.paymentService.exceptions.RequestValidationException;
+import lt.rimkus.paymentService.factories.PaymentCreationFactory;
+import lt.rimkus.paymentService.models.NotificationOutboxEntry;
+import lt.rimkus.paymentService.models.Payment;
+import lt.rimkus.paymentService.repositories.NotificationOutboxRepository;
+import lt.rimkus.paymentService.repositories.PaymentRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.IntStream;
+
+import static lt.rimkus.paymentService.enums.CancellationOutcome.ALREADY_CANCELLED;
+import static lt.rimkus.paymentService.enums.CancellationOutcome.CANCELLED;
+import static lt.rimkus.paymentService.enums.CancellationOutcome.NOT_FOUND;
+import static lt.rimkus.paymentService.enums.CancellationOutcome.NOT_SAME_DAY;
+import static lt.rimkus.paymentService.messages.OtherMessages.FAILED_TO_SAVE_PAYMENT;
+import static lt.rimkus.paymentService.messages.OtherMessages.TOO_MANY_PAYMENTS_IN_PROGRESS;
+import static lt.rimkus.paymentService.messages.ValidationErrorMessages.BATCH_EMPTY;
+import static lt.rimkus.paymentService.messages.ValidationErrorMessages.BATCH_TOO_LARGE;
+import static lt.rimkus.paymentService.messages.ValidationErrorMessages.CREATION_REQUEST_NULL;
+import static lt.rimkus.paymentService.messages.ValidationErrorMessages.UNSUPPORTED_TYPE;
+
+/**
+ * Creates many payments per request: items are validated in parallel, valid payments are saved in chunks of one
+ * payment type with one transaction (and batched INSERTs) per chunk, together with their notification outbox entries.
+ * Each chunk is saved within the creation bulkhead of its type, so a batch cannot bypass the per-type limits of
+ * single creations; the items of a chunk rejected by a full bulkhead are reported as failed.
+ * Cancels many payments per request with one set-based UPDATE per payment type and chunk.
+ */
+@Service
+public class PaymentBatchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PaymentBatchService.class);
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+    @Autowired
+    private PaymentCreationFactory paymentCreationFactory;
+    @Autowired
+    private PaymentTypeValidationAdapter paymentTypeValidationAdapter;
+    @Autowired
+    private NotificationOutboxRepository notificationOutboxRepository;
+    @Autowired
+    private NotificationOutboxRelay notificationOutboxRelay;
+    @Autowired
+    private PaymentCancellationService paymentCancellationService;
+    @Autowired
+    private PaymentBulkheads paymentBulkheads;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${app.payments.batch.chunk-size:500}")
+    private int chunkSize;
+    @Value("${app.payments.batch.max-size:10000}")
+    private int maxBatchSize;
+
+    public CreatePaymentsBatchResponseDTO createPayments(List<CreatePaymentRequestDTO> requestDTOs) {
+        CreatePaymentsBatchResponseDTO responseDTO = new CreatePaymentsBatchResponseDTO();
+        if (requestDTOs == null || requestDTOs.isEmpty()) {
+            responseDTO.getValidationErrors().add(BATCH_EMPTY);
+            return responseDTO;
+        }
+        if (requestDTOs.size() > maxBatchSize) {
+            responseDTO.getValidationErrors().add(BATCH_TOO_LARGE + maxBatchSize);
+            return responseDTO;
+        }
+
+        BatchPaymentResultDTO[] results = new BatchPaymentResultDTO[requestDTOs.size()];
+        Payment[] payments = new Payment[requestDTOs.size()];
+        IntStream.range(0, requestDTOs.size()).parallel().forEach(index -> {
+            results[index] = new BatchPaymentResultDTO(index);
+            payments[index] = validateAndCreatePayment(requestDTOs.get(index), results[index]);
+        });
+
+        List<Payment> savedPayments = saveInChunks(payments, results);
+
+        responseDTO.setResults(Arrays.asList(results));
+        responseDTO.setCreatedCount(savedPayments.size());
+        responseDTO.setFailedCount(results.length - savedPayments.size());
+        return responseDTO;
+    }
+
+    public CancelPaymentsBatchResponseDTO cancelPayments(List<Long> paymentIds) {
+        CancelPaymentsBatchResponseDTO responseDTO = new CancelPaymentsBatchResponseDTO();
+        if (paymentIds == null || paymentIds.isEmpty()) {
+            responseDTO.getValidationErrors().add(BATCH_EMPTY);
+            return responseDTO;
+        }
+        if (paymentIds.size() > maxBatchSize) {
+            responseDTO.getValidationErrors().add(BATCH_TOO_LARGE + maxBatchSize);
+            return responseDTO;
+        }
+
+        LocalDate dateOfCancellationRequest = LocalDate.now();
+        // Truncated to the column precision, the value is used to find the rows cancelled by this request
+        LocalDateTime timeOfCancellationRequest = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        Map<Long, BatchCancellationResultDTO> results = new LinkedHashMap<>();
+        for (Long paymentId : paymentIds) {
+            results.putIfAbsent(paymentId, new BatchCancellationResultDTO(paymentId, NOT_FOUND));
+        }
+        List<Long> distinctIds = results.keySet().stream().filter(Objects::nonNull).toList();
+        for (int from = 0; from < distinctIds.size(); from += chunkSize) {
+            List<Long> chunk = distinctIds.subList(from, Math.min(from + chunkSize, distinctIds.size()));
+            transactionTemplate.executeWithoutResult(status ->
+                    cancelChunk(chunk, results, dateOfCancellationRequest, timeOfCancellationRequest));
+        }
+        responseDTO.setResults(new ArrayList<>(results.values()));
+        return responseDTO;
+    }
+
+    private void cancelChunk(List<Long> paymentIds, Map<Long, BatchCancellationResultDTO> results,
+                             LocalDate dateOfCancellationRequest, LocalDateTime timeOfCancellationRequest) {
+        Map<String, List<Long>> cancellableIdsByType = new LinkedHashMap<>();
+        for (PaymentCancellationStateDTO state : paymentRepository.getCancellationStates(paymentIds)) {
+            BatchCancellationResultDTO result = results.get(state.getId());
+            if (state.isCancelled()) {
+                result.setOutcome(ALREADY_CANCELLED);
+            } else if (!dateOfCancellationRequest.isEqual(state.getCreatedDate())) {
+                result.setOutcome(NOT_SAME_DAY);
+            } else {
+                cancellableIdsByType.computeIfAbsent(state.getType(), type -> new ArrayList<>()).add(state.getId());
+            }
+        }
+        if (cancellableIdsByType.isEmpty()) {
+            return;
+        }
+
+        List<Long> cancellableIds = new ArrayList<>();
+        cancellableIdsByType.forEach((paymentType, ids) -> {
+            paymentRepository.cancelSameDayPayments(ids, paymentType, getCancellationCoefficient(paymentType),
+                    timeOfCancellationRequest, dateOfCancellationRequest);
+            cancellableIds.addAll(ids);
+        });
+
+        // Rows cancelled by a concurrent request in the meantime are not stamped with this request's time
+        for (Long paymentId : cancellableIds) {
+            results.get(paymentId).setOutcome(ALREADY_CANCELLED);
+        }
+        for (PaymentCancellationInfoDTO cancelled : paymentRepository.getPaymentsCancelledAt(cancellableIds, timeOfCancellationRequest)) {
+            BatchCancellationResultDTO result = results.get(cancelled.getId());
+            result.setOutcome(CANCELLED);
+            result.setCancellationFee(cancelled.getCancellationFee());
+        }
+    }
+
+    private BigDecimal getCancellationCoefficient(String paymentType) {
+        try {
+            return paymentCancellationService.getCancellationCoefficient(paymentType);
+        } catch (RequestValidationException rve) {
+            // Only supported types can be saved, so this means the stored data is broken
+            throw new IllegalStateException(rve.getMessage(), rve);
+        }
+    }
+
+    private Payment validateAndCreatePayment(CreatePaymentRequestDTO requestDTO, BatchPaymentResultDTO result) {
+        if (requestDTO == null) {
+            result.getValidationErrors().add(CREATION_REQUEST_NULL);
+            return null;
+        }
+        if (paymentTypeValidationAdapter.isPaymentTypeNotValid(requestDTO.getType())) {
+            result.getValidationErrors().add(UNSUPPORTED_TYPE + requestDTO.getType());
+            return null;
+        }
+        return paymentCreationFactory.createNewPayment(requestDTO, result.getValidationErrors());
+    }
+
+    private List<Payment> saveInChunks(Payment[] payments, BatchPaymentResultDTO[] results) {
+        List<Payment> savedPayments = new ArrayList<>();
+        // One open chunk per payment type, each chunk is saved within the bulkhead of its type
+        Map<String, List<Payment>> chunks = new LinkedHashMap<>();
+        Map<String, List<BatchPaymentResultDTO>> chunkResults = new LinkedHashMap<>();
+        for (int index = 0; index < payments.length; index++) {
+            if (payments[index] == null) {
+                continue;
+            }
+            String paymentType = payments[index].getType();
+            List<Payment> chunk = chunks.computeIfAbsent(paymentType, type -> new ArrayList<>(chunkSize));
+            List<BatchPaymentResultDTO> resultsOfChunk = chunkResults.computeIfAbsent(paymentType, type -> new ArrayList<>(chunkSize));
+            chunk.add(payments[index]);
+            resultsOfChunk.add(results[index]);
+            if (chunk.size() == chunkSize) {
+                saveChunkWithinBulkhead(paymentType, chunk, resultsOfChunk, savedPayments);
+                chunk.clear();
+                resultsOfChunk.clear();
+            }
+        }
+        chunks.forEach((paymentType, chunk) -> {
+            if (!chunk.isEmpty()) {
+                saveChunkWithinBulkhead(paymentType, chunk, chunkResults.get(paymentType), savedPayments);
+            }
+        });
+        return savedPayments;
+    }
+
+    private void saveChunkWithinBulkhead(String paymentType, List<Payment> chunk, List<BatchPaymentResultDTO> chunkResults,
+                                         List<Payment> savedPayments) {
+        try {
+            paymentBulkheads.executeCreation(paymentType, () -> {
+                saveChunk(chunk, chunkResults, savedPayments);
+                return null;
+            });
+        } catch (BulkheadFullException e) {
+            logger.warn("Chunk of {} payments of type {} rejected, too many payments of the type are being created", chunk.size(), paymentType);
+            for (BatchPaymentResultDTO result : chunkResults) {
+                result.getValidationErrors().add(TOO_MANY_PAYMENTS_IN_PROGRESS + paymentType);
+            }
+        }
+    }
+
+    private void saveChunk(List<Payment> chunk, List<BatchPaymentResultDTO> chunkResults, List<Payment> savedPayments) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                paymentRepository.saveAll(chunk);
+                List<NotificationOutboxEntry> outboxEntries = chunk.stream()
+                        .filter(payment -> NotificationProcessor.hasNotificationChannel(payment.getType()))
+                        .map(NotificationOutboxEntry::new)
+                        .toList();
+                if (!outboxEntries.isEmpty()) {
+                    notificationOutboxRepository.saveAll(outboxEntries);
+                    notificationOutboxRelay.wakeUp();
+                }
+                paymentRepository.flush();
+                // Saved entities are not needed any more, keep the persistence context small
+                entityManager.clear();
+            });
+            for (int i = 0; i < chunk.size(); i++) {
+                chunkResults.get(i).setPaymentId(chunk.get(i).getId());
+            }
+            savedPayments.addAll(chunk);
+        } catch (DataAccessException | TransactionException e) {
+            // A failed commit or rollback is a TransactionException, it fails the chunk like a failed statement
+            logger.error("Failed to save a chunk of {} payments - {}", chunk.size(), e.getMessage());
+            for (BatchPaymentResultDTO result : chunkResults) {
+                result.getValidationErrors().add(FAILED_TO_SAVE_PAYMENT + e.getMostSpecificCause().getMessage());
+            }
+        }
+    }
+}
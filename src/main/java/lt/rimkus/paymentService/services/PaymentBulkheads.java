@@ -0,0 +1,87 @@
+package lt.rimkus.paymentService.services;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedBulkheadMetrics;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lt.rimkus.paymentService.enums.PaymentType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Bulkheads per payment type on the payment creation path, so a flood of one type cannot take every request thread or
+ * database connection from the other types.
+ * Each type gets its own limit of concurrent creations from app.payments.bulkhead.*, overridable per type as e.g.
+ * app.payments.bulkhead.TYPE3.max-concurrent-calls. The limits of all types together should stay below
+ * spring.datasource.hikari.maximum-pool-size, so a type at its limit never takes the connections the other types
+ * need, a warning is logged at startup when they do not. A call over the limit waits in its type's queue up to
+ * max-wait for a slot of its own type and is rejected after it.
+ * Notifications have no bulkhead, the outbox relay sends at most one per type and relay thread at a time and the
+ * adaptive concurrency limit of each notification channel bounds the calls to it.
+ * Utilization is published as payments.bulkhead.utilization tagged with the type, next to the resilience4j.bulkhead.*
+ * call counts.
+ */
+@Service
+public class PaymentBulkheads {
+
+    private static final Logger logger = LoggerFactory.getLogger(PaymentBulkheads.class);
+    private static final String PREFIX = "app.payments.bulkhead";
+    private static final int DEFAULT_MAX_CONCURRENT_CALLS = 6;
+    private static final Duration DEFAULT_MAX_WAIT = Duration.ofMillis(200);
+    // Hikari's default
+    private static final int DEFAULT_DATABASE_POOL_SIZE = 10;
+
+    private final BulkheadRegistry bulkheadRegistry = BulkheadRegistry.ofDefaults();
+    private final Map<PaymentType, Bulkhead> creationBulkheads = new EnumMap<>(PaymentType.class);
+
+    public PaymentBulkheads(Environment environment, MeterRegistry meterRegistry) {
+        int totalMaxConcurrentCalls = 0;
+        for (PaymentType type : PaymentType.values()) {
+            Bulkhead bulkhead = createBulkhead(type, environment, meterRegistry);
+            creationBulkheads.put(type, bulkhead);
+            totalMaxConcurrentCalls += bulkhead.getBulkheadConfig().getMaxConcurrentCalls();
+        }
+        int databasePoolSize = environment.getProperty("spring.datasource.hikari.maximum-pool-size", Integer.class, DEFAULT_DATABASE_POOL_SIZE);
+        if (totalMaxConcurrentCalls >= databasePoolSize) {
+            logger.warn("Payment creation bulkheads allow {} concurrent creations, not below the database pool size of {}, "
+                    + "a flood of some payment types can take every connection", totalMaxConcurrentCalls, databasePoolSize);
+        }
+        TaggedBulkheadMetrics.ofBulkheadRegistry(bulkheadRegistry).bindTo(meterRegistry);
+    }
+
+    /**
+     * Runs the creation of a payment within the bulkhead of its type. A type that is not valid has no bulkhead, its
+     * creation runs directly and fails validation.
+     *
+     * @throws BulkheadFullException when the type is at its limit and no slot freed up within max-wait
+     */
+    public <T> T executeCreation(String paymentType, Supplier<T> creation) {
+        PaymentType type = PaymentType.fromCode(paymentType);
+        return type != null ? creationBulkheads.get(type).executeSupplier(creation) : creation.get();
+    }
+
+    private Bulkhead createBulkhead(PaymentType type, Environment environment, MeterRegistry meterRegistry) {
+        int defaultLimit = environment.getProperty(PREFIX + ".max-concurrent-calls", Integer.class, DEFAULT_MAX_CONCURRENT_CALLS);
+        Duration defaultMaxWait = environment.getProperty(PREFIX + ".max-wait", Duration.class, DEFAULT_MAX_WAIT);
+        Bulkhead bulkhead = bulkheadRegistry.bulkhead("creation-" + type.getCode(), BulkheadConfig.custom()
+                .maxConcurrentCalls(environment.getProperty(PREFIX + "." + type.getCode() + ".max-concurrent-calls", Integer.class, defaultLimit))
+                .maxWaitDuration(environment.getProperty(PREFIX + "." + type.getCode() + ".max-wait", Duration.class, defaultMaxWait))
+                .build());
+        Gauge.builder("payments.bulkhead.utilization", bulkhead,
+                        b -> 1.0 - (double) b.getMetrics().getAvailableConcurrentCalls() / b.getMetrics().getMaxAllowedConcurrentCalls())
+                .description("Share of the payment type's bulkhead slots in use")
+                .tag("type", type.getCode())
+                .register(meterRegistry);
+        return bulkhead;
+    }
+}
@@ -5,29 +5,38 @@ import lt.rimkus.paymentService.DTOs.CreatePaymentRequestDTO;
 import lt.rimkus.paymentService.DTOs.CreatePaymentResponseDTO;
 import lt.rimkus.paymentService.DTOs.GetNotCancelledPaymentsDTO;
 import lt.rimkus.paymentService.DTOs.PaymentCancellationInfoDTO;
+import lt.rimkus.paymentService.DTOs.PaymentDTO;
+import lt.rimkus.paymentService.DTOs.PaymentPageDTO;
 import lt.rimkus.paymentService.adapters.PaymentTypeValidationAdapter;
 import lt.rimkus.paymentService.exceptions.RequestValidationException;
 import lt.rimkus.paymentService.factories.PaymentCreationFactory;
 import lt.rimkus.paymentService.models.Money;
+import lt.rimkus.paymentService.models.NotificationOutboxEntry;
 import lt.rimkus.paymentService.models.Payment;
+import lt.rimkus.paymentService.repositories.NotificationOutboxRepository;
 import lt.rimkus.paymentService.repositories.PaymentRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
-import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
-import static lt.rimkus.paymentService.messages.OtherMessages.FAILED_TO_SEND_OUT_NOTIFICATION;
-import static lt.rimkus.paymentService.messages.OtherMessages.FAILURE;
-import static lt.rimkus.paymentService.messages.OtherMessages.SUCCESS;
 import static lt.rimkus.paymentService.messages.ValidationErrorMessages.CREATION_REQUEST_NULL;
+import static lt.rimkus.paymentService.messages.ValidationErrorMessages.IS_ALREADY_CANCELED;
 import static lt.rimkus.paymentService.messages.ValidationErrorMessages.PAYMENT_DOES_NOT_EXIST;
+import static lt.rimkus.paymentService.messages.ValidationErrorMessages.PAYMENT_WITH_ID;
+import static lt.rimkus.paymentService.messages.ValidationErrorMessages.SAME_DAY_CANCELLATION_ONLY;
 import static lt.rimkus.paymentService.messages.ValidationErrorMessages.UNSUPPORTED_TYPE;
 
 @Service
@@ -35,6 +44,9 @@ public class PaymentService {
 
     private static final Logger logger = LoggerFactory.getLogger(PaymentService.class);
 
+    public static final int DEFAULT_PAGE_SIZE = 100;
+    public static final int MAX_PAGE_SIZE = 1000;
+
     @Autowired
     private PaymentRepository paymentRepository;
     @Autowired
@@ -44,19 +56,50 @@ public class PaymentService {
     @Autowired
     private PaymentCancellationService paymentCancellationService;
     @Autowired
-    private NotificationProcessor notificationProcessor;
+    private NotificationOutboxRepository notificationOutboxRepository;
+    @Autowired
+    private NotificationOutboxRelay notificationOutboxRelay;
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public PaymentPageDTO getPaymentsPage(Long afterId, Integer limit) {
+        long cursor = afterId == null ? 0L : afterId;
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        List<Payment> payments = paymentRepository.findByIdGreaterThanOrderByIdAsc(cursor, Limit.of(pageSize));
+
+        PaymentPageDTO page = new PaymentPageDTO();
+        page.setPayments(payments.stream().map(Payment::convertToDTO).toList());
+        if (payments.size() == pageSize) {
+            page.setNextAfterId(payments.get(payments.size() - 1).getId());
+        }
+        return page;
+    }
 
-    public List<Payment> getAllPayments() {
-        return paymentRepository.findAll();
+    /**
+     * Hands every payment to the consumer in id order while reading them from a database cursor.
+     * Entities are detached as soon as they are mapped, so memory use does not grow with the table size.
+     */
+    @Transactional(readOnly = true)
+    public void streamAllPayments(Consumer<PaymentDTO> consumer) {
+        try (Stream<Payment> payments = paymentRepository.streamAllOrderedById()) {
+            payments.forEach(payment -> {
+                consumer.accept(payment.convertToDTO());
+                entityManager.detach(payment);
+            });
+        }
     }
 
+    @Transactional
     public CreatePaymentResponseDTO createPayment(CreatePaymentRequestDTO requestDTO, CreatePaymentResponseDTO responseDTO) {
-        Payment newPayment = null;
-        newPayment = validateAndCreatePayment(requestDTO, responseDTO, newPayment);
+        Payment newPayment = validateAndCreatePayment(requestDTO, responseDTO.getValidationErrors());
         if (responseDTO.getValidationErrors().isEmpty()) {
             assert newPayment != null;
             paymentRepository.save(newPayment);
-            notifyServiceAndUpdatePaymentInDatabase(newPayment);
+            if (NotificationProcessor.hasNotificationChannel(newPayment.getType())) {
+                // Written in the payment's transaction, NotificationOutboxRelay sends the notification after commit
+                notificationOutboxRepository.save(new NotificationOutboxEntry(newPayment));
+                notificationOutboxRelay.wakeUp();
+            }
             responseDTO.setPaymentDTO(newPayment.convertToDTO());
         }
         return responseDTO;
@@ -70,23 +113,38 @@ public class PaymentService {
         return responseDTO;
     }
 
+    /**
+     * The payment is read only to find its type, the cancellation itself is one conditional UPDATE. When a concurrent
+     * request cancels the same payment first, the UPDATE matches no rows and this request reports it as already cancelled.
+     */
     private void attemptPaymentCancellation(long id, LocalDate dateOfCancellationRequest, LocalDateTime timeOfCancellationRequest, CancelPaymentResponseDTO responseDTO) {
         try {
             Optional<Payment> payment = paymentRepository.findById(id);
             if (payment.isEmpty()) {
                 throw new RequestValidationException(PAYMENT_DOES_NOT_EXIST);
-            } else {
-                Payment paymentToCancel = payment.get();
-                paymentCancellationService.preparePaymentForCancellation(paymentToCancel, dateOfCancellationRequest, timeOfCancellationRequest);
-                paymentRepository.save(paymentToCancel);
-                responseDTO.setPaymentDTO(paymentToCancel.convertToDTO());
-                responseDTO.setCancellationFee(new Money(paymentToCancel.getCancellationFee().getAmount(), paymentToCancel.getCancellationFee().getCurrency()));
             }
+            Payment paymentToCancel = payment.get();
+            BigDecimal coefficient = paymentCancellationService.getCancellationCoefficient(paymentToCancel.getType());
+            int cancelledRows = paymentRepository.cancelSameDayPayment(id, coefficient, timeOfCancellationRequest, dateOfCancellationRequest);
+            if (cancelledRows == 0) {
+                throw new RequestValidationException(getCancellationRejectionReason(paymentToCancel, dateOfCancellationRequest));
+            }
+            Payment cancelledPayment = paymentRepository.findById(id).orElseThrow(() -> new RequestValidationException(PAYMENT_DOES_NOT_EXIST));
+            responseDTO.setPaymentDTO(cancelledPayment.convertToDTO());
+            responseDTO.setCancellationFee(new Money(cancelledPayment.getCancellationFee().getAmount(), cancelledPayment.getCancellationFee().getCurrency()));
         } catch (RequestValidationException rve) {
             responseDTO.getValidationErrors().add(rve.getMessage());
         }
     }
 
+    private String getCancellationRejectionReason(Payment payment, LocalDate dateOfCancellationRequest) {
+        // Creation date never changes, so a same day payment that was not updated has been cancelled in the meantime
+        if (payment.isCancelled() || dateOfCancellationRequest.isEqual(payment.getCreatedDate())) {
+            return PAYMENT_WITH_ID + payment.getId() + IS_ALREADY_CANCELED;
+        }
+        return SAME_DAY_CANCELLATION_ONLY;
+    }
+
     public List<Long> getNotCanceledPaymentIds(GetNotCancelledPaymentsDTO requestDTO) {
         BigDecimal minAmount = requestDTO.getMinAmount();
         BigDecimal maxAmount = requestDTO.getMaxAmount();
@@ -101,31 +159,16 @@ public class PaymentService {
         return paymentRepository.getPaymentCancellationDetails(id);
     }
 
-    private Payment validateAndCreatePayment(CreatePaymentRequestDTO requestDTO, CreatePaymentResponseDTO responseDTO, Payment newPayment) {
-        try {
-            if (requestDTO == null) {
-                throw new RequestValidationException(CREATION_REQUEST_NULL);
-            }
-            if (paymentTypeValidationAdapter.isPaymentTypeNotValid(requestDTO.getType())) {
-                throw new RequestValidationException(UNSUPPORTED_TYPE + requestDTO.getType());
-            }
-            newPayment = paymentCreationFactory.createNewPayment(requestDTO);
-        } catch (RequestValidationException rve) {
-            responseDTO.getValidationErrors().add(rve.getMessage());
+    private Payment validateAndCreatePayment(CreatePaymentRequestDTO requestDTO, List<String> validationErrors) {
+        if (requestDTO == null) {
+            validationErrors.add(CREATION_REQUEST_NULL);
+            return null;
         }
-        return newPayment;
-    }
-
-    protected void notifyServiceAndUpdatePaymentInDatabase(Payment newPayment) {
-        try {
-            CompletableFuture<String> notificationResult = notificationProcessor.notifyServiceAboutCreatedPayment(newPayment);
-            notificationResult.thenAccept((result) -> {
-                newPayment.setNotificationStatus(result != null && result.equals(SUCCESS) ? SUCCESS : FAILURE);
-                // Updating payment with notification status in DB
-                paymentRepository.save(newPayment);
-            });
-        } catch (RequestValidationException rve) {
-            logger.warn(FAILED_TO_SEND_OUT_NOTIFICATION + "{}", newPayment.getType());
+        // The payment class to validate with depends on the type, so nothing else can be checked without it
+        if (paymentTypeValidationAdapter.isPaymentTypeNotValid(requestDTO.getType())) {
+            validationErrors.add(UNSUPPORTED_TYPE + requestDTO.getType());
+            return null;
         }
+        return paymentCreationFactory.createNewPayment(requestDTO, validationErrors);
     }
 }
@@ -0,0 +1,189 @@
+package lt.rimkus.paymentService.services;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import jakarta.annotation.PreDestroy;
+import lt.rimkus.paymentService.utilities.AdaptiveConcurrencyLimit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static lt.rimkus.paymentService.messages.OtherMessages.FAILURE;
+import static lt.rimkus.paymentService.messages.OtherMessages.SUCCESS;
+
+/**
+ * Sends notifications of one channel with the non-blocking WebClient. Calls are queued and dispatched while the
+ * channel's adaptive concurrency limit allows, the I/O runs on the event loop threads of the shared outbound HTTP
+ * client, so no thread waits for a response. The limit grows while the destination answers as fast as usual and backs
+ * off when it slows down or fails, up to max-concurrency, and each call times out after a multiple of the
+ * recent p99 round trip time. A notification holds a permit of the channel's bulkhead from being queued until it
+ * completes; when the bulkhead has none left, new notifications fail at once with FAILURE. The queue, the limit and
+ * the bulkhead belong to the channel, so a slow channel fills only its own and never delays the other.
+ * Calls go through the channel's circuit breaker, while it is open notifications fail fast with FAILURE.
+ */
+public abstract class WebClientNotificationService implements NotificationService {
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    private final WebClient webClient;
+    private final CircuitBreaker circuitBreaker;
+    private final String notificationServiceUrl;
+    private final AdaptiveConcurrencyLimit concurrencyLimit;
+    private final Queue<PendingNotification> queue = new ConcurrentLinkedQueue<>();
+    // Lets one thread at a time dispatch, the others only ask it for another pass
+    private final AtomicInteger dispatchRequests = new AtomicInteger();
+    // Cancels the calls in flight on shutdown
+    private final Sinks.One<Boolean> stopSignal = Sinks.one();
+    private final Bulkhead bulkhead;
+    private volatile boolean stopped;
+
+    protected WebClientNotificationService(WebClient.Builder webClientBuilder, String notificationServiceUrl,
+                                           CircuitBreaker circuitBreaker, Bulkhead bulkhead, MeterRegistry meterRegistry,
+                                           AdaptiveConcurrencyLimit.Settings concurrencyLimitSettings) {
+        this.webClient = webClientBuilder.build();
+        this.circuitBreaker = circuitBreaker;
+        this.notificationServiceUrl = notificationServiceUrl;
+        this.concurrencyLimit = new AdaptiveConcurrencyLimit(concurrencyLimitSettings);
+        this.bulkhead = bulkhead;
+        String channel = circuitBreaker.getName();
+        Gauge.builder("payments.notification.pending", this, WebClientNotificationService::getPendingCount)
+                .description("Notifications queued or in flight")
+                .tag("channel", channel)
+                .register(meterRegistry);
+        Gauge.builder("payments.notification.concurrency.limit", concurrencyLimit, AdaptiveConcurrencyLimit::getLimit)
+                .description("Notifications the channel may have in flight, adapted to the destination's latency")
+                .tag("channel", channel)
+                .register(meterRegistry);
+        Gauge.builder("payments.notification.in.flight", concurrencyLimit, AdaptiveConcurrencyLimit::getInFlight)
+                .description("Notifications sent and waiting for a response")
+                .tag("channel", channel)
+                .register(meterRegistry);
+        TimeGauge.builder("payments.notification.timeout", concurrencyLimit, TimeUnit.MILLISECONDS,
+                        limit -> limit.getTimeout().toMillis())
+                .description("Timeout of a notification call, derived from the p99 round trip time")
+                .tag("channel", channel)
+                .register(meterRegistry);
+    }
+
+    public CompletableFuture<String> notifyServiceAsync(String userName) {
+        if (!bulkhead.tryAcquirePermission()) {
+            logger.warn("Notification rejected - bulkhead {} is full", bulkhead.getName());
+            return CompletableFuture.completedFuture(FAILURE);
+        }
+        CompletableFuture<String> result = new CompletableFuture<>();
+        queue.offer(new PendingNotification(notificationServiceUrl + userName, result));
+        dispatch();
+        return result;
+    }
+
+    // Sends queued notifications while the limit allows, called on every new notification and every completed call
+    private void dispatch() {
+        if (dispatchRequests.getAndIncrement() != 0) {
+            return;
+        }
+        do {
+            if (stopped) {
+                failQueued();
+            }
+            while (!queue.isEmpty() && concurrencyLimit.tryAcquire()) {
+                PendingNotification notification = queue.poll();
+                if (notification == null) {
+                    concurrencyLimit.release(0, AdaptiveConcurrencyLimit.Outcome.IGNORED);
+                    break;
+                }
+                send(notification);
+            }
+        } while (dispatchRequests.decrementAndGet() != 0);
+    }
+
+    private void send(PendingNotification notification) {
+        logger.debug("Calling notification service: {}", notification.url());
+        long started = System.nanoTime();
+        AtomicReference<AdaptiveConcurrencyLimit.Outcome> outcome = new AtomicReference<>(AdaptiveConcurrencyLimit.Outcome.IGNORED);
+        AtomicReference<String> status = new AtomicReference<>(FAILURE);
+        webClient.get()
+                .uri(notification.url())
+                .retrieve()
+                .toBodilessEntity()
+                // Covers the connection pool wait too, the connect timeout is set on the shared client
+                .timeout(concurrencyLimit.getTimeout())
+                .transformDeferred(CircuitBreakerOperator.of(circuitBreaker))
+                .doOnSuccess(response -> outcome.set(AdaptiveConcurrencyLimit.Outcome.SUCCESS))
+                .doOnError(e -> outcome.set(outcomeOf(e)))
+                .map(response -> SUCCESS)
+                .onErrorResume(e -> {
+                    if (e instanceof CallNotPermittedException) {
+                        logger.debug("Notification not sent - circuit breaker {} is open", circuitBreaker.getName());
+                    } else {
+                        logger.error("Error notifying service - {}", e.getMessage());
+                    }
+                    return Mono.just(FAILURE);
+                })
+                .takeUntilOther(stopSignal.asMono())
+                .doFinally(signal -> {
+                    concurrencyLimit.release(System.nanoTime() - started, outcome.get());
+                    bulkhead.onComplete();
+                    // Only once the slot is released, FAILURE when the call was cancelled on shutdown
+                    notification.result().complete(status.get());
+                    dispatch();
+                })
+                .subscribe(status::set);
+    }
+
+    /**
+     * Timeouts, server errors and 429 mean the destination is overloaded, an open circuit breaker means no call was made.
+     * Other client errors say nothing about its load and count as answers.
+     */
+    private static AdaptiveConcurrencyLimit.Outcome outcomeOf(Throwable e) {
+        if (e instanceof CallNotPermittedException) {
+            return AdaptiveConcurrencyLimit.Outcome.IGNORED;
+        }
+        if (e instanceof WebClientResponseException responseException && responseException.getStatusCode().is4xxClientError()
+                && responseException.getStatusCode() != HttpStatus.TOO_MANY_REQUESTS) {
+            return AdaptiveConcurrencyLimit.Outcome.SUCCESS;
+        }
+        return AdaptiveConcurrencyLimit.Outcome.DROPPED;
+    }
+
+    private void failQueued() {
+        PendingNotification notification;
+        while ((notification = queue.poll()) != null) {
+            bulkhead.onComplete();
+            notification.result().complete(FAILURE);
+        }
+    }
+
+    int getPendingCount() {
+        return bulkhead.getBulkheadConfig().getMaxConcurrentCalls() - bulkhead.getMetrics().getAvailableConcurrentCalls();
+    }
+
+    AdaptiveConcurrencyLimit getConcurrencyLimit() {
+        return concurrencyLimit;
+    }
+
+    @PreDestroy
+    public void stop() {
+        stopped = true;
+        stopSignal.tryEmitValue(Boolean.TRUE);
+        dispatch();
+    }
+
+    private record PendingNotification(String url, CompletableFuture<String> result) {
+    }
+}
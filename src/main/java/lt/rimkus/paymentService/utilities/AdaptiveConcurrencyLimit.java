@@ -0,0 +1,146 @@
+package lt.rimkus.paymentService.utilities;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Concurrency limit for calls to one destination that follows the destination's latency (AIMD). While responses come
+ * back within rttTolerance times the baseline round trip time the limit grows by one per limit calls, a slower
+ * response, a timeout or an overload error cuts it by backoffRatio. It is cut at most once per window of calls that
+ * were in flight at the cut, so one slow spell does not collapse it to the minimum. The baseline is a slow moving
+ * average of the successful round trip times.
+ * Also derives the call timeout from the p99 of the recent successful round trip times, timeoutMultiplier times it
+ * within minTimeout and maxTimeout, and maxTimeout until there are enough samples. Dropped calls are left out, the
+ * round trip time of a timeout is the timeout itself and would ratchet it up to maxTimeout.
+ */
+public final class AdaptiveConcurrencyLimit {
+
+    public enum Outcome {
+        // Answered, its round trip time drives the limit
+        SUCCESS,
+        // Timed out or failed in a way that signals overload, backs the limit off
+        DROPPED,
+        // Not sent or cancelled, leaves the limit as is
+        IGNORED
+    }
+
+    public record Settings(int minLimit, int initialLimit, int maxLimit, double rttTolerance, double backoffRatio,
+                           Duration minTimeout, Duration maxTimeout, double timeoutMultiplier) {
+
+        public Settings {
+            if (minLimit < 1 || initialLimit < minLimit || maxLimit < initialLimit) {
+                throw new IllegalArgumentException("Limits must satisfy 1 <= minLimit <= initialLimit <= maxLimit");
+            }
+            if (rttTolerance < 1 || backoffRatio <= 0 || backoffRatio >= 1 || timeoutMultiplier < 1) {
+                throw new IllegalArgumentException("rttTolerance and timeoutMultiplier must be at least 1, backoffRatio within (0, 1)");
+            }
+            if (minTimeout.isNegative() || minTimeout.compareTo(maxTimeout) > 0) {
+                throw new IllegalArgumentException("Timeouts must satisfy 0 <= minTimeout <= maxTimeout");
+            }
+        }
+    }
+
+    private static final int RTT_WINDOW = 256;
+    // The p99 is recomputed every this many samples, and only from this many on
+    private static final int TIMEOUT_REFRESH_SAMPLES = 32;
+    private static final double BASELINE_SMOOTHING = 0.01;
+
+    private final Settings settings;
+    // Not a monitor, releases run on the event loop threads
+    private final ReentrantLock lock = new ReentrantLock();
+    private final long[] rttWindow = new long[RTT_WINDOW];
+    private double limit;
+    private int inFlight;
+    private double baselineRttNanos;
+    private int backoffCooldown;
+    private long samples;
+    private volatile long timeoutNanos;
+
+    public AdaptiveConcurrencyLimit(Settings settings) {
+        this.settings = settings;
+        this.limit = settings.initialLimit();
+        this.timeoutNanos = settings.maxTimeout().toNanos();
+    }
+
+    /**
+     * @return true when a call may start, it must then be released exactly once
+     */
+    public boolean tryAcquire() {
+        lock.lock();
+        try {
+            if (inFlight < (int) limit) {
+                inFlight++;
+                return true;
+            }
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void release(long rttNanos, Outcome outcome) {
+        lock.lock();
+        try {
+            int inFlightBefore = inFlight--;
+            if (outcome == Outcome.IGNORED) {
+                return;
+            }
+            boolean slow = baselineRttNanos > 0 && rttNanos > baselineRttNanos * settings.rttTolerance();
+            if ((outcome == Outcome.DROPPED || slow) && backoffCooldown == 0) {
+                limit = Math.max(settings.minLimit(), limit * settings.backoffRatio());
+                // The calls still in flight were sent under the old limit
+                backoffCooldown = inFlight;
+            } else {
+                if (backoffCooldown > 0) {
+                    backoffCooldown--;
+                }
+                if (outcome == Outcome.SUCCESS && !slow && inFlightBefore * 2 >= (int) limit) {
+                    // Only grows while the limit is actually used
+                    limit = Math.min(settings.maxLimit(), limit + 1 / limit);
+                }
+            }
+            if (outcome == Outcome.SUCCESS) {
+                recordRtt(rttNanos);
+                baselineRttNanos = baselineRttNanos == 0 ? rttNanos : baselineRttNanos + BASELINE_SMOOTHING * (rttNanos - baselineRttNanos);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getLimit() {
+        lock.lock();
+        try {
+            return (int) limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getInFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Duration getTimeout() {
+        return Duration.ofNanos(timeoutNanos);
+    }
+
+    // Callers hold lock
+    private void recordRtt(long rttNanos) {
+        rttWindow[(int) (samples % RTT_WINDOW)] = rttNanos;
+        samples++;
+        if (samples % TIMEOUT_REFRESH_SAMPLES == 0) {
+            long[] window = Arrays.copyOf(rttWindow, (int) Math.min(samples, RTT_WINDOW));
+            Arrays.sort(window);
+            long p99 = window[(int) Math.ceil(window.length * 0.99) - 1];
+            long timeout = (long) (p99 * settings.timeoutMultiplier());
+            timeoutNanos = Math.max(settings.minTimeout().toNanos(), Math.min(settings.maxTimeout().toNanos(), timeout));
+        }
+    }
+}
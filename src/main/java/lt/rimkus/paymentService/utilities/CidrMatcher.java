@@ -0,0 +1,294 @@
+package lt.rimkus.paymentService.utilities;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Matches IPv4 and IPv6 addresses against a fixed set of CIDR blocks.
+ * Every address is handled as a 128-bit number, IPv4 as its IPv4-mapped IPv6 form (::ffff:a.b.c.d), and the blocks
+ * are merged into sorted, disjoint ranges searched with a binary search. Addresses are parsed straight from the text,
+ * so a match allocates nothing.
+ */
+public final class CidrMatcher {
+
+    private static final long IPV4_MAPPED_PREFIX = 0xFFFF00000000L;
+
+    // Range i covers [starts(i), ends(i)], each value stored as a high and a low 64-bit half
+    private final long[] startHigh;
+    private final long[] startLow;
+    private final long[] endHigh;
+    private final long[] endLow;
+    // Created once, so matching an IPv6 address does not allocate a handler
+    private final Ipv6Handler rangeLookup = this::contains;
+
+    private CidrMatcher(List<long[]> ranges) {
+        startHigh = new long[ranges.size()];
+        startLow = new long[ranges.size()];
+        endHigh = new long[ranges.size()];
+        endLow = new long[ranges.size()];
+        for (int i = 0; i < ranges.size(); i++) {
+            long[] range = ranges.get(i);
+            startHigh[i] = range[0];
+            startLow[i] = range[1];
+            endHigh[i] = range[2];
+            endLow[i] = range[3];
+        }
+    }
+
+    /**
+     * @param cidrs blocks such as 10.0.0.0/8 or fc00::/7, a plain address is a block of one
+     */
+    public static CidrMatcher of(Collection<String> cidrs) {
+        List<long[]> ranges = new ArrayList<>();
+        for (String cidr : cidrs) {
+            ranges.add(parseCidr(cidr.trim()));
+        }
+        ranges.sort(Comparator.<long[]>comparingLong(range -> range[0] ^ Long.MIN_VALUE).thenComparingLong(range -> range[1] ^ Long.MIN_VALUE));
+
+        List<long[]> merged = new ArrayList<>();
+        for (long[] range : ranges) {
+            long[] last = merged.isEmpty() ? null : merged.get(merged.size() - 1);
+            if (last != null && compare(range[0], range[1], last[2], last[3]) <= 0) {
+                // Overlaps the previous range, CIDR blocks are either disjoint or nested
+                if (compare(range[2], range[3], last[2], last[3]) > 0) {
+                    last[2] = range[2];
+                    last[3] = range[3];
+                }
+            } else {
+                merged.add(range);
+            }
+        }
+        return new CidrMatcher(merged);
+    }
+
+    /**
+     * @return whether the address is in one of the blocks, false when it is not a valid IPv4 or IPv6 address
+     */
+    public boolean matches(CharSequence ip) {
+        return ip != null && matches(ip, 0, ip.length());
+    }
+
+    /**
+     * Matches the address between start (inclusive) and end (exclusive), for example one entry of a header value
+     */
+    public boolean matches(CharSequence ip, int start, int end) {
+        // IPv4 parsing stops at the first character that is not a digit or dot, so IPv6 text fails fast
+        long ipv4 = IpAddressUtil.parseIpv4(ip, start, end);
+        if (ipv4 >= 0) {
+            return contains(0, IPV4_MAPPED_PREFIX | ipv4);
+        }
+        return parseIpv6(ip, start, end, rangeLookup);
+    }
+
+    /**
+     * @return whether the text between start (inclusive) and end (exclusive) is a valid IPv4 or IPv6 address
+     */
+    public static boolean isValidAddress(CharSequence ip, int start, int end) {
+        return IpAddressUtil.parseIpv4(ip, start, end) >= 0 || parseIpv6(ip, start, end, (high, low) -> true);
+    }
+
+    private boolean contains(long high, long low) {
+        // Last range starting at or before the address
+        int lowIndex = 0;
+        int highIndex = startHigh.length - 1;
+        int candidate = -1;
+        while (lowIndex <= highIndex) {
+            int middle = (lowIndex + highIndex) >>> 1;
+            if (compare(startHigh[middle], startLow[middle], high, low) <= 0) {
+                candidate = middle;
+                lowIndex = middle + 1;
+            } else {
+                highIndex = middle - 1;
+            }
+        }
+        return candidate >= 0 && compare(high, low, endHigh[candidate], endLow[candidate]) <= 0;
+    }
+
+    /**
+     * Parses the IPv6 text into its two 64-bit halves and passes them to the handler, no array or String is created.
+     * Supports "::" compression, a trailing dotted IPv4 part and a "%zone" suffix, which is ignored.
+     *
+     * @return the handler's result, or false when the text is not a valid IPv6 address
+     */
+    private static boolean parseIpv6(CharSequence ip, int start, int end, Ipv6Handler handler) {
+        for (int i = start; i < end; i++) {
+            if (ip.charAt(i) == '%') {
+                end = i;
+                break;
+            }
+        }
+
+        // Groups before "::" go to head, groups after it to tail
+        long headHigh = 0;
+        long headLow = 0;
+        long tailHigh = 0;
+        long tailLow = 0;
+        int headGroups = 0;
+        int tailGroups = 0;
+        boolean compressed = false;
+
+        int position = start;
+        if (end - start >= 2 && ip.charAt(start) == ':' && ip.charAt(start + 1) == ':') {
+            compressed = true;
+            position = start + 2;
+        } else if (end > start && ip.charAt(start) == ':') {
+            return false;
+        }
+        while (position < end) {
+            int groupStart = position;
+            int group = 0;
+            while (position < end && position - groupStart < 5) {
+                int digit = hexDigit(ip.charAt(position));
+                if (digit < 0) {
+                    break;
+                }
+                group = (group << 4) | digit;
+                position++;
+            }
+            int digits = position - groupStart;
+
+            if (position < end && ip.charAt(position) == '.') {
+                // Trailing IPv4 part, takes the last two groups
+                long ipv4 = IpAddressUtil.parseIpv4(ip, groupStart, end);
+                if (ipv4 < 0 || headGroups + tailGroups > 6) {
+                    return false;
+                }
+                for (int shift = 16; shift >= 0; shift -= 16) {
+                    int part = (int) (ipv4 >>> shift) & 0xFFFF;
+                    if (compressed) {
+                        tailHigh = (tailHigh << 16) | (tailLow >>> 48);
+                        tailLow = (tailLow << 16) | part;
+                        tailGroups++;
+                    } else {
+                        headHigh = (headHigh << 16) | (headLow >>> 48);
+                        headLow = (headLow << 16) | part;
+                        headGroups++;
+                    }
+                }
+                position = end;
+                break;
+            }
+            if (digits == 0 || digits > 4 || headGroups + tailGroups == 8) {
+                return false;
+            }
+            if (compressed) {
+                tailHigh = (tailHigh << 16) | (tailLow >>> 48);
+                tailLow = (tailLow << 16) | group;
+                tailGroups++;
+            } else {
+                headHigh = (headHigh << 16) | (headLow >>> 48);
+                headLow = (headLow << 16) | group;
+                headGroups++;
+            }
+
+            if (position == end) {
+                break;
+            }
+            if (ip.charAt(position) != ':') {
+                return false;
+            }
+            position++;
+            if (position < end && ip.charAt(position) == ':') {
+                if (compressed) {
+                    return false;
+                }
+                compressed = true;
+                position++;
+            } else if (position == end) {
+                // Trailing single colon
+                return false;
+            }
+        }
+
+        int groups = headGroups + tailGroups;
+        if (compressed ? groups > 7 : groups != 8) {
+            return false;
+        }
+        // Move the head groups to the top, the compressed zero groups fill the gap to the tail
+        int shift = 16 * (8 - headGroups);
+        long high;
+        long low;
+        if (shift == 0) {
+            high = headHigh;
+            low = headLow;
+        } else if (shift >= 64) {
+            high = shift == 128 ? 0 : headLow << (shift - 64);
+            low = 0;
+        } else {
+            high = (headHigh << shift) | (headLow >>> (64 - shift));
+            low = headLow << shift;
+        }
+        return handler.handle(high | tailHigh, low | tailLow);
+    }
+
+    private static long[] parseCidr(String cidr) {
+        int slash = cidr.indexOf('/');
+        String address = slash < 0 ? cidr : cidr.substring(0, slash);
+        boolean ipv6 = address.indexOf(':') >= 0;
+        int maxPrefix = ipv6 ? 128 : 32;
+        int prefix;
+        try {
+            prefix = slash < 0 ? maxPrefix : Integer.parseInt(cidr.substring(slash + 1));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid CIDR block: " + cidr);
+        }
+        if (prefix < 0 || prefix > maxPrefix) {
+            throw new IllegalArgumentException("Invalid CIDR block: " + cidr);
+        }
+
+        long high;
+        long low;
+        if (ipv6) {
+            long[] value = new long[2];
+            boolean valid = parseIpv6(address, 0, address.length(), (parsedHigh, parsedLow) -> {
+                value[0] = parsedHigh;
+                value[1] = parsedLow;
+                return true;
+            });
+            if (!valid) {
+                throw new IllegalArgumentException("Invalid CIDR block: " + cidr);
+            }
+            high = value[0];
+            low = value[1];
+        } else {
+            long ipv4 = IpAddressUtil.parseIpv4(address);
+            if (ipv4 < 0) {
+                throw new IllegalArgumentException("Invalid CIDR block: " + cidr);
+            }
+            high = 0;
+            low = IPV4_MAPPED_PREFIX | ipv4;
+            prefix += 96;
+        }
+
+        // Host bits of the block, cleared for the start and set for the end
+        long hostHigh = prefix >= 64 ? 0 : -1L >>> prefix;
+        long hostLow = prefix <= 64 ? -1L : prefix == 128 ? 0 : -1L >>> (prefix - 64);
+        return new long[]{high & ~hostHigh, low & ~hostLow, high | hostHigh, low | hostLow};
+    }
+
+    // Unlike Character.digit, accepts ASCII digits only
+    private static int hexDigit(char c) {
+        if (c >= '0' && c <= '9') {
+            return c - '0';
+        }
+        if (c >= 'a' && c <= 'f') {
+            return c - 'a' + 10;
+        }
+        if (c >= 'A' && c <= 'F') {
+            return c - 'A' + 10;
+        }
+        return -1;
+    }
+
+    private static int compare(long firstHigh, long firstLow, long secondHigh, long secondLow) {
+        int high = Long.compareUnsigned(firstHigh, secondHigh);
+        return high != 0 ? high : Long.compareUnsigned(firstLow, secondLow);
+    }
+
+    @FunctionalInterface
+    private interface Ipv6Handler {
+        boolean handle(long high, long low);
+    }
+}
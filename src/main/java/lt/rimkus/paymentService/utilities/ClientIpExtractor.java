@@ -0,0 +1,190 @@
+package lt.rimkus.paymentService.utilities;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+
+/**
+ * Finds the address of the client that sent a request through a chain of trusted proxies.
+ * Forwarding headers are only read when the direct peer is a trusted proxy, and their hops are walked from the right
+ * (the one closest to this server) until the first address that is not a trusted proxy, so a client cannot spoof its
+ * address by sending the header itself. The RFC 7239 Forwarded header is used when present, X-Forwarded-For otherwise.
+ * Headers are scanned in place, the only String created is the returned address.
+ */
+public final class ClientIpExtractor {
+
+    private static final String FORWARDED = "Forwarded";
+    private static final String X_FORWARDED_FOR = "X-Forwarded-For";
+
+    private static final long NO_ADDRESS = -1;
+
+    private final CidrMatcher trustedProxies;
+
+    public ClientIpExtractor(CidrMatcher trustedProxies) {
+        this.trustedProxies = trustedProxies;
+    }
+
+    public String getClientIpAddress(HttpServletRequest request) {
+        String remoteAddr = request.getRemoteAddr();
+        if (remoteAddr == null || !trustedProxies.matches(remoteAddr)) {
+            return remoteAddr;
+        }
+        String forwarded = headerValue(request, FORWARDED);
+        if (forwarded != null) {
+            String client = walkHops(forwarded, true, remoteAddr);
+            if (client != null) {
+                return client;
+            }
+        }
+        String forwardedFor = headerValue(request, X_FORWARDED_FOR);
+        if (forwardedFor != null) {
+            String client = walkHops(forwardedFor, false, remoteAddr);
+            if (client != null) {
+                return client;
+            }
+        }
+        return remoteAddr;
+    }
+
+    /**
+     * Walks the comma-separated hops from the right, skipping trusted proxies
+     *
+     * @return the first untrusted address, the closest trusted hop when a hop is hidden ("unknown", an obfuscated
+     * identifier or garbage), the leftmost hop when every hop is trusted, or null when the header names no hop
+     */
+    private String walkHops(String value, boolean forwarded, String remoteAddr) {
+        int trustedStart = -1;
+        int trustedEnd = -1;
+        int end = value.length();
+        while (end >= 0) {
+            int comma = previousDelimiter(value, ',', end);
+            long address = forwarded ? forwardedFor(value, comma + 1, end) : nodeAddress(value, comma + 1, end);
+            if (address != NO_ADDRESS) {
+                int start = (int) (address >>> 32);
+                int addressEnd = (int) address;
+                if (!CidrMatcher.isValidAddress(value, start, addressEnd)) {
+                    // Nothing left of a hidden hop can be trusted
+                    return trustedStart < 0 ? remoteAddr : value.substring(trustedStart, trustedEnd);
+                }
+                if (!trustedProxies.matches(value, start, addressEnd)) {
+                    return value.substring(start, addressEnd);
+                }
+                trustedStart = start;
+                trustedEnd = addressEnd;
+            }
+            end = comma;
+        }
+        return trustedStart < 0 ? null : value.substring(trustedStart, trustedEnd);
+    }
+
+    /**
+     * @return the address of the for= parameter of the Forwarded element between start and end, or NO_ADDRESS
+     */
+    private static long forwardedFor(String value, int start, int end) {
+        int pairStart = start;
+        while (pairStart < end) {
+            int pairEnd = nextDelimiter(value, ';', pairStart, end);
+            int trimmedStart = skipWhitespace(value, pairStart, pairEnd);
+            if (pairEnd - trimmedStart > 4 && value.regionMatches(true, trimmedStart, "for=", 0, 4)) {
+                return nodeAddress(value, trimmedStart + 4, pairEnd);
+            }
+            pairStart = pairEnd + 1;
+        }
+        return NO_ADDRESS;
+    }
+
+    /**
+     * Strips whitespace, quotes, IPv6 brackets and the port from a node such as "[2001:db8::1]:4711" or 192.0.2.1:80
+     *
+     * @return the start and end of the address packed into a long, or NO_ADDRESS for a blank node
+     */
+    private static long nodeAddress(String value, int start, int end) {
+        start = skipWhitespace(value, start, end);
+        while (end > start && isWhitespace(value.charAt(end - 1))) {
+            end--;
+        }
+        if (end - start >= 2 && value.charAt(start) == '"' && value.charAt(end - 1) == '"') {
+            start++;
+            end--;
+        }
+        if (start == end) {
+            return NO_ADDRESS;
+        }
+        if (value.charAt(start) == '[') {
+            int close = nextDelimiter(value, ']', start, end);
+            // An unclosed bracket leaves an empty, invalid address
+            return close == end ? pack(start, start) : pack(start + 1, close);
+        }
+        int colon = nextDelimiter(value, ':', start, end);
+        if (colon < end && nextDelimiter(value, ':', colon + 1, end) == end) {
+            // A single colon separates an IPv4 address from its port, IPv6 addresses have several
+            end = colon;
+        }
+        return pack(start, end);
+    }
+
+    // Index of the last delimiter before end that is outside quotes, or -1
+    private static int previousDelimiter(String value, char delimiter, int end) {
+        boolean quoted = false;
+        for (int i = end - 1; i >= 0; i--) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                quoted = !quoted;
+            } else if (c == delimiter && !quoted) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // Index of the first delimiter from start that is outside quotes, or end
+    private static int nextDelimiter(String value, char delimiter, int start, int end) {
+        boolean quoted = false;
+        for (int i = start; i < end; i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                quoted = !quoted;
+            } else if (c == delimiter && !quoted) {
+                return i;
+            }
+        }
+        return end;
+    }
+
+    private static int skipWhitespace(String value, int start, int end) {
+        while (start < end && isWhitespace(value.charAt(start))) {
+            start++;
+        }
+        return start;
+    }
+
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t';
+    }
+
+    private static long pack(int start, int end) {
+        return ((long) start << 32) | end;
+    }
+
+    /**
+     * @return the header value, several occurrences of the header joined into one list as RFC 9110 allows
+     */
+    private static String headerValue(HttpServletRequest request, String name) {
+        Enumeration<String> values = request.getHeaders(name);
+        if (values == null || !values.hasMoreElements()) {
+            return null;
+        }
+        String first = values.nextElement();
+        if (!values.hasMoreElements()) {
+            return first;
+        }
+        List<String> all = new ArrayList<>();
+        all.add(first);
+        while (values.hasMoreElements()) {
+            all.add(values.nextElement());
+        }
+        return String.join(",", all);
+    }
+}
@@ -3,6 +3,8 @@ package lt.rimkus.paymentService.utilities;
 import lt.rimkus.paymentService.enums.Currency;
 import lt.rimkus.paymentService.enums.PaymentType;
 
+import java.util.EnumMap;
+import java.util.EnumSet;
 import java.util.Map;
 import java.util.Set;
 
@@ -12,20 +14,14 @@ public final class CurrencyValidationUtils {
         // Utility class cannot be instantiated
     }
 
-    private static final Map<PaymentType, Set<Currency>> PAYMENT_TYPE_AND_CURRENCY_MAP =
-            Map.of(
-                    PaymentType.TYPE1, Set.of(Currency.EUR),
-                    PaymentType.TYPE2, Set.of(Currency.USD),
-                    PaymentType.TYPE3, Set.of(Currency.EUR, Currency.USD)
-            );
+    private static final Map<PaymentType, Set<Currency>> PAYMENT_TYPE_AND_CURRENCY_MAP = new EnumMap<>(Map.of(
+            PaymentType.TYPE1, EnumSet.of(Currency.EUR),
+            PaymentType.TYPE2, EnumSet.of(Currency.USD),
+            PaymentType.TYPE3, EnumSet.of(Currency.EUR, Currency.USD)
+    ));
 
     public static boolean isCurrencyNotValid(String currencyCode) {
-        for (Currency currencyType : Currency.values()) {
-            if (currencyType.getCode().equals(currencyCode)) {
-                return false;
-            }
-        }
-        return true;
+        return !Currency.isSupported(currencyCode);
     }
 
     public static boolean isCurrencyNotValidForPaymentType(String currencyCode, String paymentTypeCode) {
@@ -1,43 +1,45 @@
 package lt.rimkus.paymentService.utilities;
 
-import jakarta.servlet.http.HttpServletRequest;
-import org.springframework.util.StringUtils;
-
 public class IpAddressUtil {
 
-    private static final String[] IP_HEADER_CANDIDATES = {
-            "X-Forwarded-For",
-            "Proxy-Client-IP",
-            "WL-Proxy-Client-IP",
-            "HTTP_X_FORWARDED_FOR",
-            "HTTP_X_FORWARDED",
-            "HTTP_X_CLUSTER_CLIENT_IP",
-            "HTTP_CLIENT_IP",
-            "HTTP_FORWARDED_FOR",
-            "HTTP_FORWARDED",
-            "HTTP_VIA",
-            "REMOTE_ADDR"
-    };
+    /**
+     * Parses a dotted IPv4 address without any name lookup
+     *
+     * @return the address as an unsigned 32-bit value, or -1 when it is not a valid IPv4 address
+     */
+    public static long parseIpv4(String ip) {
+        return ip == null ? -1 : parseIpv4(ip, 0, ip.length());
+    }
 
-    public static String getClientIpAddress(HttpServletRequest request) {
-        for (String header : IP_HEADER_CANDIDATES) {
-            String ipList = request.getHeader(header);
-            if (StringUtils.hasText(ipList) && !"unknown".equalsIgnoreCase(ipList)) {
-                // Get the first IP if there are multiple (comma-separated)
-                String ip = ipList.split(",")[0].trim();
-                if (isValidIpAddress(ip)) {
-                    return ip;
+    /**
+     * Parses the dotted IPv4 address between start (inclusive) and end (exclusive) without creating a String
+     */
+    public static long parseIpv4(CharSequence ip, int start, int end) {
+        long address = 0;
+        int octet = -1;
+        int octets = 0;
+        for (int i = start; i < end; i++) {
+            char c = ip.charAt(i);
+            if (c >= '0' && c <= '9') {
+                octet = (octet < 0 ? 0 : octet * 10) + (c - '0');
+                if (octet > 255) {
+                    return -1;
                 }
+            } else if (c == '.' && octet >= 0 && octets < 3) {
+                address = (address << 8) | octet;
+                octet = -1;
+                octets++;
+            } else {
+                return -1;
             }
         }
-
-        // Fall back to remote address
-        return request.getRemoteAddr();
+        if (octet < 0 || octets != 3) {
+            return -1;
+        }
+        return (address << 8) | octet;
     }
 
-    private static boolean isValidIpAddress(String ip) {
-        return StringUtils.hasText(ip) &&
-                !"unknown".equalsIgnoreCase(ip) &&
-                !"0:0:0:0:0:0:0:1".equals(ip);
+    public static String formatIpv4(long address) {
+        return ((address >> 24) & 0xFF) + "." + ((address >> 16) & 0xFF) + "." + ((address >> 8) & 0xFF) + "." + (address & 0xFF);
     }
 }
@@ -0,0 +1,200 @@
+package lt.rimkus.paymentService.utilities;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.ShortBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * IPv4 range to country table answered with a binary search over primitive arrays.
+ * A .csv file (startIp,endIp,country per line) is parsed into heap arrays. Any other file is read as the binary
+ * format written by {@link #writeTo(Path)} and memory-mapped, so large datasets stay off the heap and load instantly.
+ * Ranges must not overlap, addresses are compared as unsigned ints.
+ */
+public final class IpRangeTable {
+
+    private static final int MAGIC = 0x49505254; // "IPRT"
+    // Fixed, so a file written on one machine reads the same on any other, a file in another order fails the magic check
+    private static final ByteOrder BYTE_ORDER = ByteOrder.BIG_ENDIAN;
+
+    private final IntBuffer starts;
+    private final IntBuffer ends;
+    private final ShortBuffer countryIds;
+    private final String[] countries;
+    private final int size;
+    // Number of ranges starting below each /16 prefix, narrows the binary search to the ranges of one prefix
+    private final int[] prefixIndex = new int[(1 << 16) + 1];
+
+    private IpRangeTable(IntBuffer starts, IntBuffer ends, ShortBuffer countryIds, String[] countries) {
+        this.starts = starts;
+        this.ends = ends;
+        this.countryIds = countryIds;
+        this.countries = countries;
+        this.size = starts.limit();
+        int range = 0;
+        for (int prefix = 0; prefix < prefixIndex.length; prefix++) {
+            long prefixStart = (long) prefix << 16;
+            while (range < size && Integer.toUnsignedLong(starts.get(range)) < prefixStart) {
+                range++;
+            }
+            prefixIndex[prefix] = range;
+        }
+    }
+
+    public static IpRangeTable load(Path file) throws IOException {
+        return file.getFileName().toString().endsWith(".csv") ? parseCsv(file) : map(file);
+    }
+
+    /**
+     * @return the country of the range holding the address, or null when the address is not IPv4 or not in any range
+     */
+    public String lookup(String ipAddress) {
+        long address = IpAddressUtil.parseIpv4(ipAddress);
+        if (address < 0) {
+            return null;
+        }
+        int ip = (int) address;
+        // Last range starting at or before the address, either within the address's prefix or the one before it
+        int prefix = ip >>> 16;
+        int low = prefixIndex[prefix];
+        int high = prefixIndex[prefix + 1] - 1;
+        int candidate = low - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            if (Integer.compareUnsigned(starts.get(middle), ip) <= 0) {
+                candidate = middle;
+                low = middle + 1;
+            } else {
+                high = middle - 1;
+            }
+        }
+        if (candidate < 0 || Integer.compareUnsigned(ip, ends.get(candidate)) > 0) {
+            return null;
+        }
+        return countries[countryIds.get(candidate)];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Writes the table in the binary format {@link #load(Path)} memory-maps, in big-endian byte order
+     */
+    public void writeTo(Path file) throws IOException {
+        byte[][] encodedCountries = new byte[countries.length][];
+        int countriesLength = 0;
+        for (int i = 0; i < countries.length; i++) {
+            encodedCountries[i] = countries[i].getBytes(StandardCharsets.UTF_8);
+            countriesLength += Short.BYTES + encodedCountries[i].length;
+        }
+        int header = align(3 * Integer.BYTES + countriesLength);
+        ByteBuffer buffer = ByteBuffer.allocate(header + size * (2 * Integer.BYTES + Short.BYTES)).order(BYTE_ORDER);
+        buffer.putInt(MAGIC).putInt(size).putInt(countries.length);
+        for (byte[] country : encodedCountries) {
+            buffer.putShort((short) country.length).put(country);
+        }
+        buffer.position(header);
+        for (int i = 0; i < size; i++) {
+            buffer.putInt(starts.get(i));
+        }
+        for (int i = 0; i < size; i++) {
+            buffer.putInt(ends.get(i));
+        }
+        for (int i = 0; i < size; i++) {
+            buffer.putShort(countryIds.get(i));
+        }
+        Files.write(file, buffer.array());
+    }
+
+    private static IpRangeTable parseCsv(Path file) throws IOException {
+        List<long[]> ranges = new ArrayList<>();
+        List<String> countries = new ArrayList<>();
+        Map<String, Integer> countryIds = new HashMap<>();
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] columns = line.split(",", 3);
+                long start = columns.length == 3 ? IpAddressUtil.parseIpv4(columns[0].trim()) : -1;
+                long end = columns.length == 3 ? IpAddressUtil.parseIpv4(columns[1].trim()) : -1;
+                if (start < 0 || end < start) {
+                    throw new IllegalArgumentException("Invalid IP range on line " + lineNumber + " of " + file + ": " + line);
+                }
+                Integer countryId = countryIds.computeIfAbsent(columns[2].trim(), country -> {
+                    countries.add(country);
+                    return countries.size() - 1;
+                });
+                ranges.add(new long[]{start, end, countryId});
+            }
+        }
+        if (countries.size() > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Too many distinct countries in " + file);
+        }
+
+        ranges.sort((first, second) -> Long.compare(first[0], second[0]));
+        int[] starts = new int[ranges.size()];
+        int[] ends = new int[ranges.size()];
+        short[] ids = new short[ranges.size()];
+        for (int i = 0; i < ranges.size(); i++) {
+            long[] range = ranges.get(i);
+            if (i > 0 && range[0] <= ranges.get(i - 1)[1]) {
+                throw new IllegalArgumentException("Overlapping IP ranges in " + file + " starting at " + IpAddressUtil.formatIpv4(range[0]));
+            }
+            starts[i] = (int) range[0];
+            ends[i] = (int) range[1];
+            ids[i] = (short) range[2];
+        }
+        return new IpRangeTable(IntBuffer.wrap(starts), IntBuffer.wrap(ends), ShortBuffer.wrap(ids), countries.toArray(String[]::new));
+    }
+
+    // The ranges start on an int boundary so the int views read aligned values
+    private static int align(int position) {
+        return (position + Integer.BYTES - 1) & -Integer.BYTES;
+    }
+
+    private static IpRangeTable map(Path file) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            // The mapping stays valid after the channel is closed
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()).order(BYTE_ORDER);
+        }
+        try {
+            if (buffer.getInt() != MAGIC) {
+                throw new IllegalArgumentException(file + " is not an IP range table");
+            }
+            int size = buffer.getInt();
+            String[] countries = new String[buffer.getInt()];
+            for (int i = 0; i < countries.length; i++) {
+                byte[] country = new byte[buffer.getShort()];
+                buffer.get(country);
+                countries[i] = new String(country, StandardCharsets.UTF_8);
+            }
+            int position = align(buffer.position());
+            IntBuffer starts = buffer.slice(position, size * Integer.BYTES).order(BYTE_ORDER).asIntBuffer();
+            position += size * Integer.BYTES;
+            IntBuffer ends = buffer.slice(position, size * Integer.BYTES).order(BYTE_ORDER).asIntBuffer();
+            position += size * Integer.BYTES;
+            ShortBuffer countryIds = buffer.slice(position, size * Short.BYTES).order(BYTE_ORDER).asShortBuffer();
+            return new IpRangeTable(starts, ends, countryIds, countries);
+        } catch (IndexOutOfBoundsException | BufferUnderflowException e) {
+            throw new IllegalArgumentException(file + " is truncated", e);
+        }
+    }
+}
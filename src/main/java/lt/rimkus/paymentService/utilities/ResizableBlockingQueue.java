@@ -0,0 +1,46 @@
+package lt.rimkus.paymentService.utilities;
+
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Work queue for a ThreadPoolExecutor whose capacity can be changed while the pool runs, a LinkedBlockingQueue fixes
+ * it at construction. Only offer(E), which the executor submits tasks with, enforces the capacity. Lowering the
+ * capacity below the current size keeps the queued tasks and rejects new ones until the queue drains below it.
+ */
+public class ResizableBlockingQueue<E> extends LinkedBlockingQueue<E> {
+
+    // Makes the size check and the insert of concurrent offers one step
+    private final ReentrantLock offerLock = new ReentrantLock();
+    private volatile int capacity;
+
+    public ResizableBlockingQueue(int capacity) {
+        setCapacity(capacity);
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public void setCapacity(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Queue capacity must not be negative");
+        }
+        this.capacity = capacity;
+    }
+
+    @Override
+    public boolean offer(E element) {
+        offerLock.lock();
+        try {
+            return size() < capacity && super.offer(element);
+        } finally {
+            offerLock.unlock();
+        }
+    }
+
+    @Override
+    public int remainingCapacity() {
+        return Math.max(capacity - size(), 0);
+    }
+}
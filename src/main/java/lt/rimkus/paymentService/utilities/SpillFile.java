@@ -0,0 +1,202 @@
+package lt.rimkus.paymentService.utilities;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Append-only FIFO of byte records in a memory-mapped file of fixed size, for work that has to outlive a full queue
+ * or a restart. Each record is its length followed by its bytes. The header holds the read and write positions and
+ * moving the write position is what commits an appended record, so a process crash loses at most the record being
+ * written. The space of polled records is reclaimed when the file empties or an append does not fit.
+ * The positions live in the instance, so a file is locked while open and only one instance can use it.
+ */
+public final class SpillFile implements Closeable {
+
+    private static final int READ_POSITION = 0;
+    private static final int WRITE_POSITION = Long.BYTES;
+    private static final int HEADER_SIZE = 2 * Long.BYTES;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int capacity;
+    // Not a monitor, appends come from request threads that may be virtual
+    private final ReentrantLock lock = new ReentrantLock();
+    private int readPosition;
+    private int writePosition;
+    private int size;
+
+    private SpillFile(FileChannel channel, MappedByteBuffer buffer) {
+        this.channel = channel;
+        this.buffer = buffer;
+        this.capacity = buffer.capacity();
+        this.readPosition = (int) buffer.getLong(READ_POSITION);
+        this.writePosition = (int) buffer.getLong(WRITE_POSITION);
+        if (writePosition == 0) {
+            // New file
+            readPosition = HEADER_SIZE;
+            writePosition = HEADER_SIZE;
+        }
+        recover();
+    }
+
+    /**
+     * Opens the file, creating it with the given size when missing. An existing file keeps its records and its own
+     * size when that is larger.
+     *
+     * @throws IOException also when another instance, in this or another process, has the file open
+     */
+    public static SpillFile open(Path file, int size) throws IOException {
+        if (size <= HEADER_SIZE) {
+            throw new IllegalArgumentException("Spill file size must be larger than " + HEADER_SIZE + " bytes");
+        }
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            lock(channel, file);
+            long mappedSize = Math.min(Math.max(channel.size(), size), Integer.MAX_VALUE);
+            return new SpillFile(channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, mappedSize));
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    // Released when the channel is closed
+    private static void lock(FileChannel channel, Path file) throws IOException {
+        FileLock fileLock;
+        try {
+            fileLock = channel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            // Held by another channel of this JVM
+            fileLock = null;
+        }
+        if (fileLock == null) {
+            throw new IOException("Spill file " + file + " is already in use by another instance");
+        }
+    }
+
+    /**
+     * @return false when the record does not fit even after reclaiming the space of polled records
+     */
+    public boolean append(byte[] record) {
+        int recordSize = Integer.BYTES + record.length;
+        lock.lock();
+        try {
+            if (writePosition + recordSize > capacity) {
+                compact();
+                if (writePosition + recordSize > capacity) {
+                    return false;
+                }
+            }
+            buffer.putInt(writePosition, record.length);
+            buffer.put(writePosition + Integer.BYTES, record);
+            writePosition += recordSize;
+            buffer.putLong(WRITE_POSITION, writePosition);
+            size++;
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return the oldest record, or null when the file is empty
+     */
+    public byte[] poll() {
+        lock.lock();
+        try {
+            if (size == 0) {
+                return null;
+            }
+            byte[] record = new byte[buffer.getInt(readPosition)];
+            buffer.get(readPosition + Integer.BYTES, record);
+            size--;
+            if (size == 0) {
+                readPosition = HEADER_SIZE;
+                writePosition = HEADER_SIZE;
+                buffer.putLong(WRITE_POSITION, writePosition);
+            } else {
+                readPosition += Integer.BYTES + record.length;
+            }
+            buffer.putLong(READ_POSITION, readPosition);
+            return record;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Number of records not polled yet
+     */
+    public int size() {
+        lock.lock();
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Writes the mapped pages to the storage device. Not needed to survive a process crash, the pages are already
+     * in the OS page cache, only to survive a machine crash.
+     */
+    public void force() {
+        buffer.force();
+    }
+
+    @Override
+    public void close() throws IOException {
+        force();
+        channel.close();
+    }
+
+    // Moves the unread records to the start of the file
+    private void compact() {
+        if (readPosition == HEADER_SIZE) {
+            return;
+        }
+        int length = writePosition - readPosition;
+        // A crash during the move leaves the header on partly overwritten records, recover() cuts them at the first
+        // broken length and readers have to skip records they cannot decode
+        buffer.put(HEADER_SIZE, buffer, readPosition, length);
+        readPosition = HEADER_SIZE;
+        writePosition = HEADER_SIZE + length;
+        buffer.putLong(READ_POSITION, readPosition);
+        buffer.putLong(WRITE_POSITION, writePosition);
+    }
+
+    // Counts the records and cuts the file at the first one that is not whole, like one a crash interrupted
+    private void recover() {
+        if (readPosition < HEADER_SIZE || writePosition > capacity || readPosition > writePosition) {
+            readPosition = HEADER_SIZE;
+            writePosition = HEADER_SIZE;
+        }
+        int position = readPosition;
+        while (position < writePosition) {
+            int length = buffer.getInt(position);
+            if (length < 0 || length > writePosition - position - Integer.BYTES) {
+                break;
+            }
+            position += Integer.BYTES + length;
+            size++;
+        }
+        writePosition = position;
+        if (size == 0) {
+            readPosition = HEADER_SIZE;
+            writePosition = HEADER_SIZE;
+        }
+        buffer.putLong(READ_POSITION, readPosition);
+        buffer.putLong(WRITE_POSITION, writePosition);
+    }
+}
@@ -0,0 +1,21 @@
+CREATE SEQUENCE payment_id_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE payments (
+    id                        BIGINT         NOT NULL,
+    dtype                     VARCHAR(31)    NOT NULL,
+    type                      VARCHAR(255)   NOT NULL,
+    payment_amount            NUMERIC(38, 2),
+    payment_currency          VARCHAR(255),
+    debtor_iban               VARCHAR(255)   NOT NULL,
+    creditor_iban             VARCHAR(255)   NOT NULL,
+    created_date              DATE           NOT NULL,
+    created_at                TIMESTAMP(6)   NOT NULL,
+    cancelled                 BOOLEAN        NOT NULL,
+    cancellation_fee_amount   NUMERIC(38, 2),
+    cancellation_fee_currency VARCHAR(255),
+    cancellation_time         TIMESTAMP(6),
+    notification_status       VARCHAR(255),
+    details                   VARCHAR(255),
+    creditor_bankbic          VARCHAR(255),
+    PRIMARY KEY (id)
+);
@@ -0,0 +1,4 @@
+-- Serves PaymentRepository.getNotCancelledPaymentsWithinRange: equality on cancelled, range on payment_amount,
+-- and id is part of the key so the selected ids are read from the index without touching the table rows.
+-- Every other hot query looks payments up by id and is served by the primary key.
+CREATE INDEX idx_payments_cancelled_amount_id ON payments (cancelled, payment_amount, id);
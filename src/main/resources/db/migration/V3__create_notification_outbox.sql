@@ -0,0 +1,16 @@
+CREATE SEQUENCE notification_outbox_id_seq START WITH 1 INCREMENT BY 50;
+
+-- One row per created payment, written in the payment's transaction and delivered by NotificationOutboxRelay
+CREATE TABLE notification_outbox (
+    id              BIGINT       NOT NULL,
+    payment_id      BIGINT       NOT NULL,
+    payment_type    VARCHAR(255) NOT NULL,
+    status          VARCHAR(31)  NOT NULL,
+    attempts        INTEGER      NOT NULL,
+    created_at      TIMESTAMP(6) NOT NULL,
+    next_attempt_at TIMESTAMP(6) NOT NULL,
+    delivered_at    TIMESTAMP(6),
+    PRIMARY KEY (id)
+);
+
+CREATE INDEX idx_notification_outbox_status_next_attempt ON notification_outbox (status, next_attempt_at);
@@ -0,0 +1,2 @@
+-- Lets NotificationOutboxRelay claim entries that were never attempted ahead of retries
+CREATE INDEX idx_notification_outbox_status_attempts_next_attempt ON notification_outbox (status, attempts, next_attempt_at);
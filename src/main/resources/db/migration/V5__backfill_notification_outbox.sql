@@ -0,0 +1,9 @@
+-- Payments created before the outbox existed were notified in process, so those that were never notified
+-- (no status) or whose notification failed have no outbox entry to be retried from. Gives each of them a due
+-- entry, only for the types that have a notification channel.
+INSERT INTO notification_outbox (id, payment_id, payment_type, status, attempts, created_at, next_attempt_at)
+SELECT NEXT VALUE FOR notification_outbox_id_seq, p.id, p.type, 'PENDING', 0, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP
+FROM payments p
+WHERE p.type IN ('TYPE1', 'TYPE2')
+  AND (p.notification_status IS NULL OR p.notification_status = 'Failure')
+  AND NOT EXISTS (SELECT 1 FROM notification_outbox o WHERE o.payment_id = p.id);
@@ -0,0 +1,28 @@
+package lt.rimkus.paymentService.benchmarks;
+
+import lt.rimkus.paymentService.DTOs.CreatePaymentRequestDTO;
+import lt.rimkus.paymentService.DTOs.MoneyDTO;
+
+import java.math.BigDecimal;
+
+/**
+ * Valid creation requests shared by the benchmarks.
+ */
+final class BenchmarkPayments {
+
+    private BenchmarkPayments() {
+    }
+
+    static CreatePaymentRequestDTO validRequest(String type) {
+        CreatePaymentRequestDTO requestDTO = new CreatePaymentRequestDTO();
+        requestDTO.setType(type);
+        requestDTO.setMoney(new MoneyDTO());
+        requestDTO.getMoney().setAmount(new BigDecimal("100.00"));
+        requestDTO.getMoney().setCurrency("TYPE2".equals(type) ? "USD" : "EUR");
+        requestDTO.setDebtor_iban("LT601010012345678901");
+        requestDTO.setCreditor_iban("LT601010012345678902");
+        requestDTO.setDetails("Invoice 42");
+        requestDTO.setCreditorBankBIC("HABALT22");
+        return requestDTO;
+    }
+}
@@ -0,0 +1,43 @@
+package lt.rimkus.paymentService.benchmarks;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Runs the selected benchmarks once per thread count and writes the results of each run to
+ * jmh-result-t&lt;threads&gt;.json, so scores can be compared release to release.
+ * Thread counts come from -Djmh.threads (default 1,4,8) unless -t is given, the result directory from -Djmh.resultDir.
+ * Every other argument is a regular JMH command line option.
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws CommandLineOptionException, RunnerException, IOException {
+        CommandLineOptions commandLineOptions = new CommandLineOptions(args);
+        Path resultDirectory = Path.of(System.getProperty("jmh.resultDir", "target/jmh"));
+        Files.createDirectories(resultDirectory);
+
+        List<Integer> threadCounts = commandLineOptions.getThreads().hasValue()
+                ? List.of(commandLineOptions.getThreads().get())
+                : Stream.of(System.getProperty("jmh.threads", "1,4,8").split(",")).map(String::trim).map(Integer::valueOf).toList();
+        for (int threads : threadCounts) {
+            Options options = new OptionsBuilder()
+                    .parent(commandLineOptions)
+                    .threads(threads)
+                    .resultFormat(ResultFormatType.JSON)
+                    .result(resultDirectory.resolve("jmh-result-t" + threads + ".json").toString())
+                    .build();
+            new Runner(options).run();
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package lt.rimkus.paymentService.benchmarks;
+
+import lt.rimkus.paymentService.utilities.CidrMatcher;
+import lt.rimkus.paymentService.utilities.ClientIpExtractor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Resolves the client address of a direct request, of one behind a chain of trusted proxies in X-Forwarded-For and of
+ * one carrying an RFC 7239 Forwarded header. Run with -prof gc to see that only the returned address is allocated.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ClientIpAddressBenchmark {
+
+    @Param({"DIRECT", "X_FORWARDED_FOR", "FORWARDED"})
+    private String headers;
+
+    private final ClientIpExtractor clientIpExtractor = new ClientIpExtractor(CidrMatcher.of(List.of("10.0.0.0/8", "::1/128")));
+    private MockHttpServletRequest request;
+
+    @Setup
+    public void setUp() {
+        request = new MockHttpServletRequest();
+        request.setRemoteAddr("10.0.0.1");
+        switch (headers) {
+            case "X_FORWARDED_FOR" -> request.addHeader("X-Forwarded-For", "198.51.100.2, 203.0.113.7, 10.0.0.3, 10.0.0.2");
+            case "FORWARDED" -> request.addHeader("Forwarded", "for=198.51.100.2, for=\"203.0.113.7:4711\";proto=https, for=10.0.0.2");
+            default -> {
+            }
+        }
+    }
+
+    @Benchmark
+    public String getClientIpAddress() {
+        return clientIpExtractor.getClientIpAddress(request);
+    }
+}
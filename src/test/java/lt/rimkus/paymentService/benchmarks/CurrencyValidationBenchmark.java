@@ -0,0 +1,38 @@
+package lt.rimkus.paymentService.benchmarks;
+
+import lt.rimkus.paymentService.utilities.CurrencyValidationUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Checks a currency against each payment type, covering an allowed pair, a disallowed pair and an unknown currency.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CurrencyValidationBenchmark {
+
+    @Param({"TYPE1", "TYPE2", "TYPE3"})
+    private String type;
+
+    @Param({"EUR", "USD", "GBP"})
+    private String currency;
+
+    @Benchmark
+    public boolean isCurrencyNotValidForPaymentType() {
+        return CurrencyValidationUtils.isCurrencyNotValidForPaymentType(currency, type);
+    }
+}
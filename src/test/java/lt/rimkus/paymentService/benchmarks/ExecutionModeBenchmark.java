@@ -0,0 +1,81 @@
+package lt.rimkus.paymentService.benchmarks;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lt.rimkus.paymentService.configs.AsyncConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the geolocation executor of the two execution modes on tasks that spend their time blocked, like a
+ * lookup waiting for the remote service. Each operation is a burst of lookups, as sent by concurrent requests, and
+ * completes when the whole burst is done. SampleTime reports the p99 burst latency next to the throughput.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 5)
+@Threads(1)
+@Fork(value = 1, jvmArgsAppend = "-Djdk.tracePinnedThreads=short")
+public class ExecutionModeBenchmark {
+
+    @Param({"PLATFORM", "VIRTUAL"})
+    private String mode;
+
+    // Fits the platform pool's queue, so both modes run every task
+    @Param({"100"})
+    private int burst;
+
+    @Param({"10"})
+    private long blockedMillis;
+
+    private Executor executor;
+
+    @Setup
+    public void setUp() {
+        AsyncConfig asyncConfig = new AsyncConfig();
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        executor = "VIRTUAL".equals(mode) ? asyncConfig.virtualGeoLocationExecutor(1000, meterRegistry)
+                : asyncConfig.geoLocationExecutor(meterRegistry);
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (executor instanceof ThreadPoolTaskExecutor pool) {
+            pool.shutdown();
+        }
+    }
+
+    @Benchmark
+    public void blockingBurst() {
+        CompletableFuture<?>[] tasks = new CompletableFuture<?>[burst];
+        for (int i = 0; i < burst; i++) {
+            tasks[i] = CompletableFuture.runAsync(this::blockedLookup, executor);
+        }
+        CompletableFuture.allOf(tasks).join();
+    }
+
+    private void blockedLookup() {
+        try {
+            Thread.sleep(blockedMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
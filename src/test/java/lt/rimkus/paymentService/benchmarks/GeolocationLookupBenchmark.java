@@ -0,0 +1,131 @@
+package lt.rimkus.paymentService.benchmarks;
+
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lt.rimkus.paymentService.services.GeolocationService;
+import lt.rimkus.paymentService.utilities.CidrMatcher;
+import lt.rimkus.paymentService.utilities.IpAddressUtil;
+import lt.rimkus.paymentService.utilities.IpRangeTable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Resolves countries from the offline IP range table, heap-backed (parsed CSV) and memory-mapped (binary file),
+ * and from the remote provider talking to a local HTTP stub with the cache disabled, so every call is a round trip.
+ * About a fifth of the generated addresses fall between ranges, the offline scores include those misses.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+// Without TCP_NODELAY the stub's small responses wait for delayed ACKs
+@Fork(value = 1, jvmArgsAppend = "-Dsun.net.httpserver.nodelay=true")
+public class GeolocationLookupBenchmark {
+
+    private static final int FIRST_ADDRESS = 0x01000000; // 1.0.0.0
+    private static final String[] COUNTRIES = {"Lithuania", "Latvia", "Estonia", "Poland", "Germany", "United States", "Australia"};
+
+    @Param({"OFFLINE_HEAP", "OFFLINE_MAPPED", "REMOTE_STUB"})
+    private String provider;
+
+    @Param({"1000000"})
+    private int ranges;
+
+    private Path directory;
+    private HttpServer stubServer;
+    private IpRangeTable table;
+    private GeolocationService geolocationService;
+    private String[] addresses;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        addresses = new String[4096];
+        Random random = new Random(42);
+        for (int i = 0; i < addresses.length; i++) {
+            addresses[i] = IpAddressUtil.formatIpv4(FIRST_ADDRESS + (long) random.nextInt(ranges) * 256 + random.nextInt(256));
+        }
+
+        if ("REMOTE_STUB".equals(provider)) {
+            byte[] body = "{\"country\":\"Lithuania\",\"country_code\":\"LT\"}".getBytes(StandardCharsets.UTF_8);
+            stubServer = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+            stubServer.createContext("/", exchange -> {
+                exchange.getResponseHeaders().add("Content-Type", "application/json");
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream responseBody = exchange.getResponseBody()) {
+                    responseBody.write(body);
+                }
+            });
+            stubServer.start();
+            String url = "http://127.0.0.1:" + stubServer.getAddress().getPort() + "/";
+            geolocationService = new GeolocationService(new RestTemplateBuilder(), url, url + "geo.json", Runnable::run,
+                    CidrMatcher.of(List.of()), Optional.empty(), Optional.empty(),
+                    new SimpleMeterRegistry(), 0, Duration.ofHours(1), Duration.ofMinutes(1), 1, Duration.ZERO);
+            return;
+        }
+
+        directory = Files.createTempDirectory("geo-bench");
+        Path csv = directory.resolve("ranges.csv");
+        try (BufferedWriter writer = Files.newBufferedWriter(csv)) {
+            for (int i = 0; i < ranges; i++) {
+                long start = FIRST_ADDRESS + (long) i * 256;
+                // Each range covers 200 of its 256 addresses
+                writer.write(IpAddressUtil.formatIpv4(start) + "," + IpAddressUtil.formatIpv4(start + 199) + "," + COUNTRIES[i % COUNTRIES.length]);
+                writer.newLine();
+            }
+        }
+        table = IpRangeTable.load(csv);
+        if ("OFFLINE_MAPPED".equals(provider)) {
+            Path binary = directory.resolve("ranges.bin");
+            table.writeTo(binary);
+            table = IpRangeTable.load(binary);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        if (stubServer != null) {
+            stubServer.stop(0);
+        }
+        if (directory != null) {
+            try (var files = Files.list(directory)) {
+                for (Path file : files.toList()) {
+                    Files.delete(file);
+                }
+            }
+            Files.delete(directory);
+        }
+    }
+
+    @Benchmark
+    public String resolveCountry() {
+        String address = addresses[ThreadLocalRandom.current().nextInt(addresses.length)];
+        return table != null ? table.lookup(address) : geolocationService.resolveCountryByIp(address);
+    }
+}
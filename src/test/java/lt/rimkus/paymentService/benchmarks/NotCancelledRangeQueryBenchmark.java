@@ -0,0 +1,141 @@
+package lt.rimkus.paymentService.benchmarks;
+
+import org.flywaydb.core.Flyway;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Runs the not-cancelled range query against a payments table built by the real Flyway migrations.
+ * Compares the old single query with optional bounds to the bounded variant, with and without the composite index.
+ * The default size is 10M rows; pass for example -p rows=1000000 for a quicker run.
+ * Setup prints the query plan and fails when the indexed variant still scans the table.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class NotCancelledRangeQueryBenchmark {
+
+    private static final String OPTIONAL_BOUNDS_QUERY = "SELECT id FROM payments WHERE cancelled = FALSE " +
+            "AND (CAST(? AS NUMERIC(38, 2)) IS NULL OR payment_amount >= ?) AND (CAST(? AS NUMERIC(38, 2)) IS NULL OR payment_amount <= ?)";
+    private static final String BOUNDED_QUERY = "SELECT id FROM payments WHERE cancelled = FALSE AND payment_amount BETWEEN ? AND ?";
+    private static final String INDEX_NAME = "idx_payments_cancelled_amount_id";
+
+    // Amounts are spread over 0.00 to 9999.99, so this window selects about 0.1% of the rows
+    private static final BigDecimal MIN_AMOUNT = new BigDecimal("5000.00");
+    private static final BigDecimal MAX_AMOUNT = new BigDecimal("5010.00");
+
+    @Param({"10000000"})
+    private int rows;
+
+    @Param({"WITHOUT_INDEX", "WITH_INDEX"})
+    private String schema;
+
+    @Param({"OPTIONAL_BOUNDS", "BOUNDED"})
+    private String query;
+
+    private Path databaseDirectory;
+    private Connection connection;
+    private PreparedStatement statement;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException, IOException {
+        databaseDirectory = Files.createTempDirectory("range-query-bench");
+        String url = "jdbc:h2:file:" + databaseDirectory.resolve("payments") + ";CACHE_SIZE=1048576;OPTIMIZE_REUSE_RESULTS=FALSE";
+        Flyway.configure().dataSource(url, "sa", "").load().migrate();
+
+        connection = DriverManager.getConnection(url, "sa", "");
+        try (Statement ddl = connection.createStatement()) {
+            if ("WITHOUT_INDEX".equals(schema)) {
+                ddl.execute("DROP INDEX " + INDEX_NAME);
+            }
+            // Every tenth payment is cancelled
+            ddl.execute("INSERT INTO payments (id, dtype, type, payment_amount, payment_currency, debtor_iban, creditor_iban, " +
+                    "created_date, created_at, cancelled) " +
+                    "SELECT X, 'TYPE1', 'TYPE1', MOD(X * 7919, 1000000) / 100.0, 'EUR', 'LT601010012345678901', 'LT601010012345678902', " +
+                    "CURRENT_DATE, CURRENT_TIMESTAMP, MOD(X, 10) = 0 FROM SYSTEM_RANGE(1, " + rows + ")");
+            ddl.execute("ANALYZE TABLE payments");
+        }
+
+        statement = connection.prepareStatement("BOUNDED".equals(query) ? BOUNDED_QUERY : OPTIONAL_BOUNDS_QUERY);
+        bindBounds(statement);
+        printAndCheckPlan();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException, IOException {
+        statement.close();
+        try (Statement shutdown = connection.createStatement()) {
+            shutdown.execute("SHUTDOWN");
+        }
+        connection.close();
+        try (Stream<Path> files = Files.walk(databaseDirectory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public void notCancelledPaymentIdsWithinRange(Blackhole blackhole) throws SQLException {
+        try (ResultSet resultSet = statement.executeQuery()) {
+            while (resultSet.next()) {
+                blackhole.consume(resultSet.getLong(1));
+            }
+        }
+    }
+
+    private void bindBounds(PreparedStatement boundedStatement) throws SQLException {
+        if ("BOUNDED".equals(query)) {
+            boundedStatement.setBigDecimal(1, MIN_AMOUNT);
+            boundedStatement.setBigDecimal(2, MAX_AMOUNT);
+        } else {
+            boundedStatement.setBigDecimal(1, MIN_AMOUNT);
+            boundedStatement.setBigDecimal(2, MIN_AMOUNT);
+            boundedStatement.setBigDecimal(3, MAX_AMOUNT);
+            boundedStatement.setBigDecimal(4, MAX_AMOUNT);
+        }
+    }
+
+    private void printAndCheckPlan() throws SQLException {
+        String sql = "BOUNDED".equals(query) ? BOUNDED_QUERY : OPTIONAL_BOUNDS_QUERY;
+        try (PreparedStatement explain = connection.prepareStatement("EXPLAIN " + sql)) {
+            bindBounds(explain);
+            try (ResultSet resultSet = explain.executeQuery()) {
+                resultSet.next();
+                String plan = resultSet.getString(1);
+                System.out.println("Plan for " + schema + " / " + query + ": " + plan.replaceAll("\\s+", " "));
+                boolean rangeSeek = plan.toLowerCase().contains(INDEX_NAME) && plan.contains("PAYMENT_AMOUNT >=");
+                if ("WITH_INDEX".equals(schema) && "BOUNDED".equals(query) && !rangeSeek) {
+                    throw new IllegalStateException("Bounded query does not seek the composite index: " + plan);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package lt.rimkus.paymentService.benchmarks;
+
+import lt.rimkus.paymentService.DTOs.CreatePaymentRequestDTO;
+import lt.rimkus.paymentService.factories.PaymentCreationFactory;
+import lt.rimkus.paymentService.models.Payment;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Creates a payment of each type from a valid request, validation included.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PaymentCreationBenchmark {
+
+    @Param({"TYPE1", "TYPE2", "TYPE3"})
+    private String type;
+
+    private final PaymentCreationFactory paymentCreationFactory = new PaymentCreationFactory();
+    private CreatePaymentRequestDTO requestDTO;
+
+    @Setup
+    public void setUp() {
+        requestDTO = BenchmarkPayments.validRequest(type);
+    }
+
+    @Benchmark
+    public Payment createNewPayment() {
+        List<String> validationErrors = new ArrayList<>();
+        return paymentCreationFactory.createNewPayment(requestDTO, validationErrors);
+    }
+}
@@ -0,0 +1,157 @@
+package lt.rimkus.paymentService.benchmarks;
+
+import lt.rimkus.paymentService.repositories.LockFreePooledLoOptimizer;
+import org.hibernate.id.IdentifierGeneratorHelper;
+import org.hibernate.id.IntegralDataTypeHolder;
+import org.hibernate.id.enhanced.AccessCallback;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the JDBC traffic Hibernate produces for the old IDENTITY ids (one INSERT plus generated key read per row)
+ * with pooled sequence ids from {@link LockFreePooledLoOptimizer} (one sequence call per block, batched INSERTs).
+ * Scores are inserted rows per second.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PaymentInsertBenchmark {
+
+    private static final int ROWS = 1000;
+    private static final int BATCH_SIZE = 50;
+    private static final String COLUMNS = "type, payment_amount, payment_currency, debtor_iban, creditor_iban, created_at";
+    private static final String COLUMNS_DDL = "type VARCHAR(255) NOT NULL, payment_amount NUMERIC(38, 2) NOT NULL, " +
+            "payment_currency VARCHAR(255) NOT NULL, debtor_iban VARCHAR(255) NOT NULL, creditor_iban VARCHAR(255) NOT NULL, " +
+            "created_at TIMESTAMP NOT NULL";
+
+    @Param({"IDENTITY", "POOLED_SEQUENCE"})
+    private String idStrategy;
+
+    private Connection connection;
+    private LockFreePooledLoOptimizer optimizer;
+    private AccessCallback sequenceCallback;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:h2:mem:insert_bench_" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        connection.setAutoCommit(false);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE payments_identity (id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, " + COLUMNS_DDL + ")");
+            statement.execute("CREATE TABLE payments_sequence (id BIGINT PRIMARY KEY, " + COLUMNS_DDL + ")");
+            statement.execute("CREATE SEQUENCE payment_id_seq START WITH 1 INCREMENT BY " + BATCH_SIZE);
+        }
+        connection.commit();
+
+        optimizer = new LockFreePooledLoOptimizer(Long.class, BATCH_SIZE);
+        sequenceCallback = new AccessCallback() {
+            @Override
+            public IntegralDataTypeHolder getNextValue() {
+                try (Statement statement = connection.createStatement();
+                     ResultSet resultSet = statement.executeQuery("SELECT NEXT VALUE FOR payment_id_seq")) {
+                    resultSet.next();
+                    return IdentifierGeneratorHelper.getIntegralDataTypeHolder(Long.class).initialize(resultSet.getLong(1));
+                } catch (SQLException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+
+            @Override
+            public String getTenantIdentifier() {
+                return null;
+            }
+        };
+    }
+
+    @Setup(Level.Iteration)
+    public void truncate() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("TRUNCATE TABLE payments_identity");
+            statement.execute("TRUNCATE TABLE payments_sequence");
+        }
+        connection.commit();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void insertPayments(Blackhole blackhole) throws SQLException {
+        if ("IDENTITY".equals(idStrategy)) {
+            insertWithIdentity(blackhole);
+        } else {
+            insertWithPooledSequence(blackhole);
+        }
+        connection.commit();
+    }
+
+    private void insertWithIdentity(Blackhole blackhole) throws SQLException {
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO payments_identity (" + COLUMNS + ") VALUES (?, ?, ?, ?, ?, ?)", Statement.RETURN_GENERATED_KEYS)) {
+            for (int i = 0; i < ROWS; i++) {
+                bindColumns(insert, 1, i);
+                insert.executeUpdate();
+                try (ResultSet keys = insert.getGeneratedKeys()) {
+                    keys.next();
+                    blackhole.consume(keys.getLong(1));
+                }
+            }
+        }
+    }
+
+    private void insertWithPooledSequence(Blackhole blackhole) throws SQLException {
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO payments_sequence (id, " + COLUMNS + ") VALUES (?, ?, ?, ?, ?, ?, ?)")) {
+            for (int i = 0; i < ROWS; i++) {
+                long id = (Long) optimizer.generate(sequenceCallback);
+                insert.setLong(1, id);
+                bindColumns(insert, 2, i);
+                insert.addBatch();
+                blackhole.consume(id);
+                if ((i + 1) % BATCH_SIZE == 0) {
+                    insert.executeBatch();
+                }
+            }
+            insert.executeBatch();
+        }
+    }
+
+    private static void bindColumns(PreparedStatement insert, int firstIndex, int row) throws SQLException {
+        insert.setString(firstIndex, "TYPE1");
+        insert.setBigDecimal(firstIndex + 1, BigDecimal.valueOf(row, 2));
+        insert.setString(firstIndex + 2, "EUR");
+        insert.setString(firstIndex + 3, "LT601010012345678901");
+        insert.setString(firstIndex + 4, "LT601010012345678902");
+        insert.setTimestamp(firstIndex + 5, Timestamp.valueOf(LocalDateTime.now()));
+    }
+}
@@ -0,0 +1,57 @@
+package lt.rimkus.paymentService.benchmarks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lt.rimkus.paymentService.DTOs.PaymentDTO;
+import lt.rimkus.paymentService.factories.PaymentCreationFactory;
+import lt.rimkus.paymentService.models.Payment;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Maps a payment of each type to its DTO, alone and followed by the JSON serialization the controller does.
+ * The mapper is built the way Spring Boot builds the application one.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PaymentSerializationBenchmark {
+
+    @Param({"TYPE1", "TYPE2", "TYPE3"})
+    private String type;
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private Payment payment;
+
+    @Setup
+    public void setUp() {
+        payment = new PaymentCreationFactory().createNewPayment(BenchmarkPayments.validRequest(type), new ArrayList<>());
+        payment.setId(1L);
+    }
+
+    @Benchmark
+    public PaymentDTO convertToDTO() {
+        return payment.convertToDTO();
+    }
+
+    @Benchmark
+    public byte[] convertAndSerialize() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(payment.convertToDTO());
+    }
+}
@@ -0,0 +1,74 @@
+package lt.rimkus.paymentService.benchmarks;
+
+import lt.rimkus.paymentService.DTOs.CreatePaymentRequestDTO;
+import lt.rimkus.paymentService.DTOs.MoneyDTO;
+import lt.rimkus.paymentService.factories.PaymentCreationFactory;
+import lt.rimkus.paymentService.models.Payment;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Validates and creates payments the way a create request does, for a valid payload, a payload with one error and a
+ * payload with every common field broken. Run with -prof gc to see the allocation per request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PaymentValidationBenchmark {
+
+    @Param({"VALID", "ONE_ERROR", "ALL_ERRORS"})
+    private String payload;
+
+    private final PaymentCreationFactory paymentCreationFactory = new PaymentCreationFactory();
+    private CreatePaymentRequestDTO requestDTO;
+
+    @Setup
+    public void setUp() {
+        requestDTO = new CreatePaymentRequestDTO();
+        requestDTO.setType("TYPE3");
+        requestDTO.setMoney(new MoneyDTO());
+        requestDTO.getMoney().setAmount(new BigDecimal("100.00"));
+        requestDTO.getMoney().setCurrency("USD");
+        requestDTO.setDebtor_iban("LT601010012345678901");
+        requestDTO.setCreditor_iban("LT601010012345678902");
+        requestDTO.setCreditorBankBIC("HABALT22");
+        switch (payload) {
+            case "ONE_ERROR" -> requestDTO.getMoney().setCurrency("GBP");
+            case "ALL_ERRORS" -> {
+                requestDTO.getMoney().setAmount(new BigDecimal("-1.005"));
+                requestDTO.getMoney().setCurrency("");
+                requestDTO.setDebtor_iban(null);
+                requestDTO.setCreditor_iban("");
+                requestDTO.setCreditorBankBIC(" ");
+            }
+            default -> {
+            }
+        }
+    }
+
+    @Benchmark
+    public void validateAndCreatePayment(Blackhole blackhole) {
+        List<String> validationErrors = new ArrayList<>();
+        Payment payment = paymentCreationFactory.createNewPayment(requestDTO, validationErrors);
+        blackhole.consume(payment);
+        blackhole.consume(validationErrors);
+    }
+}
@@ -0,0 +1,57 @@
+package lt.rimkus.paymentService.benchmarks;
+
+import lt.rimkus.paymentService.utilities.CidrMatcher;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the CIDR matcher with the startsWith chain GeolocationService used before, for a public and a private
+ * IPv4 address and an IPv6 link-local one (which the old chain did not recognise). Run with -prof gc to check that
+ * matching allocates nothing.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PrivateIpMatchBenchmark {
+
+    @Param({"8.8.8.8", "172.31.255.255", "fe80::1ff:fe23:4567:890a"})
+    private String ip;
+
+    private final CidrMatcher matcher = CidrMatcher.of(List.of("127.0.0.0/8", "10.0.0.0/8", "172.16.0.0/12", "192.168.0.0/16",
+            "169.254.0.0/16", "::1/128", "fc00::/7", "fe80::/10"));
+
+    @Benchmark
+    public boolean cidrMatcher() {
+        return matcher.matches(ip);
+    }
+
+    @Benchmark
+    public boolean startsWithChain() {
+        return ip.equals("127.0.0.1") ||
+                ip.equals("::1") ||
+                ip.equals("0:0:0:0:0:0:0:1") ||
+                ip.startsWith("192.168.") ||
+                ip.startsWith("10.") ||
+                ip.startsWith("172.16.") ||
+                ip.startsWith("172.17.") ||
+                ip.startsWith("172.18.") ||
+                ip.startsWith("172.19.") ||
+                ip.startsWith("172.2") ||
+                ip.startsWith("172.30.") ||
+                ip.startsWith("172.31.");
+    }
+}
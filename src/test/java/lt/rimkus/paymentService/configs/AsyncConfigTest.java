@@ -0,0 +1,87 @@
+package lt.rimkus.paymentService.configs;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.autoconfigure.metrics.task.TaskExecutorMetricsAutoConfiguration;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AsyncConfigTest {
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withBean(RestTemplateBuilder.class, RestTemplateBuilder::new)
+            .withBean(MeterRegistry.class, SimpleMeterRegistry::new)
+            .withUserConfiguration(AsyncConfig.class);
+
+    @Test
+    @DisplayName("Should use the platform thread pool by default")
+    void testGeoLocationExecutor_PlatformByDefault() {
+        contextRunner.run(context -> assertThat(context.getBean("geoLocationExecutor")).isInstanceOf(ThreadPoolTaskExecutor.class));
+    }
+
+    @Test
+    @DisplayName("Should run geolocation lookups on virtual threads when enabled")
+    void testGeoLocationExecutor_VirtualEnabled() {
+        contextRunner.withPropertyValues("spring.threads.virtual.enabled=true").run(context -> {
+            // Given
+            SimpleAsyncTaskExecutor executor = context.getBean("geoLocationExecutor", SimpleAsyncTaskExecutor.class);
+
+            // When
+            boolean virtual = CompletableFuture.supplyAsync(() -> Thread.currentThread().isVirtual(), executor).get(5, TimeUnit.SECONDS);
+
+            // Then
+            assertThat(virtual).isTrue();
+            assertThat(executor.getConcurrencyLimit()).isEqualTo(1000);
+        });
+    }
+
+    @Test
+    @DisplayName("Should publish pool gauges, rejections and queue wait and run times of the geolocation pool")
+    void testGeoLocationExecutor_Metrics() {
+        // Boot binds the pool gauges, the configuration adds the rest
+        contextRunner.withConfiguration(AutoConfigurations.of(TaskExecutorMetricsAutoConfiguration.class)).run(context -> {
+            // Given
+            MeterRegistry meterRegistry = context.getBean(MeterRegistry.class);
+            ThreadPoolTaskExecutor executor = context.getBean("geoLocationExecutor", ThreadPoolTaskExecutor.class);
+            CountDownLatch release = new CountDownLatch(1);
+            Runnable blocked = () -> {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            };
+
+            // When: Five running and a hundred queued tasks fill the pool, the next one is rejected
+            for (int i = 0; i < 105; i++) {
+                executor.execute(blocked);
+            }
+            assertThatThrownBy(() -> executor.execute(blocked)).isInstanceOf(RejectedExecutionException.class);
+            double queued = meterRegistry.get("executor.queued").tag("name", "geoLocationExecutor").gauge().value();
+            release.countDown();
+            // The executor's own shutdown drops queued tasks, the pool's runs them first
+            executor.getThreadPoolExecutor().shutdown();
+            assertThat(executor.getThreadPoolExecutor().awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+
+            // Then
+            assertThat(queued).isEqualTo(100);
+            assertThat(meterRegistry.get("executor.rejected").tag("name", "geoLocationExecutor").counter().count()).isEqualTo(1);
+            assertThat(meterRegistry.get("executor.completed").tag("name", "geoLocationExecutor").functionCounter().count()).isEqualTo(105);
+            assertThat(meterRegistry.get("executor.idle").tag("name", "geoLocationExecutor").timer().count()).isEqualTo(105);
+            assertThat(meterRegistry.get("executor").tag("name", "geoLocationExecutor").timer().count()).isEqualTo(105);
+        });
+    }
+}
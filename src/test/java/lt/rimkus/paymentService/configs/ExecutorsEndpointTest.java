@@ -0,0 +1,98 @@
+package lt.rimkus.paymentService.configs;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ExecutorsEndpointTest {
+
+    private final ThreadPoolTaskExecutor geoLocationExecutor = new AsyncConfig().geoLocationExecutor(new SimpleMeterRegistry());
+    private final ExecutorsEndpoint endpoint = new ExecutorsEndpoint(Map.of("geoLocationExecutor", geoLocationExecutor));
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        geoLocationExecutor.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should list the pools with their sizes")
+    void testExecutors() {
+        // When
+        Map<String, ExecutorsEndpoint.ExecutorDescriptor> executors = endpoint.executors();
+
+        // Then
+        assertThat(executors).containsOnlyKeys("geoLocationExecutor");
+        assertThat(executors.get("geoLocationExecutor")).isEqualTo(new ExecutorsEndpoint.ExecutorDescriptor(2, 5, 0, 0, 0, 100, 0));
+    }
+
+    @Test
+    @DisplayName("Should grow a running pool and its queue")
+    void testResize_Grow() {
+        // Given: A full pool
+        fill(105);
+
+        // When
+        ExecutorsEndpoint.ExecutorDescriptor resized = endpoint.resize("geoLocationExecutor", 8, 10, 200);
+
+        // Then: New tasks get the added threads and queue slots
+        assertThat(resized.corePoolSize()).isEqualTo(8);
+        assertThat(resized.maxPoolSize()).isEqualTo(10);
+        assertThat(resized.queueCapacity()).isEqualTo(200);
+        assertThatCode(() -> fill(105)).doesNotThrowAnyException();
+        assertThat(geoLocationExecutor.getPoolSize()).isEqualTo(10);
+        assertThat(geoLocationExecutor.getQueueSize()).isEqualTo(200);
+    }
+
+    @Test
+    @DisplayName("Should shrink the pool and reject tasks over the smaller queue")
+    void testResize_Shrink() {
+        // When
+        ExecutorsEndpoint.ExecutorDescriptor resized = endpoint.resize("geoLocationExecutor", 1, 1, 1);
+
+        // Then
+        assertThat(resized.corePoolSize()).isEqualTo(1);
+        assertThat(resized.maxPoolSize()).isEqualTo(1);
+        fill(2);
+        assertThatThrownBy(() -> fill(1)).isInstanceOf(RejectedExecutionException.class);
+    }
+
+    @Test
+    @DisplayName("Should refuse a core pool size over the max pool size")
+    void testResize_InvalidSizes() {
+        assertThatThrownBy(() -> endpoint.resize("geoLocationExecutor", 6, null, null)).isInstanceOf(InvalidEndpointRequestException.class);
+        assertThatThrownBy(() -> endpoint.resize("geoLocationExecutor", null, null, -1)).isInstanceOf(InvalidEndpointRequestException.class);
+        assertThat(endpoint.executor("geoLocationExecutor")).isEqualTo(new ExecutorsEndpoint.ExecutorDescriptor(2, 5, 0, 0, 0, 100, 0));
+    }
+
+    @Test
+    @DisplayName("Should answer null, which the actuator turns into 404, for an unknown pool")
+    void testResize_UnknownExecutor() {
+        assertThat(endpoint.resize("unknownExecutor", 1, 1, 1)).isNull();
+        assertThat(endpoint.executor("unknownExecutor")).isNull();
+    }
+
+    private void fill(int tasks) {
+        for (int i = 0; i < tasks; i++) {
+            geoLocationExecutor.execute(() -> {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package lt.rimkus.paymentService.configs;
+
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.Metrics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OutboundHttpConfigTest {
+
+    private final OutboundHttpConfig outboundHttpConfig = new OutboundHttpConfig();
+    private final Set<Integer> clientPorts = ConcurrentHashMap.newKeySet();
+    private HttpServer server;
+    private ConnectionProvider connectionProvider;
+    private HttpClient httpClient;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> {
+            clientPorts.add(exchange.getRemoteAddress().getPort());
+            byte[] body = "{}".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.start();
+        connectionProvider = outboundHttpConfig.outboundConnectionProvider(10, Duration.ofSeconds(5), Duration.ofSeconds(30));
+        httpClient = outboundHttpConfig.outboundHttpClient(connectionProvider, false);
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+        connectionProvider.dispose();
+    }
+
+    @Test
+    @DisplayName("Should reuse pooled connections across RestTemplate and WebClient calls")
+    void testOutboundHttpClient_ShouldReuseConnections() {
+        // Given
+        String url = "http://127.0.0.1:" + server.getAddress().getPort() + "/v1/ip/country/8.8.8.8";
+        RestTemplate restTemplate = new RestTemplateBuilder()
+                .requestFactoryBuilder(outboundHttpConfig.clientHttpRequestFactoryBuilder(httpClient))
+                .connectTimeout(Duration.ofSeconds(3))
+                .readTimeout(Duration.ofSeconds(5))
+                .build();
+        WebClient webClient = WebClient.builder().clientConnector(outboundHttpConfig.clientHttpConnector(httpClient)).build();
+
+        // When
+        for (int i = 0; i < 10; i++) {
+            restTemplate.getForObject(url, String.class);
+            webClient.get().uri(url).retrieve().bodyToMono(String.class).block(Duration.ofSeconds(5));
+        }
+
+        // Then
+        // A connection goes back to the pool just after the response is handed over, so a back-to-back call can open another
+        assertThat(clientPorts).hasSizeLessThanOrEqualTo(5);
+        assertThat(Metrics.globalRegistry.find("reactor.netty.connection.provider.total.connections")
+                .tag("name", "outbound").gauge()).isNotNull();
+    }
+
+    @Test
+    @DisplayName("Should drop the last path segment and the query from the uri tag")
+    void testUriTagValue() {
+        assertThat(OutboundHttpConfig.uriTagValue("/v1/ip/country/8.8.8.8.json")).isEqualTo("/v1/ip/country/");
+        assertThat(OutboundHttpConfig.uriTagValue("/v1/ip/geo.json?ip=1.1.1.1,8.8.8.8")).isEqualTo("/v1/ip/");
+        assertThat(OutboundHttpConfig.uriTagValue("/users/someone")).isEqualTo("/users/");
+        assertThat(OutboundHttpConfig.uriTagValue("")).isEmpty();
+    }
+}
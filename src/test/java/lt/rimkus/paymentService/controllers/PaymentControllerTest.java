@@ -1,19 +1,26 @@
 package lt.rimkus.paymentService.controllers;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import jakarta.servlet.http.HttpServletRequest;
 import lt.rimkus.paymentService.DTOs.CancelPaymentResponseDTO;
+import lt.rimkus.paymentService.DTOs.CancelPaymentsBatchResponseDTO;
 import lt.rimkus.paymentService.DTOs.CreatePaymentRequestDTO;
 import lt.rimkus.paymentService.DTOs.CreatePaymentResponseDTO;
+import lt.rimkus.paymentService.DTOs.CreatePaymentsBatchResponseDTO;
 import lt.rimkus.paymentService.DTOs.GetNotCancelledPaymentsDTO;
 import lt.rimkus.paymentService.DTOs.MoneyDTO;
 import lt.rimkus.paymentService.DTOs.PaymentCancellationInfoDTO;
 import lt.rimkus.paymentService.DTOs.PaymentDTO;
+import lt.rimkus.paymentService.DTOs.PaymentPageDTO;
 import lt.rimkus.paymentService.DTOs.TestPaymentDTO;
 import lt.rimkus.paymentService.models.Money;
-import lt.rimkus.paymentService.models.Payment;
-import lt.rimkus.paymentService.models.TestPayment;
 import lt.rimkus.paymentService.services.GeolocationService;
+import lt.rimkus.paymentService.services.PaymentBatchService;
+import lt.rimkus.paymentService.services.PaymentBulkheads;
 import lt.rimkus.paymentService.services.PaymentService;
+import lt.rimkus.paymentService.utilities.CidrMatcher;
+import lt.rimkus.paymentService.utilities.ClientIpExtractor;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -22,14 +29,25 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.env.MockEnvironment;
 import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
+import static lt.rimkus.paymentService.messages.OtherMessages.TOO_MANY_PAYMENTS_IN_PROGRESS;
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
@@ -37,6 +55,7 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -45,7 +64,14 @@ class PaymentControllerTest {
     @Mock
     private PaymentService paymentService;
     @Mock
+    private PaymentBatchService paymentBatchService;
+    @Mock
     private GeolocationService geolocationService;
+    @Spy
+    private ClientIpExtractor clientIpExtractor = new ClientIpExtractor(CidrMatcher.of(List.of("127.0.0.0/8")));
+    @Spy
+    private PaymentBulkheads paymentBulkheads = new PaymentBulkheads(new MockEnvironment()
+            .withProperty("app.payments.bulkhead.TYPE1.max-concurrent-calls", "1"), new SimpleMeterRegistry());
 
     @InjectMocks
     private PaymentController paymentController;
@@ -58,33 +84,52 @@ class PaymentControllerTest {
     }
 
     @Test
-    @DisplayName("Should return payments")
-    void testGetAllPayments_returnsMappedDTOs() {
+    @DisplayName("Should return a page of payments")
+    void testGetPayments_returnsPage() {
         // Given
-        Payment mockPayment = new TestPayment() {
-            @Override
-            public PaymentDTO convertToDTO() {
-                PaymentDTO dto = new TestPaymentDTO();
-                dto.setId(1L);
-                dto.setType("TYPE1");
-                MoneyDTO money = new MoneyDTO();
-                money.setAmount(new BigDecimal("100.00"));
-                money.setCurrency("EUR");
-                dto.setMoney(money);
-                dto.setDebtor_iban("DE123");
-                dto.setCreditor_iban("FR456");
-                return dto;
-            }
-        };
+        PaymentDTO dto = new TestPaymentDTO();
+        dto.setId(1L);
+        dto.setType("TYPE1");
+        PaymentPageDTO page = new PaymentPageDTO();
+        page.setPayments(List.of(dto));
+        page.setNextAfterId(1L);
 
         // When
-        when(paymentService.getAllPayments()).thenReturn(List.of(mockPayment));
-        List<PaymentDTO> result = paymentController.getAllPayments();
+        when(paymentService.getPaymentsPage(0L, 1)).thenReturn(page);
+        PaymentPageDTO result = paymentController.getPayments(0L, 1);
 
         // Then
-        assertEquals(1, result.size());
-        assertEquals("TYPE1", result.get(0).getType());
-        assertEquals("EUR", result.get(0).getMoney().getCurrency());
+        assertEquals(1, result.getPayments().size());
+        assertEquals("TYPE1", result.getPayments().get(0).getType());
+        assertEquals(1L, result.getNextAfterId());
+    }
+
+    @Test
+    @DisplayName("Should write streamed payments as a JSON array")
+    void testStreamAllPayments_writesJsonArray() throws IOException {
+        // Given
+        ReflectionTestUtils.setField(paymentController, "objectMapper", new ObjectMapper());
+        PaymentDTO dto = new TestPaymentDTO();
+        dto.setId(7L);
+        dto.setType("TYPE2");
+        doAnswer(invocation -> {
+            Consumer<PaymentDTO> consumer = invocation.getArgument(0);
+            consumer.accept(dto);
+            consumer.accept(dto);
+            return null;
+        }).when(paymentService).streamAllPayments(any());
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        // When
+        ResponseEntity<StreamingResponseBody> response = paymentController.streamAllPayments();
+        Assertions.assertNotNull(response.getBody());
+        response.getBody().writeTo(outputStream);
+
+        // Then
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        String json = outputStream.toString(StandardCharsets.UTF_8);
+        assertTrue(json.startsWith("[") && json.endsWith("]"));
+        assertEquals(2, json.split("\"id\":7").length - 1);
     }
 
     @Test
@@ -143,6 +188,84 @@ class PaymentControllerTest {
         assertEquals("Unsupported type: INVALID", result.getBody().getValidationErrors().get(0));
     }
 
+    @Test
+    @DisplayName("Should return Too Many Requests when the payment type is at its bulkhead limit")
+    void testCreatePayment_bulkheadFull_returnsTooManyRequests() {
+        // Given: TYPE1 allows one creation at a time and a TYPE1 payment is being created
+        CreatePaymentRequestDTO requestDTO = new CreatePaymentRequestDTO();
+        requestDTO.setType("TYPE1");
+        CreatePaymentRequestDTO otherTypeRequestDTO = new CreatePaymentRequestDTO();
+        otherTypeRequestDTO.setType("TYPE3");
+        HttpServletRequest httpRequest = new MockHttpServletRequest();
+        List<ResponseEntity<CreatePaymentResponseDTO>> concurrentResults = new ArrayList<>();
+        when(paymentService.createPayment(eq(requestDTO), any())).thenAnswer(invocation -> {
+            concurrentResults.add(paymentController.createPayment(requestDTO, httpRequest));
+            concurrentResults.add(paymentController.createPayment(otherTypeRequestDTO, httpRequest));
+            return invocation.getArgument(1);
+        });
+        when(paymentService.createPayment(eq(otherTypeRequestDTO), any())).thenAnswer(invocation -> invocation.getArgument(1));
+
+        // When
+        ResponseEntity<CreatePaymentResponseDTO> result = paymentController.createPayment(requestDTO, httpRequest);
+
+        // Then: Only the concurrent TYPE1 payment is rejected
+        assertEquals(HttpStatus.CREATED, result.getStatusCode());
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, concurrentResults.get(0).getStatusCode());
+        assertEquals("1", concurrentResults.get(0).getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        assertEquals(TOO_MANY_PAYMENTS_IN_PROGRESS + "TYPE1", concurrentResults.get(0).getBody().getValidationErrors().get(0));
+        assertEquals(HttpStatus.CREATED, concurrentResults.get(1).getStatusCode());
+    }
+
+    @Test
+    @DisplayName("Should return Created when every payment of a batch is created")
+    void testCreatePayments_allCreated_returnsCreated() {
+        // Given
+        CreatePaymentsBatchResponseDTO responseDTO = new CreatePaymentsBatchResponseDTO();
+        responseDTO.setCreatedCount(2);
+        List<CreatePaymentRequestDTO> requestDTOs = List.of(new CreatePaymentRequestDTO(), new CreatePaymentRequestDTO());
+        when(paymentBatchService.createPayments(requestDTOs)).thenReturn(responseDTO);
+
+        // When
+        ResponseEntity<CreatePaymentsBatchResponseDTO> result = paymentController.createPayments(requestDTOs, new MockHttpServletRequest());
+
+        // Then
+        assertEquals(HttpStatus.CREATED, result.getStatusCode());
+        assertEquals(responseDTO, result.getBody());
+    }
+
+    @Test
+    @DisplayName("Should return Multi-Status when only part of a batch is created")
+    void testCreatePayments_partiallyCreated_returnsMultiStatus() {
+        // Given
+        CreatePaymentsBatchResponseDTO responseDTO = new CreatePaymentsBatchResponseDTO();
+        responseDTO.setCreatedCount(1);
+        responseDTO.setFailedCount(1);
+        List<CreatePaymentRequestDTO> requestDTOs = List.of(new CreatePaymentRequestDTO(), new CreatePaymentRequestDTO());
+        when(paymentBatchService.createPayments(requestDTOs)).thenReturn(responseDTO);
+
+        // When
+        ResponseEntity<CreatePaymentsBatchResponseDTO> result = paymentController.createPayments(requestDTOs, new MockHttpServletRequest());
+
+        // Then
+        assertEquals(HttpStatus.MULTI_STATUS, result.getStatusCode());
+    }
+
+    @Test
+    @DisplayName("Should return Bad Request when no payment of a batch is created")
+    void testCreatePayments_noneCreated_returnsBadRequest() {
+        // Given
+        CreatePaymentsBatchResponseDTO responseDTO = new CreatePaymentsBatchResponseDTO();
+        responseDTO.setFailedCount(1);
+        List<CreatePaymentRequestDTO> requestDTOs = List.of(new CreatePaymentRequestDTO());
+        when(paymentBatchService.createPayments(requestDTOs)).thenReturn(responseDTO);
+
+        // When
+        ResponseEntity<CreatePaymentsBatchResponseDTO> result = paymentController.createPayments(requestDTOs, new MockHttpServletRequest());
+
+        // Then
+        assertEquals(HttpStatus.BAD_REQUEST, result.getStatusCode());
+    }
+
     @Test
     @DisplayName("Should return Bad Request when invalid request is received for payment cancellation")
     void testDeletePayment_invalidRequest_shouldReturnBadRequest() {
@@ -200,6 +323,36 @@ class PaymentControllerTest {
         assertTrue(responseDTO.getMessage().contains("was successfully cancelled. Cancellation fee is:"));
     }
 
+    @Test
+    @DisplayName("Should return OK with per id outcomes for a bulk cancellation")
+    void testCancelPayments_returnsOk() {
+        // Given
+        CancelPaymentsBatchResponseDTO responseDTO = new CancelPaymentsBatchResponseDTO();
+        given(paymentBatchService.cancelPayments(List.of(1L, 2L))).willReturn(responseDTO);
+
+        // When
+        ResponseEntity<CancelPaymentsBatchResponseDTO> response = paymentController.cancelPayments(List.of(1L, 2L), new MockHttpServletRequest());
+
+        // Then
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(responseDTO, response.getBody());
+    }
+
+    @Test
+    @DisplayName("Should return Bad Request for an invalid bulk cancellation")
+    void testCancelPayments_invalidRequest_returnsBadRequest() {
+        // Given
+        CancelPaymentsBatchResponseDTO responseDTO = new CancelPaymentsBatchResponseDTO();
+        responseDTO.getValidationErrors().add("Batch request must contain at least one payment");
+        given(paymentBatchService.cancelPayments(List.of())).willReturn(responseDTO);
+
+        // When
+        ResponseEntity<CancelPaymentsBatchResponseDTO> response = paymentController.cancelPayments(List.of(), new MockHttpServletRequest());
+
+        // Then
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    }
+
     @Test
     @DisplayName("Should correctly return cancelled payment IDs")
     void shouldReturnNotCancelledPaymentIds_givenValidRange() {
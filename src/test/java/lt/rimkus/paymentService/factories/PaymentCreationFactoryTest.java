@@ -3,7 +3,6 @@ package lt.rimkus.paymentService.factories;
 import lt.rimkus.paymentService.DTOs.CreatePaymentRequestDTO;
 import lt.rimkus.paymentService.DTOs.MoneyDTO;
 import lt.rimkus.paymentService.enums.PaymentType;
-import lt.rimkus.paymentService.exceptions.RequestValidationException;
 import lt.rimkus.paymentService.models.Payment;
 import lt.rimkus.paymentService.models.TYPE1Payment;
 import lt.rimkus.paymentService.models.TYPE2Payment;
@@ -18,9 +17,14 @@ import org.mockito.MockedStatic;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
@@ -68,7 +72,7 @@ class PaymentCreationFactoryTest {
             // When & Then
             IllegalArgumentException exception = assertThrows(
                     IllegalArgumentException.class,
-                    () -> paymentCreationFactory.createNewPayment(validRequestDTO)
+                    () -> paymentCreationFactory.createNewPayment(validRequestDTO, new ArrayList<>())
             );
             assertTrue(exception.getMessage().contains("INVALID_TYPE"));
         }
@@ -82,7 +86,7 @@ class PaymentCreationFactoryTest {
             // When & Then
             assertThrows(
                     NullPointerException.class,
-                    () -> paymentCreationFactory.createNewPayment(validRequestDTO)
+                    () -> paymentCreationFactory.createNewPayment(validRequestDTO, new ArrayList<>())
             );
         }
 
@@ -95,25 +99,26 @@ class PaymentCreationFactoryTest {
             // When & Then
             IllegalArgumentException exception = assertThrows(
                     IllegalArgumentException.class,
-                    () -> paymentCreationFactory.createNewPayment(validRequestDTO)
+                    () -> paymentCreationFactory.createNewPayment(validRequestDTO, new ArrayList<>())
             );
             assertTrue(exception.getMessage().contains("type1"));
         }
     }
 
     @Nested
-    @DisplayName("Validation Error Propagation Tests")
-    class ValidationErrorPropagationTests {
+    @DisplayName("Validation Error Reporting Tests")
+    class ValidationErrorReportingTests {
 
         @Test
-        @DisplayName("Should propagate validation exception from TYPE1 payment")
-        void givenInvalidTYPE1Request_whenCreatingNewPayment_thenShouldPropagateValidationException() throws RequestValidationException {
+        @DisplayName("Should report validation errors from TYPE1 payment and return no payment")
+        void givenInvalidTYPE1Request_whenCreatingNewPayment_thenShouldReportValidationErrors() {
             // Given
             validRequestDTO.setType("TYPE1");
             TYPE1Payment mockPayment = mock(TYPE1Payment.class);
-            RequestValidationException validationException = new RequestValidationException("Validation failed");
+            List<String> validationErrors = new ArrayList<>();
 
-            doThrow(validationException).when(mockPayment).validateEntityCreationRequest(validRequestDTO);
+            doAnswer(invocation -> invocation.<List<String>>getArgument(1).add("Validation failed"))
+                    .when(mockPayment).validateEntityCreationRequest(validRequestDTO, validationErrors);
 
             try (MockedStatic<PaymentType> mockedPaymentType = mockStatic(PaymentType.class)) {
                 mockedPaymentType.when(() -> PaymentType.valueOf("TYPE1")).thenReturn(PaymentType.TYPE1);
@@ -121,12 +126,12 @@ class PaymentCreationFactoryTest {
                 PaymentCreationFactory spyFactory = spy(paymentCreationFactory);
                 doReturn(mockPayment).when(spyFactory).createPayment(validRequestDTO);
 
-                // When & Then
-                RequestValidationException exception = assertThrows(
-                        RequestValidationException.class,
-                        () -> spyFactory.createNewPayment(validRequestDTO)
-                );
-                assertEquals("Validation failed", exception.getMessage());
+                // When
+                Payment result = spyFactory.createNewPayment(validRequestDTO, validationErrors);
+
+                // Then
+                assertNull(result);
+                assertEquals(List.of("Validation failed"), validationErrors);
 
                 // Verify that populateEntityData was never called due to validation failure
                 verify(mockPayment, never()).populateEntityData(any());
@@ -134,14 +139,15 @@ class PaymentCreationFactoryTest {
         }
 
         @Test
-        @DisplayName("Should propagate validation exception from TYPE2 payment")
-        void givenInvalidTYPE2Request_whenCreatingNewPayment_thenShouldPropagateValidationException() throws RequestValidationException {
+        @DisplayName("Should report validation errors from TYPE2 payment and return no payment")
+        void givenInvalidTYPE2Request_whenCreatingNewPayment_thenShouldReportValidationErrors() {
             // Given
             validRequestDTO.setType("TYPE2");
             TYPE2Payment mockPayment = mock(TYPE2Payment.class);
-            RequestValidationException validationException = new RequestValidationException("TYPE2 validation failed");
+            List<String> validationErrors = new ArrayList<>();
 
-            doThrow(validationException).when(mockPayment).validateEntityCreationRequest(validRequestDTO);
+            doAnswer(invocation -> invocation.<List<String>>getArgument(1).add("TYPE2 validation failed"))
+                    .when(mockPayment).validateEntityCreationRequest(validRequestDTO, validationErrors);
 
             try (MockedStatic<PaymentType> mockedPaymentType = mockStatic(PaymentType.class)) {
                 mockedPaymentType.when(() -> PaymentType.valueOf("TYPE2")).thenReturn(PaymentType.TYPE2);
@@ -149,12 +155,12 @@ class PaymentCreationFactoryTest {
                 PaymentCreationFactory spyFactory = spy(paymentCreationFactory);
                 doReturn(mockPayment).when(spyFactory).createPayment(validRequestDTO);
 
-                // When & Then
-                RequestValidationException exception = assertThrows(
-                        RequestValidationException.class,
-                        () -> spyFactory.createNewPayment(validRequestDTO)
-                );
-                assertEquals("TYPE2 validation failed", exception.getMessage());
+                // When
+                Payment result = spyFactory.createNewPayment(validRequestDTO, validationErrors);
+
+                // Then
+                assertNull(result);
+                assertEquals(List.of("TYPE2 validation failed"), validationErrors);
 
                 // Verify that populateEntityData was never called due to validation failure
                 verify(mockPayment, never()).populateEntityData(any());
@@ -162,14 +168,15 @@ class PaymentCreationFactoryTest {
         }
 
         @Test
-        @DisplayName("Should propagate validation exception from TYPE3 payment")
-        void givenInvalidTYPE3Request_whenCreatingNewPayment_thenShouldPropagateValidationException() throws RequestValidationException {
+        @DisplayName("Should report validation errors from TYPE3 payment and return no payment")
+        void givenInvalidTYPE3Request_whenCreatingNewPayment_thenShouldReportValidationErrors() {
             // Given
             validRequestDTO.setType("TYPE3");
             TYPE3Payment mockPayment = mock(TYPE3Payment.class);
-            RequestValidationException validationException = new RequestValidationException("TYPE3 validation failed");
+            List<String> validationErrors = new ArrayList<>();
 
-            doThrow(validationException).when(mockPayment).validateEntityCreationRequest(validRequestDTO);
+            doAnswer(invocation -> invocation.<List<String>>getArgument(1).add("TYPE3 validation failed"))
+                    .when(mockPayment).validateEntityCreationRequest(validRequestDTO, validationErrors);
 
             try (MockedStatic<PaymentType> mockedPaymentType = mockStatic(PaymentType.class)) {
                 mockedPaymentType.when(() -> PaymentType.valueOf("TYPE3")).thenReturn(PaymentType.TYPE3);
@@ -177,12 +184,12 @@ class PaymentCreationFactoryTest {
                 PaymentCreationFactory spyFactory = spy(paymentCreationFactory);
                 doReturn(mockPayment).when(spyFactory).createPayment(validRequestDTO);
 
-                // When & Then
-                RequestValidationException exception = assertThrows(
-                        RequestValidationException.class,
-                        () -> spyFactory.createNewPayment(validRequestDTO)
-                );
-                assertEquals("TYPE3 validation failed", exception.getMessage());
+                // When
+                Payment result = spyFactory.createNewPayment(validRequestDTO, validationErrors);
+
+                // Then
+                assertNull(result);
+                assertEquals(List.of("TYPE3 validation failed"), validationErrors);
 
                 // Verify that populateEntityData was never called due to validation failure
                 verify(mockPayment, never()).populateEntityData(any());
@@ -196,13 +203,13 @@ class PaymentCreationFactoryTest {
 
         @Test
         @DisplayName("Should handle runtime exception during data population")
-        void givenValidRequest_whenPopulateEntityDataThrowsException_thenShouldPropagateException() throws RequestValidationException {
+        void givenValidRequest_whenPopulateEntityDataThrowsException_thenShouldPropagateException() {
             // Given
             validRequestDTO.setType("TYPE1");
             TYPE1Payment mockPayment = mock(TYPE1Payment.class);
             RuntimeException populationException = new RuntimeException("Population failed");
 
-            doNothing().when(mockPayment).validateEntityCreationRequest(validRequestDTO);
+            doNothing().when(mockPayment).validateEntityCreationRequest(eq(validRequestDTO), anyList());
             doThrow(populationException).when(mockPayment).populateEntityData(validRequestDTO);
 
             try (MockedStatic<PaymentType> mockedPaymentType = mockStatic(PaymentType.class)) {
@@ -214,12 +221,12 @@ class PaymentCreationFactoryTest {
                 // When & Then
                 RuntimeException exception = assertThrows(
                         RuntimeException.class,
-                        () -> spyFactory.createNewPayment(validRequestDTO)
+                        () -> spyFactory.createNewPayment(validRequestDTO, new ArrayList<>())
                 );
                 assertEquals("Population failed", exception.getMessage());
 
                 // Verify that validation was called before population failed
-                verify(mockPayment, times(1)).validateEntityCreationRequest(validRequestDTO);
+                verify(mockPayment, times(1)).validateEntityCreationRequest(eq(validRequestDTO), anyList());
                 verify(mockPayment, times(1)).populateEntityData(validRequestDTO);
             }
         }
@@ -265,7 +272,7 @@ class PaymentCreationFactoryTest {
 
         @Test
         @DisplayName("Should successfully create and configure TYPE1 payment with all valid data")
-        void givenCompleteValidTYPE1Request_whenCreatingNewPayment_thenShouldReturnFullyConfiguredPayment() throws RequestValidationException {
+        void givenCompleteValidTYPE1Request_whenCreatingNewPayment_thenShouldReturnFullyConfiguredPayment() {
             // Given
             CreatePaymentRequestDTO completeRequest = new CreatePaymentRequestDTO();
             completeRequest.setType("TYPE1");
@@ -278,10 +285,12 @@ class PaymentCreationFactoryTest {
             completeRequest.setCreditor_iban("FR1420041010050500013M02606");
 
             // When
-            Payment result = paymentCreationFactory.createNewPayment(completeRequest);
+            List<String> validationErrors = new ArrayList<>();
+            Payment result = paymentCreationFactory.createNewPayment(completeRequest, validationErrors);
 
             // Then
             assertNotNull(result);
+            assertTrue(validationErrors.isEmpty());
             assertInstanceOf(TYPE1Payment.class, result);
             // Additional assertions would depend on the actual implementation of populateEntityData
         }
@@ -295,20 +304,20 @@ class PaymentCreationFactoryTest {
             // When & Then
             assertThrows(
                     NullPointerException.class,
-                    () -> paymentCreationFactory.createNewPayment(nullRequest)
+                    () -> paymentCreationFactory.createNewPayment(nullRequest, new ArrayList<>())
             );
         }
 
         @Test
         @DisplayName("Should create different instances for multiple calls with same type")
-        void givenSamePaymentType_whenCreatingMultiplePayments_thenShouldReturnDifferentInstances() throws RequestValidationException {
+        void givenSamePaymentType_whenCreatingMultiplePayments_thenShouldReturnDifferentInstances() {
             // Given
             validRequestDTO.setType("TYPE1");
             validRequestDTO.setDetails("Details");
 
             // When
-            Payment payment1 = paymentCreationFactory.createNewPayment(validRequestDTO);
-            Payment payment2 = paymentCreationFactory.createNewPayment(validRequestDTO);
+            Payment payment1 = paymentCreationFactory.createNewPayment(validRequestDTO, new ArrayList<>());
+            Payment payment2 = paymentCreationFactory.createNewPayment(validRequestDTO, new ArrayList<>());
 
             // Then
             assertNotNull(payment1);
@@ -332,7 +341,7 @@ class PaymentCreationFactoryTest {
             // When & Then
             assertThrows(
                     IllegalArgumentException.class,
-                    () -> paymentCreationFactory.createNewPayment(validRequestDTO)
+                    () -> paymentCreationFactory.createNewPayment(validRequestDTO, new ArrayList<>())
             );
         }
 
@@ -345,7 +354,7 @@ class PaymentCreationFactoryTest {
             // When & Then
             assertThrows(
                     IllegalArgumentException.class,
-                    () -> paymentCreationFactory.createNewPayment(validRequestDTO)
+                    () -> paymentCreationFactory.createNewPayment(validRequestDTO, new ArrayList<>())
             );
         }
 
@@ -358,7 +367,7 @@ class PaymentCreationFactoryTest {
             // When & Then
             assertThrows(
                     IllegalArgumentException.class,
-                    () -> paymentCreationFactory.createNewPayment(validRequestDTO)
+                    () -> paymentCreationFactory.createNewPayment(validRequestDTO, new ArrayList<>())
             );
         }
     }
@@ -4,7 +4,6 @@ import lt.rimkus.paymentService.DTOs.CreatePaymentRequestDTO;
 import lt.rimkus.paymentService.DTOs.MoneyDTO;
 import lt.rimkus.paymentService.DTOs.PaymentDTO;
 import lt.rimkus.paymentService.DTOs.TestPaymentDTO;
-import lt.rimkus.paymentService.exceptions.RequestValidationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -13,8 +12,9 @@ import org.junit.jupiter.api.Test;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 
-import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNull;
@@ -55,50 +55,46 @@ class PaymentTest {
             validRequestDTO.setType("TYPE1");
 
             // When & Then
-            assertDoesNotThrow(() -> payment.validateEntityCreationRequest(validRequestDTO));
+            List<String> validationErrors = new ArrayList<>();
+            payment.validateEntityCreationRequest(validRequestDTO, validationErrors);
+            assertTrue(validationErrors.isEmpty());
         }
 
         @Test
-        @DisplayName("Should throw exception when payment type is null")
-        void givenNullPaymentType_whenValidatingEntityCreationRequest_thenShouldThrowException() {
+        @DisplayName("Should report an error when payment type is null")
+        void givenNullPaymentType_whenValidatingEntityCreationRequest_thenShouldReportError() {
             // Given
             validRequestDTO.setType(null);
 
             // When & Then
-            RequestValidationException exception = assertThrows(
-                    RequestValidationException.class,
-                    () -> payment.validateEntityCreationRequest(validRequestDTO)
-            );
-            assertEquals("Type is required", exception.getMessage());
+            List<String> validationErrors = new ArrayList<>();
+            payment.validateEntityCreationRequest(validRequestDTO, validationErrors);
+            assertEquals(List.of("Type is required"), validationErrors);
         }
 
         @Test
-        @DisplayName("Should throw exception when payment type is empty")
-        void givenEmptyPaymentType_whenValidatingEntityCreationRequest_thenShouldThrowException() {
+        @DisplayName("Should report an error when payment type is empty")
+        void givenEmptyPaymentType_whenValidatingEntityCreationRequest_thenShouldReportError() {
             // Given
             validRequestDTO.setType("");
 
             // When & Then
-            RequestValidationException exception = assertThrows(
-                    RequestValidationException.class,
-                    () -> payment.validateEntityCreationRequest(validRequestDTO)
-            );
-            assertEquals("Type is required", exception.getMessage());
+            List<String> validationErrors = new ArrayList<>();
+            payment.validateEntityCreationRequest(validRequestDTO, validationErrors);
+            assertEquals(List.of("Type is required"), validationErrors);
         }
 
         @Test
-        @DisplayName("Should throw exception when payment type is invalid")
-        void givenInvalidPaymentType_whenValidatingEntityCreationRequest_thenShouldThrowException() {
+        @DisplayName("Should report an error when payment type is invalid")
+        void givenInvalidPaymentType_whenValidatingEntityCreationRequest_thenShouldReportError() {
             // Given
             String invalidType = "INVALID_TYPE";
             validRequestDTO.setType(invalidType);
 
             // When & Then
-            RequestValidationException exception = assertThrows(
-                    RequestValidationException.class,
-                    () -> payment.validateEntityCreationRequest(validRequestDTO)
-            );
-            assertEquals("Unsupported payment type: " + invalidType, exception.getMessage());
+            List<String> validationErrors = new ArrayList<>();
+            payment.validateEntityCreationRequest(validRequestDTO, validationErrors);
+            assertEquals(List.of("Unsupported payment type: " + invalidType), validationErrors);
         }
     }
 
@@ -114,81 +110,73 @@ class PaymentTest {
             validRequestDTO.setMoney(validMoney);
 
             // When & Then
-            assertDoesNotThrow(() -> payment.validateEntityCreationRequest(validRequestDTO));
+            List<String> validationErrors = new ArrayList<>();
+            payment.validateEntityCreationRequest(validRequestDTO, validationErrors);
+            assertTrue(validationErrors.isEmpty());
         }
 
         @Test
-        @DisplayName("Should throw exception when money object is null")
-        void givenNullMoney_whenValidatingEntityCreationRequest_thenShouldThrowException() {
+        @DisplayName("Should report an error when money object is null")
+        void givenNullMoney_whenValidatingEntityCreationRequest_thenShouldReportError() {
             // Given
             validRequestDTO.setMoney(null);
 
             // When & Then
-            RequestValidationException exception = assertThrows(
-                    RequestValidationException.class,
-                    () -> payment.validateEntityCreationRequest(validRequestDTO)
-            );
-            assertEquals("Please check your request structure, currency and amount should go as money", exception.getMessage());
+            List<String> validationErrors = new ArrayList<>();
+            payment.validateEntityCreationRequest(validRequestDTO, validationErrors);
+            assertEquals(List.of("Please check your request structure, currency and amount should go as money"), validationErrors);
         }
 
         @Test
-        @DisplayName("Should throw exception when amount is null")
-        void givenNullAmount_whenValidatingEntityCreationRequest_thenShouldThrowException() {
+        @DisplayName("Should report an error when amount is null")
+        void givenNullAmount_whenValidatingEntityCreationRequest_thenShouldReportError() {
             // Given
             validMoney.setAmount(null);
             validRequestDTO.setMoney(validMoney);
 
             // When & Then
-            RequestValidationException exception = assertThrows(
-                    RequestValidationException.class,
-                    () -> payment.validateEntityCreationRequest(validRequestDTO)
-            );
-            assertEquals("Amount is required and must be more than 0", exception.getMessage());
+            List<String> validationErrors = new ArrayList<>();
+            payment.validateEntityCreationRequest(validRequestDTO, validationErrors);
+            assertEquals(List.of("Amount is required and must be more than 0"), validationErrors);
         }
 
         @Test
-        @DisplayName("Should throw exception when amount is zero")
-        void givenZeroAmount_whenValidatingEntityCreationRequest_thenShouldThrowException() {
+        @DisplayName("Should report an error when amount is zero")
+        void givenZeroAmount_whenValidatingEntityCreationRequest_thenShouldReportError() {
             // Given
             validMoney.setAmount(BigDecimal.ZERO);
             validRequestDTO.setMoney(validMoney);
 
             // When & Then
-            RequestValidationException exception = assertThrows(
-                    RequestValidationException.class,
-                    () -> payment.validateEntityCreationRequest(validRequestDTO)
-            );
-            assertEquals("Amount is required and must be more than 0", exception.getMessage());
+            List<String> validationErrors = new ArrayList<>();
+            payment.validateEntityCreationRequest(validRequestDTO, validationErrors);
+            assertEquals(List.of("Amount is required and must be more than 0"), validationErrors);
         }
 
         @Test
-        @DisplayName("Should throw exception when amount is negative")
-        void givenNegativeAmount_whenValidatingEntityCreationRequest_thenShouldThrowException() {
+        @DisplayName("Should report an error when amount is negative")
+        void givenNegativeAmount_whenValidatingEntityCreationRequest_thenShouldReportError() {
             // Given
             validMoney.setAmount(new BigDecimal("-10.00"));
             validRequestDTO.setMoney(validMoney);
 
             // When & Then
-            RequestValidationException exception = assertThrows(
-                    RequestValidationException.class,
-                    () -> payment.validateEntityCreationRequest(validRequestDTO)
-            );
-            assertEquals("Amount is required and must be more than 0", exception.getMessage());
+            List<String> validationErrors = new ArrayList<>();
+            payment.validateEntityCreationRequest(validRequestDTO, validationErrors);
+            assertEquals(List.of("Amount is required and must be more than 0"), validationErrors);
         }
 
         @Test
-        @DisplayName("Should throw exception when amount has more than 2 decimal places")
-        void givenAmountWithExcessiveDecimalPlaces_whenValidatingEntityCreationRequest_thenShouldThrowException() {
+        @DisplayName("Should report an error when amount has more than 2 decimal places")
+        void givenAmountWithExcessiveDecimalPlaces_whenValidatingEntityCreationRequest_thenShouldReportError() {
             // Given
             validMoney.setAmount(new BigDecimal("100.123"));
             validRequestDTO.setMoney(validMoney);
 
             // When & Then
-            RequestValidationException exception = assertThrows(
-                    RequestValidationException.class,
-                    () -> payment.validateEntityCreationRequest(validRequestDTO)
-            );
-            assertEquals("Please provide an amount with no more than 2 decimal places", exception.getMessage());
+            List<String> validationErrors = new ArrayList<>();
+            payment.validateEntityCreationRequest(validRequestDTO, validationErrors);
+            assertEquals(List.of("Please provide an amount with no more than 2 decimal places"), validationErrors);
         }
     }
 
@@ -204,58 +192,54 @@ class PaymentTest {
             validRequestDTO.setMoney(validMoney);
 
             // When & Then
-            assertDoesNotThrow(() -> payment.validateEntityCreationRequest(validRequestDTO));
+            List<String> validationErrors = new ArrayList<>();
+            payment.validateEntityCreationRequest(validRequestDTO, validationErrors);
+            assertTrue(validationErrors.isEmpty());
         }
 
         @Test
-        @DisplayName("Should throw exception when currency is null")
-        void givenNullCurrency_whenValidatingEntityCreationRequest_thenShouldThrowException() {
+        @DisplayName("Should report an error when currency is null")
+        void givenNullCurrency_whenValidatingEntityCreationRequest_thenShouldReportError() {
             // Given
             validMoney.setCurrency(null);
             validRequestDTO.setMoney(validMoney);
 
             // When & Then
-            RequestValidationException exception = assertThrows(
-                    RequestValidationException.class,
-                    () -> payment.validateEntityCreationRequest(validRequestDTO)
-            );
-            assertEquals("Currency is required", exception.getMessage());
+            List<String> validationErrors = new ArrayList<>();
+            payment.validateEntityCreationRequest(validRequestDTO, validationErrors);
+            assertEquals(List.of("Currency is required"), validationErrors);
         }
 
         @Test
-        @DisplayName("Should throw exception when currency is empty")
-        void givenEmptyCurrency_whenValidatingEntityCreationRequest_thenShouldThrowException() {
+        @DisplayName("Should report an error when currency is empty")
+        void givenEmptyCurrency_whenValidatingEntityCreationRequest_thenShouldReportError() {
             // Given
             validMoney.setCurrency("");
             validRequestDTO.setMoney(validMoney);
 
             // When & Then
-            RequestValidationException exception = assertThrows(
-                    RequestValidationException.class,
-                    () -> payment.validateEntityCreationRequest(validRequestDTO)
-            );
-            assertEquals("Currency is required", exception.getMessage());
+            List<String> validationErrors = new ArrayList<>();
+            payment.validateEntityCreationRequest(validRequestDTO, validationErrors);
+            assertEquals(List.of("Currency is required"), validationErrors);
         }
 
         @Test
-        @DisplayName("Should throw exception when currency is not supported")
-        void givenUnsupportedCurrency_whenValidatingEntityCreationRequest_thenShouldThrowException() {
+        @DisplayName("Should report an error when currency is not supported")
+        void givenUnsupportedCurrency_whenValidatingEntityCreationRequest_thenShouldReportError() {
             // Given
             String unsupportedCurrency = "XXX";
             validMoney.setCurrency(unsupportedCurrency);
             validRequestDTO.setMoney(validMoney);
 
             // When & Then
-            RequestValidationException exception = assertThrows(
-                    RequestValidationException.class,
-                    () -> payment.validateEntityCreationRequest(validRequestDTO)
-            );
-            assertEquals("Unsupported currency code: " + unsupportedCurrency, exception.getMessage());
+            List<String> validationErrors = new ArrayList<>();
+            payment.validateEntityCreationRequest(validRequestDTO, validationErrors);
+            assertEquals(List.of("Unsupported currency code: " + unsupportedCurrency), validationErrors);
         }
 
         @Test
-        @DisplayName("Should throw exception when currency is not compatible with payment type")
-        void givenIncompatibleCurrencyForPaymentType_whenValidatingEntityCreationRequest_thenShouldThrowException() {
+        @DisplayName("Should report an error when currency is not compatible with payment type")
+        void givenIncompatibleCurrencyForPaymentType_whenValidatingEntityCreationRequest_thenShouldReportError() {
             // Given
             String paymentType = "TYPE2";
             String incompatibleCurrency = "EUR";
@@ -264,11 +248,9 @@ class PaymentTest {
             validRequestDTO.setMoney(validMoney);
 
             // When & Then
-            RequestValidationException exception = assertThrows(
-                    RequestValidationException.class,
-                    () -> payment.validateEntityCreationRequest(validRequestDTO)
-            );
-            assertEquals(paymentType + " payment is not allowed to be used with currency " + incompatibleCurrency, exception.getMessage());
+            List<String> validationErrors = new ArrayList<>();
+            payment.validateEntityCreationRequest(validRequestDTO, validationErrors);
+            assertEquals(List.of(paymentType + " payment is not allowed to be used with currency " + incompatibleCurrency), validationErrors);
         }
     }
 
@@ -284,63 +266,57 @@ class PaymentTest {
             validRequestDTO.setCreditor_iban("FR1420041010050500013M02606");
 
             // When & Then
-            assertDoesNotThrow(() -> payment.validateEntityCreationRequest(validRequestDTO));
+            List<String> validationErrors = new ArrayList<>();
+            payment.validateEntityCreationRequest(validRequestDTO, validationErrors);
+            assertTrue(validationErrors.isEmpty());
         }
 
         @Test
-        @DisplayName("Should throw exception when debtor IBAN is null")
-        void givenNullDebtorIBAN_whenValidatingEntityCreationRequest_thenShouldThrowException() {
+        @DisplayName("Should report an error when debtor IBAN is null")
+        void givenNullDebtorIBAN_whenValidatingEntityCreationRequest_thenShouldReportError() {
             // Given
             validRequestDTO.setDebtor_iban(null);
 
             // When & Then
-            RequestValidationException exception = assertThrows(
-                    RequestValidationException.class,
-                    () -> payment.validateEntityCreationRequest(validRequestDTO)
-            );
-            assertEquals("Debtor IBAN is required", exception.getMessage());
+            List<String> validationErrors = new ArrayList<>();
+            payment.validateEntityCreationRequest(validRequestDTO, validationErrors);
+            assertEquals(List.of("Debtor IBAN is required"), validationErrors);
         }
 
         @Test
-        @DisplayName("Should throw exception when debtor IBAN is empty")
-        void givenEmptyDebtorIBAN_whenValidatingEntityCreationRequest_thenShouldThrowException() {
+        @DisplayName("Should report an error when debtor IBAN is empty")
+        void givenEmptyDebtorIBAN_whenValidatingEntityCreationRequest_thenShouldReportError() {
             // Given
             validRequestDTO.setDebtor_iban("");
 
             // When & Then
-            RequestValidationException exception = assertThrows(
-                    RequestValidationException.class,
-                    () -> payment.validateEntityCreationRequest(validRequestDTO)
-            );
-            assertEquals("Debtor IBAN is required", exception.getMessage());
+            List<String> validationErrors = new ArrayList<>();
+            payment.validateEntityCreationRequest(validRequestDTO, validationErrors);
+            assertEquals(List.of("Debtor IBAN is required"), validationErrors);
         }
 
         @Test
-        @DisplayName("Should throw exception when creditor IBAN is null")
-        void givenNullCreditorIBAN_whenValidatingEntityCreationRequest_thenShouldThrowException() {
+        @DisplayName("Should report an error when creditor IBAN is null")
+        void givenNullCreditorIBAN_whenValidatingEntityCreationRequest_thenShouldReportError() {
             // Given
             validRequestDTO.setCreditor_iban(null);
 
             // When & Then
-            RequestValidationException exception = assertThrows(
-                    RequestValidationException.class,
-                    () -> payment.validateEntityCreationRequest(validRequestDTO)
-            );
-            assertEquals("Creditor IBAN is required", exception.getMessage());
+            List<String> validationErrors = new ArrayList<>();
+            payment.validateEntityCreationRequest(validRequestDTO, validationErrors);
+            assertEquals(List.of("Creditor IBAN is required"), validationErrors);
         }
 
         @Test
-        @DisplayName("Should throw exception when creditor IBAN is empty")
-        void givenEmptyCreditorIBAN_whenValidatingEntityCreationRequest_thenShouldThrowException() {
+        @DisplayName("Should report an error when creditor IBAN is empty")
+        void givenEmptyCreditorIBAN_whenValidatingEntityCreationRequest_thenShouldReportError() {
             // Given
             validRequestDTO.setCreditor_iban("");
 
             // When & Then
-            RequestValidationException exception = assertThrows(
-                    RequestValidationException.class,
-                    () -> payment.validateEntityCreationRequest(validRequestDTO)
-            );
-            assertEquals("Creditor IBAN is required", exception.getMessage());
+            List<String> validationErrors = new ArrayList<>();
+            payment.validateEntityCreationRequest(validRequestDTO, validationErrors);
+            assertEquals(List.of("Creditor IBAN is required"), validationErrors);
         }
     }
 
@@ -713,12 +689,14 @@ class PaymentTest {
             completeValidRequest.setCreditor_iban("FR1420041010050500013M02606");
 
             // When & Then
-            assertDoesNotThrow(() -> payment.validateEntityCreationRequest(completeValidRequest));
+            List<String> validationErrors = new ArrayList<>();
+            payment.validateEntityCreationRequest(completeValidRequest, validationErrors);
+            assertTrue(validationErrors.isEmpty());
         }
 
         @Test
-        @DisplayName("Should fail validation with multiple errors and throw first encountered error")
-        void givenMultipleValidationErrors_whenValidatingEntityCreationRequest_thenShouldThrowFirstError() {
+        @DisplayName("Should report every validation error of the request at once")
+        void givenMultipleValidationErrors_whenValidatingEntityCreationRequest_thenShouldReportAllErrors() {
             // Given
             CreatePaymentRequestDTO invalidRequest = new CreatePaymentRequestDTO();
             invalidRequest.setType(null); // First error - type is mandatory
@@ -726,13 +704,17 @@ class PaymentTest {
             invalidRequest.setDebtor_iban(null); // Third error - debtor IBAN is mandatory
             invalidRequest.setCreditor_iban(null); // Fourth error - creditor IBAN is mandatory
 
-            // When & Then
-            RequestValidationException exception = assertThrows(
-                    RequestValidationException.class,
-                    () -> payment.validateEntityCreationRequest(invalidRequest)
-            );
-            // Should throw the first validation error encountered (type mandatory)
-            assertEquals("Type is required", exception.getMessage());
+            // When
+            List<String> validationErrors = new ArrayList<>();
+            payment.validateEntityCreationRequest(invalidRequest, validationErrors);
+
+            // Then
+            assertEquals(List.of(
+                    "Type is required",
+                    "Please check your request structure, currency and amount should go as money",
+                    "Debtor IBAN is required",
+                    "Creditor IBAN is required"
+            ), validationErrors);
         }
     }
 }
\ No newline at end of file
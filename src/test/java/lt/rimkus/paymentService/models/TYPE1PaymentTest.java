@@ -4,7 +4,6 @@ import lt.rimkus.paymentService.DTOs.CreatePaymentRequestDTO;
 import lt.rimkus.paymentService.DTOs.MoneyDTO;
 import lt.rimkus.paymentService.DTOs.PaymentDTO;
 import lt.rimkus.paymentService.DTOs.TYPE1PaymentDTO;
-import lt.rimkus.paymentService.exceptions.RequestValidationException;
 import org.apache.commons.lang3.StringUtils;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -14,13 +13,15 @@ import org.mockito.MockedStatic;
 import org.mockito.Mockito;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
 
-import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertInstanceOf;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
-import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.verify;
@@ -108,55 +109,51 @@ class TYPE1PaymentTest {
             requestDTO.setDetails("Valid payment details");
 
             // When & Then
-            assertDoesNotThrow(() -> type1Payment.validateTypeSpecificRequirements(requestDTO));
+            List<String> validationErrors = new ArrayList<>();
+            type1Payment.validateTypeSpecificRequirements(requestDTO, validationErrors);
+            assertTrue(validationErrors.isEmpty());
         }
 
         @Test
-        @DisplayName("Should throw exception when details are null")
-        void givenRequestWithNullDetails_whenValidating_thenThrowsRequestValidationException() {
+        @DisplayName("Should report an error when details are null")
+        void givenRequestWithNullDetails_whenValidating_thenReportsValidationError() {
             // Given
             requestDTO.setDetails(null);
 
             // When
-            RequestValidationException exception = assertThrows(
-                    RequestValidationException.class,
-                    () -> type1Payment.validateTypeSpecificRequirements(requestDTO)
-            );
+            List<String> validationErrors = new ArrayList<>();
+            type1Payment.validateTypeSpecificRequirements(requestDTO, validationErrors);
 
             // Then
-            assertEquals("TYPE1 payment requires details to be provided", exception.getMessage());
+            assertEquals(List.of("TYPE1 payment requires details to be provided"), validationErrors);
         }
 
         @Test
-        @DisplayName("Should throw exception when details are empty string")
-        void givenRequestWithEmptyDetails_whenValidating_thenThrowsRequestValidationException() {
+        @DisplayName("Should report an error when details are empty string")
+        void givenRequestWithEmptyDetails_whenValidating_thenReportsValidationError() {
             // Given
             requestDTO.setDetails("");
 
             // When
-            RequestValidationException exception = assertThrows(
-                    RequestValidationException.class,
-                    () -> type1Payment.validateTypeSpecificRequirements(requestDTO)
-            );
+            List<String> validationErrors = new ArrayList<>();
+            type1Payment.validateTypeSpecificRequirements(requestDTO, validationErrors);
 
             // Then
-            assertEquals("TYPE1 payment requires details to be provided", exception.getMessage());
+            assertEquals(List.of("TYPE1 payment requires details to be provided"), validationErrors);
         }
 
         @Test
-        @DisplayName("Should throw exception when details contain only whitespace")
-        void givenRequestWithWhitespaceOnlyDetails_whenValidating_thenThrowsRequestValidationException() {
+        @DisplayName("Should report an error when details contain only whitespace")
+        void givenRequestWithWhitespaceOnlyDetails_whenValidating_thenReportsValidationError() {
             // Given
             requestDTO.setDetails("   \t\n   ");
 
             // When
-            RequestValidationException exception = assertThrows(
-                    RequestValidationException.class,
-                    () -> type1Payment.validateTypeSpecificRequirements(requestDTO)
-            );
+            List<String> validationErrors = new ArrayList<>();
+            type1Payment.validateTypeSpecificRequirements(requestDTO, validationErrors);
 
             // Then
-            assertEquals("TYPE1 payment requires details to be provided", exception.getMessage());
+            assertEquals(List.of("TYPE1 payment requires details to be provided"), validationErrors);
         }
 
         @Test
@@ -166,7 +163,9 @@ class TYPE1PaymentTest {
             requestDTO.setDetails("  Valid details with whitespace  ");
 
             // When & Then
-            assertDoesNotThrow(() -> type1Payment.validateTypeSpecificRequirements(requestDTO));
+            List<String> validationErrors = new ArrayList<>();
+            type1Payment.validateTypeSpecificRequirements(requestDTO, validationErrors);
+            assertTrue(validationErrors.isEmpty());
         }
 
         @Test
@@ -179,12 +178,11 @@ class TYPE1PaymentTest {
                 stringUtilsMock.when(() -> StringUtils.isEmpty("")).thenReturn(true);
 
                 // When
-                RequestValidationException exception = assertThrows(
-                        RequestValidationException.class, () -> type1Payment.validateTypeSpecificRequirements(requestDTO)
-                );
+                List<String> validationErrors = new ArrayList<>();
+                type1Payment.validateTypeSpecificRequirements(requestDTO, validationErrors);
 
                 // Then
-                assertEquals("TYPE1 payment requires details to be provided", exception.getMessage());
+                assertEquals(List.of("TYPE1 payment requires details to be provided"), validationErrors);
                 stringUtilsMock.verify(() -> StringUtils.isEmpty(""));
             }
         }
@@ -334,7 +332,9 @@ class TYPE1PaymentTest {
             TYPE1Payment spyPayment = spy(type1Payment);
 
             // When - Validate
-            assertDoesNotThrow(() -> spyPayment.validateTypeSpecificRequirements(requestDTO));
+            List<String> validationErrors = new ArrayList<>();
+            spyPayment.validateTypeSpecificRequirements(requestDTO, validationErrors);
+            assertTrue(validationErrors.isEmpty());
 
             // When - Populate
             spyPayment.populateEntityData(requestDTO);
@@ -360,7 +360,9 @@ class TYPE1PaymentTest {
             TYPE1Payment spyPayment = spy(type1Payment);
 
             // When - Validation should fail
-            assertThrows(RequestValidationException.class, () -> spyPayment.validateTypeSpecificRequirements(requestDTO));
+            List<String> validationErrors = new ArrayList<>();
+            spyPayment.validateTypeSpecificRequirements(requestDTO, validationErrors);
+            assertFalse(validationErrors.isEmpty());
 
             // When - But population and conversion should still work
             spyPayment.populateEntityData(requestDTO);
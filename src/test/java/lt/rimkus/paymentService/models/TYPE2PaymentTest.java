@@ -4,23 +4,21 @@ import lt.rimkus.paymentService.DTOs.CreatePaymentRequestDTO;
 import lt.rimkus.paymentService.DTOs.MoneyDTO;
 import lt.rimkus.paymentService.DTOs.PaymentDTO;
 import lt.rimkus.paymentService.DTOs.TYPE2PaymentDTO;
-import lt.rimkus.paymentService.exceptions.RequestValidationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
 
-import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertInstanceOf;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
-import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.verify;
 
@@ -116,39 +114,36 @@ class TYPE2PaymentTest {
 
         @Test
         @DisplayName("Should delegate to parent validation when given valid request")
-        void givenValidCreatePaymentRequest_whenValidatingEntityCreation_thenParentValidationIsCalled()
-                throws RequestValidationException {
+        void givenValidCreatePaymentRequest_whenValidatingEntityCreation_thenParentValidationIsCalled() {
             // Given
             requestDTO.getMoney().setAmount(BigDecimal.valueOf(100.0));
             requestDTO.getMoney().setCurrency("USD");
             TYPE2Payment spyPayment = spy(type2Payment);
 
             // When
-            assertDoesNotThrow(() -> spyPayment.validateEntityCreationRequest(requestDTO));
+            List<String> validationErrors = new ArrayList<>();
+            spyPayment.validateEntityCreationRequest(requestDTO, validationErrors);
+            assertTrue(validationErrors.isEmpty());
 
             // Then
             // Verify that the super method is called by checking the spy
-            verify(spyPayment).validateEntityCreationRequest(requestDTO);
+            verify(spyPayment).validateEntityCreationRequest(requestDTO, validationErrors);
+            verify(spyPayment).validateTypeSpecificRequirements(requestDTO, validationErrors);
         }
 
         @Test
-        @DisplayName("Should propagate parent validation exception when given invalid request")
-        void givenInvalidCreatePaymentRequest_whenValidatingEntityCreation_thenParentExceptionIsPropagated()
-                throws RequestValidationException {
+        @DisplayName("Should report parent validation errors when given invalid request")
+        void givenInvalidCreatePaymentRequest_whenValidatingEntityCreation_thenParentErrorsAreReported() {
             // Given
-            TYPE2Payment spyPayment = spy(type2Payment);
-            RequestValidationException parentException = new RequestValidationException("Parent validation failed");
-
-            // Mock the parent to throw exception
-            doThrow(parentException).when(spyPayment).validateEntityCreationRequest(requestDTO);
+            requestDTO.getMoney().setAmount(BigDecimal.valueOf(100.0));
+            requestDTO.getMoney().setCurrency("EUR");
 
-            // When & Then
-            RequestValidationException thrownException = assertThrows(
-                    RequestValidationException.class,
-                    () -> spyPayment.validateEntityCreationRequest(requestDTO)
-            );
+            // When
+            List<String> validationErrors = new ArrayList<>();
+            type2Payment.validateEntityCreationRequest(requestDTO, validationErrors);
 
-            assertEquals("Parent validation failed", thrownException.getMessage());
+            // Then
+            assertEquals(List.of("TYPE2 payment is not allowed to be used with currency EUR"), validationErrors);
         }
     }
 
@@ -163,7 +158,9 @@ class TYPE2PaymentTest {
             requestDTO.setDetails("Valid payment details");
 
             // When & Then
-            assertDoesNotThrow(() -> type2Payment.validateTypeSpecificRequirements(requestDTO));
+            List<String> validationErrors = new ArrayList<>();
+            type2Payment.validateTypeSpecificRequirements(requestDTO, validationErrors);
+            assertTrue(validationErrors.isEmpty());
         }
 
         @Test
@@ -173,7 +170,9 @@ class TYPE2PaymentTest {
             requestDTO.setDetails(null);
 
             // When & Then
-            assertDoesNotThrow(() -> type2Payment.validateTypeSpecificRequirements(requestDTO));
+            List<String> validationErrors = new ArrayList<>();
+            type2Payment.validateTypeSpecificRequirements(requestDTO, validationErrors);
+            assertTrue(validationErrors.isEmpty());
         }
 
         @Test
@@ -183,7 +182,9 @@ class TYPE2PaymentTest {
             requestDTO.setDetails("");
 
             // When & Then
-            assertDoesNotThrow(() -> type2Payment.validateTypeSpecificRequirements(requestDTO));
+            List<String> validationErrors = new ArrayList<>();
+            type2Payment.validateTypeSpecificRequirements(requestDTO, validationErrors);
+            assertTrue(validationErrors.isEmpty());
         }
 
         @Test
@@ -193,7 +194,9 @@ class TYPE2PaymentTest {
             requestDTO.setDetails("   \t\n   ");
 
             // When & Then
-            assertDoesNotThrow(() -> type2Payment.validateTypeSpecificRequirements(requestDTO));
+            List<String> validationErrors = new ArrayList<>();
+            type2Payment.validateTypeSpecificRequirements(requestDTO, validationErrors);
+            assertTrue(validationErrors.isEmpty());
         }
 
         @Test
@@ -203,7 +206,9 @@ class TYPE2PaymentTest {
             CreatePaymentRequestDTO nullRequest = null;
 
             // When & Then
-            assertDoesNotThrow(() -> type2Payment.validateTypeSpecificRequirements(nullRequest));
+            List<String> validationErrors = new ArrayList<>();
+            type2Payment.validateTypeSpecificRequirements(nullRequest, validationErrors);
+            assertTrue(validationErrors.isEmpty());
         }
 
         @Test
@@ -214,7 +219,7 @@ class TYPE2PaymentTest {
             long startTime = System.nanoTime();
 
             // When
-            type2Payment.validateTypeSpecificRequirements(requestDTO);
+            type2Payment.validateTypeSpecificRequirements(requestDTO, new ArrayList<>());
             long endTime = System.nanoTime();
 
             // Then
@@ -415,8 +420,11 @@ class TYPE2PaymentTest {
             TYPE2Payment spyPayment = spy(type2Payment);
 
             // When - Execute full workflow
-            assertDoesNotThrow(() -> spyPayment.validateEntityCreationRequest(requestDTO));
-            assertDoesNotThrow(() -> spyPayment.validateTypeSpecificRequirements(requestDTO));
+            List<String> validationErrors = new ArrayList<>();
+            spyPayment.validateEntityCreationRequest(requestDTO, validationErrors);
+            assertTrue(validationErrors.isEmpty());
+            spyPayment.validateTypeSpecificRequirements(requestDTO, validationErrors);
+            assertTrue(validationErrors.isEmpty());
             spyPayment.populateEntityData(requestDTO);
             PaymentDTO resultDTO = spyPayment.convertToDTO();
 
@@ -441,8 +449,11 @@ class TYPE2PaymentTest {
             TYPE2Payment spyPayment = spy(type2Payment);
 
             // When - Execute full workflow
-            assertDoesNotThrow(() -> spyPayment.validateEntityCreationRequest(requestDTO));
-            assertDoesNotThrow(() -> spyPayment.validateTypeSpecificRequirements(requestDTO));
+            List<String> validationErrors = new ArrayList<>();
+            spyPayment.validateEntityCreationRequest(requestDTO, validationErrors);
+            assertTrue(validationErrors.isEmpty());
+            spyPayment.validateTypeSpecificRequirements(requestDTO, validationErrors);
+            assertTrue(validationErrors.isEmpty());
             spyPayment.populateEntityData(requestDTO);
             PaymentDTO resultDTO = spyPayment.convertToDTO();
 
@@ -468,10 +479,9 @@ class TYPE2PaymentTest {
             // When & Then - All should pass validation
             for (String details : detailStates) {
                 requestDTO.setDetails(details);
-                assertDoesNotThrow(
-                        () -> type2Payment.validateTypeSpecificRequirements(requestDTO),
-                        "Should not throw exception for details: '" + details + "'"
-                );
+                List<String> validationErrors = new ArrayList<>();
+                type2Payment.validateTypeSpecificRequirements(requestDTO, validationErrors);
+                assertTrue(validationErrors.isEmpty(), "Should not report errors for details: '" + details + "'");
             }
         }
 
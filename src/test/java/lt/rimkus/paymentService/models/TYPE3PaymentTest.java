@@ -4,20 +4,19 @@ import lt.rimkus.paymentService.DTOs.CreatePaymentRequestDTO;
 import lt.rimkus.paymentService.DTOs.MoneyDTO;
 import lt.rimkus.paymentService.DTOs.PaymentDTO;
 import lt.rimkus.paymentService.DTOs.TYPE3PaymentDTO;
-import lt.rimkus.paymentService.exceptions.RequestValidationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
 
-import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertInstanceOf;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
-import static org.junit.jupiter.api.Assertions.assertThrows;
-import static org.mockito.Mockito.doThrow;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.verify;
 
@@ -52,23 +51,25 @@ class TYPE3PaymentTest {
         requestDTO.setCreditorBankBIC("Bank BIC");
 
         // When & Then
-        assertDoesNotThrow(() -> type3Payment.validateEntityCreationRequest(requestDTO));
+        List<String> validationErrors = new ArrayList<>();
+        type3Payment.validateEntityCreationRequest(requestDTO, validationErrors);
+        assertTrue(validationErrors.isEmpty());
     }
 
     @Test
-    @DisplayName("Should throw RequestValidationException when super validation fails")
-    void validateEntityCreationRequest_WhenSuperValidationFails_ThenThrowException() throws RequestValidationException {
+    @DisplayName("Should report common and type specific errors together")
+    void validateEntityCreationRequest_WhenCommonAndTypeSpecificValidationsFail_ThenReportAllErrors() {
         // Given
-        TYPE3Payment spyPayment = spy(type3Payment);
-        doThrow(new RequestValidationException("Super validation failed"))
-                .when((Payment) spyPayment).validateEntityCreationRequest(requestDTO);
+        requestDTO.setMoney(null);
+        requestDTO.setCreditorBankBIC(null);
 
-        // When & Then
-        RequestValidationException exception = assertThrows(
-                RequestValidationException.class,
-                () -> spyPayment.validateEntityCreationRequest(requestDTO)
-        );
-        assertEquals("Super validation failed", exception.getMessage());
+        // When
+        List<String> validationErrors = new ArrayList<>();
+        type3Payment.validateEntityCreationRequest(requestDTO, validationErrors);
+
+        // Then
+        assertEquals(List.of("Please check your request structure, currency and amount should go as money",
+                "TYPE3 payment requires creditor bank BIC to be provided"), validationErrors);
     }
 
     @Test
@@ -78,49 +79,45 @@ class TYPE3PaymentTest {
         requestDTO.setCreditorBankBIC("BANK BIC");
 
         // When & Then
-        assertDoesNotThrow(() -> type3Payment.validateTypeSpecificRequirements(requestDTO));
+        List<String> validationErrors = new ArrayList<>();
+        type3Payment.validateTypeSpecificRequirements(requestDTO, validationErrors);
+        assertTrue(validationErrors.isEmpty());
     }
 
     @Test
-    @DisplayName("Should throw RequestValidationException when creditor bank BIC is null")
-    void validateTypeSpecificRequirements_WhenCreditorBankBICIsNull_ThenThrowException() {
+    @DisplayName("Should report an error when creditor bank BIC is null")
+    void validateTypeSpecificRequirements_WhenCreditorBankBICIsNull_ThenReportError() {
         // Given
         requestDTO.setCreditorBankBIC(null);
 
         // When & Then
-        RequestValidationException exception = assertThrows(
-                RequestValidationException.class,
-                () -> type3Payment.validateTypeSpecificRequirements(requestDTO)
-        );
-        assertEquals("TYPE3 payment requires creditor bank BIC to be provided", exception.getMessage());
+        List<String> validationErrors = new ArrayList<>();
+        type3Payment.validateTypeSpecificRequirements(requestDTO, validationErrors);
+        assertEquals(List.of("TYPE3 payment requires creditor bank BIC to be provided"), validationErrors);
     }
 
     @Test
-    @DisplayName("Should throw RequestValidationException when creditor bank BIC is empty string")
-    void validateTypeSpecificRequirements_WhenCreditorBankBICIsEmpty_ThenThrowException() {
+    @DisplayName("Should report an error when creditor bank BIC is empty string")
+    void validateTypeSpecificRequirements_WhenCreditorBankBICIsEmpty_ThenReportError() {
         // Given
         requestDTO.setCreditorBankBIC("");
 
         // When & Then
-        RequestValidationException exception = assertThrows(
-                RequestValidationException.class,
-                () -> type3Payment.validateTypeSpecificRequirements(requestDTO)
-        );
-        assertEquals("TYPE3 payment requires creditor bank BIC to be provided", exception.getMessage());
+        List<String> validationErrors = new ArrayList<>();
+        type3Payment.validateTypeSpecificRequirements(requestDTO, validationErrors);
+        assertEquals(List.of("TYPE3 payment requires creditor bank BIC to be provided"), validationErrors);
     }
 
     @Test
-    @DisplayName("Should throw RequestValidationException when creditor bank BIC is whitespace only")
-    void validateTypeSpecificRequirements_WhenCreditorBankBICIsWhitespace_ThenThrowException() {
+    @DisplayName("Should report an error when creditor bank BIC is whitespace only")
+    void validateTypeSpecificRequirements_WhenCreditorBankBICIsWhitespace_ThenReportError() {
         // Given
         requestDTO.setCreditorBankBIC("   ");
 
         // When & Then
-        RequestValidationException exception = assertThrows(
-                RequestValidationException.class,
-                () -> type3Payment.validateTypeSpecificRequirements(requestDTO)
-        );
-        assertEquals("TYPE3 payment requires creditor bank BIC to be provided", exception.getMessage());
+        List<String> validationErrors = new ArrayList<>();
+        type3Payment.validateTypeSpecificRequirements(requestDTO, validationErrors);
+        assertEquals(List.of("TYPE3 payment requires creditor bank BIC to be provided"), validationErrors);
     }
 
     @Test
@@ -4,13 +4,15 @@ import lt.rimkus.paymentService.DTOs.CreatePaymentRequestDTO;
 import lt.rimkus.paymentService.DTOs.PaymentDTO;
 import lt.rimkus.paymentService.DTOs.TestPaymentDTO;
 
+import java.util.List;
+
 /**
  * Concrete test implementation of the abstract Payment class
  */
 public class TestPayment extends Payment {
 
     @Override
-    public void validateTypeSpecificRequirements(CreatePaymentRequestDTO requestDTO) {
+    public void validateTypeSpecificRequirements(CreatePaymentRequestDTO requestDTO, List<String> validationErrors) {
     }
 
     @Override
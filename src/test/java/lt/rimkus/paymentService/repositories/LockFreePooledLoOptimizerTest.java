@@ -0,0 +1,117 @@
+package lt.rimkus.paymentService.repositories;
+
+import org.hibernate.HibernateException;
+import org.hibernate.id.IdentifierGeneratorHelper;
+import org.hibernate.id.IntegralDataTypeHolder;
+import org.hibernate.id.enhanced.AccessCallback;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("LockFreePooledLoOptimizer Tests")
+class LockFreePooledLoOptimizerTest {
+
+    private static final int INCREMENT_SIZE = 50;
+
+    @Test
+    @DisplayName("Should hand out consecutive ids from one block before reading the sequence again")
+    void shouldHandOutConsecutiveIdsFromOneBlock() {
+        // Given
+        SequenceCallback callback = new SequenceCallback(INCREMENT_SIZE);
+        LockFreePooledLoOptimizer optimizer = new LockFreePooledLoOptimizer(Long.class, INCREMENT_SIZE);
+
+        // When
+        List<Long> ids = IntStream.range(0, INCREMENT_SIZE + 1).mapToObj(i -> (Long) optimizer.generate(callback)).toList();
+
+        // Then
+        assertThat(ids).isEqualTo(IntStream.rangeClosed(1, INCREMENT_SIZE + 1).mapToObj(i -> (long) i).toList());
+        assertThat(callback.calls.get()).isEqualTo(2);
+        assertThat(optimizer.getLastSourceValue().makeValue().longValue()).isEqualTo(1L + INCREMENT_SIZE);
+    }
+
+    @Test
+    @DisplayName("Should never hand out the same id twice under concurrent use")
+    void shouldGenerateUniqueIdsConcurrently() throws Exception {
+        // Given
+        int threads = 8;
+        int idsPerThread = 10_000;
+        SequenceCallback callback = new SequenceCallback(INCREMENT_SIZE);
+        LockFreePooledLoOptimizer optimizer = new LockFreePooledLoOptimizer(Long.class, INCREMENT_SIZE);
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        // When
+        List<Future<?>> futures = IntStream.range(0, threads).<Future<?>>mapToObj(t -> executor.submit(() -> {
+            start.await();
+            for (int i = 0; i < idsPerThread; i++) {
+                ids.add((Long) optimizer.generate(callback));
+            }
+            return null;
+        })).toList();
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        // Then
+        assertThat(ids).hasSize(threads * idsPerThread);
+    }
+
+    @Test
+    @DisplayName("Should apply the increment size to the database sequence")
+    void shouldApplyIncrementSizeToSourceValues() {
+        // Given
+        LockFreePooledLoOptimizer optimizer = new LockFreePooledLoOptimizer(Long.class, INCREMENT_SIZE);
+
+        // Then
+        assertThat(optimizer.applyIncrementSizeToSourceValues()).isTrue();
+        assertThat(optimizer.getIncrementSize()).isEqualTo(INCREMENT_SIZE);
+    }
+
+    @Test
+    @DisplayName("Should reject an increment size less than 1")
+    void shouldRejectInvalidIncrementSize() {
+        assertThatThrownBy(() -> new LockFreePooledLoOptimizer(Long.class, 0))
+                .isInstanceOf(HibernateException.class);
+    }
+
+    /**
+     * Mimics a database sequence created with INCREMENT BY incrementSize
+     */
+    private static class SequenceCallback implements AccessCallback {
+        private final AtomicLong sequence = new AtomicLong(1);
+        private final AtomicLong calls = new AtomicLong();
+        private final int incrementSize;
+
+        SequenceCallback(int incrementSize) {
+            this.incrementSize = incrementSize;
+        }
+
+        @Override
+        public IntegralDataTypeHolder getNextValue() {
+            calls.incrementAndGet();
+            long value = sequence.getAndAdd(incrementSize);
+            return IdentifierGeneratorHelper.getIntegralDataTypeHolder(Long.class).initialize(value);
+        }
+
+        @Override
+        public String getTenantIdentifier() {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package lt.rimkus.paymentService.repositories;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+@DisplayName("Notification outbox backfill migration Tests")
+class NotificationOutboxBackfillMigrationTest {
+
+    private DriverManagerDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new DriverManagerDataSource("jdbc:h2:mem:outbox-backfill;DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("DROP ALL OBJECTS");
+    }
+
+    @Test
+    @DisplayName("Should add a due outbox entry for every payment created before the outbox that was not notified")
+    void shouldBackfillOutboxForPaymentsNotNotified() {
+        // Given: The schema as it was before the backfill
+        Flyway.configure().dataSource(dataSource).target("4").load().migrate();
+        insertPayment(1, "TYPE1", null);
+        insertPayment(2, "TYPE2", "Failure");
+        insertPayment(3, "TYPE1", "Success");
+        // No notification channel
+        insertPayment(4, "TYPE3", null);
+        // Created with the outbox, its failed entry is already dead-lettered
+        insertPayment(5, "TYPE2", "Failure");
+        jdbcTemplate.update("INSERT INTO notification_outbox (id, payment_id, payment_type, status, attempts, created_at, next_attempt_at) " +
+                "VALUES (NEXT VALUE FOR notification_outbox_id_seq, 5, 'TYPE2', 'FAILED', 5, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)");
+
+        // When
+        Flyway.configure().dataSource(dataSource).load().migrate();
+
+        // Then
+        List<Map<String, Object>> entries = jdbcTemplate.queryForList(
+                "SELECT payment_id, payment_type, status, attempts FROM notification_outbox WHERE payment_id <> 5 ORDER BY payment_id");
+        assertThat(entries).extracting(row -> row.get("PAYMENT_ID"), row -> row.get("PAYMENT_TYPE"), row -> row.get("STATUS"), row -> row.get("ATTEMPTS"))
+                .containsExactly(tuple(1L, "TYPE1", "PENDING", 0), tuple(2L, "TYPE2", "PENDING", 0));
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM notification_outbox WHERE payment_id = 5", Integer.class)).isEqualTo(1);
+    }
+
+    private void insertPayment(long id, String type, String notificationStatus) {
+        jdbcTemplate.update("INSERT INTO payments (id, dtype, type, debtor_iban, creditor_iban, created_date, created_at, cancelled, notification_status) " +
+                "VALUES (?, ?, ?, 'LT601010012345678901', 'LT601010012345678902', CURRENT_DATE, CURRENT_TIMESTAMP, FALSE, ?)", id, type, type, notificationStatus);
+    }
+}
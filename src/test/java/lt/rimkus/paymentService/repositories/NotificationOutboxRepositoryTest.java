@@ -0,0 +1,170 @@
+package lt.rimkus.paymentService.repositories;
+
+import lt.rimkus.paymentService.enums.OutboxStatus;
+import lt.rimkus.paymentService.models.NotificationOutboxEntry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+// Claims run in their own transactions, so they can see each other's locks
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class NotificationOutboxRepositoryTest {
+
+    @Autowired
+    private NotificationOutboxRepository notificationOutboxRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    void tearDown() {
+        notificationOutboxRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Should give concurrent claims disjoint batches by skipping locked entries")
+    void testFindNewDueForUpdateSkipLocked_ConcurrentClaims() throws Exception {
+        // Given
+        notificationOutboxRepository.saveAll(IntStream.range(0, 6).mapToObj(i -> entry(LocalDateTime.now().minusMinutes(6 - i))).toList());
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        CountDownLatch firstClaimed = new CountDownLatch(1);
+        CountDownLatch secondClaimed = new CountDownLatch(1);
+
+        // When
+        CompletableFuture<List<Long>> first = CompletableFuture.supplyAsync(() -> transactionTemplate.execute(status -> {
+            List<Long> ids = claim();
+            firstClaimed.countDown();
+            // Keep the rows locked until the other claim is done
+            await(secondClaimed);
+            return ids;
+        }));
+        await(firstClaimed);
+        List<Long> second = transactionTemplate.execute(status -> claim());
+        secondClaimed.countDown();
+
+        // Then
+        List<Long> firstIds = first.get(10, TimeUnit.SECONDS);
+        assertThat(firstIds).hasSize(4);
+        assertThat(second).hasSize(2).doesNotContainAnyElementsOf(firstIds);
+    }
+
+    @Test
+    @DisplayName("Should claim only new pending entries that are due, oldest first")
+    void testFindNewDueForUpdateSkipLocked_OnlyDuePending() {
+        // Given
+        LocalDateTime now = LocalDateTime.now();
+        NotificationOutboxEntry newer = entry(now.minusMinutes(1));
+        NotificationOutboxEntry older = entry(now.minusMinutes(2));
+        NotificationOutboxEntry notDue = entry(now.plusMinutes(1));
+        NotificationOutboxEntry delivered = entry(now.minusMinutes(3));
+        delivered.setStatus(OutboxStatus.DELIVERED);
+        NotificationOutboxEntry retry = entry(now.minusMinutes(4));
+        retry.setAttempts(1);
+        notificationOutboxRepository.saveAll(List.of(newer, older, notDue, delivered, retry));
+
+        // When
+        List<NotificationOutboxEntry> due = new TransactionTemplate(transactionManager)
+                .execute(status -> notificationOutboxRepository.findNewDueForUpdateSkipLocked(now, 10));
+
+        // Then
+        assertThat(due).extracting(NotificationOutboxEntry::getId).containsExactly(older.getId(), newer.getId());
+    }
+
+    @Test
+    @DisplayName("Should claim only pending entries that are due for a retry")
+    void testFindRetriesDueForUpdateSkipLocked_OnlyDueRetries() {
+        // Given
+        LocalDateTime now = LocalDateTime.now();
+        NotificationOutboxEntry fresh = entry(now.minusMinutes(2));
+        NotificationOutboxEntry retry = entry(now.minusMinutes(1));
+        retry.setAttempts(2);
+        NotificationOutboxEntry retryNotDue = entry(now.plusMinutes(1));
+        retryNotDue.setAttempts(1);
+        NotificationOutboxEntry deadLettered = entry(now.minusMinutes(3));
+        deadLettered.setAttempts(5);
+        deadLettered.setStatus(OutboxStatus.FAILED);
+        notificationOutboxRepository.saveAll(List.of(fresh, retry, retryNotDue, deadLettered));
+
+        // When
+        List<NotificationOutboxEntry> due = new TransactionTemplate(transactionManager)
+                .execute(status -> notificationOutboxRepository.findRetriesDueForUpdateSkipLocked(now, 10));
+
+        // Then
+        assertThat(due).extracting(NotificationOutboxEntry::getId).containsExactly(retry.getId());
+    }
+
+    @Test
+    @DisplayName("Should extend the lease and count the attempt")
+    void testExtendLease() {
+        // Given
+        NotificationOutboxEntry saved = notificationOutboxRepository.save(entry(LocalDateTime.now()));
+        LocalDateTime leaseEnd = LocalDateTime.now().plusSeconds(30).truncatedTo(ChronoUnit.MICROS);
+
+        // When
+        new TransactionTemplate(transactionManager)
+                .executeWithoutResult(status -> notificationOutboxRepository.extendLease(List.of(saved.getId()), leaseEnd));
+
+        // Then
+        NotificationOutboxEntry leased = notificationOutboxRepository.findById(saved.getId()).orElseThrow();
+        assertThat(leased.getAttempts()).isEqualTo(1);
+        assertThat(leased.getNextAttemptAt()).isEqualTo(leaseEnd);
+        assertThat(leased.getStatus()).isEqualTo(OutboxStatus.PENDING);
+    }
+
+    @Test
+    @DisplayName("Should find when the earliest pending entry is due")
+    void testFindEarliestPendingAttemptAt() {
+        // Given
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        NotificationOutboxEntry delivered = entry(now.minusMinutes(2));
+        delivered.setStatus(OutboxStatus.DELIVERED);
+        notificationOutboxRepository.saveAll(List.of(entry(now.plusMinutes(1)), entry(now.minusMinutes(1)), delivered));
+
+        // When
+        LocalDateTime earliest = notificationOutboxRepository.findEarliestPendingAttemptAt();
+
+        // Then
+        assertThat(earliest).isEqualTo(now.minusMinutes(1));
+    }
+
+    private List<Long> claim() {
+        return notificationOutboxRepository.findNewDueForUpdateSkipLocked(LocalDateTime.now(), 4).stream()
+                .map(NotificationOutboxEntry::getId).toList();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertThat(latch.await(10, TimeUnit.SECONDS)).isTrue();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static NotificationOutboxEntry entry(LocalDateTime nextAttemptAt) {
+        NotificationOutboxEntry entry = new NotificationOutboxEntry();
+        entry.setPaymentId(1L);
+        entry.setPaymentType("TYPE1");
+        entry.setStatus(OutboxStatus.PENDING);
+        entry.setCreatedAt(nextAttemptAt);
+        entry.setNextAttemptAt(nextAttemptAt);
+        return entry;
+    }
+}
@@ -1,18 +1,30 @@
 package lt.rimkus.paymentService.repositories;
 
 import lt.rimkus.paymentService.DTOs.PaymentCancellationInfoDTO;
+import lt.rimkus.paymentService.DTOs.PaymentCancellationStateDTO;
 import lt.rimkus.paymentService.models.Money;
+import lt.rimkus.paymentService.models.Payment;
 import lt.rimkus.paymentService.models.TYPE1Payment;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.AssertionsForInterfaceTypes.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -23,6 +35,12 @@ class PaymentRepositoryTest {
     @Autowired
     private PaymentRepository paymentRepository;
 
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
     @BeforeEach
     void setUp() {
 
@@ -64,6 +82,42 @@ class PaymentRepositoryTest {
         assertThat(ids).doesNotContain(payment3.getId(), payment4.getId(), payment5.getId());
     }
 
+    @Test
+    @DisplayName("Should apply only the bounds that are provided")
+    void testGetNotCancelledPaymentsWithinRange_OptionalBounds() {
+        // Given
+        TYPE1Payment small = createAndPopulatePayment();
+        small.setMoney(new Money(new BigDecimal("5.00"), "EUR"));
+        TYPE1Payment large = createAndPopulatePayment();
+        large.setMoney(new Money(new BigDecimal("500.00"), "EUR"));
+        TYPE1Payment cancelled = createAndPopulatePayment();
+        cancelled.setMoney(new Money(new BigDecimal("50.00"), "EUR"));
+        cancelled.setCancelled(true);
+        paymentRepository.saveAllAndFlush(List.of(small, large, cancelled));
+
+        // When
+        List<Long> fromMin = paymentRepository.getNotCancelledPaymentsWithinRange(new BigDecimal("10.00"), null);
+        List<Long> upToMax = paymentRepository.getNotCancelledPaymentsWithinRange(null, new BigDecimal("10.00"));
+        List<Long> unbounded = paymentRepository.getNotCancelledPaymentsWithinRange(null, null);
+
+        // Then
+        assertThat(fromMin).containsExactly(large.getId());
+        assertThat(upToMax).containsExactly(small.getId());
+        assertThat(unbounded).containsExactlyInAnyOrder(small.getId(), large.getId());
+    }
+
+    @Test
+    @DisplayName("Should answer the bounded range query from the composite index")
+    void testNotCancelledRangeQueryUsesCompositeIndex() {
+        // When
+        String plan = jdbcTemplate.queryForObject(
+                "EXPLAIN SELECT id FROM payments WHERE cancelled = FALSE AND payment_amount BETWEEN 5.00 AND 60.00", String.class);
+
+        // Then
+        assertThat(plan).containsIgnoringCase("idx_payments_cancelled_amount_id");
+        assertThat(plan).doesNotContainIgnoringCase("tableScan");
+    }
+
     @Test
     @DisplayName("Should return cancellation details for a payment")
     void testGetPaymentCancellationDetails() {
@@ -82,6 +136,206 @@ class PaymentRepositoryTest {
         assertEquals(0, dto.getCancellationFee().getAmount().compareTo(new BigDecimal("3.25")));
     }
 
+    @Test
+    @DisplayName("Should return payments after the given id in id order")
+    void testFindByIdGreaterThanOrderByIdAsc() {
+        // Given
+        List<TYPE1Payment> payments = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            TYPE1Payment payment = createAndPopulatePayment();
+            payment.setMoney(new Money(new BigDecimal("10.00"), "EUR"));
+            payments.add(payment);
+        }
+        paymentRepository.saveAll(payments);
+        Long afterId = payments.get(1).getId();
+
+        // When
+        List<Payment> page = paymentRepository.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(2));
+
+        // Then
+        assertThat(page).extracting(Payment::getId).containsExactly(payments.get(2).getId(), payments.get(3).getId());
+    }
+
+    @Test
+    @DisplayName("Should stream all payments in id order")
+    void testStreamAllOrderedById() {
+        // Given
+        TYPE1Payment payment1 = createAndPopulatePayment();
+        payment1.setMoney(new Money(new BigDecimal("10.00"), "EUR"));
+        TYPE1Payment payment2 = createAndPopulatePayment();
+        payment2.setMoney(new Money(new BigDecimal("20.00"), "EUR"));
+        paymentRepository.saveAll(List.of(payment1, payment2));
+
+        // When
+        List<Long> ids;
+        try (Stream<Payment> stream = paymentRepository.streamAllOrderedById()) {
+            ids = stream.map(Payment::getId).toList();
+        }
+
+        // Then
+        assertThat(ids).containsExactly(payment1.getId(), payment2.getId());
+    }
+
+    @Test
+    @DisplayName("Should assign consecutive ids from a pooled sequence block")
+    void testPooledSequenceIdsAreConsecutive() {
+        // Given
+        TYPE1Payment payment1 = createAndPopulatePayment();
+        payment1.setMoney(new Money(new BigDecimal("10.00"), "EUR"));
+        TYPE1Payment payment2 = createAndPopulatePayment();
+        payment2.setMoney(new Money(new BigDecimal("20.00"), "EUR"));
+        TYPE1Payment payment3 = createAndPopulatePayment();
+        payment3.setMoney(new Money(new BigDecimal("30.00"), "EUR"));
+
+        // When
+        paymentRepository.saveAll(List.of(payment1, payment2, payment3));
+
+        // Then
+        assertThat(List.of(payment2.getId() - payment1.getId(), payment3.getId() - payment2.getId())).containsOnly(1L);
+    }
+
+    @Test
+    @DisplayName("Should cancel only not cancelled same day payments and compute the fee in the update")
+    void testCancelSameDayPayments() {
+        // Given
+        LocalDateTime cancellationTime = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        TYPE1Payment sameDay = createAndPopulatePayment();
+        sameDay.setMoney(new Money(new BigDecimal("10.00"), "EUR"));
+        sameDay.setCreatedDate(cancellationTime.toLocalDate());
+        sameDay.setCreatedAt(cancellationTime.minusMinutes(200));
+        TYPE1Payment alreadyCancelled = createAndPopulatePayment();
+        alreadyCancelled.setMoney(new Money(new BigDecimal("10.00"), "EUR"));
+        alreadyCancelled.setCancelled(true);
+        alreadyCancelled.setCancellationFee(new Money(new BigDecimal("1.00"), "EUR"));
+        TYPE1Payment previousDay = createAndPopulatePayment();
+        previousDay.setMoney(new Money(new BigDecimal("10.00"), "EUR"));
+        previousDay.setCreatedDate(cancellationTime.toLocalDate().minusDays(1));
+        paymentRepository.saveAllAndFlush(List.of(sameDay, alreadyCancelled, previousDay));
+        List<Long> ids = List.of(sameDay.getId(), alreadyCancelled.getId(), previousDay.getId());
+
+        // When
+        int updated = paymentRepository.cancelSameDayPayments(ids, "TYPE1", new BigDecimal("0.05"), cancellationTime, cancellationTime.toLocalDate());
+        entityManager.clear();
+        List<PaymentCancellationInfoDTO> cancelled = paymentRepository.getPaymentsCancelledAt(ids, cancellationTime);
+
+        // Then
+        assertEquals(1, updated);
+        assertThat(cancelled).hasSize(1);
+        assertThat(cancelled.get(0).getId()).isEqualTo(sameDay.getId());
+        assertEquals(0, cancelled.get(0).getCancellationFee().getAmount().compareTo(new BigDecimal("0.15")));
+        assertEquals(0, alreadyCancelled.getCancellationFee().getAmount().compareTo(
+                paymentRepository.findById(alreadyCancelled.getId()).orElseThrow().getCancellationFee().getAmount()));
+    }
+
+    @Test
+    @DisplayName("Should cancel a same day payment only once and compute the fee in the update")
+    void testCancelSameDayPayment() {
+        // Given
+        LocalDateTime cancellationTime = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        TYPE1Payment payment = createAndPopulatePayment();
+        payment.setMoney(new Money(new BigDecimal("10.00"), "EUR"));
+        payment.setCreatedAt(cancellationTime.minusMinutes(130));
+        payment.setCreatedDate(cancellationTime.toLocalDate());
+        paymentRepository.saveAndFlush(payment);
+
+        // When
+        int firstAttempt = paymentRepository.cancelSameDayPayment(payment.getId(), new BigDecimal("0.05"), cancellationTime, cancellationTime.toLocalDate());
+        int secondAttempt = paymentRepository.cancelSameDayPayment(payment.getId(), new BigDecimal("0.05"), cancellationTime, cancellationTime.toLocalDate());
+        Payment cancelled = paymentRepository.findById(payment.getId()).orElseThrow();
+
+        // Then
+        assertEquals(1, firstAttempt);
+        assertEquals(0, secondAttempt);
+        assertThat(cancelled.isCancelled()).isTrue();
+        assertEquals(cancellationTime, cancelled.getCancellationTime());
+        assertEquals(0, cancelled.getCancellationFee().getAmount().compareTo(new BigDecimal("0.10")));
+        assertEquals("EUR", cancelled.getCancellationFee().getCurrency());
+    }
+
+    @ParameterizedTest
+    @CsvSource({"59, 0.00", "60, 0.05", "119, 0.05", "120, 0.10"})
+    @DisplayName("Should charge only full hours since creation at the hour boundaries")
+    void testCancelSameDayPayment_FeeAtHourBoundaries(long minutesSinceCreation, BigDecimal expectedFee) {
+        // Given
+        LocalDateTime cancellationTime = LocalDateTime.of(2024, 5, 10, 14, 0);
+        TYPE1Payment payment = createAndPopulatePayment();
+        payment.setMoney(new Money(new BigDecimal("10.00"), "EUR"));
+        payment.setCreatedAt(cancellationTime.minusMinutes(minutesSinceCreation));
+        payment.setCreatedDate(cancellationTime.toLocalDate());
+        paymentRepository.saveAndFlush(payment);
+
+        // When
+        int updated = paymentRepository.cancelSameDayPayment(payment.getId(), new BigDecimal("0.05"), cancellationTime, cancellationTime.toLocalDate());
+        Payment cancelled = paymentRepository.findById(payment.getId()).orElseThrow();
+
+        // Then
+        assertEquals(1, updated);
+        assertEquals(0, cancelled.getCancellationFee().getAmount().compareTo(expectedFee));
+    }
+
+    @Test
+    @DisplayName("Should not cancel a payment created on another day")
+    void testCancelSameDayPayment_NotSameDay() {
+        // Given
+        LocalDateTime cancellationTime = LocalDateTime.now();
+        TYPE1Payment payment = createAndPopulatePayment();
+        payment.setMoney(new Money(new BigDecimal("10.00"), "EUR"));
+        payment.setCreatedDate(cancellationTime.toLocalDate().minusDays(1));
+        paymentRepository.saveAndFlush(payment);
+
+        // When
+        int updated = paymentRepository.cancelSameDayPayment(payment.getId(), new BigDecimal("0.05"), cancellationTime, cancellationTime.toLocalDate());
+
+        // Then
+        assertEquals(0, updated);
+        assertThat(paymentRepository.findById(payment.getId()).orElseThrow().isCancelled()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should write a different notification status per payment in one update")
+    void testUpdateNotificationStatuses() {
+        // Given
+        TYPE1Payment succeeded = createAndPopulatePayment();
+        succeeded.setMoney(new Money(new BigDecimal("10.00"), "EUR"));
+        TYPE1Payment failed = createAndPopulatePayment();
+        failed.setMoney(new Money(new BigDecimal("20.00"), "EUR"));
+        TYPE1Payment untouched = createAndPopulatePayment();
+        untouched.setMoney(new Money(new BigDecimal("30.00"), "EUR"));
+        paymentRepository.saveAllAndFlush(List.of(succeeded, failed, untouched));
+        Map<Long, String> statuses = new LinkedHashMap<>();
+        statuses.put(succeeded.getId(), "Success");
+        statuses.put(failed.getId(), "Failure");
+
+        // When
+        int updated = paymentRepository.updateNotificationStatuses(statuses);
+        entityManager.clear();
+
+        // Then
+        assertEquals(2, updated);
+        assertEquals("Success", paymentRepository.findById(succeeded.getId()).orElseThrow().getNotificationStatus());
+        assertEquals("Failure", paymentRepository.findById(failed.getId()).orElseThrow().getNotificationStatus());
+        assertThat(paymentRepository.findById(untouched.getId()).orElseThrow().getNotificationStatus()).isNull();
+        assertEquals(0, paymentRepository.updateNotificationStatuses(Map.of()));
+    }
+
+    @Test
+    @DisplayName("Should return cancellation state of existing payments only")
+    void testGetCancellationStates() {
+        // Given
+        TYPE1Payment payment = createAndPopulatePayment();
+        payment.setMoney(new Money(new BigDecimal("10.00"), "EUR"));
+        paymentRepository.saveAndFlush(payment);
+
+        // When
+        List<PaymentCancellationStateDTO> states = paymentRepository.getCancellationStates(List.of(payment.getId(), -1L));
+
+        // Then
+        assertThat(states).hasSize(1);
+        assertThat(states.get(0).getType()).isEqualTo("TYPE1");
+        assertThat(states.get(0).getCreatedDate()).isEqualTo(payment.getCreatedDate());
+        assertThat(states.get(0).isCancelled()).isFalse();
+    }
+
     private TYPE1Payment createAndPopulatePayment() {
         TYPE1Payment payment = new TYPE1Payment();
         payment.setType("TYPE1");
@@ -1,20 +1,37 @@
 package lt.rimkus.paymentService.services;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lt.rimkus.paymentService.utilities.CidrMatcher;
+import lt.rimkus.paymentService.utilities.IpRangeTable;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -31,7 +48,12 @@ class GeolocationServiceTest {
     private RestTemplateBuilder restTemplateBuilder;
 
     private GeolocationService geolocationService;
+    private static final String BATCH_URL = "https://test.geo.service/geo.json";
+    private static final CidrMatcher PRIVATE_RANGES = CidrMatcher.of(List.of("127.0.0.0/8", "10.0.0.0/8", "172.16.0.0/12", "192.168.0.0/16",
+            "169.254.0.0/16", "::1/128", "fc00::/7", "fe80::/10"));
+
     private final String testGeoServiceUrl = "https://test.geo.service/";
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
 
     @BeforeEach
     void setUp() {
@@ -40,7 +62,7 @@ class GeolocationServiceTest {
         when(restTemplateBuilder.readTimeout(any(Duration.class))).thenReturn(restTemplateBuilder);
         when(restTemplateBuilder.build()).thenReturn(restTemplate);
 
-        geolocationService = new GeolocationService(restTemplateBuilder, testGeoServiceUrl);
+        geolocationService = newService(restTemplateBuilder, testGeoServiceUrl, Duration.ofMinutes(1));
     }
 
     @Nested
@@ -365,6 +387,30 @@ class GeolocationServiceTest {
             assertThat(geolocationService.resolveCountryByIp("172.31.255.255")).isEqualTo("Local");
         }
 
+        @Test
+        @DisplayName("Should identify IPv6 unique local and link-local addresses as local")
+        void shouldIdentifyIpv6LocalRangesAsLocal() {
+            // Given & When & Then
+            assertThat(geolocationService.resolveCountryByIp("fd12:3456:789a::1")).isEqualTo("Local");
+            assertThat(geolocationService.resolveCountryByIp("fe80::1%eth0")).isEqualTo("Local");
+            assertThat(geolocationService.resolveCountryByIp("::ffff:192.168.1.1")).isEqualTo("Local");
+            verifyNoInteractions(restTemplate);
+        }
+
+        @Test
+        @DisplayName("Should not identify public 172.x addresses outside 172.16.0.0/12 as local")
+        void shouldNotIdentifyPublic172AddressesAsLocal() {
+            // Given
+            when(restTemplate.getForObject(anyString(), eq(GeolocationService.GeoResponse.class))).thenReturn(null);
+
+            // When
+            String result = geolocationService.resolveCountryByIp("172.200.1.1");
+
+            // Then
+            assertThat(result).isEqualTo("Unknown");
+            verify(restTemplate).getForObject(testGeoServiceUrl + "172.200.1.1.json", GeolocationService.GeoResponse.class);
+        }
+
         @Test
         @DisplayName("Should not identify public IP addresses as local")
         void shouldNotIdentifyPublicIpAddressesAsLocal() {
@@ -387,6 +433,306 @@ class GeolocationServiceTest {
         }
     }
 
+    @Nested
+    @DisplayName("Country cache tests")
+    class CountryCacheTests {
+
+        @Test
+        @DisplayName("Should call the geolocation service once for repeated lookups of the same IP")
+        void shouldServeRepeatedLookupsFromCache() {
+            // Given
+            String publicIp = "8.8.8.8";
+            String expectedUrl = testGeoServiceUrl + publicIp + ".json";
+            GeolocationService.GeoResponse mockResponse = new GeolocationService.GeoResponse();
+            mockResponse.setCountry("United States");
+            when(restTemplate.getForObject(expectedUrl, GeolocationService.GeoResponse.class)).thenReturn(mockResponse);
+
+            // When
+            String first = geolocationService.resolveCountryByIp(publicIp);
+            String second = geolocationService.resolveCountryByIp(publicIp);
+
+            // Then
+            assertThat(first).isEqualTo("United States");
+            assertThat(second).isEqualTo("United States");
+            verify(restTemplate, times(1)).getForObject(expectedUrl, GeolocationService.GeoResponse.class);
+            assertThat(geolocationService.getCacheStats().hitCount()).isEqualTo(1);
+            assertThat(geolocationService.getCacheStats().missCount()).isEqualTo(1);
+            assertThat(meterRegistry.get("cache.gets").tag("cache", "geolocation.country").tag("result", "hit")
+                    .functionCounter().count()).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("Should cache 'Unknown' results for the negative TTL only")
+        void shouldExpireUnknownResultsAfterNegativeTtl() {
+            // Given
+            GeolocationService service = newService(restTemplateBuilder, testGeoServiceUrl, Duration.ZERO);
+            String publicIp = "8.8.8.8";
+            String expectedUrl = testGeoServiceUrl + publicIp + ".json";
+            when(restTemplate.getForObject(expectedUrl, GeolocationService.GeoResponse.class))
+                    .thenThrow(new RestClientException("Connection timeout"));
+
+            // When
+            service.resolveCountryByIp(publicIp);
+            String result = service.resolveCountryByIp(publicIp);
+
+            // Then
+            assertThat(result).isEqualTo("Unknown");
+            verify(restTemplate, times(2)).getForObject(expectedUrl, GeolocationService.GeoResponse.class);
+        }
+
+        @Test
+        @DisplayName("Should keep 'Unknown' results within the negative TTL")
+        void shouldCacheUnknownResults() {
+            // Given
+            String publicIp = "8.8.8.8";
+            String expectedUrl = testGeoServiceUrl + publicIp + ".json";
+            when(restTemplate.getForObject(expectedUrl, GeolocationService.GeoResponse.class)).thenReturn(null);
+
+            // When
+            geolocationService.resolveCountryByIp(publicIp);
+            String result = geolocationService.resolveCountryByIp(publicIp);
+
+            // Then
+            assertThat(result).isEqualTo("Unknown");
+            verify(restTemplate, times(1)).getForObject(expectedUrl, GeolocationService.GeoResponse.class);
+        }
+
+        @Test
+        @DisplayName("Should evict entries beyond the maximum size")
+        void shouldEvictBeyondMaximumSize() {
+            // Given
+            when(restTemplate.getForObject(anyString(), eq(GeolocationService.GeoResponse.class))).thenReturn(null);
+
+            // When
+            geolocationService.resolveCountryByIp("8.8.8.8");
+            geolocationService.resolveCountryByIp("8.8.4.4");
+            geolocationService.resolveCountryByIp("1.1.1.1");
+
+            // Then
+            assertThat(geolocationService.getCacheStats().evictionCount()).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("Should not cache local addresses")
+        void shouldNotCacheLocalAddresses() {
+            // When
+            geolocationService.resolveCountryByIp("127.0.0.1");
+
+            // Then
+            assertThat(geolocationService.getCacheStats().requestCount()).isZero();
+        }
+    }
+
+    @Nested
+    @DisplayName("Offline provider tests")
+    class OfflineProviderTests {
+
+        @TempDir
+        Path directory;
+
+        @Test
+        @DisplayName("Should answer from the offline dataset and fall back to the service for uncovered addresses")
+        void shouldUseOfflineDatasetWithRemoteFallback() throws IOException {
+            // Given
+            Path csv = directory.resolve("ranges.csv");
+            Files.writeString(csv, "8.8.8.0,8.8.8.255,United States\n");
+            GeolocationService service = new GeolocationService(restTemplateBuilder, testGeoServiceUrl, BATCH_URL, Runnable::run, PRIVATE_RANGES, Optional.of(IpRangeTable.load(csv)), Optional.empty(),
+                    meterRegistry, 2, Duration.ofHours(1), Duration.ofMinutes(1), 1, Duration.ZERO);
+            String uncoveredIp = "1.1.1.1";
+            String expectedUrl = testGeoServiceUrl + uncoveredIp + ".json";
+            GeolocationService.GeoResponse mockResponse = new GeolocationService.GeoResponse();
+            mockResponse.setCountry("Australia");
+            when(restTemplate.getForObject(expectedUrl, GeolocationService.GeoResponse.class)).thenReturn(mockResponse);
+
+            // When
+            String covered = service.resolveCountryByIp("8.8.8.8");
+            String uncovered = service.resolveCountryByIp(uncoveredIp);
+
+            // Then
+            assertThat(covered).isEqualTo("United States");
+            assertThat(uncovered).isEqualTo("Australia");
+            verify(restTemplate, times(1)).getForObject(anyString(), eq(GeolocationService.GeoResponse.class));
+        }
+    }
+
+    @Nested
+    @DisplayName("Lookup coalescing tests")
+    class LookupCoalescingTests {
+
+        @Test
+        @DisplayName("Should share one queued lookup between concurrent callers for the same IP")
+        void shouldShareInFlightLookup() {
+            // Given
+            List<Runnable> queuedTasks = new ArrayList<>();
+            GeolocationService service = new GeolocationService(restTemplateBuilder, testGeoServiceUrl, BATCH_URL, queuedTasks::add, PRIVATE_RANGES, Optional.empty(), Optional.empty(),
+                    meterRegistry, 2, Duration.ofHours(1), Duration.ofMinutes(1), 1, Duration.ZERO);
+            String publicIp = "8.8.8.8";
+            String expectedUrl = testGeoServiceUrl + publicIp + ".json";
+            GeolocationService.GeoResponse mockResponse = new GeolocationService.GeoResponse();
+            mockResponse.setCountry("United States");
+            when(restTemplate.getForObject(expectedUrl, GeolocationService.GeoResponse.class)).thenReturn(mockResponse);
+
+            // When
+            CompletableFuture<String> first = service.resolveCountryByIpAsync(publicIp);
+            CompletableFuture<String> second = service.resolveCountryByIpAsync(publicIp);
+            queuedTasks.forEach(Runnable::run);
+
+            // Then
+            assertThat(queuedTasks).hasSize(1);
+            assertThat(second).isSameAs(first);
+            assertThat(first.join()).isEqualTo("United States");
+            verify(restTemplate, times(1)).getForObject(expectedUrl, GeolocationService.GeoResponse.class);
+        }
+
+        @Test
+        @DisplayName("Should return 'Unknown' without caching when the executor rejects the lookup")
+        void shouldReturnUnknownWhenLookupIsRejected() {
+            // Given
+            AtomicBoolean reject = new AtomicBoolean(true);
+            Executor executor = task -> {
+                if (reject.getAndSet(false)) {
+                    throw new RejectedExecutionException("Queue is full");
+                }
+                task.run();
+            };
+            GeolocationService service = new GeolocationService(restTemplateBuilder, testGeoServiceUrl, BATCH_URL, executor, PRIVATE_RANGES, Optional.empty(), Optional.empty(),
+                    meterRegistry, 2, Duration.ofHours(1), Duration.ofMinutes(1), 1, Duration.ZERO);
+            String publicIp = "8.8.8.8";
+            String expectedUrl = testGeoServiceUrl + publicIp + ".json";
+            GeolocationService.GeoResponse mockResponse = new GeolocationService.GeoResponse();
+            mockResponse.setCountry("United States");
+            when(restTemplate.getForObject(expectedUrl, GeolocationService.GeoResponse.class)).thenReturn(mockResponse);
+
+            // When
+            String rejected = service.resolveCountryByIp(publicIp);
+            String retried = service.resolveCountryByIp(publicIp);
+
+            // Then
+            assertThat(rejected).isEqualTo("Unknown");
+            assertThat(retried).isEqualTo("United States");
+        }
+
+        @Test
+        @DisplayName("Should spill a rejected log lookup and resolve it when the spillover replays it")
+        void shouldSpillRejectedLogLookup(@TempDir Path directory) throws IOException {
+            // Given
+            AtomicBoolean reject = new AtomicBoolean(true);
+            Executor executor = task -> {
+                if (reject.get()) {
+                    throw new RejectedExecutionException("Queue is full");
+                }
+                task.run();
+            };
+            GeoLogSpillover spillover = new GeoLogSpillover(directory.resolve("geo-spill.dat"), DataSize.ofKilobytes(4), Duration.ofHours(1), 10, meterRegistry);
+            GeolocationService service = new GeolocationService(restTemplateBuilder, testGeoServiceUrl, BATCH_URL, executor, PRIVATE_RANGES, Optional.empty(),
+                    Optional.of(spillover), meterRegistry, 2, Duration.ofHours(1), Duration.ofMinutes(1), 1, Duration.ZERO);
+            String publicIp = "8.8.8.8";
+            String expectedUrl = testGeoServiceUrl + publicIp + ".json";
+            GeolocationService.GeoResponse mockResponse = new GeolocationService.GeoResponse();
+            mockResponse.setCountry("United States");
+            when(restTemplate.getForObject(expectedUrl, GeolocationService.GeoResponse.class)).thenReturn(mockResponse);
+
+            // When
+            service.logCountryAsync(publicIp, "<Payment creation>");
+            int spilled = spillover.getBacklog();
+            reject.set(false);
+            int replayed = spillover.drain(10, service::logCountryAsync);
+
+            // Then
+            assertThat(spilled).isEqualTo(1);
+            assertThat(replayed).isEqualTo(1);
+            assertThat(spillover.getBacklog()).isZero();
+            verify(restTemplate, times(1)).getForObject(expectedUrl, GeolocationService.GeoResponse.class);
+            assertThat(meterRegistry.get("geolocation.spill.spilled").counter().count()).isEqualTo(1);
+            assertThat(meterRegistry.get("geolocation.spill.drained").counter().count()).isEqualTo(1);
+            assertThat(meterRegistry.get("geolocation.spill.backlog").gauge().value()).isZero();
+            spillover.stop();
+        }
+    }
+
+    @Nested
+    @DisplayName("Micro-batching tests")
+    class MicroBatchingTests {
+
+        private GeolocationService batchingService;
+
+        @BeforeEach
+        void setUp() {
+            batchingService = new GeolocationService(restTemplateBuilder, testGeoServiceUrl, BATCH_URL, Runnable::run, PRIVATE_RANGES, Optional.empty(), Optional.empty(),
+                    meterRegistry, 100, Duration.ofHours(1), Duration.ofMinutes(1), 3, Duration.ofSeconds(10));
+        }
+
+        @AfterEach
+        void tearDown() {
+            batchingService.stop();
+        }
+
+        @Test
+        @DisplayName("Should resolve a full batch with one call and fan the countries back to each caller")
+        void shouldResolveFullBatchWithOneCall() throws Exception {
+            // Given
+            when(restTemplate.getForObject(startsWith(BATCH_URL + "?ip="), eq(GeolocationService.GeoResponse[].class)))
+                    .thenReturn(new GeolocationService.GeoResponse[]{geoResponse("8.8.8.8", "United States"), geoResponse("1.1.1.1", "Australia")});
+
+            // When
+            CompletableFuture<String> first = batchingService.resolveCountryByIpAsync("8.8.8.8");
+            CompletableFuture<String> second = batchingService.resolveCountryByIpAsync("1.1.1.1");
+            CompletableFuture<String> third = batchingService.resolveCountryByIpAsync("9.9.9.9");
+
+            // Then
+            assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo("United States");
+            assertThat(second.get(5, TimeUnit.SECONDS)).isEqualTo("Australia");
+            // Missing from the response
+            assertThat(third.get(5, TimeUnit.SECONDS)).isEqualTo("Unknown");
+            verify(restTemplate, times(1)).getForObject(anyString(), eq(GeolocationService.GeoResponse[].class));
+            verify(restTemplate, never()).getForObject(anyString(), eq(GeolocationService.GeoResponse.class));
+            assertThat(meterRegistry.get("geolocation.batch.fill.ratio").summary().totalAmount()).isEqualTo(1.0);
+        }
+
+        @Test
+        @DisplayName("Should resolve a partial batch once the linger time passes")
+        void shouldFlushPartialBatchAfterLinger() throws Exception {
+            // Given
+            GeolocationService service = new GeolocationService(restTemplateBuilder, testGeoServiceUrl, BATCH_URL, Runnable::run, PRIVATE_RANGES, Optional.empty(), Optional.empty(),
+                    meterRegistry, 100, Duration.ofHours(1), Duration.ofMinutes(1), 3, Duration.ofMillis(20));
+            when(restTemplate.getForObject(startsWith(BATCH_URL + "?ip="), eq(GeolocationService.GeoResponse[].class)))
+                    .thenReturn(new GeolocationService.GeoResponse[]{geoResponse("8.8.8.8", "United States"), geoResponse("1.1.1.1", "Australia")});
+
+            // When
+            CompletableFuture<String> first = service.resolveCountryByIpAsync("8.8.8.8");
+            CompletableFuture<String> second = service.resolveCountryByIpAsync("1.1.1.1");
+
+            // Then
+            assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo("United States");
+            assertThat(second.get(5, TimeUnit.SECONDS)).isEqualTo("Australia");
+            assertThat(meterRegistry.get("geolocation.batch.fill.ratio").summary().mean()).isCloseTo(2.0 / 3, within(0.001));
+            service.stop();
+        }
+
+        @Test
+        @DisplayName("Should resolve every IP of a batch as 'Unknown' when the batch call fails")
+        void shouldReturnUnknownWhenBatchCallFails() throws Exception {
+            // Given
+            when(restTemplate.getForObject(anyString(), eq(GeolocationService.GeoResponse[].class))).thenThrow(new RestClientException("Read timeout"));
+
+            // When
+            List<CompletableFuture<String>> countries = List.of(batchingService.resolveCountryByIpAsync("8.8.8.8"),
+                    batchingService.resolveCountryByIpAsync("1.1.1.1"), batchingService.resolveCountryByIpAsync("9.9.9.9"));
+
+            // Then
+            for (CompletableFuture<String> country : countries) {
+                assertThat(country.get(5, TimeUnit.SECONDS)).isEqualTo("Unknown");
+            }
+        }
+
+        private GeolocationService.GeoResponse geoResponse(String ip, String country) {
+            GeolocationService.GeoResponse response = new GeolocationService.GeoResponse();
+            response.setIp(ip);
+            response.setCountry(country);
+            return response;
+        }
+    }
+
     @Nested
     @DisplayName("GeoResponse DTO tests")
     class GeoResponseTests {
@@ -436,7 +782,7 @@ class GeolocationServiceTest {
             String testUrl = "https://test-url.com/";
 
             // When
-            GeolocationService service = new GeolocationService(realBuilder, testUrl);
+            GeolocationService service = newService(realBuilder, testUrl, Duration.ofMinutes(1));
 
             // Then
             assertThat(service).isNotNull();
@@ -452,10 +798,15 @@ class GeolocationServiceTest {
             String defaultUrl = "https://get.geojs.io/v1/ip/geo/";
 
             // When
-            GeolocationService service = new GeolocationService(realBuilder, defaultUrl);
+            GeolocationService service = newService(realBuilder, defaultUrl, Duration.ofMinutes(1));
 
             // Then
             assertThat(ReflectionTestUtils.getField(service, "geoServiceUrl")).isEqualTo(defaultUrl);
         }
     }
-}
\ No newline at end of file
+
+    private GeolocationService newService(RestTemplateBuilder builder, String url, Duration negativeCacheTtl) {
+        return new GeolocationService(builder, url, BATCH_URL, Runnable::run, PRIVATE_RANGES, Optional.empty(), Optional.empty(), meterRegistry, 2, Duration.ofHours(1), negativeCacheTtl,
+                1, Duration.ZERO);
+    }
+}
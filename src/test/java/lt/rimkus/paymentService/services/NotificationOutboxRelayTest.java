@@ -0,0 +1,311 @@
+package lt.rimkus.paymentService.services;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lt.rimkus.paymentService.enums.OutboxStatus;
+import lt.rimkus.paymentService.exceptions.RequestValidationException;
+import lt.rimkus.paymentService.models.NotificationOutboxEntry;
+import lt.rimkus.paymentService.repositories.NotificationOutboxRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static lt.rimkus.paymentService.messages.OtherMessages.FAILURE;
+import static lt.rimkus.paymentService.messages.OtherMessages.SUCCESS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Notification Outbox Relay Tests")
+class NotificationOutboxRelayTest {
+
+    @Mock
+    private NotificationOutboxRepository notificationOutboxRepository;
+
+    @Mock
+    private NotificationStatusWriter notificationStatusWriter;
+
+    @Mock
+    private NotificationProcessor notificationProcessor;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @InjectMocks
+    private NotificationOutboxRelay notificationOutboxRelay;
+
+    @BeforeEach
+    void setUp() {
+        // No relay threads, the tests drive the batches themselves
+        ReflectionTestUtils.setField(notificationOutboxRelay, "relayThreads", 0);
+        ReflectionTestUtils.setField(notificationOutboxRelay, "batchSize", 10);
+        ReflectionTestUtils.setField(notificationOutboxRelay, "pollIntervalMs", 200L);
+        ReflectionTestUtils.setField(notificationOutboxRelay, "dispatchTimeoutMs", 1000L);
+        ReflectionTestUtils.setField(notificationOutboxRelay, "leaseMs", 30000L);
+        ReflectionTestUtils.setField(notificationOutboxRelay, "maxAttempts", 3);
+        ReflectionTestUtils.setField(notificationOutboxRelay, "retryBackoffMs", 1000L);
+        ReflectionTestUtils.setField(notificationOutboxRelay, "retryMaxBackoffMs", 60000L);
+        ReflectionTestUtils.setField(notificationOutboxRelay, "retryBatchSize", 4);
+        ReflectionTestUtils.setField(notificationOutboxRelay, "idlePollIntervalMs", 60000L);
+        notificationOutboxRelay.start();
+
+        lenient().when(transactionTemplate.execute(any())).thenAnswer(invocation -> {
+            TransactionCallback<?> callback = invocation.getArgument(0);
+            return callback.doInTransaction(null);
+        });
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        notificationOutboxRelay.stop();
+    }
+
+    @Test
+    @DisplayName("Should send one notification per payment type and mark delivered entries in one transaction")
+    void shouldDeliverClaimedEntries() throws RequestValidationException {
+        // Given
+        List<NotificationOutboxEntry> due = List.of(entry(1L, 11L, "TYPE1", 0), entry(2L, 12L, "TYPE1", 0), entry(3L, 13L, "TYPE2", 0));
+        when(notificationOutboxRepository.findNewDueForUpdateSkipLocked(any(), eq(10))).thenReturn(due);
+        when(notificationProcessor.notifyServiceAboutCreatedPayments("TYPE1")).thenReturn(CompletableFuture.completedFuture(SUCCESS));
+        when(notificationProcessor.notifyServiceAboutCreatedPayments("TYPE2")).thenReturn(CompletableFuture.completedFuture(SUCCESS));
+
+        // When
+        int claimed = notificationOutboxRelay.relayBatch();
+
+        // Then
+        assertThat(claimed).isEqualTo(3);
+        verify(notificationOutboxRepository).extendLease(eq(List.of(1L, 2L, 3L)), any());
+        verify(notificationProcessor, times(1)).notifyServiceAboutCreatedPayments("TYPE1");
+        verify(notificationProcessor, times(1)).notifyServiceAboutCreatedPayments("TYPE2");
+        verify(notificationOutboxRepository).markDelivered(eq(List.of(1L, 2L, 3L)), any());
+        verify(notificationOutboxRepository, never()).scheduleRetry(anyCollection(), any());
+        verify(notificationStatusWriter).enqueue(11L, SUCCESS);
+        verify(notificationStatusWriter).enqueue(12L, SUCCESS);
+        verify(notificationStatusWriter).enqueue(13L, SUCCESS);
+        assertThat(meterRegistry.counter("payments.notification.outbox.delivered").count()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Should schedule a retry with a growing delay when the notification fails")
+    void shouldScheduleRetryOnFailure() throws RequestValidationException {
+        // Given
+        when(notificationOutboxRepository.findNewDueForUpdateSkipLocked(any(), anyInt())).thenReturn(List.of(entry(1L, 11L, "TYPE1", 0)));
+        when(notificationOutboxRepository.findRetriesDueForUpdateSkipLocked(any(), anyInt())).thenReturn(List.of(entry(2L, 12L, "TYPE1", 1)));
+        when(notificationProcessor.notifyServiceAboutCreatedPayments("TYPE1")).thenReturn(CompletableFuture.completedFuture(FAILURE));
+        LocalDateTime before = LocalDateTime.now();
+
+        // When
+        notificationOutboxRelay.relayBatch();
+
+        // Then
+        verify(notificationOutboxRepository).scheduleRetry(eq(List.of(1L)), millisAfter(before, 500, 1000));
+        verify(notificationOutboxRepository).scheduleRetry(eq(List.of(2L)), millisAfter(before, 1000, 2000));
+        verify(notificationOutboxRepository, never()).markDelivered(anyCollection(), any());
+        verify(notificationOutboxRepository, never()).markFailed(anyCollection());
+        verify(notificationStatusWriter, never()).enqueue(any(), any());
+        assertThat(meterRegistry.counter("payments.notification.outbox.retried").count()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should claim retries only for the room new entries leave in the batch, up to the retry batch size")
+    void shouldThrottleRetries() throws RequestValidationException {
+        // Given
+        List<NotificationOutboxEntry> fresh = new ArrayList<>();
+        for (long id = 1; id <= 8; id++) {
+            fresh.add(entry(id, id + 10, "TYPE1", 0));
+        }
+        when(notificationOutboxRepository.findNewDueForUpdateSkipLocked(any(), eq(10))).thenReturn(fresh, List.of());
+        when(notificationOutboxRepository.findRetriesDueForUpdateSkipLocked(any(), anyInt())).thenReturn(List.of());
+        when(notificationProcessor.notifyServiceAboutCreatedPayments("TYPE1")).thenReturn(CompletableFuture.completedFuture(SUCCESS));
+
+        // When
+        notificationOutboxRelay.relayBatch();
+        notificationOutboxRelay.relayBatch();
+
+        // Then
+        verify(notificationOutboxRepository).findRetriesDueForUpdateSkipLocked(any(), eq(2));
+        verify(notificationOutboxRepository).findRetriesDueForUpdateSkipLocked(any(), eq(4));
+    }
+
+    @Test
+    @DisplayName("Should not claim retries when new entries fill the batch")
+    void shouldNotClaimRetriesForFullBatch() throws RequestValidationException {
+        // Given
+        List<NotificationOutboxEntry> fresh = new ArrayList<>();
+        for (long id = 1; id <= 10; id++) {
+            fresh.add(entry(id, id + 10, "TYPE1", 0));
+        }
+        when(notificationOutboxRepository.findNewDueForUpdateSkipLocked(any(), eq(10))).thenReturn(fresh);
+        when(notificationProcessor.notifyServiceAboutCreatedPayments("TYPE1")).thenReturn(CompletableFuture.completedFuture(SUCCESS));
+
+        // When
+        notificationOutboxRelay.relayBatch();
+
+        // Then
+        verify(notificationOutboxRepository, never()).findRetriesDueForUpdateSkipLocked(any(), anyInt());
+    }
+
+    @Test
+    @DisplayName("Should double the retry delay per attempt, with up to half of it random, until the maximum")
+    void shouldBackOffExponentially() {
+        for (int attempts = 1; attempts <= 10; attempts++) {
+            long backoff = Math.min(1000L << (attempts - 1), 60000L);
+            assertThat(notificationOutboxRelay.retryDelayMs(attempts)).isBetween(backoff / 2, backoff);
+        }
+        assertThat(notificationOutboxRelay.retryDelayMs(100)).isBetween(30000L, 60000L);
+    }
+
+    @Test
+    @DisplayName("Should mark the entry failed and the payment Failure after max attempts")
+    void shouldFailAfterMaxAttempts() throws RequestValidationException {
+        // Given
+        when(notificationOutboxRepository.findNewDueForUpdateSkipLocked(any(), anyInt())).thenReturn(List.of(entry(1L, 11L, "TYPE1", 2)));
+        when(notificationProcessor.notifyServiceAboutCreatedPayments("TYPE1"))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("Service down")));
+
+        // When
+        notificationOutboxRelay.relayBatch();
+
+        // Then
+        verify(notificationOutboxRepository).markFailed(List.of(1L));
+        verify(notificationOutboxRepository, never()).scheduleRetry(anyCollection(), any());
+        verify(notificationStatusWriter).enqueue(11L, FAILURE);
+        assertThat(meterRegistry.counter("payments.notification.outbox.failed").count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should fail entries of unsupported types without retrying or writing a status")
+    void shouldFailUnsupportedType() throws RequestValidationException {
+        // Given
+        when(notificationOutboxRepository.findNewDueForUpdateSkipLocked(any(), anyInt())).thenReturn(List.of(entry(1L, 11L, "TYPE9", 0)));
+        when(notificationProcessor.notifyServiceAboutCreatedPayments("TYPE9")).thenThrow(new RequestValidationException("Unsupported"));
+
+        // When
+        notificationOutboxRelay.relayBatch();
+
+        // Then
+        verify(notificationOutboxRepository).markFailed(List.of(1L));
+        verify(notificationStatusWriter, never()).enqueue(any(), any());
+    }
+
+    @Test
+    @DisplayName("Should retry entries whose notification does not complete in time")
+    void shouldRetryOnTimeout() throws RequestValidationException {
+        // Given
+        ReflectionTestUtils.setField(notificationOutboxRelay, "dispatchTimeoutMs", 50L);
+        when(notificationOutboxRepository.findNewDueForUpdateSkipLocked(any(), anyInt())).thenReturn(List.of(entry(1L, 11L, "TYPE1", 0)));
+        when(notificationProcessor.notifyServiceAboutCreatedPayments("TYPE1")).thenReturn(new CompletableFuture<>());
+
+        // When
+        notificationOutboxRelay.relayBatch();
+
+        // Then
+        verify(notificationOutboxRepository).scheduleRetry(eq(List.of(1L)), any());
+        verify(notificationOutboxRepository, never()).markDelivered(anyCollection(), any());
+    }
+
+    @Test
+    @DisplayName("Should do nothing when no entries are due")
+    void shouldDoNothingWhenNothingIsDue() throws RequestValidationException {
+        // Given
+        when(notificationOutboxRepository.findNewDueForUpdateSkipLocked(any(), anyInt())).thenReturn(new ArrayList<>());
+
+        // When
+        int claimed = notificationOutboxRelay.relayBatch();
+
+        // Then
+        assertThat(claimed).isZero();
+        verify(notificationOutboxRepository, never()).extendLease(anyCollection(), any());
+        verify(notificationProcessor, never()).notifyServiceAboutCreatedPayments(any());
+        // Only the claim, nothing is completed
+        verify(transactionTemplate, times(1)).execute(any());
+    }
+
+    @Test
+    @DisplayName("Should not query the outbox while idle and publish the backlog of the last pass")
+    void shouldNotQueryOutboxWhileIdle() {
+        // Given: The first poll always runs a pass
+        when(notificationOutboxRepository.countByStatus(OutboxStatus.PENDING)).thenReturn(7L);
+        when(notificationOutboxRepository.findEarliestPendingAttemptAt()).thenReturn(LocalDateTime.now().plusMinutes(5));
+        notificationOutboxRelay.relayDueEntries();
+
+        // When
+        notificationOutboxRelay.relayDueEntries();
+        double pending = meterRegistry.get("payments.notification.outbox.pending").gauge().value();
+
+        // Then
+        assertThat(pending).isEqualTo(7);
+        verify(notificationOutboxRepository, times(1)).findNewDueForUpdateSkipLocked(any(), anyInt());
+        verify(notificationOutboxRepository, times(1)).countByStatus(OutboxStatus.PENDING);
+    }
+
+    @Test
+    @DisplayName("Should poll again when woken up after new entries are written")
+    void shouldPollWhenWokenUp() {
+        // Given
+        notificationOutboxRelay.relayDueEntries();
+
+        // When
+        notificationOutboxRelay.wakeUp();
+        notificationOutboxRelay.relayDueEntries();
+        notificationOutboxRelay.relayDueEntries();
+
+        // Then
+        verify(notificationOutboxRepository, times(2)).findNewDueForUpdateSkipLocked(any(), anyInt());
+    }
+
+    @Test
+    @DisplayName("Should poll again when the earliest pending entry of the last pass is due")
+    void shouldPollWhenPendingEntryIsDue() {
+        // Given: A retry that was due right after the last pass
+        when(notificationOutboxRepository.findEarliestPendingAttemptAt()).thenReturn(LocalDateTime.now().minusSeconds(1));
+        notificationOutboxRelay.relayDueEntries();
+
+        // When
+        notificationOutboxRelay.relayDueEntries();
+
+        // Then
+        verify(notificationOutboxRepository, times(2)).findNewDueForUpdateSkipLocked(any(), anyInt());
+    }
+
+    private static LocalDateTime millisAfter(LocalDateTime before, long minMillis, long maxMillis) {
+        return argThat(nextAttemptAt -> !nextAttemptAt.isBefore(before.plusNanos(minMillis * 1_000_000))
+                && nextAttemptAt.isBefore(before.plusNanos((maxMillis + 1000) * 1_000_000)));
+    }
+
+    private static NotificationOutboxEntry entry(Long id, Long paymentId, String paymentType, int attempts) {
+        NotificationOutboxEntry entry = new NotificationOutboxEntry();
+        entry.setId(id);
+        entry.setPaymentId(paymentId);
+        entry.setPaymentType(paymentType);
+        entry.setAttempts(attempts);
+        return entry;
+    }
+}
@@ -10,9 +10,6 @@ import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 
 import lt.rimkus.paymentService.exceptions.RequestValidationException;
-import lt.rimkus.paymentService.models.Payment;
-import lt.rimkus.paymentService.models.TestPayment;
-import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -33,23 +30,15 @@ class NotificationProcessorTest {
     @InjectMocks
     private NotificationProcessor notificationProcessor;
 
-    private Payment payment;
-
-    @BeforeEach
-    void setUp() {
-        payment = new TestPayment();
-    }
-
     @Test
     @DisplayName("Should notify service one when payment type is TYPE1")
     void shouldNotifyServiceOneWhenPaymentTypeIsType1() throws RequestValidationException, ExecutionException, InterruptedException {
         // Given
-        payment.setType(TYPE1.getCode());
         CompletableFuture<String> expectedResult = CompletableFuture.completedFuture("Success from service one");
         when(notificationServiceOne.notifyServiceAsync("osvaldasrimkus")).thenReturn(expectedResult);
 
         // When
-        CompletableFuture<String> result = notificationProcessor.notifyServiceAboutCreatedPayment(payment);
+        CompletableFuture<String> result = notificationProcessor.notifyServiceAboutCreatedPayments(TYPE1.getCode());
 
         // Then
         assertNotNull(result);
@@ -62,12 +51,11 @@ class NotificationProcessorTest {
     @DisplayName("Should notify service two when payment type is TYPE2")
     void shouldNotifyServiceTwoWhenPaymentTypeIsType2() throws RequestValidationException, ExecutionException, InterruptedException {
         // Given
-        payment.setType(TYPE2.getCode());
         CompletableFuture<String> expectedResult = CompletableFuture.completedFuture("Success from service two");
         when(notificationServiceTwo.notifyServiceAsync("osvaldasrimkus")).thenReturn(expectedResult);
 
         // When
-        CompletableFuture<String> result = notificationProcessor.notifyServiceAboutCreatedPayment(payment);
+        CompletableFuture<String> result = notificationProcessor.notifyServiceAboutCreatedPayments(TYPE2.getCode());
 
         // Then
         assertNotNull(result);
@@ -81,12 +69,11 @@ class NotificationProcessorTest {
     void shouldThrowRequestValidationExceptionWhenPaymentTypeIsUnsupported() {
         // Given
         String unsupportedType = "UNSUPPORTED_TYPE";
-        payment.setType(unsupportedType);
 
         // When & Then
         RequestValidationException exception = assertThrows(
                 RequestValidationException.class,
-                () -> notificationProcessor.notifyServiceAboutCreatedPayment(payment)
+                () -> notificationProcessor.notifyServiceAboutCreatedPayments(unsupportedType)
         );
 
         assertEquals(UNSUPPORTED_TYPE + unsupportedType, exception.getMessage());
@@ -97,13 +84,10 @@ class NotificationProcessorTest {
     @Test
     @DisplayName("Should throw RequestValidationException when payment type is empty string")
     void shouldThrowRequestValidationExceptionWhenPaymentTypeIsEmptyString() {
-        // Given
-        payment.setType("");
-
         // When & Then
         RequestValidationException exception = assertThrows(
                 RequestValidationException.class,
-                () -> notificationProcessor.notifyServiceAboutCreatedPayment(payment)
+                () -> notificationProcessor.notifyServiceAboutCreatedPayments("")
         );
 
         assertEquals(UNSUPPORTED_TYPE, exception.getMessage());
@@ -115,13 +99,12 @@ class NotificationProcessorTest {
     @DisplayName("Should propagate exception when service one fails")
     void shouldPropagateExceptionWhenServiceOneFails() throws RequestValidationException {
         // Given
-        payment.setType(TYPE1.getCode());
         RuntimeException serviceException = new RuntimeException("Service one failed");
         CompletableFuture<String> failedFuture = CompletableFuture.failedFuture(serviceException);
         when(notificationServiceOne.notifyServiceAsync("osvaldasrimkus")).thenReturn(failedFuture);
 
         // When
-        CompletableFuture<String> result = notificationProcessor.notifyServiceAboutCreatedPayment(payment);
+        CompletableFuture<String> result = notificationProcessor.notifyServiceAboutCreatedPayments(TYPE1.getCode());
 
         // Then
         assertNotNull(result);
@@ -141,13 +124,12 @@ class NotificationProcessorTest {
     @DisplayName("Should propagate exception when service two fails")
     void shouldPropagateExceptionWhenServiceTwoFails() throws RequestValidationException {
         // Given
-        payment.setType(TYPE2.getCode());
         RuntimeException serviceException = new RuntimeException("Service two failed");
         CompletableFuture<String> failedFuture = CompletableFuture.failedFuture(serviceException);
         when(notificationServiceTwo.notifyServiceAsync("osvaldasrimkus")).thenReturn(failedFuture);
 
         // When
-        CompletableFuture<String> result = notificationProcessor.notifyServiceAboutCreatedPayment(payment);
+        CompletableFuture<String> result = notificationProcessor.notifyServiceAboutCreatedPayments(TYPE2.getCode());
 
         // Then
         assertNotNull(result);
@@ -164,44 +146,17 @@ class NotificationProcessorTest {
     }
 
     @Test
-    @DisplayName("Should handle concurrent execution correctly for TYPE1")
-    void shouldHandleConcurrentExecutionCorrectlyForType1() throws RequestValidationException, ExecutionException, InterruptedException {
-        // Given
-        payment.setType(TYPE1.getCode());
-        CompletableFuture<String> asyncResult = new CompletableFuture<>();
-        when(notificationServiceOne.notifyServiceAsync("osvaldasrimkus")).thenReturn(asyncResult);
-
-        // When
-        CompletableFuture<String> result = notificationProcessor.notifyServiceAboutCreatedPayment(payment);
-
-        // Then
-        assertFalse(result.isDone());
-
-        // Complete the async operation
-        asyncResult.complete("Async success");
-
-        assertEquals("Async success", result.get());
-        verify(notificationServiceOne).notifyServiceAsync("osvaldasrimkus");
-    }
-
-    @Test
-    @DisplayName("Should handle concurrent execution correctly for TYPE2")
-    void shouldHandleConcurrentExecutionCorrectlyForType2() throws RequestValidationException, ExecutionException, InterruptedException {
+    @DisplayName("Should send a single notification for a group of payments of the same type")
+    void shouldNotifyOnceForPaymentsOfType() throws RequestValidationException, ExecutionException, InterruptedException {
         // Given
-        payment.setType(TYPE2.getCode());
-        CompletableFuture<String> asyncResult = new CompletableFuture<>();
-        when(notificationServiceTwo.notifyServiceAsync("osvaldasrimkus")).thenReturn(asyncResult);
+        when(notificationServiceOne.notifyServiceAsync("osvaldasrimkus")).thenReturn(CompletableFuture.completedFuture("Success"));
 
         // When
-        CompletableFuture<String> result = notificationProcessor.notifyServiceAboutCreatedPayment(payment);
+        CompletableFuture<String> result = notificationProcessor.notifyServiceAboutCreatedPayments(TYPE1.getCode());
 
         // Then
-        assertFalse(result.isDone());
-
-        // Complete the async operation
-        asyncResult.complete("Async success");
-
-        assertEquals("Async success", result.get());
-        verify(notificationServiceTwo).notifyServiceAsync("osvaldasrimkus");
+        assertEquals("Success", result.get());
+        verify(notificationServiceOne, times(1)).notifyServiceAsync("osvaldasrimkus");
+        verify(notificationServiceTwo, never()).notifyServiceAsync(anyString());
     }
-}
\ No newline at end of file
+}
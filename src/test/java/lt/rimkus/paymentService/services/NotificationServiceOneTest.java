@@ -1,27 +1,34 @@
 package lt.rimkus.paymentService.services;
 
-import org.junit.jupiter.api.BeforeEach;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lt.rimkus.paymentService.utilities.AdaptiveConcurrencyLimit;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
-import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.Mock;
-import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.HttpStatus;
-import org.springframework.http.ResponseEntity;
-import org.springframework.web.client.RestClientException;
-import org.springframework.web.client.RestTemplate;
-
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.io.IOException;
 import java.time.Duration;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import static org.junit.jupiter.api.Assertions.*;
-import static org.mockito.ArgumentMatchers.*;
-import static org.mockito.Mockito.*;
 
-@ExtendWith(MockitoExtension.class)
 class NotificationServiceOneTest {
 
     private static final String SUCCESS = "Success";
@@ -29,223 +36,294 @@ class NotificationServiceOneTest {
     private static final String TEST_URL = "https://api.github.com/users/";
     private static final String TEST_USERNAME = "testUser";
 
-    @Mock
-    private RestTemplateBuilder restTemplateBuilder;
-
-    @Mock
-    private RestTemplate restTemplate;
-
+    private final List<ClientRequest> requests = new CopyOnWriteArrayList<>();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CircuitBreakerRegistry circuitBreakerRegistry = CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+            .slidingWindowSize(4)
+            .minimumNumberOfCalls(4)
+            .failureRateThreshold(50)
+            .slowCallDurationThreshold(Duration.ofMillis(200))
+            .slowCallRateThreshold(50)
+            .waitDurationInOpenState(Duration.ofMinutes(1))
+            .permittedNumberOfCallsInHalfOpenState(1)
+            .build());
     private NotificationServiceOne notificationService;
-
-    @BeforeEach
-    void setUp() {
-        // Given: RestTemplateBuilder is configured to return mocked RestTemplate
-        when(restTemplateBuilder.connectTimeout(any(Duration.class))).thenReturn(restTemplateBuilder);
-        when(restTemplateBuilder.readTimeout(any(Duration.class))).thenReturn(restTemplateBuilder);
-        when(restTemplateBuilder.build()).thenReturn(restTemplate);
-
-        notificationService = new NotificationServiceOne(restTemplateBuilder, TEST_URL);
+    private NotificationServiceTwo otherChannel;
+
+    @AfterEach
+    void tearDown() {
+        if (notificationService != null) {
+            notificationService.stop();
+        }
+        if (otherChannel != null) {
+            otherChannel.stop();
+        }
     }
 
     @Test
-    void givenValidUsername_whenNotifyServiceAsyncCalled_thenShouldConfigureRestTemplateWithCorrectTimeouts() {
-        // Given: Valid username and successful response
-        Map<String, Object> responseBody = new HashMap<>();
-        ResponseEntity<Map> responseEntity = new ResponseEntity<>(responseBody, HttpStatus.OK);
-        when(restTemplate.getForEntity(anyString(), eq(Map.class))).thenReturn(responseEntity);
+    void givenValidUsername_whenNotifyServiceAsyncCalled_thenShouldCallCorrectUrl() throws Exception {
+        // Given: Notification service answering 200 OK
+        notificationService = newService(respondWith(HttpStatus.OK), 10, 100);
 
         // When: notifyServiceAsync is called
-        notificationService.notifyServiceAsync(TEST_USERNAME);
+        notificationService.notifyServiceAsync(TEST_USERNAME).get(5, TimeUnit.SECONDS);
 
-        // Then: RestTemplate should be configured with correct timeouts
-        verify(restTemplateBuilder).connectTimeout(Duration.ofSeconds(3));
-        verify(restTemplateBuilder).readTimeout(Duration.ofSeconds(5));
-        verify(restTemplateBuilder).build();
+        // Then: Should call the correct URL
+        assertEquals(1, requests.size());
+        assertEquals(TEST_URL + TEST_USERNAME, requests.get(0).url().toString());
     }
 
     @Test
-    void givenValidUsername_whenNotifyServiceAsyncCalled_thenShouldCallCorrectUrl() {
-        // Given: Valid username and successful response
-        Map<String, Object> responseBody = new HashMap<>();
-        ResponseEntity<Map> responseEntity = new ResponseEntity<>(responseBody, HttpStatus.OK);
-        when(restTemplate.getForEntity(anyString(), eq(Map.class))).thenReturn(responseEntity);
-
-        // When: notifyServiceAsync is called
-        notificationService.notifyServiceAsync(TEST_USERNAME);
-
-        // Then: Should call the correct URL
-        verify(restTemplate).getForEntity(TEST_URL + TEST_USERNAME, Map.class);
+    void givenSuccessfulResponses_whenNotifyServiceAsyncCalled_thenShouldReturnSuccess() throws Exception {
+        for (HttpStatus status : List.of(HttpStatus.OK, HttpStatus.CREATED, HttpStatus.ACCEPTED)) {
+            // Given: Successful HTTP response
+            notificationService = newService(respondWith(status), 10, 100);
+
+            // When: notifyServiceAsync is called
+            CompletableFuture<String> result = notificationService.notifyServiceAsync(TEST_USERNAME);
+
+            // Then: Should return SUCCESS status
+            assertEquals(SUCCESS, result.get(5, TimeUnit.SECONDS), status + " should be a success");
+            notificationService.stop();
+        }
     }
 
     @Test
-    void givenSuccessfulResponse_whenNotifyServiceAsyncCalled_thenShouldReturnSuccess() throws ExecutionException, InterruptedException {
-        // Given: Successful HTTP response (200 OK)
-        Map<String, Object> responseBody = new HashMap<>();
-        ResponseEntity<Map> responseEntity = new ResponseEntity<>(responseBody, HttpStatus.OK);
-        when(restTemplate.getForEntity(anyString(), eq(Map.class))).thenReturn(responseEntity);
-
-        // When: notifyServiceAsync is called
-        CompletableFuture<String> result = notificationService.notifyServiceAsync(TEST_USERNAME);
-
-        // Then: Should return SUCCESS status
-        assertEquals(SUCCESS, result.get());
+    void givenErrorResponses_whenNotifyServiceAsyncCalled_thenShouldReturnFailure() throws Exception {
+        for (HttpStatus status : List.of(HttpStatus.BAD_REQUEST, HttpStatus.NOT_FOUND, HttpStatus.INTERNAL_SERVER_ERROR)) {
+            // Given: Client or server error response
+            notificationService = newService(respondWith(status), 10, 100);
+
+            // When: notifyServiceAsync is called
+            CompletableFuture<String> result = notificationService.notifyServiceAsync(TEST_USERNAME);
+
+            // Then: Should return FAILURE status
+            assertEquals(FAILURE, result.get(5, TimeUnit.SECONDS), status + " should be a failure");
+            notificationService.stop();
+        }
     }
 
     @Test
-    void givenSuccessfulResponseWithCreatedStatus_whenNotifyServiceAsyncCalled_thenShouldReturnSuccess() throws ExecutionException, InterruptedException {
-        // Given: Successful HTTP response (201 Created)
-        Map<String, Object> responseBody = new HashMap<>();
-        ResponseEntity<Map> responseEntity = new ResponseEntity<>(responseBody, HttpStatus.CREATED);
-        when(restTemplate.getForEntity(anyString(), eq(Map.class))).thenReturn(responseEntity);
+    void givenConnectionError_whenNotifyServiceAsyncCalled_thenShouldReturnFailure() throws Exception {
+        // Given: The request fails before any response
+        notificationService = newService(request -> Mono.error(new IOException("Connection refused")), 10, 100);
 
         // When: notifyServiceAsync is called
         CompletableFuture<String> result = notificationService.notifyServiceAsync(TEST_USERNAME);
 
-        // Then: Should return SUCCESS status
-        assertEquals(SUCCESS, result.get());
+        // Then: Should return FAILURE status
+        assertEquals(FAILURE, result.get(5, TimeUnit.SECONDS));
     }
 
     @Test
-    void givenSuccessfulResponseWithAcceptedStatus_whenNotifyServiceAsyncCalled_thenShouldReturnSuccess() throws ExecutionException, InterruptedException {
-        // Given: Successful HTTP response (202 Accepted)
-        Map<String, Object> responseBody = new HashMap<>();
-        ResponseEntity<Map> responseEntity = new ResponseEntity<>(responseBody, HttpStatus.ACCEPTED);
-        when(restTemplate.getForEntity(anyString(), eq(Map.class))).thenReturn(responseEntity);
+    void givenNullUsername_whenNotifyServiceAsyncCalled_thenShouldCallUrlWithNullAppended() throws Exception {
+        // Given: Notification service answering 200 OK
+        notificationService = newService(respondWith(HttpStatus.OK), 10, 100);
 
-        // When: notifyServiceAsync is called
-        CompletableFuture<String> result = notificationService.notifyServiceAsync(TEST_USERNAME);
+        // When: notifyServiceAsync is called with null username
+        notificationService.notifyServiceAsync(null).get(5, TimeUnit.SECONDS);
 
-        // Then: Should return SUCCESS status
-        assertEquals(SUCCESS, result.get());
+        // Then: Should call URL with "null" appended
+        assertEquals(TEST_URL + "null", requests.get(0).url().toString());
     }
 
     @Test
-    void givenClientErrorResponse_whenNotifyServiceAsyncCalled_thenShouldReturnNull() throws ExecutionException, InterruptedException {
-        // Given: Client error response (404 Not Found)
-        Map<String, Object> responseBody = new HashMap<>();
-        ResponseEntity<Map> responseEntity = new ResponseEntity<>(responseBody, HttpStatus.NOT_FOUND);
-        when(restTemplate.getForEntity(anyString(), eq(Map.class))).thenReturn(responseEntity);
-
-        // When: notifyServiceAsync is called
-        CompletableFuture<String> result = notificationService.notifyServiceAsync(TEST_USERNAME);
-
-        // Then: Should return null (status not set to SUCCESS)
-        assertNull(result.get());
+    void givenSlowService_whenManyNotificationsSent_thenShouldKeepAtMostMaxConcurrencyInFlight() throws Exception {
+        // Given: Responses that only arrive when released
+        List<Sinks.One<ClientResponse>> responses = new CopyOnWriteArrayList<>();
+        notificationService = newService(request -> {
+            Sinks.One<ClientResponse> response = Sinks.one();
+            responses.add(response);
+            return response.asMono();
+        }, 2, 100);
+
+        // When: Five notifications are sent
+        List<CompletableFuture<String>> results = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            results.add(notificationService.notifyServiceAsync(TEST_USERNAME + i));
+        }
+
+        // Then: Only two are in flight, each completed one lets the next one start
+        assertEquals(2, requests.size());
+        assertEquals(5, notificationService.getPendingCount());
+        responses.get(0).tryEmitValue(ClientResponse.create(HttpStatus.OK).build());
+        assertEquals(SUCCESS, results.get(0).get(5, TimeUnit.SECONDS));
+        assertEquals(3, requests.size());
+        assertFalse(results.get(4).isDone());
+        for (int i = 1; i < 5; i++) {
+            responses.get(i).tryEmitValue(ClientResponse.create(HttpStatus.OK).build());
+        }
+        for (CompletableFuture<String> result : results) {
+            assertEquals(SUCCESS, result.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(0, notificationService.getPendingCount());
     }
 
     @Test
-    void givenServerErrorResponse_whenNotifyServiceAsyncCalled_thenShouldReturnNull() throws ExecutionException, InterruptedException {
-        // Given: Server error response (500 Internal Server Error)
-        Map<String, Object> responseBody = new HashMap<>();
-        ResponseEntity<Map> responseEntity = new ResponseEntity<>(responseBody, HttpStatus.INTERNAL_SERVER_ERROR);
-        when(restTemplate.getForEntity(anyString(), eq(Map.class))).thenReturn(responseEntity);
+    void givenTooManyPendingNotifications_whenNotifyServiceAsyncCalled_thenShouldFailFast() throws ExecutionException, InterruptedException, TimeoutException {
+        // Given: A service that never answers and room for two pending notifications
+        notificationService = newService(request -> Mono.never(), 1, 2);
+        notificationService.notifyServiceAsync(TEST_USERNAME);
+        notificationService.notifyServiceAsync(TEST_USERNAME);
 
-        // When: notifyServiceAsync is called
+        // When: A third notification is sent
         CompletableFuture<String> result = notificationService.notifyServiceAsync(TEST_USERNAME);
 
-        // Then: Should return null (status not set to SUCCESS)
-        assertNull(result.get());
+        // Then: Should return FAILURE without calling the service
+        assertEquals(FAILURE, result.get(5, TimeUnit.SECONDS));
+        assertEquals(1, requests.size());
     }
 
     @Test
-    void givenRestClientException_whenNotifyServiceAsyncCalled_thenShouldReturnFailure() throws ExecutionException, InterruptedException {
-        // Given: RestTemplate throws RestClientException
-        when(restTemplate.getForEntity(anyString(), eq(Map.class)))
-                .thenThrow(new RestClientException("Connection timeout"));
+    void givenSlowChannelWithFullBulkhead_whenOtherChannelNotified_thenShouldNotBeDelayed() throws Exception {
+        // Given: Channel one never answers and its bulkhead of two is full
+        notificationService = newService(request -> Mono.never(), 1, 2);
+        notificationService.notifyServiceAsync(TEST_USERNAME);
+        notificationService.notifyServiceAsync(TEST_USERNAME);
+        otherChannel = new NotificationServiceTwo(WebClient.builder().exchangeFunction(respondWith(HttpStatus.OK)), TEST_URL,
+                circuitBreakerRegistry, bulkheadRegistry(2), meterRegistry, new AdaptiveConcurrencyLimit.Settings(1, 1, 1, 2.0, 0.9,
+                Duration.ofMillis(100), Duration.ofSeconds(5), 2.0));
+
+        // When: Both channels are notified
+        CompletableFuture<String> slowChannel = notificationService.notifyServiceAsync(TEST_USERNAME);
+        CompletableFuture<String> fastChannel = otherChannel.notifyServiceAsync(TEST_USERNAME);
+
+        // Then: The slow channel fails fast and the other channel delivers as usual
+        assertEquals(FAILURE, slowChannel.get(5, TimeUnit.SECONDS));
+        assertEquals(SUCCESS, fastChannel.get(1, TimeUnit.SECONDS));
+        assertEquals(2, notificationService.getPendingCount());
+        assertEquals(0, otherChannel.getPendingCount());
+    }
 
-        // When: notifyServiceAsync is called
+    @Test
+    void givenPendingNotifications_whenServiceStopped_thenShouldCompleteThemWithFailure() throws Exception {
+        // Given: A notification waiting for a response that never comes
+        notificationService = newService(request -> Mono.never(), 1, 10);
         CompletableFuture<String> result = notificationService.notifyServiceAsync(TEST_USERNAME);
 
-        // Then: Should return FAILURE status
-        assertEquals(FAILURE, result.get());
+        // When: The service is stopped
+        notificationService.stop();
+
+        // Then: The caller is not left waiting
+        assertEquals(FAILURE, result.get(5, TimeUnit.SECONDS));
     }
 
     @Test
-    void givenResourceAccessException_whenNotifyServiceAsyncCalled_thenShouldReturnFailure() throws ExecutionException, InterruptedException {
-        // Given: RestTemplate throws ResourceAccessException (subclass of RestClientException)
-        when(restTemplate.getForEntity(anyString(), eq(Map.class)))
-                .thenThrow(new org.springframework.web.client.ResourceAccessException("Read timeout"));
-
-        // When: notifyServiceAsync is called
+    void givenFailingService_whenFailureRateThresholdReached_thenShouldFailFastWithoutCallingService() throws Exception {
+        // Given: A service failing every call
+        notificationService = newService(respondWith(HttpStatus.SERVICE_UNAVAILABLE), 10, 100);
+        for (int i = 0; i < 4; i++) {
+            assertEquals(FAILURE, notificationService.notifyServiceAsync(TEST_USERNAME).get(5, TimeUnit.SECONDS));
+        }
+
+        // When: Another notification is sent
         CompletableFuture<String> result = notificationService.notifyServiceAsync(TEST_USERNAME);
 
-        // Then: Should return FAILURE status
-        assertEquals(FAILURE, result.get());
+        // Then: The breaker is open and the service is not called
+        assertEquals(FAILURE, result.get(5, TimeUnit.SECONDS));
+        assertEquals(4, requests.size());
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreakerRegistry.circuitBreaker("notificationServiceOne").getState());
     }
 
     @Test
-    void givenHttpClientErrorException_whenNotifyServiceAsyncCalled_thenShouldReturnFailure() throws ExecutionException, InterruptedException {
-        // Given: RestTemplate throws HttpClientErrorException (subclass of RestClientException)
-        when(restTemplate.getForEntity(anyString(), eq(Map.class)))
-                .thenThrow(new org.springframework.web.client.HttpClientErrorException(HttpStatus.BAD_REQUEST));
+    void givenSlowService_whenSlowCallRateThresholdReached_thenShouldOpenCircuitBreaker() throws Exception {
+        // Given: A service answering successfully but slower than the slow call threshold
+        notificationService = newService(request -> Mono.just(ClientResponse.create(HttpStatus.OK).build())
+                .delayElement(Duration.ofMillis(300)), 10, 100);
+
+        // When: Enough slow notifications are sent
+        for (int i = 0; i < 4; i++) {
+            assertEquals(SUCCESS, notificationService.notifyServiceAsync(TEST_USERNAME).get(5, TimeUnit.SECONDS));
+        }
+
+        // Then: The breaker is open
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreakerRegistry.circuitBreaker("notificationServiceOne").getState());
+        assertEquals(FAILURE, notificationService.notifyServiceAsync(TEST_USERNAME).get(5, TimeUnit.SECONDS));
+        assertEquals(4, requests.size());
+    }
 
-        // When: notifyServiceAsync is called
+    @Test
+    void givenHalfOpenCircuitBreaker_whenProbeSucceeds_thenShouldCloseCircuitBreaker() throws Exception {
+        // Given: A breaker waiting for a probe call
+        notificationService = newService(respondWith(HttpStatus.OK), 10, 100);
+        CircuitBreaker circuitBreaker = circuitBreakerRegistry.circuitBreaker("notificationServiceOne");
+        circuitBreaker.transitionToOpenState();
+        circuitBreaker.transitionToHalfOpenState();
+
+        // When: The probe notification succeeds
         CompletableFuture<String> result = notificationService.notifyServiceAsync(TEST_USERNAME);
 
-        // Then: Should return FAILURE status
-        assertEquals(FAILURE, result.get());
+        // Then: The breaker closes again
+        assertEquals(SUCCESS, result.get(5, TimeUnit.SECONDS));
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
     }
 
     @Test
-    void givenEmptyUsername_whenNotifyServiceAsyncCalled_thenShouldCallUrlWithEmptyUsername() {
-        // Given: Empty username and successful response
-        Map<String, Object> responseBody = new HashMap<>();
-        ResponseEntity<Map> responseEntity = new ResponseEntity<>(responseBody, HttpStatus.OK);
-        when(restTemplate.getForEntity(anyString(), eq(Map.class))).thenReturn(responseEntity);
+    void givenQueuedNotifications_whenPendingGaugeRead_thenShouldReportThemPerChannel() {
+        // Given: A service that never answers
+        notificationService = newService(request -> Mono.never(), 1, 10);
 
-        // When: notifyServiceAsync is called with empty username
-        notificationService.notifyServiceAsync("");
+        // When: Three notifications are sent
+        for (int i = 0; i < 3; i++) {
+            notificationService.notifyServiceAsync(TEST_USERNAME);
+        }
 
-        // Then: Should call URL with empty username appended
-        verify(restTemplate).getForEntity(TEST_URL, Map.class);
+        // Then: The gauge reports them for the channel
+        assertEquals(3, meterRegistry.get("payments.notification.pending").tag("channel", "notificationServiceOne").gauge().value());
     }
 
     @Test
-    void givenNullUsername_whenNotifyServiceAsyncCalled_thenShouldCallUrlWithNullAppended() {
-        // Given: Null username and successful response
-        Map<String, Object> responseBody = new HashMap<>();
-        ResponseEntity<Map> responseEntity = new ResponseEntity<>(responseBody, HttpStatus.OK);
-        when(restTemplate.getForEntity(anyString(), eq(Map.class))).thenReturn(responseEntity);
+    void givenUnresponsiveService_whenTimeoutPasses_thenShouldFailAndBackOffConcurrencyLimit() throws Exception {
+        // Given: A service that never answers, a limit of four and a 200 ms timeout before there are enough samples for a p99
+        notificationService = newService(request -> Mono.never(), new AdaptiveConcurrencyLimit.Settings(1, 4, 8, 2.0, 0.5,
+                Duration.ofMillis(100), Duration.ofMillis(200), 2.0), 100);
 
-        // When: notifyServiceAsync is called with null username
-        notificationService.notifyServiceAsync(null);
+        // When
+        CompletableFuture<String> result = notificationService.notifyServiceAsync(TEST_USERNAME);
 
-        // Then: Should call URL with "null" appended
-        verify(restTemplate).getForEntity(TEST_URL + "null", Map.class);
+        // Then
+        assertEquals(FAILURE, result.get(5, TimeUnit.SECONDS));
+        assertEquals(2, notificationService.getConcurrencyLimit().getLimit());
+        assertEquals(0, notificationService.getConcurrencyLimit().getInFlight());
+        assertEquals(2, meterRegistry.get("payments.notification.concurrency.limit").tag("channel", "notificationServiceOne").gauge().value());
     }
 
     @Test
-    void givenUsernameWithSpecialCharacters_whenNotifyServiceAsyncCalled_thenShouldCallUrlWithSpecialCharacters() {
-        // Given: Username with special characters and successful response
-        String specialUsername = "test@user.com";
-        Map<String, Object> responseBody = new HashMap<>();
-        ResponseEntity<Map> responseEntity = new ResponseEntity<>(responseBody, HttpStatus.OK);
-        when(restTemplate.getForEntity(anyString(), eq(Map.class))).thenReturn(responseEntity);
+    void givenNotFoundResponses_whenNotificationsSent_thenShouldNotBackOffConcurrencyLimit() throws Exception {
+        // Given: A client error, which says nothing about the service's load
+        notificationService = newService(respondWith(HttpStatus.NOT_FOUND), new AdaptiveConcurrencyLimit.Settings(1, 4, 8, 2.0, 0.5,
+                Duration.ofMillis(100), Duration.ofSeconds(5), 2.0), 100);
 
-        // When: notifyServiceAsync is called with special character username
-        notificationService.notifyServiceAsync(specialUsername);
+        // When
+        CompletableFuture<String> result = notificationService.notifyServiceAsync(TEST_USERNAME);
 
-        // Then: Should call URL with special characters preserved
-        verify(restTemplate).getForEntity(TEST_URL + specialUsername, Map.class);
+        // Then
+        assertEquals(FAILURE, result.get(5, TimeUnit.SECONDS));
+        assertEquals(4, notificationService.getConcurrencyLimit().getLimit());
     }
 
-    @Test
-    void givenDefaultConstructorValues_whenServiceCreated_thenShouldUseDefaultUrl() {
-        // Given: Service created with default URL
-        when(restTemplateBuilder.connectTimeout(any(Duration.class))).thenReturn(restTemplateBuilder);
-        when(restTemplateBuilder.readTimeout(any(Duration.class))).thenReturn(restTemplateBuilder);
-        when(restTemplateBuilder.build()).thenReturn(restTemplate);
-
-        // When: Service is created without explicit URL (using default)
-        NotificationServiceOne serviceWithDefault = new NotificationServiceOne(restTemplateBuilder, "https://api.github.com/users/");
+    private NotificationServiceOne newService(ExchangeFunction exchangeFunction, int maxConcurrency, int maxPending) {
+        return newService(exchangeFunction, new AdaptiveConcurrencyLimit.Settings(1, maxConcurrency, maxConcurrency, 2.0, 0.9,
+                Duration.ofMillis(100), Duration.ofSeconds(5), 2.0), maxPending);
+    }
 
-        Map<String, Object> responseBody = new HashMap<>();
-        ResponseEntity<Map> responseEntity = new ResponseEntity<>(responseBody, HttpStatus.OK);
-        when(restTemplate.getForEntity(anyString(), eq(Map.class))).thenReturn(responseEntity);
+    private NotificationServiceOne newService(ExchangeFunction exchangeFunction, AdaptiveConcurrencyLimit.Settings concurrencyLimit, int maxPending) {
+        requests.clear();
+        ExchangeFunction recording = request -> {
+            requests.add(request);
+            return exchangeFunction.exchange(request);
+        };
+        // A new breaker per service, so every service starts closed
+        circuitBreakerRegistry.remove("notificationServiceOne");
+        return new NotificationServiceOne(WebClient.builder().exchangeFunction(recording), TEST_URL, circuitBreakerRegistry,
+                bulkheadRegistry(maxPending), meterRegistry, concurrencyLimit);
+    }
 
-        serviceWithDefault.notifyServiceAsync(TEST_USERNAME);
+    private static BulkheadRegistry bulkheadRegistry(int maxPending) {
+        return BulkheadRegistry.of(BulkheadConfig.custom().maxConcurrentCalls(maxPending).maxWaitDuration(Duration.ZERO).build());
+    }
 
-        // Then: Should use the default GitHub API URL
-        verify(restTemplate).getForEntity("https://api.github.com/users/" + TEST_USERNAME, Map.class);
+    private static ExchangeFunction respondWith(HttpStatus status) {
+        return request -> Mono.just(ClientResponse.create(status).build());
     }
-}
\ No newline at end of file
+}
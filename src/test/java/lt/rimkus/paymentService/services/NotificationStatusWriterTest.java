@@ -0,0 +1,140 @@
+package lt.rimkus.paymentService.services;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lt.rimkus.paymentService.repositories.PaymentRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+
+import static lt.rimkus.paymentService.messages.OtherMessages.FAILURE;
+import static lt.rimkus.paymentService.messages.OtherMessages.SUCCESS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Notification Status Writer Tests")
+class NotificationStatusWriterTest {
+
+    @Mock
+    private PaymentRepository paymentRepository;
+
+    @Spy
+    private SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @InjectMocks
+    private NotificationStatusWriter notificationStatusWriter;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        notificationStatusWriter.stop();
+    }
+
+    @Test
+    @DisplayName("Should write all pending statuses in one update keeping the latest status of a payment")
+    void shouldWritePendingStatusesInOneUpdate() {
+        // Given
+        start(100);
+        notificationStatusWriter.enqueue(1L, FAILURE);
+        notificationStatusWriter.enqueue(2L, SUCCESS);
+        notificationStatusWriter.enqueue(1L, SUCCESS);
+
+        // When
+        notificationStatusWriter.flush();
+
+        // Then
+        verify(paymentRepository).updateNotificationStatuses(Map.of(1L, SUCCESS, 2L, SUCCESS));
+        assertThat(meterRegistry.get("payments.notification.status.queue.depth").gauge().value()).isZero();
+        assertThat(meterRegistry.get("payments.notification.status.flush").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should flush without waiting for the interval once a full batch is pending")
+    void shouldFlushWhenBatchIsFull() {
+        // Given
+        start(3);
+
+        // When
+        notificationStatusWriter.enqueue(1L, SUCCESS);
+        notificationStatusWriter.enqueue(2L, SUCCESS);
+        notificationStatusWriter.enqueue(3L, FAILURE);
+
+        // Then
+        verify(paymentRepository, timeout(1000)).updateNotificationStatuses(Map.of(1L, SUCCESS, 2L, SUCCESS, 3L, FAILURE));
+    }
+
+    @Test
+    @DisplayName("Should split pending statuses into batches of at most the batch size")
+    @SuppressWarnings("unchecked")
+    void shouldSplitIntoBatches() {
+        // Given
+        start(2);
+        for (long id = 1; id <= 5; id++) {
+            notificationStatusWriter.enqueue(id, SUCCESS);
+        }
+
+        // When
+        notificationStatusWriter.flush();
+
+        // Then
+        ArgumentCaptor<Map<Long, String>> batches = ArgumentCaptor.forClass(Map.class);
+        verify(paymentRepository, atLeastOnce()).updateNotificationStatuses(batches.capture());
+        List<Map<Long, String>> writtenBatches = batches.getAllValues();
+        assertThat(writtenBatches).allSatisfy(batch -> assertThat(batch.size()).isLessThanOrEqualTo(2));
+        assertThat(writtenBatches.stream().mapToInt(Map::size).sum()).isEqualTo(5);
+    }
+
+    @Test
+    @DisplayName("Should count dropped statuses when a batch cannot be written")
+    void shouldCountFailedWrites() {
+        // Given
+        start(100);
+        when(paymentRepository.updateNotificationStatuses(anyMap())).thenThrow(new DataAccessResourceFailureException("Connection refused"));
+        notificationStatusWriter.enqueue(1L, SUCCESS);
+        notificationStatusWriter.enqueue(2L, FAILURE);
+
+        // When
+        notificationStatusWriter.flush();
+
+        // Then
+        assertThat(meterRegistry.get("payments.notification.status.write.failures").counter().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("payments.notification.status.queue.depth").gauge().value()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should report queued statuses as queue depth")
+    void shouldReportQueueDepth() {
+        // Given
+        start(100);
+
+        // When
+        notificationStatusWriter.enqueue(1L, SUCCESS);
+        notificationStatusWriter.enqueue(2L, SUCCESS);
+
+        // Then
+        assertThat(meterRegistry.get("payments.notification.status.queue.depth").gauge().value()).isEqualTo(2);
+        verifyNoInteractions(paymentRepository);
+    }
+
+    private void start(int batchSize) {
+        ReflectionTestUtils.setField(notificationStatusWriter, "batchSize", batchSize);
+        // Long interval so that only size triggered and explicit flushes run during a test
+        ReflectionTestUtils.setField(notificationStatusWriter, "flushIntervalMs", 60_000L);
+        notificationStatusWriter.start();
+    }
+}
@@ -0,0 +1,398 @@
+package lt.rimkus.paymentService.services;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import lt.rimkus.paymentService.DTOs.BatchPaymentResultDTO;
+import lt.rimkus.paymentService.DTOs.CancelPaymentsBatchResponseDTO;
+import lt.rimkus.paymentService.DTOs.CreatePaymentRequestDTO;
+import lt.rimkus.paymentService.DTOs.CreatePaymentsBatchResponseDTO;
+import lt.rimkus.paymentService.DTOs.PaymentCancellationInfoDTO;
+import lt.rimkus.paymentService.DTOs.PaymentCancellationStateDTO;
+import lt.rimkus.paymentService.adapters.PaymentTypeValidationAdapter;
+import lt.rimkus.paymentService.enums.OutboxStatus;
+import lt.rimkus.paymentService.exceptions.RequestValidationException;
+import lt.rimkus.paymentService.factories.PaymentCreationFactory;
+import lt.rimkus.paymentService.models.Money;
+import lt.rimkus.paymentService.models.NotificationOutboxEntry;
+import lt.rimkus.paymentService.models.Payment;
+import lt.rimkus.paymentService.models.TestPayment;
+import lt.rimkus.paymentService.repositories.NotificationOutboxRepository;
+import lt.rimkus.paymentService.repositories.PaymentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.TransactionSystemException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+import static lt.rimkus.paymentService.enums.CancellationOutcome.ALREADY_CANCELLED;
+import static lt.rimkus.paymentService.enums.CancellationOutcome.CANCELLED;
+import static lt.rimkus.paymentService.enums.CancellationOutcome.NOT_FOUND;
+import static lt.rimkus.paymentService.enums.CancellationOutcome.NOT_SAME_DAY;
+import static lt.rimkus.paymentService.messages.OtherMessages.FAILED_TO_SAVE_PAYMENT;
+import static lt.rimkus.paymentService.messages.OtherMessages.TOO_MANY_PAYMENTS_IN_PROGRESS;
+import static lt.rimkus.paymentService.messages.ValidationErrorMessages.BATCH_EMPTY;
+import static lt.rimkus.paymentService.messages.ValidationErrorMessages.BATCH_TOO_LARGE;
+import static lt.rimkus.paymentService.messages.ValidationErrorMessages.CREATION_REQUEST_NULL;
+import static lt.rimkus.paymentService.messages.ValidationErrorMessages.UNSUPPORTED_TYPE;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("PaymentBatchService Tests")
+class PaymentBatchServiceTest {
+
+    @Mock
+    private PaymentRepository paymentRepository;
+    @Mock
+    private PaymentCreationFactory paymentCreationFactory;
+    @Mock
+    private PaymentTypeValidationAdapter paymentTypeValidationAdapter;
+    @Mock
+    private NotificationOutboxRepository notificationOutboxRepository;
+    @Mock
+    private NotificationOutboxRelay notificationOutboxRelay;
+    @Mock
+    private PaymentCancellationService paymentCancellationService;
+    @Mock
+    private TransactionTemplate transactionTemplate;
+    @Mock
+    private EntityManager entityManager;
+    @Spy
+    private PaymentBulkheads paymentBulkheads = new PaymentBulkheads(new MockEnvironment(), new SimpleMeterRegistry());
+
+    @InjectMocks
+    private PaymentBatchService paymentBatchService;
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(paymentBatchService, "chunkSize", 2);
+        ReflectionTestUtils.setField(paymentBatchService, "maxBatchSize", 10);
+        lenient().doAnswer(invocation -> {
+            Consumer<TransactionStatus> action = invocation.getArgument(0);
+            action.accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        lenient().when(paymentRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Payment> payments = invocation.getArgument(0);
+            payments.forEach(payment -> payment.setId(sequence.incrementAndGet()));
+            return payments;
+        });
+    }
+
+    @Test
+    @DisplayName("Should save valid payments in chunks and report every item")
+    void shouldSaveValidPaymentsInChunks() {
+        // Given
+        List<CreatePaymentRequestDTO> requests = requestsOfType("TYPE1", 5);
+        when(paymentTypeValidationAdapter.isPaymentTypeNotValid("TYPE1")).thenReturn(false);
+        when(paymentCreationFactory.createNewPayment(any(), anyList())).thenAnswer(invocation -> paymentOfType("TYPE1"));
+
+        // When
+        CreatePaymentsBatchResponseDTO response = paymentBatchService.createPayments(requests);
+
+        // Then
+        assertThat(response.getCreatedCount()).isEqualTo(5);
+        assertThat(response.getFailedCount()).isZero();
+        assertThat(response.getResults()).extracting("index").containsExactly(0, 1, 2, 3, 4);
+        assertThat(response.getResults()).allSatisfy(result -> {
+            assertThat(result.getPaymentId()).isNotNull();
+            assertThat(result.getValidationErrors()).isEmpty();
+        });
+        verify(transactionTemplate, times(3)).executeWithoutResult(any());
+        verify(entityManager, times(3)).clear();
+    }
+
+    @Test
+    @DisplayName("Should report validation errors per item and save only valid payments")
+    void shouldReportValidationErrorsPerItem() {
+        // Given
+        CreatePaymentRequestDTO invalidType = new CreatePaymentRequestDTO();
+        invalidType.setType("TYPE9");
+        List<CreatePaymentRequestDTO> requests = new ArrayList<>(requestsOfType("TYPE1", 1));
+        requests.add(invalidType);
+        requests.add(null);
+        when(paymentTypeValidationAdapter.isPaymentTypeNotValid("TYPE1")).thenReturn(false);
+        when(paymentTypeValidationAdapter.isPaymentTypeNotValid("TYPE9")).thenReturn(true);
+        when(paymentCreationFactory.createNewPayment(any(), anyList())).thenAnswer(invocation -> paymentOfType("TYPE1"));
+
+        // When
+        CreatePaymentsBatchResponseDTO response = paymentBatchService.createPayments(requests);
+
+        // Then
+        assertThat(response.getCreatedCount()).isEqualTo(1);
+        assertThat(response.getFailedCount()).isEqualTo(2);
+        assertThat(response.getResults().get(0).getPaymentId()).isNotNull();
+        assertThat(response.getResults().get(1).getValidationErrors()).containsExactly(UNSUPPORTED_TYPE + "TYPE9");
+        assertThat(response.getResults().get(2).getValidationErrors()).containsExactly(CREATION_REQUEST_NULL);
+    }
+
+    @Test
+    @DisplayName("Should mark every item of a failed chunk as not saved")
+    void shouldReportChunkSaveFailure() {
+        // Given
+        List<CreatePaymentRequestDTO> requests = requestsOfType("TYPE1", 2);
+        when(paymentTypeValidationAdapter.isPaymentTypeNotValid("TYPE1")).thenReturn(false);
+        when(paymentCreationFactory.createNewPayment(any(), anyList())).thenAnswer(invocation -> paymentOfType("TYPE1"));
+        doAnswer(invocation -> {
+            throw new DataIntegrityViolationException("constraint violated");
+        }).when(transactionTemplate).executeWithoutResult(any());
+
+        // When
+        CreatePaymentsBatchResponseDTO response = paymentBatchService.createPayments(requests);
+
+        // Then
+        assertThat(response.getCreatedCount()).isZero();
+        assertThat(response.getFailedCount()).isEqualTo(2);
+        assertThat(response.getResults()).allSatisfy(result ->
+                assertThat(result.getValidationErrors()).containsExactly(FAILED_TO_SAVE_PAYMENT + "constraint violated"));
+        verify(notificationOutboxRepository, never()).saveAll(anyList());
+    }
+
+    @Test
+    @DisplayName("Should mark only the items of a chunk whose commit fails as not saved")
+    void shouldReportChunkCommitFailure() {
+        // Given: The second chunk's transaction fails to commit
+        List<CreatePaymentRequestDTO> requests = requestsOfType("TYPE1", 3);
+        when(paymentTypeValidationAdapter.isPaymentTypeNotValid("TYPE1")).thenReturn(false);
+        when(paymentCreationFactory.createNewPayment(any(), anyList())).thenAnswer(invocation -> paymentOfType("TYPE1"));
+        doAnswer(invocation -> {
+            Consumer<TransactionStatus> action = invocation.getArgument(0);
+            action.accept(null);
+            return null;
+        }).doAnswer(invocation -> {
+            throw new TransactionSystemException("Could not commit JPA transaction");
+        }).when(transactionTemplate).executeWithoutResult(any());
+
+        // When
+        CreatePaymentsBatchResponseDTO response = paymentBatchService.createPayments(requests);
+
+        // Then
+        assertThat(response.getCreatedCount()).isEqualTo(2);
+        assertThat(response.getFailedCount()).isEqualTo(1);
+        assertThat(response.getResults().get(2).getPaymentId()).isNull();
+        assertThat(response.getResults().get(2).getValidationErrors())
+                .containsExactly(FAILED_TO_SAVE_PAYMENT + "Could not commit JPA transaction");
+    }
+
+    @Test
+    @DisplayName("Should write an outbox entry for every saved payment in the chunk transaction")
+    @SuppressWarnings("unchecked")
+    void shouldWriteOutboxEntriesForSavedPayments() {
+        // Given
+        List<CreatePaymentRequestDTO> requests = new ArrayList<>(requestsOfType("TYPE1", 2));
+        requests.addAll(requestsOfType("TYPE2", 1));
+        when(paymentTypeValidationAdapter.isPaymentTypeNotValid(anyString())).thenReturn(false);
+        when(paymentCreationFactory.createNewPayment(any(), anyList())).thenAnswer(invocation ->
+                paymentOfType(invocation.<CreatePaymentRequestDTO>getArgument(0).getType()));
+
+        // When
+        CreatePaymentsBatchResponseDTO response = paymentBatchService.createPayments(requests);
+
+        // Then
+        ArgumentCaptor<List<NotificationOutboxEntry>> entries = ArgumentCaptor.forClass(List.class);
+        verify(notificationOutboxRepository, times(2)).saveAll(entries.capture());
+        List<NotificationOutboxEntry> written = entries.getAllValues().stream().flatMap(List::stream).toList();
+        assertThat(written).extracting(NotificationOutboxEntry::getPaymentId)
+                .containsExactlyElementsOf(response.getResults().stream().map(BatchPaymentResultDTO::getPaymentId).toList());
+        assertThat(written).extracting(NotificationOutboxEntry::getPaymentType).containsExactly("TYPE1", "TYPE1", "TYPE2");
+        assertThat(written).extracting(NotificationOutboxEntry::getStatus).containsOnly(OutboxStatus.PENDING);
+        verify(notificationOutboxRelay, times(2)).wakeUp();
+    }
+
+    @Test
+    @DisplayName("Should not write outbox entries for payment types without a notification channel")
+    @SuppressWarnings("unchecked")
+    void shouldNotWriteOutboxEntriesForTypesWithoutNotificationChannel() {
+        // Given
+        List<CreatePaymentRequestDTO> requests = new ArrayList<>(requestsOfType("TYPE1", 1));
+        requests.addAll(requestsOfType("TYPE3", 2));
+        when(paymentTypeValidationAdapter.isPaymentTypeNotValid(anyString())).thenReturn(false);
+        when(paymentCreationFactory.createNewPayment(any(), anyList())).thenAnswer(invocation ->
+                paymentOfType(invocation.<CreatePaymentRequestDTO>getArgument(0).getType()));
+
+        // When
+        CreatePaymentsBatchResponseDTO response = paymentBatchService.createPayments(requests);
+
+        // Then: The TYPE3 payments are saved in a chunk of their own
+        assertThat(response.getCreatedCount()).isEqualTo(3);
+        ArgumentCaptor<List<NotificationOutboxEntry>> entries = ArgumentCaptor.forClass(List.class);
+        verify(notificationOutboxRepository).saveAll(entries.capture());
+        assertThat(entries.getValue()).extracting(NotificationOutboxEntry::getPaymentType).containsExactly("TYPE1");
+    }
+
+    @Test
+    @DisplayName("Should save each chunk with payments of one type within the bulkhead of the type")
+    void shouldSaveChunksPerTypeWithinTheirBulkheads() {
+        // Given
+        List<CreatePaymentRequestDTO> requests = new ArrayList<>(requestsOfType("TYPE1", 1));
+        requests.addAll(requestsOfType("TYPE2", 1));
+        requests.addAll(requestsOfType("TYPE1", 1));
+        when(paymentTypeValidationAdapter.isPaymentTypeNotValid(anyString())).thenReturn(false);
+        when(paymentCreationFactory.createNewPayment(any(), anyList())).thenAnswer(invocation ->
+                paymentOfType(invocation.<CreatePaymentRequestDTO>getArgument(0).getType()));
+        // Chunk lists are reused after saving, so the types are copied when they are saved
+        List<List<String>> savedChunkTypes = new ArrayList<>();
+        when(paymentRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Payment> payments = invocation.getArgument(0);
+            savedChunkTypes.add(payments.stream().map(Payment::getType).toList());
+            return payments;
+        });
+
+        // When
+        CreatePaymentsBatchResponseDTO response = paymentBatchService.createPayments(requests);
+
+        // Then
+        assertThat(response.getCreatedCount()).isEqualTo(3);
+        assertThat(savedChunkTypes).containsExactly(List.of("TYPE1", "TYPE1"), List.of("TYPE2"));
+        verify(paymentBulkheads).executeCreation(eq("TYPE1"), any());
+        verify(paymentBulkheads).executeCreation(eq("TYPE2"), any());
+    }
+
+    @Test
+    @DisplayName("Should mark the items of a chunk rejected by a full bulkhead and save the other types")
+    void shouldReportChunkRejectedByFullBulkhead() {
+        // Given
+        List<CreatePaymentRequestDTO> requests = new ArrayList<>(requestsOfType("TYPE1", 1));
+        requests.addAll(requestsOfType("TYPE2", 2));
+        when(paymentTypeValidationAdapter.isPaymentTypeNotValid(anyString())).thenReturn(false);
+        when(paymentCreationFactory.createNewPayment(any(), anyList())).thenAnswer(invocation ->
+                paymentOfType(invocation.<CreatePaymentRequestDTO>getArgument(0).getType()));
+        doThrow(BulkheadFullException.createBulkheadFullException(Bulkhead.ofDefaults("creation-TYPE2")))
+                .when(paymentBulkheads).executeCreation(eq("TYPE2"), any());
+
+        // When
+        CreatePaymentsBatchResponseDTO response = paymentBatchService.createPayments(requests);
+
+        // Then
+        assertThat(response.getCreatedCount()).isEqualTo(1);
+        assertThat(response.getFailedCount()).isEqualTo(2);
+        assertThat(response.getResults().get(0).getPaymentId()).isNotNull();
+        assertThat(response.getResults().subList(1, 3)).allSatisfy(result -> {
+            assertThat(result.getPaymentId()).isNull();
+            assertThat(result.getValidationErrors()).containsExactly(TOO_MANY_PAYMENTS_IN_PROGRESS + "TYPE2");
+        });
+    }
+
+    @Test
+    @DisplayName("Should reject an empty batch")
+    void shouldRejectEmptyBatch() {
+        // When
+        CreatePaymentsBatchResponseDTO response = paymentBatchService.createPayments(Collections.emptyList());
+
+        // Then
+        assertThat(response.getValidationErrors()).containsExactly(BATCH_EMPTY);
+        verify(paymentRepository, never()).saveAll(anyList());
+    }
+
+    @Test
+    @DisplayName("Should reject a batch larger than the configured maximum")
+    void shouldRejectTooLargeBatch() {
+        // When
+        CreatePaymentsBatchResponseDTO response = paymentBatchService.createPayments(requestsOfType("TYPE1", 11));
+
+        // Then
+        assertThat(response.getValidationErrors()).containsExactly(BATCH_TOO_LARGE + 10);
+        verify(paymentRepository, never()).saveAll(anyList());
+    }
+
+    @Test
+    @DisplayName("Should report a per id outcome for a bulk cancellation")
+    void shouldReportOutcomePerIdForBulkCancellation() throws RequestValidationException {
+        // Given
+        LocalDate today = LocalDate.now();
+        when(paymentRepository.getCancellationStates(List.of(1L, 2L))).thenReturn(List.of(
+                new PaymentCancellationStateDTO(1L, "TYPE1", today, false),
+                new PaymentCancellationStateDTO(2L, "TYPE2", today, true)));
+        when(paymentRepository.getCancellationStates(List.of(3L, 4L))).thenReturn(List.of(
+                new PaymentCancellationStateDTO(3L, "TYPE1", today.minusDays(1), false)));
+        when(paymentCancellationService.getCancellationCoefficient("TYPE1")).thenReturn(new BigDecimal("0.05"));
+        Money fee = new Money(new BigDecimal("0.15"), "EUR");
+        when(paymentRepository.getPaymentsCancelledAt(eq(List.of(1L)), any())).thenReturn(List.of(new PaymentCancellationInfoDTO(1L, fee)));
+
+        // When
+        CancelPaymentsBatchResponseDTO response = paymentBatchService.cancelPayments(List.of(1L, 2L, 3L, 4L, 1L));
+
+        // Then
+        assertThat(response.getValidationErrors()).isEmpty();
+        assertThat(response.getResults()).extracting("paymentId", "outcome").containsExactly(
+                tuple(1L, CANCELLED), tuple(2L, ALREADY_CANCELLED), tuple(3L, NOT_SAME_DAY), tuple(4L, NOT_FOUND));
+        assertThat(response.getResults().get(0).getCancellationFee()).isEqualTo(fee);
+        verify(paymentRepository).cancelSameDayPayments(eq(List.of(1L)), eq("TYPE1"), eq(new BigDecimal("0.05")), any(), eq(today));
+        verify(transactionTemplate, times(2)).executeWithoutResult(any());
+    }
+
+    @Test
+    @DisplayName("Should report payments cancelled concurrently by another request as already cancelled")
+    void shouldReportConcurrentlyCancelledPaymentAsAlreadyCancelled() throws RequestValidationException {
+        // Given
+        when(paymentRepository.getCancellationStates(List.of(1L))).thenReturn(List.of(
+                new PaymentCancellationStateDTO(1L, "TYPE1", LocalDate.now(), false)));
+        when(paymentCancellationService.getCancellationCoefficient("TYPE1")).thenReturn(new BigDecimal("0.05"));
+        when(paymentRepository.getPaymentsCancelledAt(eq(List.of(1L)), any())).thenReturn(List.of());
+
+        // When
+        CancelPaymentsBatchResponseDTO response = paymentBatchService.cancelPayments(List.of(1L));
+
+        // Then
+        assertThat(response.getResults()).extracting("outcome").containsExactly(ALREADY_CANCELLED);
+    }
+
+    @Test
+    @DisplayName("Should reject an empty bulk cancellation")
+    void shouldRejectEmptyBulkCancellation() {
+        // When
+        CancelPaymentsBatchResponseDTO response = paymentBatchService.cancelPayments(List.of());
+
+        // Then
+        assertThat(response.getValidationErrors()).containsExactly(BATCH_EMPTY);
+        verify(transactionTemplate, never()).executeWithoutResult(any());
+    }
+
+    private List<CreatePaymentRequestDTO> requestsOfType(String type, int count) {
+        return IntStream.range(0, count).mapToObj(i -> {
+            CreatePaymentRequestDTO requestDTO = new CreatePaymentRequestDTO();
+            requestDTO.setType(type);
+            return requestDTO;
+        }).toList();
+    }
+
+    private Payment paymentOfType(String type) {
+        Payment payment = new TestPayment();
+        payment.setType(type);
+        return payment;
+    }
+}
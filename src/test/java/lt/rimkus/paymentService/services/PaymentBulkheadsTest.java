@@ -0,0 +1,96 @@
+package lt.rimkus.paymentService.services;
+
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("Payment Bulkheads Tests")
+class PaymentBulkheadsTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Should let a creation wait in its type's queue for a slot freed within max-wait")
+    void shouldRunCreationWhenSlotFreesWithinMaxWait() throws Exception {
+        // Given: TYPE1 allows one creation at a time, a waiting one gets 2 s
+        PaymentBulkheads paymentBulkheads = new PaymentBulkheads(environment()
+                .withProperty("app.payments.bulkhead.TYPE1.max-concurrent-calls", "1")
+                .withProperty("app.payments.bulkhead.TYPE1.max-wait", "PT2S"), meterRegistry);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<String> first = CompletableFuture.supplyAsync(() -> paymentBulkheads.executeCreation("TYPE1", () -> {
+            started.countDown();
+            await(release);
+            return "first";
+        }), executor);
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // When: The first creation finishes while the second one waits
+        CompletableFuture.delayedExecutor(100, TimeUnit.MILLISECONDS).execute(release::countDown);
+        String second = paymentBulkheads.executeCreation("TYPE1", () -> "second");
+
+        // Then
+        assertThat(second).isEqualTo("second");
+        assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo("first");
+    }
+
+    @Test
+    @DisplayName("Should reject a creation after max-wait and keep the other types' slots free")
+    void shouldRejectCreationAfterMaxWait() throws Exception {
+        // Given
+        PaymentBulkheads paymentBulkheads = new PaymentBulkheads(environment()
+                .withProperty("app.payments.bulkhead.TYPE1.max-concurrent-calls", "1")
+                .withProperty("app.payments.bulkhead.max-wait", "PT0.05S"), meterRegistry);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture.runAsync(() -> paymentBulkheads.executeCreation("TYPE1", () -> {
+            started.countDown();
+            await(release);
+            return null;
+        }), executor);
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        try {
+            // When / Then
+            assertThatThrownBy(() -> paymentBulkheads.executeCreation("TYPE1", () -> "rejected")).isInstanceOf(BulkheadFullException.class);
+            assertThat(paymentBulkheads.executeCreation("TYPE2", () -> "other type")).isEqualTo("other type");
+            assertThat(meterRegistry.get("payments.bulkhead.utilization").tag("type", "TYPE1").gauge().value()).isEqualTo(1.0);
+        } finally {
+            release.countDown();
+        }
+    }
+
+    private static MockEnvironment environment() {
+        // Boot's conversion service reads the ISO-8601 max-wait values as it does at runtime
+        MockEnvironment environment = new MockEnvironment();
+        environment.setConversionService(new ApplicationConversionService());
+        return environment;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
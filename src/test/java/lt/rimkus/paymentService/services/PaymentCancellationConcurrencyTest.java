@@ -0,0 +1,162 @@
+package lt.rimkus.paymentService.services;
+
+import lt.rimkus.paymentService.DTOs.CancelPaymentResponseDTO;
+import lt.rimkus.paymentService.enums.OutboxStatus;
+import lt.rimkus.paymentService.models.Money;
+import lt.rimkus.paymentService.models.NotificationOutboxEntry;
+import lt.rimkus.paymentService.models.Payment;
+import lt.rimkus.paymentService.models.TYPE1Payment;
+import lt.rimkus.paymentService.repositories.NotificationOutboxRepository;
+import lt.rimkus.paymentService.repositories.PaymentRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static lt.rimkus.paymentService.messages.OtherMessages.SUCCESS;
+import static lt.rimkus.paymentService.messages.ValidationErrorMessages.IS_ALREADY_CANCELED;
+import static lt.rimkus.paymentService.messages.ValidationErrorMessages.PAYMENT_WITH_ID;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+// Retries are due at once, so the relay passes below deliver them without waiting out a backoff
+@SpringBootTest(properties = {"app.notifications.outbox.retry-backoff-ms=0",
+        "app.notifications.outbox.retry-max-backoff-ms=0"})
+@DisplayName("Payment Cancellation Concurrency Tests")
+class PaymentCancellationConcurrencyTest {
+
+    private static final int PAYMENTS = 50;
+    private static final int CANCELLATIONS_PER_PAYMENT = 8;
+    private static final int RELAY_BATCHES_PER_PAYMENT = 2;
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private NotificationOutboxRelay notificationOutboxRelay;
+
+    @Autowired
+    private NotificationOutboxRepository notificationOutboxRepository;
+
+    @Autowired
+    private NotificationStatusWriter notificationStatusWriter;
+
+    @MockitoBean
+    private NotificationProcessor notificationProcessor;
+
+    private final List<Long> createdIds = new ArrayList<>();
+    private final ExecutorService requestExecutor = Executors.newFixedThreadPool(32);
+    private final ExecutorService notificationExecutor = Executors.newFixedThreadPool(8);
+
+    @AfterEach
+    void tearDown() {
+        requestExecutor.shutdownNow();
+        notificationExecutor.shutdownNow();
+        notificationOutboxRepository.deleteAll(notificationOutboxRepository.findAll().stream()
+                .filter(entry -> createdIds.contains(entry.getPaymentId())).toList());
+        paymentRepository.deleteAllById(createdIds);
+    }
+
+    @Test
+    @DisplayName("Should cancel every payment exactly once under parallel cancel and outbox relay traffic")
+    void shouldCancelEachPaymentExactlyOnce() throws Exception {
+        // Given
+        when(notificationProcessor.notifyServiceAboutCreatedPayments(any()))
+                .thenAnswer(invocation -> CompletableFuture.supplyAsync(() -> SUCCESS, notificationExecutor));
+
+        List<Payment> payments = paymentRepository.saveAll(IntStream.range(0, PAYMENTS).mapToObj(i -> createPayment()).toList());
+        payments.forEach(payment -> createdIds.add(payment.getId()));
+        notificationOutboxRepository.saveAll(payments.stream().map(NotificationOutboxEntry::new).toList());
+
+        Map<Long, List<CancelPaymentResponseDTO>> responses = new ConcurrentHashMap<>();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (Payment payment : payments) {
+            List<CancelPaymentResponseDTO> paymentResponses = new CopyOnWriteArrayList<>();
+            responses.put(payment.getId(), paymentResponses);
+            for (int i = 0; i < CANCELLATIONS_PER_PAYMENT; i++) {
+                tasks.add(() -> {
+                    start.await();
+                    paymentResponses.add(paymentService.cancelPayment(payment.getId()));
+                    return null;
+                });
+            }
+            for (int i = 0; i < RELAY_BATCHES_PER_PAYMENT; i++) {
+                // Relay batches write the notification status while the payments are being cancelled
+                tasks.add(() -> {
+                    start.await();
+                    notificationOutboxRelay.relayBatch();
+                    return null;
+                });
+            }
+        }
+        Collections.shuffle(tasks);
+
+        // When
+        List<Future<Void>> futures = tasks.stream().map(requestExecutor::submit).toList();
+        start.countDown();
+        for (Future<Void> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        // The scheduled relay threads may still hold a claimed batch
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (notificationOutboxRepository.findAll().stream()
+                .anyMatch(entry -> createdIds.contains(entry.getPaymentId()) && entry.getStatus() != OutboxStatus.DELIVERED)
+                && System.nanoTime() < deadline) {
+            notificationOutboxRelay.relayBatch();
+            Thread.sleep(50);
+        }
+        // Statuses of delivered entries are written by the writer after the relay commits
+        notificationStatusWriter.flush();
+
+        // Then
+        for (Payment payment : payments) {
+            List<CancelPaymentResponseDTO> paymentResponses = responses.get(payment.getId());
+            assertThat(paymentResponses).hasSize(CANCELLATIONS_PER_PAYMENT);
+            assertThat(paymentResponses).filteredOn(response -> response.getValidationErrors().isEmpty()).hasSize(1);
+            assertThat(paymentResponses).filteredOn(response -> !response.getValidationErrors().isEmpty())
+                    .allSatisfy(response -> assertThat(response.getValidationErrors())
+                            .containsExactly(PAYMENT_WITH_ID + payment.getId() + IS_ALREADY_CANCELED));
+
+            Payment stored = paymentRepository.findById(payment.getId()).orElseThrow();
+            assertThat(stored.isCancelled()).isTrue();
+            assertThat(stored.getCancellationFee().getAmount()).isEqualByComparingTo("0.05");
+            assertThat(stored.getNotificationStatus()).isEqualTo(SUCCESS);
+        }
+    }
+
+    private Payment createPayment() {
+        TYPE1Payment payment = new TYPE1Payment();
+        payment.setType("TYPE1");
+        payment.setMoney(new Money(new BigDecimal("10.00"), "EUR"));
+        payment.setDebtor_iban("Debtor IBAN");
+        payment.setCreditor_iban("Creditor IBAN");
+        payment.setCreatedDate(LocalDate.now());
+        payment.setCreatedAt(LocalDateTime.now().minusMinutes(90));
+        return payment;
+    }
+}
@@ -1,7 +1,5 @@
 package lt.rimkus.paymentService.services;
 
-import static lt.rimkus.paymentService.messages.OtherMessages.FAILURE;
-import static lt.rimkus.paymentService.messages.OtherMessages.SUCCESS;
 import static lt.rimkus.paymentService.messages.ValidationErrorMessages.CREATION_REQUEST_NULL;
 import static lt.rimkus.paymentService.messages.ValidationErrorMessages.UNSUPPORTED_TYPE;
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
@@ -15,8 +13,10 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
-import java.util.concurrent.CompletableFuture;
 import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+import jakarta.persistence.EntityManager;
 
 import lt.rimkus.paymentService.DTOs.CancelPaymentResponseDTO;
 import lt.rimkus.paymentService.DTOs.CreatePaymentRequestDTO;
@@ -24,12 +24,17 @@ import lt.rimkus.paymentService.DTOs.CreatePaymentResponseDTO;
 import lt.rimkus.paymentService.DTOs.GetNotCancelledPaymentsDTO;
 import lt.rimkus.paymentService.DTOs.PaymentCancellationInfoDTO;
 import lt.rimkus.paymentService.DTOs.PaymentDTO;
+import lt.rimkus.paymentService.DTOs.PaymentPageDTO;
 import lt.rimkus.paymentService.adapters.PaymentTypeValidationAdapter;
+import lt.rimkus.paymentService.enums.OutboxStatus;
 import lt.rimkus.paymentService.exceptions.RequestValidationException;
 import lt.rimkus.paymentService.factories.PaymentCreationFactory;
 import lt.rimkus.paymentService.models.Money;
+import lt.rimkus.paymentService.models.NotificationOutboxEntry;
 import lt.rimkus.paymentService.models.Payment;
 import lt.rimkus.paymentService.models.TYPE1Payment;
+import lt.rimkus.paymentService.models.TYPE3Payment;
+import lt.rimkus.paymentService.repositories.NotificationOutboxRepository;
 import lt.rimkus.paymentService.repositories.PaymentRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -37,6 +42,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.*;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
 
 @ExtendWith(MockitoExtension.class)
 @DisplayName("Payment Service Class Tests")
@@ -54,7 +60,13 @@ class PaymentServiceTest {
     private PaymentCancellationService paymentCancellationService;
 
     @Mock
-    private NotificationProcessor notificationProcessor;
+    private NotificationOutboxRepository notificationOutboxRepository;
+
+    @Mock
+    private NotificationOutboxRelay notificationOutboxRelay;
+
+    @Mock
+    private EntityManager entityManager;
 
     @Mock
     private Logger logger;
@@ -87,46 +99,80 @@ class PaymentServiceTest {
     }
 
     @Test
-    @DisplayName("Should return all payments correctly")
-    void testGetAllPayments_ShouldReturnAllPayments() {
+    @DisplayName("Should return a full page with cursor for the next page")
+    void testGetPaymentsPage_WhenPageIsFull_ShouldReturnNextAfterId() {
         // Given
         Payment payment1 = mock(Payment.class);
         Payment payment2 = mock(Payment.class);
-        List<Payment> expectedPayments = Arrays.asList(payment1, payment2);
-        when(paymentRepository.findAll()).thenReturn(expectedPayments);
+        when(payment2.getId()).thenReturn(12L);
+        when(payment1.convertToDTO()).thenReturn(mockPaymentDTO);
+        when(payment2.convertToDTO()).thenReturn(mockPaymentDTO);
+        when(paymentRepository.findByIdGreaterThanOrderByIdAsc(10L, Limit.of(2))).thenReturn(Arrays.asList(payment1, payment2));
+
+        // When
+        PaymentPageDTO page = paymentService.getPaymentsPage(10L, 2);
+
+        // Then
+        assertEquals(2, page.getPayments().size());
+        assertEquals(12L, page.getNextAfterId());
+        verify(paymentRepository).findByIdGreaterThanOrderByIdAsc(10L, Limit.of(2));
+    }
+
+    @Test
+    @DisplayName("Should return no cursor when the last page is not full")
+    void testGetPaymentsPage_WhenPageIsNotFull_ShouldReturnNullNextAfterId() {
+        // Given
+        when(paymentRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(PaymentService.DEFAULT_PAGE_SIZE))).thenReturn(new ArrayList<>());
 
         // When
-        List<Payment> actualPayments = paymentService.getAllPayments();
+        PaymentPageDTO page = paymentService.getPaymentsPage(null, null);
 
         // Then
-        assertEquals(expectedPayments, actualPayments);
-        verify(paymentRepository).findAll();
+        assertTrue(page.getPayments().isEmpty());
+        assertNull(page.getNextAfterId());
     }
 
     @Test
-    @DisplayName("Should return no payments correctly")
-    void testGetAllPayments_WhenRepositoryReturnsEmptyList_ShouldReturnEmptyList() {
+    @DisplayName("Should cap the requested page size")
+    void testGetPaymentsPage_WhenLimitIsTooLarge_ShouldUseMaxPageSize() {
         // Given
-        List<Payment> emptyList = new ArrayList<>();
-        when(paymentRepository.findAll()).thenReturn(emptyList);
+        when(paymentRepository.findByIdGreaterThanOrderByIdAsc(anyLong(), any(Limit.class))).thenReturn(new ArrayList<>());
 
         // When
-        List<Payment> actualPayments = paymentService.getAllPayments();
+        paymentService.getPaymentsPage(0L, 1_000_000);
 
         // Then
-        assertTrue(actualPayments.isEmpty());
-        verify(paymentRepository).findAll();
+        verify(paymentRepository).findByIdGreaterThanOrderByIdAsc(0L, Limit.of(PaymentService.MAX_PAGE_SIZE));
+    }
+
+    @Test
+    @DisplayName("Should pass every streamed payment to the consumer and detach it")
+    void testStreamAllPayments_ShouldMapAndDetachEveryPayment() {
+        // Given
+        Payment payment1 = mock(Payment.class);
+        Payment payment2 = mock(Payment.class);
+        when(payment1.convertToDTO()).thenReturn(mockPaymentDTO);
+        when(payment2.convertToDTO()).thenReturn(mockPaymentDTO);
+        when(paymentRepository.streamAllOrderedById()).thenReturn(Stream.of(payment1, payment2));
+        List<PaymentDTO> consumed = new ArrayList<>();
+
+        // When
+        paymentService.streamAllPayments(consumed::add);
+
+        // Then
+        assertEquals(2, consumed.size());
+        verify(entityManager).detach(payment1);
+        verify(entityManager).detach(payment2);
     }
 
     // Tests for createPayment method - Success scenarios
     @Test
     @DisplayName("Should create payment successfully from a valid request")
-    void testCreatePayment_WithValidRequest_ShouldCreatePaymentSuccessfully() throws RequestValidationException {
+    void testCreatePayment_WithValidRequest_ShouldCreatePaymentSuccessfully() {
         // Given
         when(paymentTypeValidationAdapter.isPaymentTypeNotValid(requestDTO.getType())).thenReturn(false);
-        when(paymentCreationFactory.createNewPayment(requestDTO)).thenReturn(mockPayment);
+        when(paymentCreationFactory.createNewPayment(eq(requestDTO), anyList())).thenReturn(mockPayment);
         when(mockPayment.convertToDTO()).thenReturn(mockPaymentDTO);
-        when(notificationProcessor.notifyServiceAboutCreatedPayment(any())).thenReturn(new CompletableFuture<>());
 
         // When
         CreatePaymentResponseDTO result = paymentService.createPayment(requestDTO, responseDTO);
@@ -137,19 +183,18 @@ class PaymentServiceTest {
         assertEquals(mockPaymentDTO, result.getPaymentDTO());
 
         verify(paymentTypeValidationAdapter).isPaymentTypeNotValid(requestDTO.getType());
-        verify(paymentCreationFactory).createNewPayment(requestDTO);
+        verify(paymentCreationFactory).createNewPayment(eq(requestDTO), anyList());
         verify(paymentRepository).save(mockPayment);
         verify(mockPayment).convertToDTO();
     }
 
     @Test
     @DisplayName("Should call repository to save payment once")
-    void testCreatePayment_WithValidRequest_ShouldCallRepositorySaveOnce() throws RequestValidationException {
+    void testCreatePayment_WithValidRequest_ShouldCallRepositorySaveOnce() {
         // Given
         when(paymentTypeValidationAdapter.isPaymentTypeNotValid(requestDTO.getType())).thenReturn(false);
-        when(paymentCreationFactory.createNewPayment(requestDTO)).thenReturn(mockPayment);
+        when(paymentCreationFactory.createNewPayment(eq(requestDTO), anyList())).thenReturn(mockPayment);
         when(mockPayment.convertToDTO()).thenReturn(mockPaymentDTO);
-        when(notificationProcessor.notifyServiceAboutCreatedPayment(any())).thenReturn(new CompletableFuture<>());
 
         // When
         paymentService.createPayment(requestDTO, responseDTO);
@@ -161,7 +206,7 @@ class PaymentServiceTest {
     // Tests for createPayment method - Validation failure scenarios
     @Test
     @DisplayName("Should return an error if payment creation request is null")
-    void testCreatePayment_WithNullRequest_ShouldAddValidationError() throws RequestValidationException {
+    void testCreatePayment_WithNullRequest_ShouldAddValidationError() {
         // When
         CreatePaymentResponseDTO result = paymentService.createPayment(null, responseDTO);
 
@@ -172,12 +217,12 @@ class PaymentServiceTest {
         assertNull(result.getPaymentDTO());
 
         verify(paymentRepository, never()).save(any());
-        verify(paymentCreationFactory, never()).createNewPayment(any());
+        verify(paymentCreationFactory, never()).createNewPayment(any(), anyList());
     }
 
     @Test
     @DisplayName("Should return an error if creation request has an invalid payment type")
-    void testCreatePayment_WithInvalidPaymentType_ShouldAddValidationError() throws RequestValidationException {
+    void testCreatePayment_WithInvalidPaymentType_ShouldAddValidationError() {
         // Given
         String invalidType = "INVALID_TYPE";
         requestDTO.setType(invalidType);
@@ -194,16 +239,19 @@ class PaymentServiceTest {
 
         verify(paymentTypeValidationAdapter).isPaymentTypeNotValid(invalidType);
         verify(paymentRepository, never()).save(any());
-        verify(paymentCreationFactory, never()).createNewPayment(any());
+        verify(paymentCreationFactory, never()).createNewPayment(any(), anyList());
     }
 
     @Test
-    @DisplayName("Should return a validation exception if payment creation fails")
-    void testCreatePayment_WhenFactoryThrowsValidationException_ShouldAddValidationError() throws RequestValidationException {
+    @DisplayName("Should return the validation errors reported by payment creation")
+    void testCreatePayment_WhenFactoryReportsValidationErrors_ShouldAddValidationErrors() {
         // Given
         String errorMessage = "Factory validation error";
         when(paymentTypeValidationAdapter.isPaymentTypeNotValid(requestDTO.getType())).thenReturn(false);
-        when(paymentCreationFactory.createNewPayment(requestDTO)).thenThrow(new RequestValidationException(errorMessage));
+        when(paymentCreationFactory.createNewPayment(eq(requestDTO), anyList())).thenAnswer(invocation -> {
+            invocation.<List<String>>getArgument(1).add(errorMessage);
+            return null;
+        });
 
         // When
         CreatePaymentResponseDTO result = paymentService.createPayment(requestDTO, responseDTO);
@@ -215,7 +263,7 @@ class PaymentServiceTest {
         assertNull(result.getPaymentDTO());
 
         verify(paymentTypeValidationAdapter).isPaymentTypeNotValid(requestDTO.getType());
-        verify(paymentCreationFactory).createNewPayment(requestDTO);
+        verify(paymentCreationFactory).createNewPayment(eq(requestDTO), anyList());
         verify(paymentRepository, never()).save(any());
     }
 
@@ -240,11 +288,11 @@ class PaymentServiceTest {
     // Tests for edge cases and error scenarios
     @Test
     @DisplayName("Should not proceed with payment creation if there are errors")
-    void testCreatePayment_WithResponseDTOHavingExistingErrors_ShouldNotProcessPayment() throws RequestValidationException {
+    void testCreatePayment_WithResponseDTOHavingExistingErrors_ShouldNotProcessPayment() {
         // Given
         responseDTO.getValidationErrors().add("Existing validation error");
         when(paymentTypeValidationAdapter.isPaymentTypeNotValid(requestDTO.getType())).thenReturn(false);
-        when(paymentCreationFactory.createNewPayment(requestDTO)).thenReturn(mockPayment);
+        when(paymentCreationFactory.createNewPayment(eq(requestDTO), anyList())).thenReturn(mockPayment);
 
         // When
         CreatePaymentResponseDTO result = paymentService.createPayment(requestDTO, responseDTO);
@@ -261,12 +309,11 @@ class PaymentServiceTest {
 
     @Test
     @DisplayName("Should return the same responseDTO instance")
-    void testCreatePayment_ShouldReturnSameResponseDTOInstance() throws RequestValidationException {
+    void testCreatePayment_ShouldReturnSameResponseDTOInstance() {
         // Given
         when(paymentTypeValidationAdapter.isPaymentTypeNotValid(requestDTO.getType())).thenReturn(false);
-        when(paymentCreationFactory.createNewPayment(requestDTO)).thenReturn(mockPayment);
+        when(paymentCreationFactory.createNewPayment(eq(requestDTO), anyList())).thenReturn(mockPayment);
         when(mockPayment.convertToDTO()).thenReturn(mockPaymentDTO);
-        when(notificationProcessor.notifyServiceAboutCreatedPayment(any())).thenReturn(new CompletableFuture<>());
 
         // When
         CreatePaymentResponseDTO result = paymentService.createPayment(requestDTO, responseDTO);
@@ -278,12 +325,11 @@ class PaymentServiceTest {
     // Test method interactions and call order
     @Test
     @DisplayName("Should validate payment type before creating a payment")
-    void testCreatePayment_ShouldValidatePaymentTypeBeforeCreation() throws RequestValidationException {
+    void testCreatePayment_ShouldValidatePaymentTypeBeforeCreation() {
         // Given
         when(paymentTypeValidationAdapter.isPaymentTypeNotValid(requestDTO.getType())).thenReturn(false);
-        when(paymentCreationFactory.createNewPayment(requestDTO)).thenReturn(mockPayment);
+        when(paymentCreationFactory.createNewPayment(eq(requestDTO), anyList())).thenReturn(mockPayment);
         when(mockPayment.convertToDTO()).thenReturn(mockPaymentDTO);
-        when(notificationProcessor.notifyServiceAboutCreatedPayment(any())).thenReturn(new CompletableFuture<>());
 
         // When
         paymentService.createPayment(requestDTO, responseDTO);
@@ -291,7 +337,7 @@ class PaymentServiceTest {
         // Then - Verify order of operations
         InOrder inOrder = inOrder(paymentTypeValidationAdapter, paymentCreationFactory, paymentRepository, mockPayment);
         inOrder.verify(paymentTypeValidationAdapter).isPaymentTypeNotValid(requestDTO.getType());
-        inOrder.verify(paymentCreationFactory).createNewPayment(requestDTO);
+        inOrder.verify(paymentCreationFactory).createNewPayment(eq(requestDTO), anyList());
         inOrder.verify(paymentRepository).save(mockPayment);
         inOrder.verify(mockPayment).convertToDTO();
     }
@@ -313,10 +359,9 @@ class PaymentServiceTest {
 
     @Test
     @DisplayName("Should not skip validation for different payment types")
-    void testCreatePayment_WithDifferentPaymentTypes_ShouldNotSkipValidation() throws RequestValidationException {
-        when(paymentCreationFactory.createNewPayment(requestDTO)).thenReturn(mockPayment);
+    void testCreatePayment_WithDifferentPaymentTypes_ShouldNotSkipValidation() {
+        when(paymentCreationFactory.createNewPayment(eq(requestDTO), anyList())).thenReturn(mockPayment);
         when(mockPayment.convertToDTO()).thenReturn(mockPaymentDTO);
-        when(notificationProcessor.notifyServiceAboutCreatedPayment(any())).thenReturn(new CompletableFuture<>());
 
         // Test TYPE1
         requestDTO.setType("TYPE1");
@@ -349,12 +394,11 @@ class PaymentServiceTest {
 
     @Test
     @DisplayName("Should not throw an exception if service returns a created payment and save it")
-    void testCreatePayment_AssertionBehavior_NewPaymentNotNull() throws RequestValidationException {
+    void testCreatePayment_AssertionBehavior_NewPaymentNotNull() {
         // Given
         when(paymentTypeValidationAdapter.isPaymentTypeNotValid(requestDTO.getType())).thenReturn(false);
-        when(paymentCreationFactory.createNewPayment(requestDTO)).thenReturn(mockPayment);
+        when(paymentCreationFactory.createNewPayment(eq(requestDTO), anyList())).thenReturn(mockPayment);
         when(mockPayment.convertToDTO()).thenReturn(mockPaymentDTO);
-        when(notificationProcessor.notifyServiceAboutCreatedPayment(any())).thenReturn(new CompletableFuture<>());
 
         // When - This should not throw AssertionError since mockPayment is not null
         assertDoesNotThrow(() -> {
@@ -367,7 +411,7 @@ class PaymentServiceTest {
 
     @Test
     @DisplayName("Concurrent calls should be handled independently")
-    void testCreatePayment_MultipleConcurrentCalls_ShouldHandleIndependently() throws RequestValidationException {
+    void testCreatePayment_MultipleConcurrentCalls_ShouldHandleIndependently() {
         // Given
         CreatePaymentRequestDTO request1 = new CreatePaymentRequestDTO();
         request1.setType("TYPE1");
@@ -379,9 +423,8 @@ class PaymentServiceTest {
 
         when(paymentTypeValidationAdapter.isPaymentTypeNotValid("TYPE1")).thenReturn(false);
         when(paymentTypeValidationAdapter.isPaymentTypeNotValid("TYPE_INVALID")).thenReturn(true);
-        when(paymentCreationFactory.createNewPayment(request1)).thenReturn(mockPayment);
+        when(paymentCreationFactory.createNewPayment(eq(request1), anyList())).thenReturn(mockPayment);
         when(mockPayment.convertToDTO()).thenReturn(mockPaymentDTO);
-        when(notificationProcessor.notifyServiceAboutCreatedPayment(any())).thenReturn(new CompletableFuture<>());
 
         // When
         CreatePaymentResponseDTO result1 = paymentService.createPayment(request1, response1);
@@ -398,10 +441,14 @@ class PaymentServiceTest {
     void testCancelPayment_Success() throws RequestValidationException {
         // Given
         long paymentId = 123L;
+        Payment cancelledPayment = mock(Payment.class);
 
-        when(paymentRepository.findById(paymentId)).thenReturn(Optional.of(mockPayment));
-        when(mockPayment.convertToDTO()).thenReturn(mockPaymentDTO);
-        when(mockPayment.getCancellationFee()).thenReturn(mockCancellationFee);
+        when(mockPayment.getType()).thenReturn("TYPE1");
+        when(paymentRepository.findById(paymentId)).thenReturn(Optional.of(mockPayment), Optional.of(cancelledPayment));
+        when(paymentCancellationService.getCancellationCoefficient("TYPE1")).thenReturn(BigDecimal.valueOf(0.05));
+        when(paymentRepository.cancelSameDayPayment(paymentId, BigDecimal.valueOf(0.05), fixedDateTime, fixedDate)).thenReturn(1);
+        when(cancelledPayment.convertToDTO()).thenReturn(mockPaymentDTO);
+        when(cancelledPayment.getCancellationFee()).thenReturn(mockCancellationFee);
 
         try (MockedStatic<LocalDate> mockedLocalDate = mockStatic(LocalDate.class);
              MockedStatic<LocalDateTime> mockedLocalDateTime = mockStatic(LocalDateTime.class)) {
@@ -421,11 +468,11 @@ class PaymentServiceTest {
             assertTrue(result.getValidationErrors().isEmpty());
 
             // Verify interactions
-            verify(paymentRepository).findById(paymentId);
-            verify(paymentCancellationService).preparePaymentForCancellation(mockPayment, fixedDate, fixedDateTime);
-            verify(paymentRepository).save(mockPayment);
-            verify(mockPayment).convertToDTO();
-            verify(mockPayment, times(2)).getCancellationFee(); // Called twice for amount and currency
+            verify(paymentRepository, times(2)).findById(paymentId);
+            verify(paymentRepository).cancelSameDayPayment(paymentId, BigDecimal.valueOf(0.05), fixedDateTime, fixedDate);
+            verify(paymentRepository, never()).save(any());
+            verify(cancelledPayment).convertToDTO();
+            verify(cancelledPayment, times(2)).getCancellationFee(); // Called twice for amount and currency
         }
     }
 
@@ -456,7 +503,7 @@ class PaymentServiceTest {
 
             // Verify interactions
             verify(paymentRepository).findById(paymentId);
-            verify(paymentCancellationService, never()).preparePaymentForCancellation(any(), any(), any());
+            verify(paymentRepository, never()).cancelSameDayPayment(any(), any(), any(), any());
             verify(paymentRepository, never()).save(any());
         }
     }
@@ -466,12 +513,11 @@ class PaymentServiceTest {
     void testCancelPayment_CancellationServiceThrowsException() throws RequestValidationException {
         // Given
         long paymentId = 123L;
-        String errorMessage = "Payment cannot be cancelled";
-        RequestValidationException exception = new RequestValidationException(errorMessage);
+        String errorMessage = "No data found for payment type: TYPE9";
 
+        when(mockPayment.getType()).thenReturn("TYPE9");
         when(paymentRepository.findById(paymentId)).thenReturn(Optional.of(mockPayment));
-        doThrow(exception).when(paymentCancellationService)
-                .preparePaymentForCancellation(any(Payment.class), any(LocalDate.class), any(LocalDateTime.class));
+        when(paymentCancellationService.getCancellationCoefficient("TYPE9")).thenThrow(new RequestValidationException(errorMessage));
 
         try (MockedStatic<LocalDate> mockedLocalDate = mockStatic(LocalDate.class);
              MockedStatic<LocalDateTime> mockedLocalDateTime = mockStatic(LocalDateTime.class)) {
@@ -486,25 +532,26 @@ class PaymentServiceTest {
             assertNotNull(result);
             assertNull(result.getPaymentDTO());
             assertNull(result.getCancellationFee());
-            assertFalse(result.getValidationErrors().isEmpty());
             assertTrue(result.getValidationErrors().contains(errorMessage));
 
             // Verify interactions
-            verify(paymentRepository).findById(paymentId);
-            verify(paymentCancellationService).preparePaymentForCancellation(mockPayment, fixedDate, fixedDateTime);
+            verify(paymentRepository, never()).cancelSameDayPayment(any(), any(), any(), any());
             verify(paymentRepository, never()).save(any());
         }
     }
 
     @Test
-    @DisplayName("Should handle null cancellation fee gracefully")
-    void testCancelPayment_NullCancellationFee() throws RequestValidationException {
+    @DisplayName("Should report an already cancelled payment when the conditional update matches no rows")
+    void testCancelPayment_AlreadyCancelled() throws RequestValidationException {
         // Given
         long paymentId = 123L;
 
+        when(mockPayment.getId()).thenReturn(paymentId);
+        when(mockPayment.getType()).thenReturn("TYPE1");
+        when(mockPayment.isCancelled()).thenReturn(true);
         when(paymentRepository.findById(paymentId)).thenReturn(Optional.of(mockPayment));
-        when(mockPayment.convertToDTO()).thenReturn(mockPaymentDTO);
-        when(mockPayment.getCancellationFee()).thenReturn(null);
+        when(paymentCancellationService.getCancellationCoefficient("TYPE1")).thenReturn(BigDecimal.valueOf(0.05));
+        when(paymentRepository.cancelSameDayPayment(paymentId, BigDecimal.valueOf(0.05), fixedDateTime, fixedDate)).thenReturn(0);
 
         try (MockedStatic<LocalDate> mockedLocalDate = mockStatic(LocalDate.class);
              MockedStatic<LocalDateTime> mockedLocalDateTime = mockStatic(LocalDateTime.class)) {
@@ -512,25 +559,82 @@ class PaymentServiceTest {
             mockedLocalDate.when(LocalDate::now).thenReturn(fixedDate);
             mockedLocalDateTime.when(LocalDateTime::now).thenReturn(fixedDateTime);
 
-            // When & Then
-            assertThrows(NullPointerException.class, () -> {
-                paymentService.cancelPayment(paymentId);
-            });
+            // When
+            CancelPaymentResponseDTO result = paymentService.cancelPayment(paymentId);
 
-            // Verify interactions up to the point of failure
+            // Then
+            assertNull(result.getPaymentDTO());
+            assertNull(result.getCancellationFee());
+            assertEquals(List.of("Payment with id 123 is already canceled"), result.getValidationErrors());
             verify(paymentRepository).findById(paymentId);
-            verify(paymentCancellationService).preparePaymentForCancellation(mockPayment, fixedDate, fixedDateTime);
-            verify(paymentRepository).save(mockPayment);
+        }
+    }
+
+    @Test
+    @DisplayName("Should report an already cancelled payment when a concurrent request cancelled it after it was read")
+    void testCancelPayment_LostRaceToConcurrentCancellation() throws RequestValidationException {
+        // Given
+        long paymentId = 123L;
+
+        when(mockPayment.getId()).thenReturn(paymentId);
+        when(mockPayment.getType()).thenReturn("TYPE1");
+        when(mockPayment.isCancelled()).thenReturn(false);
+        when(mockPayment.getCreatedDate()).thenReturn(fixedDate);
+        when(paymentRepository.findById(paymentId)).thenReturn(Optional.of(mockPayment));
+        when(paymentCancellationService.getCancellationCoefficient("TYPE1")).thenReturn(BigDecimal.valueOf(0.05));
+        when(paymentRepository.cancelSameDayPayment(paymentId, BigDecimal.valueOf(0.05), fixedDateTime, fixedDate)).thenReturn(0);
+
+        try (MockedStatic<LocalDate> mockedLocalDate = mockStatic(LocalDate.class);
+             MockedStatic<LocalDateTime> mockedLocalDateTime = mockStatic(LocalDateTime.class)) {
+
+            mockedLocalDate.when(LocalDate::now).thenReturn(fixedDate);
+            mockedLocalDateTime.when(LocalDateTime::now).thenReturn(fixedDateTime);
+
+            // When
+            CancelPaymentResponseDTO result = paymentService.cancelPayment(paymentId);
+
+            // Then
+            assertEquals(List.of("Payment with id 123 is already canceled"), result.getValidationErrors());
+        }
+    }
+
+    @Test
+    @DisplayName("Should reject cancellation of a payment created on another day")
+    void testCancelPayment_NotSameDay() throws RequestValidationException {
+        // Given
+        long paymentId = 123L;
+
+        when(mockPayment.getType()).thenReturn("TYPE1");
+        when(mockPayment.isCancelled()).thenReturn(false);
+        when(mockPayment.getCreatedDate()).thenReturn(fixedDate.minusDays(1));
+        when(paymentRepository.findById(paymentId)).thenReturn(Optional.of(mockPayment));
+        when(paymentCancellationService.getCancellationCoefficient("TYPE1")).thenReturn(BigDecimal.valueOf(0.05));
+        when(paymentRepository.cancelSameDayPayment(paymentId, BigDecimal.valueOf(0.05), fixedDateTime, fixedDate)).thenReturn(0);
+
+        try (MockedStatic<LocalDate> mockedLocalDate = mockStatic(LocalDate.class);
+             MockedStatic<LocalDateTime> mockedLocalDateTime = mockStatic(LocalDateTime.class)) {
+
+            mockedLocalDate.when(LocalDate::now).thenReturn(fixedDate);
+            mockedLocalDateTime.when(LocalDateTime::now).thenReturn(fixedDateTime);
+
+            // When
+            CancelPaymentResponseDTO result = paymentService.cancelPayment(paymentId);
+
+            // Then
+            assertEquals(List.of("Payment can be cancelled only on the day of its creation"), result.getValidationErrors());
         }
     }
 
     @Test
     @DisplayName("Should create new CancelPaymentResponseDTO with empty validation errors")
-    void testCancelPayment_ResponseDTOInitialization() {
+    void testCancelPayment_ResponseDTOInitialization() throws RequestValidationException {
         // Given
         long paymentId = 123L;
 
+        when(mockPayment.getType()).thenReturn("TYPE1");
         when(paymentRepository.findById(paymentId)).thenReturn(Optional.of(mockPayment));
+        when(paymentCancellationService.getCancellationCoefficient("TYPE1")).thenReturn(BigDecimal.valueOf(0.05));
+        when(paymentRepository.cancelSameDayPayment(eq(paymentId), any(), any(), any())).thenReturn(1);
         when(mockPayment.convertToDTO()).thenReturn(mockPaymentDTO);
         when(mockPayment.getCancellationFee()).thenReturn(mockCancellationFee);
 
@@ -556,7 +660,10 @@ class PaymentServiceTest {
         // Given
         long paymentId = 123L;
 
+        when(mockPayment.getType()).thenReturn("TYPE1");
         when(paymentRepository.findById(paymentId)).thenReturn(Optional.of(mockPayment));
+        when(paymentCancellationService.getCancellationCoefficient("TYPE1")).thenReturn(BigDecimal.valueOf(0.05));
+        when(paymentRepository.cancelSameDayPayment(eq(paymentId), any(), any(), any())).thenReturn(1);
         when(mockPayment.convertToDTO()).thenReturn(mockPaymentDTO);
         when(mockPayment.getCancellationFee()).thenReturn(mockCancellationFee);
 
@@ -572,20 +679,23 @@ class PaymentServiceTest {
             // Then
             mockedLocalDate.verify(LocalDate::now);
             mockedLocalDateTime.verify(LocalDateTime::now);
-            verify(paymentCancellationService).preparePaymentForCancellation(mockPayment, fixedDate, fixedDateTime);
+            verify(paymentRepository).cancelSameDayPayment(paymentId, BigDecimal.valueOf(0.05), fixedDateTime, fixedDate);
         }
     }
 
     @Test
     @DisplayName("Should copy cancellation fee amount and currency correctly")
-    void testCancelPayment_CancellationFeeCopy() {
+    void testCancelPayment_CancellationFeeCopy() throws RequestValidationException {
         // Given
         long paymentId = 123L;
         Money originalFee = new Money();
         originalFee.setAmount(BigDecimal.valueOf(15.75));
         originalFee.setCurrency("EUR");
 
+        when(mockPayment.getType()).thenReturn("TYPE1");
         when(paymentRepository.findById(paymentId)).thenReturn(Optional.of(mockPayment));
+        when(paymentCancellationService.getCancellationCoefficient("TYPE1")).thenReturn(BigDecimal.valueOf(0.05));
+        when(paymentRepository.cancelSameDayPayment(eq(paymentId), any(), any(), any())).thenReturn(1);
         when(mockPayment.convertToDTO()).thenReturn(mockPaymentDTO);
         when(mockPayment.getCancellationFee()).thenReturn(originalFee);
 
@@ -671,153 +781,62 @@ class PaymentServiceTest {
     }
 
     @Test
-    @DisplayName("Should set notification status to SUCCESS when notification processor returns SUCCESS")
-    void testNotificationSuccess() throws RequestValidationException {
+    @DisplayName("Should write a notification outbox entry for a created payment")
+    void testCreatePayment_ShouldWriteOutboxEntry() {
         // Given
-        CompletableFuture<String> successFuture = CompletableFuture.completedFuture(SUCCESS);
-        Payment newPayment = new TYPE1Payment();
-        when(notificationProcessor.notifyServiceAboutCreatedPayment(newPayment)).thenReturn(successFuture);
+        TYPE1Payment newPayment = new TYPE1Payment();
+        newPayment.setId(42L);
+        newPayment.setType("TYPE1");
+        newPayment.setMoney(new Money(BigDecimal.TEN, "EUR"));
+        newPayment.setDebtor_iban("Debtor IBAN");
+        newPayment.setCreditor_iban("Creditor IBAN");
+        when(paymentTypeValidationAdapter.isPaymentTypeNotValid(requestDTO.getType())).thenReturn(false);
+        when(paymentCreationFactory.createNewPayment(eq(requestDTO), anyList())).thenReturn(newPayment);
 
         // When
-        // Execute the code block (assuming it's in a method called processPaymentNotification)
-        paymentService.notifyServiceAndUpdatePaymentInDatabase(newPayment);
-
-        // Wait for async operation to complete
-        successFuture.join();
+        paymentService.createPayment(requestDTO, responseDTO);
 
         // Then
-        verify(notificationProcessor).notifyServiceAboutCreatedPayment(newPayment);
-        assertEquals(SUCCESS, newPayment.getNotificationStatus());
-        verify(paymentRepository).save(newPayment);
-        verifyNoInteractions(logger);
+        ArgumentCaptor<NotificationOutboxEntry> entry = ArgumentCaptor.forClass(NotificationOutboxEntry.class);
+        InOrder inOrder = inOrder(paymentRepository, notificationOutboxRepository);
+        inOrder.verify(paymentRepository).save(newPayment);
+        inOrder.verify(notificationOutboxRepository).save(entry.capture());
+        assertEquals(42L, entry.getValue().getPaymentId());
+        assertEquals("TYPE1", entry.getValue().getPaymentType());
+        assertEquals(OutboxStatus.PENDING, entry.getValue().getStatus());
+        assertEquals(0, entry.getValue().getAttempts());
+        assertNotNull(entry.getValue().getNextAttemptAt());
+        verify(notificationOutboxRelay).wakeUp();
     }
 
     @Test
-    @DisplayName("Should set notification status to FAILURE when notification processor returns non-SUCCESS result")
-    void testNotificationFailure() throws RequestValidationException {
+    @DisplayName("Should not write a notification outbox entry for a payment type without a notification channel")
+    void testCreatePayment_TypeWithoutNotificationChannel_ShouldNotWriteOutboxEntry() {
         // Given
-        String failureResult = "ERROR";
-        CompletableFuture<String> failureFuture = CompletableFuture.completedFuture(failureResult);
-        Payment newPayment = new TYPE1Payment();
-        when(notificationProcessor.notifyServiceAboutCreatedPayment(newPayment))
-                .thenReturn(failureFuture);
+        TYPE3Payment newPayment = new TYPE3Payment();
+        newPayment.setType("TYPE3");
+        newPayment.setMoney(new Money(BigDecimal.TEN, "EUR"));
+        newPayment.setDebtor_iban("Debtor IBAN");
+        newPayment.setCreditor_iban("Creditor IBAN");
+        when(paymentTypeValidationAdapter.isPaymentTypeNotValid(requestDTO.getType())).thenReturn(false);
+        when(paymentCreationFactory.createNewPayment(eq(requestDTO), anyList())).thenReturn(newPayment);
 
         // When
-        paymentService.notifyServiceAndUpdatePaymentInDatabase(newPayment);
-
-        // Wait for async operation to complete
-        failureFuture.join();
+        paymentService.createPayment(requestDTO, responseDTO);
 
         // Then
-        verify(notificationProcessor).notifyServiceAboutCreatedPayment(newPayment);
-        assertEquals(FAILURE, newPayment.getNotificationStatus());
         verify(paymentRepository).save(newPayment);
-        verifyNoInteractions(logger);
+        verifyNoInteractions(notificationOutboxRepository, notificationOutboxRelay);
     }
 
     @Test
-    @DisplayName("Should set notification status to FAILURE when notification processor returns null")
-    void testNotificationNullResult() throws RequestValidationException {
-        // Given
-        CompletableFuture<String> nullFuture = CompletableFuture.completedFuture(null);
-        Payment newPayment = new TYPE1Payment();
-        when(notificationProcessor.notifyServiceAboutCreatedPayment(newPayment)).thenReturn(nullFuture);
-
+    @DisplayName("Should not write a notification outbox entry when payment creation fails validation")
+    void testCreatePayment_WithValidationError_ShouldNotWriteOutboxEntry() {
         // When
-        paymentService.notifyServiceAndUpdatePaymentInDatabase(newPayment);
-
-        // Wait for async operation to complete
-        nullFuture.join();
+        paymentService.createPayment(null, responseDTO);
 
         // Then
-        verify(notificationProcessor).notifyServiceAboutCreatedPayment(newPayment);
-        assertEquals(FAILURE, newPayment.getNotificationStatus());
-        verify(paymentRepository).save(newPayment);
-        verifyNoInteractions(logger);
-    }
-
-    @Test
-    @DisplayName("Should not update payment when RequestValidationException is thrown")
-    void testRequestValidationExceptionHandling() throws RequestValidationException {
-        // Given
-        RequestValidationException exception = new RequestValidationException("Validation failed");
-        Payment newPayment = new TYPE1Payment();
-        when(notificationProcessor.notifyServiceAboutCreatedPayment(newPayment))
-                .thenThrow(exception);
-
-        // When
-        paymentService.notifyServiceAndUpdatePaymentInDatabase(newPayment);
-
-        // Then
-        verify(notificationProcessor).notifyServiceAboutCreatedPayment(newPayment);
-        verifyNoInteractions(paymentRepository);
-        assertNull(newPayment.getNotificationStatus()); // Status should remain unchanged
-    }
-
-    @Test
-    @DisplayName("Should handle CompletableFuture exception and set notification status to FAILURE")
-    void testAsyncNotificationException() throws RequestValidationException {
-        // Given
-        CompletableFuture<String> exceptionalFuture = new CompletableFuture<>();
-        exceptionalFuture.completeExceptionally(new RuntimeException("Network error"));
-        Payment newPayment = new TYPE1Payment();
-        when(notificationProcessor.notifyServiceAboutCreatedPayment(newPayment))
-                .thenReturn(exceptionalFuture);
-
-        // When
-        paymentService.notifyServiceAndUpdatePaymentInDatabase(newPayment);
-
-        // Then
-        verify(notificationProcessor).notifyServiceAboutCreatedPayment(newPayment);
-
-        assertNull(newPayment.getNotificationStatus());
-        verifyNoInteractions(paymentRepository);
-        verifyNoInteractions(logger);
-    }
-
-    @Test
-    @DisplayName("Should preserve payment data integrity during notification process")
-    void testPaymentDataIntegrity() throws RequestValidationException {
-        // Given
-        CompletableFuture<String> successFuture = CompletableFuture.completedFuture(SUCCESS);
-        Payment newPayment = new TYPE1Payment();
-        when(notificationProcessor.notifyServiceAboutCreatedPayment(newPayment))
-                .thenReturn(successFuture);
-
-        Long originalId = newPayment.getId();
-        String originalType = newPayment.getType();
-        newPayment.setMoney(new Money());
-        BigDecimal originalAmount = newPayment.getMoney().getAmount();
-
-        // When
-        paymentService.notifyServiceAndUpdatePaymentInDatabase(newPayment);
-        successFuture.join();
-
-        // Then
-        assertEquals(originalId, newPayment.getId());
-        assertEquals(originalType, newPayment.getType());
-        assertEquals(originalAmount, newPayment.getMoney().getAmount());
-        assertEquals(SUCCESS, newPayment.getNotificationStatus());
-    }
-
-    @Test
-    @DisplayName("Should verify exact interaction sequence with dependencies")
-    void testInteractionSequence() throws RequestValidationException {
-        // Given
-        CompletableFuture<String> successFuture = CompletableFuture.completedFuture(SUCCESS);
-        Payment newPayment = new TYPE1Payment();
-        when(notificationProcessor.notifyServiceAboutCreatedPayment(newPayment))
-                .thenReturn(successFuture);
-
-        InOrder inOrder = inOrder(notificationProcessor, paymentRepository);
-
-        // When
-        paymentService.notifyServiceAndUpdatePaymentInDatabase(newPayment);
-        successFuture.join();
-
-        // Then
-        inOrder.verify(notificationProcessor).notifyServiceAboutCreatedPayment(newPayment);
-        inOrder.verify(paymentRepository).save(newPayment);
+        verifyNoInteractions(notificationOutboxRepository);
     }
 
-}
\ No newline at end of file
+}
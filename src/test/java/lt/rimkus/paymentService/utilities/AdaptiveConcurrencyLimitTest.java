@@ -0,0 +1,165 @@
+package lt.rimkus.paymentService.utilities;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static lt.rimkus.paymentService.utilities.AdaptiveConcurrencyLimit.Outcome.DROPPED;
+import static lt.rimkus.paymentService.utilities.AdaptiveConcurrencyLimit.Outcome.IGNORED;
+import static lt.rimkus.paymentService.utilities.AdaptiveConcurrencyLimit.Outcome.SUCCESS;
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveConcurrencyLimitTest {
+
+    private static final long MILLIS = 1_000_000L;
+
+    private final AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(new AdaptiveConcurrencyLimit.Settings(
+            1, 4, 10, 2.0, 0.5, Duration.ofMillis(50), Duration.ofSeconds(5), 2.0));
+
+    @Test
+    void testTryAcquire_ShouldAllowAtMostLimitCallsInFlight() {
+        // When
+        int acquired = acquire(10);
+
+        // Then
+        assertEquals(4, acquired);
+        assertEquals(4, limit.getInFlight());
+    }
+
+    @Test
+    void testRelease_HealthyLatencyWithLimitInUse_ShouldGrowLimitUpToMax() {
+        // When: Full rounds of calls answered in 10 ms
+        for (int round = 0; round < 100; round++) {
+            int acquired = acquire(limit.getLimit());
+            for (int i = 0; i < acquired; i++) {
+                limit.release(10 * MILLIS, SUCCESS);
+            }
+        }
+
+        // Then
+        assertEquals(10, limit.getLimit());
+    }
+
+    @Test
+    void testRelease_LimitNotInUse_ShouldNotGrowLimit() {
+        // When: One call at a time
+        for (int i = 0; i < 100; i++) {
+            acquire(1);
+            limit.release(10 * MILLIS, SUCCESS);
+        }
+
+        // Then
+        assertEquals(4, limit.getLimit());
+    }
+
+    @Test
+    void testRelease_SlowResponses_ShouldBackOffOncePerWindowOfCallsInFlight() {
+        // Given: A 10 ms baseline
+        acquire(1);
+        limit.release(10 * MILLIS, SUCCESS);
+        acquire(4);
+
+        // When: All four calls in flight come back slow
+        for (int i = 0; i < 4; i++) {
+            limit.release(100 * MILLIS, SUCCESS);
+        }
+
+        // Then: Halved once, not for every slow call
+        assertEquals(2, limit.getLimit());
+    }
+
+    @Test
+    void testRelease_Dropped_ShouldBackOffNotBelowMin() {
+        // When
+        for (int i = 0; i < 10; i++) {
+            acquire(1);
+            limit.release(10 * MILLIS, DROPPED);
+        }
+
+        // Then
+        assertEquals(1, limit.getLimit());
+    }
+
+    @Test
+    void testRelease_Ignored_ShouldOnlyFreeTheSlot() {
+        // Given
+        acquire(4);
+
+        // When
+        for (int i = 0; i < 4; i++) {
+            limit.release(0, IGNORED);
+        }
+
+        // Then
+        assertEquals(4, limit.getLimit());
+        assertEquals(0, limit.getInFlight());
+        assertEquals(Duration.ofSeconds(5), limit.getTimeout());
+    }
+
+    @Test
+    void testGetTimeout_ShouldFollowP99OfRecentRoundTripTimes() {
+        // When: 127 calls of 100 ms and one outlier of 2 s, the p99 of 128 samples is the 127th
+        for (int i = 0; i < 128; i++) {
+            acquire(1);
+            limit.release((i == 64 ? 2000 : 100) * MILLIS, SUCCESS);
+        }
+        Duration healthyTimeout = limit.getTimeout();
+        // 256 calls of 1 s fill the whole window
+        for (int i = 0; i < 256; i++) {
+            acquire(1);
+            limit.release(1000 * MILLIS, SUCCESS);
+        }
+
+        // Then: Twice the p99
+        assertEquals(Duration.ofMillis(200), healthyTimeout);
+        assertEquals(Duration.ofSeconds(2), limit.getTimeout());
+    }
+
+    @Test
+    void testGetTimeout_RepeatedTimeouts_ShouldNotGrowTimeout() {
+        // Given: A 200 ms timeout from calls answered in 100 ms
+        for (int i = 0; i < 32; i++) {
+            acquire(1);
+            limit.release(100 * MILLIS, SUCCESS);
+        }
+        Duration initialTimeout = limit.getTimeout();
+
+        // When: Many calls time out, each after the current timeout
+        for (int i = 0; i < 512; i++) {
+            acquire(1);
+            limit.release(limit.getTimeout().toNanos(), DROPPED);
+        }
+
+        // Then
+        assertEquals(Duration.ofMillis(200), initialTimeout);
+        assertEquals(initialTimeout, limit.getTimeout());
+    }
+
+    @Test
+    void testGetTimeout_ShouldStayWithinMinAndMax() {
+        // When
+        for (int i = 0; i < 32; i++) {
+            acquire(1);
+            limit.release(MILLIS, SUCCESS);
+        }
+
+        // Then
+        assertEquals(Duration.ofMillis(50), limit.getTimeout());
+    }
+
+    @Test
+    void testSettings_InvalidLimits_ShouldThrow() {
+        assertThrows(IllegalArgumentException.class, () -> new AdaptiveConcurrencyLimit.Settings(
+                5, 4, 10, 2.0, 0.5, Duration.ofMillis(50), Duration.ofSeconds(5), 2.0));
+        assertThrows(IllegalArgumentException.class, () -> new AdaptiveConcurrencyLimit.Settings(
+                1, 4, 10, 2.0, 1.0, Duration.ofMillis(50), Duration.ofSeconds(5), 2.0));
+    }
+
+    private int acquire(int calls) {
+        int acquired = 0;
+        while (acquired < calls && limit.tryAcquire()) {
+            acquired++;
+        }
+        return acquired;
+    }
+}
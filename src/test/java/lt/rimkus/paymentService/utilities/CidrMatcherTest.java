@@ -0,0 +1,134 @@
+package lt.rimkus.paymentService.utilities;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.NullAndEmptySource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CidrMatcherTest {
+
+    private final CidrMatcher matcher = CidrMatcher.of(List.of("127.0.0.0/8", "10.0.0.0/8", "172.16.0.0/12", "192.168.0.0/16",
+            "169.254.0.0/16", "::1/128", "fc00::/7", "fe80::/10"));
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "127.0.0.1",
+            "10.0.0.0",
+            "10.255.255.255",
+            "172.16.0.1",
+            "172.31.255.255",
+            "192.168.1.100",
+            "169.254.10.20",
+            "::1",
+            "0:0:0:0:0:0:0:1",
+            "fc00::",
+            "fdff:ffff:ffff:ffff:ffff:ffff:ffff:ffff",
+            "FD12:3456:789A::1",
+            "fe80::1",
+            "fe80::1%eth0",
+            "febf:ffff::",
+            "::ffff:10.1.2.3",
+            "::ffff:192.168.0.1"
+    })
+    void testMatches_PrivateOrLocalAddress_ShouldReturnTrue(String ip) {
+        // When
+        boolean result = matcher.matches(ip);
+
+        // Then
+        assertTrue(result, ip + " should match");
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "8.8.8.8",
+            "172.15.255.255",
+            "172.32.0.0",
+            "172.200.1.1",
+            "172.2.0.1",
+            "11.0.0.0",
+            "192.169.0.1",
+            "::2",
+            "fbff:ffff::",
+            "fec0::1",
+            "2001:4860:4860::8888",
+            "::ffff:8.8.8.8"
+    })
+    void testMatches_PublicAddress_ShouldReturnFalse(String ip) {
+        // When
+        boolean result = matcher.matches(ip);
+
+        // Then
+        assertFalse(result, ip + " should not match");
+    }
+
+    @ParameterizedTest
+    @NullAndEmptySource
+    @ValueSource(strings = {
+            "unknown",
+            "10.0.0",
+            "10.0.0.256",
+            "10.0.0.1.2",
+            "10..0.1",
+            ":::1",
+            "1::2::3",
+            "fe80:::1",
+            "fe80::12345",
+            "1:2:3:4:5:6:7:8:9",
+            "1:2:3:4:5:6:7",
+            "fe80::1:",
+            ":fe80::1",
+            "fe80::g",
+            "fe80::١"
+    })
+    void testMatches_InvalidAddress_ShouldReturnFalse(String ip) {
+        // When
+        boolean result = matcher.matches(ip);
+
+        // Then
+        assertFalse(result);
+    }
+
+    @Test
+    void testMatches_FullAndSingleAddressBlocks_ShouldMatchExactly() {
+        // Given
+        CidrMatcher singleAddresses = CidrMatcher.of(List.of("203.0.113.7", "2001:db8::1"));
+        CidrMatcher everything = CidrMatcher.of(List.of("0.0.0.0/0", "::/0"));
+
+        // When & Then
+        assertTrue(singleAddresses.matches("203.0.113.7"));
+        assertFalse(singleAddresses.matches("203.0.113.8"));
+        assertTrue(singleAddresses.matches("2001:0db8:0000:0000:0000:0000:0000:0001"));
+        assertFalse(singleAddresses.matches("2001:db8::2"));
+        assertTrue(everything.matches("8.8.8.8"));
+        assertTrue(everything.matches("2001:4860:4860::8888"));
+    }
+
+    @Test
+    void testMatches_NestedAndAdjacentBlocks_ShouldBeMerged() {
+        // Given
+        CidrMatcher nested = CidrMatcher.of(List.of("10.1.0.0/16", "10.0.0.0/8", "10.1.2.0/24", "11.0.0.0/8"));
+
+        // When & Then
+        assertTrue(nested.matches("10.200.0.1"));
+        assertTrue(nested.matches("10.1.2.3"));
+        assertTrue(nested.matches("11.0.0.1"));
+        assertFalse(nested.matches("12.0.0.1"));
+    }
+
+    @Test
+    void testMatches_EmptyMatcher_ShouldMatchNothing() {
+        // When & Then
+        assertFalse(CidrMatcher.of(List.of()).matches("10.0.0.1"));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"10.0.0.0/33", "fc00::/129", "10.0.0.0/-1", "10.0.0.0/x", "not-an-ip/8", "fc00:::/7"})
+    void testOf_InvalidBlock_ShouldThrowException(String cidr) {
+        // When & Then
+        assertThrows(IllegalArgumentException.class, () -> CidrMatcher.of(List.of(cidr)));
+    }
+}
@@ -0,0 +1,135 @@
+package lt.rimkus.paymentService.utilities;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClientIpExtractorTest {
+
+    private final ClientIpExtractor extractor = new ClientIpExtractor(CidrMatcher.of(List.of("10.0.0.0/8", "::1/128")));
+
+    @Test
+    void testGetClientIpAddress_UntrustedPeer_ShouldIgnoreHeaders() {
+        // Given
+        MockHttpServletRequest request = request("203.0.113.7");
+        request.addHeader("X-Forwarded-For", "198.51.100.1");
+        request.addHeader("Forwarded", "for=198.51.100.1");
+
+        // When
+        String result = extractor.getClientIpAddress(request);
+
+        // Then
+        assertEquals("203.0.113.7", result);
+    }
+
+    @Test
+    void testGetClientIpAddress_TrustedPeerWithoutHeaders_ShouldReturnPeer() {
+        // When
+        String result = extractor.getClientIpAddress(request("10.0.0.1"));
+
+        // Then
+        assertEquals("10.0.0.1", result);
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+            "203.0.113.7                            | 203.0.113.7",
+            "203.0.113.7, 10.0.0.2                  | 203.0.113.7",
+            // A spoofed left part is never reached
+            "1.2.3.4, 203.0.113.7, 10.0.0.3, 10.0.0.2 | 203.0.113.7",
+            "10.0.0.4, 10.0.0.3                     | 10.0.0.4",
+            "203.0.113.7:51234, 10.0.0.2            | 203.0.113.7",
+            "2001:db8::1, ::1                       | 2001:db8::1",
+            "unknown, 10.0.0.2                      | 10.0.0.2",
+            "203.0.113.7, garbage                   | 10.0.0.1",
+            "' , ,'                                 | 10.0.0.1"
+    })
+    void testGetClientIpAddress_XForwardedFor_ShouldReturnFirstUntrustedHopFromTheRight(String header, String expected) {
+        // Given
+        MockHttpServletRequest request = request("10.0.0.1");
+        request.addHeader("X-Forwarded-For", header);
+
+        // When
+        String result = extractor.getClientIpAddress(request);
+
+        // Then
+        assertEquals(expected, result);
+    }
+
+    @Test
+    void testGetClientIpAddress_SeveralXForwardedForHeaders_ShouldWalkThemAsOneList() {
+        // Given
+        MockHttpServletRequest request = request("10.0.0.1");
+        request.addHeader("X-Forwarded-For", "203.0.113.7");
+        request.addHeader("X-Forwarded-For", "10.0.0.3, 10.0.0.2");
+
+        // When
+        String result = extractor.getClientIpAddress(request);
+
+        // Then
+        assertEquals("203.0.113.7", result);
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+            "for=203.0.113.7                                            | 203.0.113.7",
+            "for=203.0.113.7;proto=https;by=10.0.0.2, for=10.0.0.2      | 203.0.113.7",
+            "FOR=\"203.0.113.7:4711\"                                   | 203.0.113.7",
+            "for=\"[2001:db8:cafe::17]:4711\", for=\"[::1]\"            | 2001:db8:cafe::17",
+            "proto=http;for=198.51.100.17, for=203.0.113.7;host=\"a,b\" | 203.0.113.7",
+            "for=10.0.0.3                                               | 10.0.0.3",
+            "for=unknown, for=10.0.0.2                                  | 10.0.0.2",
+            "for=_hidden                                                | 10.0.0.1",
+            "for=\"[2001:db8::1\"                                       | 10.0.0.1"
+    })
+    void testGetClientIpAddress_Forwarded_ShouldReturnFirstUntrustedHopFromTheRight(String header, String expected) {
+        // Given
+        MockHttpServletRequest request = request("10.0.0.1");
+        request.addHeader("Forwarded", header);
+
+        // When
+        String result = extractor.getClientIpAddress(request);
+
+        // Then
+        assertEquals(expected, result);
+    }
+
+    @Test
+    void testGetClientIpAddress_ForwardedAndXForwardedFor_ShouldPreferForwarded() {
+        // Given
+        MockHttpServletRequest request = request("10.0.0.1");
+        request.addHeader("Forwarded", "for=203.0.113.7");
+        request.addHeader("X-Forwarded-For", "198.51.100.1");
+
+        // When
+        String result = extractor.getClientIpAddress(request);
+
+        // Then
+        assertEquals("203.0.113.7", result);
+    }
+
+    @Test
+    void testGetClientIpAddress_ForwardedWithoutFor_ShouldFallBackToXForwardedFor() {
+        // Given
+        MockHttpServletRequest request = request("10.0.0.1");
+        request.addHeader("Forwarded", "proto=https;host=example.com");
+        request.addHeader("X-Forwarded-For", "198.51.100.1");
+
+        // When
+        String result = extractor.getClientIpAddress(request);
+
+        // Then
+        assertEquals("198.51.100.1", result);
+    }
+
+    private static MockHttpServletRequest request(String remoteAddr) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr(remoteAddr);
+        return request;
+    }
+}
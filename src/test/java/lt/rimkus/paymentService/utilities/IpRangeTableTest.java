@@ -0,0 +1,140 @@
+package lt.rimkus.paymentService.utilities;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IpRangeTableTest {
+
+    @TempDir
+    Path directory;
+
+    private Path csv;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        csv = directory.resolve("ranges.csv");
+        // Deliberately unsorted, with a range above 128.0.0.0 to check unsigned ordering
+        Files.writeString(csv, """
+                # start,end,country
+                200.0.0.0,255.255.255.255,Lithuania
+                8.8.8.0,8.8.8.255,United States
+                1.0.0.0,1.0.0.255,Australia
+                8.8.4.0,8.8.4.255,United States
+                """);
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "1.0.0.0, Australia",
+            "1.0.0.255, Australia",
+            "8.8.4.4, United States",
+            "8.8.8.8, United States",
+            "200.0.0.1, Lithuania",
+            "255.255.255.255, Lithuania"
+    })
+    void testLookup_AddressInRange_ShouldReturnCountry(String ip, String expectedCountry) throws IOException {
+        // Given
+        IpRangeTable table = IpRangeTable.load(csv);
+
+        // When
+        String result = table.lookup(ip);
+
+        // Then
+        assertEquals(expectedCountry, result);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"0.255.255.255", "1.0.1.0", "8.8.5.0", "199.255.255.255", "::1", "8.8.8", "8.8.8.256", "not an ip"})
+    void testLookup_AddressNotCovered_ShouldReturnNull(String ip) throws IOException {
+        // Given
+        IpRangeTable table = IpRangeTable.load(csv);
+
+        // When
+        String result = table.lookup(ip);
+
+        // Then
+        assertNull(result);
+    }
+
+    @Test
+    void testLoad_BinaryFile_ShouldAnswerLikeTheCsv() throws IOException {
+        // Given
+        Path binary = directory.resolve("ranges.bin");
+        IpRangeTable.load(csv).writeTo(binary);
+
+        // When
+        IpRangeTable table = IpRangeTable.load(binary);
+
+        // Then
+        assertEquals(4, table.size());
+        assertEquals("Australia", table.lookup("1.0.0.7"));
+        assertEquals("United States", table.lookup("8.8.8.8"));
+        assertEquals("Lithuania", table.lookup("230.1.2.3"));
+        assertNull(table.lookup("8.8.5.0"));
+    }
+
+    @Test
+    void testWriteTo_ShouldWriteBigEndianWhateverTheNativeOrder() throws IOException {
+        // Given
+        Path binary = directory.resolve("ranges.bin");
+
+        // When
+        IpRangeTable.load(csv).writeTo(binary);
+
+        // Then: The header reads back as big-endian, the default order of a ByteBuffer
+        byte[] content = Files.readAllBytes(binary);
+        assertEquals("IPRT", new String(content, 0, 4, StandardCharsets.US_ASCII));
+        assertEquals(4, ByteBuffer.wrap(content).getInt(Integer.BYTES));
+    }
+
+    @Test
+    void testLoad_BinaryFileInOtherByteOrder_ShouldThrowException() throws IOException {
+        // Given: The magic number of a table written little-endian
+        Path binary = directory.resolve("ranges.bin");
+        Files.write(binary, ByteBuffer.allocate(12).order(ByteOrder.LITTLE_ENDIAN).putInt(0x49505254).putInt(0).putInt(0).array());
+
+        // When & Then
+        assertThrows(IllegalArgumentException.class, () -> IpRangeTable.load(binary));
+    }
+
+    @Test
+    void testLoad_OverlappingRanges_ShouldThrowException() throws IOException {
+        // Given
+        Files.writeString(csv, "8.8.0.0,8.8.255.255,United States\n8.8.8.0,8.8.8.255,Canada\n");
+
+        // When & Then
+        assertThrows(IllegalArgumentException.class, () -> IpRangeTable.load(csv));
+    }
+
+    @Test
+    void testLoad_MalformedLine_ShouldThrowException() throws IOException {
+        // Given
+        Files.writeString(csv, "8.8.8.255,8.8.8.0,United States\n");
+
+        // When & Then
+        assertThrows(IllegalArgumentException.class, () -> IpRangeTable.load(csv));
+    }
+
+    @Test
+    void testLoad_NotATableFile_ShouldThrowException() throws IOException {
+        // Given
+        Path binary = directory.resolve("ranges.bin");
+        Files.write(binary, new byte[]{1, 2, 3, 4, 5, 6, 7, 8});
+
+        // When & Then
+        assertThrows(IllegalArgumentException.class, () -> IpRangeTable.load(binary));
+    }
+}
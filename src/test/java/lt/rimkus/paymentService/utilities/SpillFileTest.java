@@ -0,0 +1,136 @@
+package lt.rimkus.paymentService.utilities;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpillFileTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testPoll_ShouldReturnRecordsInAppendOrder() throws IOException {
+        // Given
+        try (SpillFile spillFile = SpillFile.open(directory.resolve("spill.dat"), 1024)) {
+            spillFile.append(bytes("first"));
+            spillFile.append(bytes("second"));
+
+            // When
+            String first = string(spillFile.poll());
+            String second = string(spillFile.poll());
+
+            // Then
+            assertEquals("first", first);
+            assertEquals("second", second);
+            assertNull(spillFile.poll());
+            assertEquals(0, spillFile.size());
+        }
+    }
+
+    @Test
+    void testOpen_ExistingFile_ShouldKeepUnpolledRecords() throws IOException {
+        // Given
+        Path file = directory.resolve("nested").resolve("spill.dat");
+        try (SpillFile spillFile = SpillFile.open(file, 1024)) {
+            spillFile.append(bytes("polled"));
+            spillFile.append(bytes("kept"));
+            spillFile.append(bytes(""));
+            spillFile.poll();
+        }
+
+        // When
+        try (SpillFile reopened = SpillFile.open(file, 1024)) {
+
+            // Then
+            assertEquals(2, reopened.size());
+            assertEquals("kept", string(reopened.poll()));
+            assertEquals("", string(reopened.poll()));
+            assertNull(reopened.poll());
+        }
+    }
+
+    @Test
+    void testAppend_FileFull_ShouldReturnFalseUntilSpaceIsPolled() throws IOException {
+        // Given: A header of 16 bytes and room for two 10 byte records
+        try (SpillFile spillFile = SpillFile.open(directory.resolve("spill.dat"), 36)) {
+            assertTrue(spillFile.append(bytes("record")));
+            assertTrue(spillFile.append(bytes("second")));
+
+            // When
+            boolean appendedWhenFull = spillFile.append(bytes("third!"));
+            spillFile.poll();
+            boolean appendedAfterPoll = spillFile.append(bytes("third!"));
+
+            // Then: The polled record's space is reclaimed by moving the unread record to the start
+            assertFalse(appendedWhenFull);
+            assertTrue(appendedAfterPoll);
+            assertEquals("second", string(spillFile.poll()));
+            assertEquals("third!", string(spillFile.poll()));
+        }
+    }
+
+    @Test
+    void testOpen_RecordCutByCrash_ShouldKeepOnlyWholeRecords() throws IOException {
+        // Given: A committed write position pointing past the end of the last record's bytes
+        Path file = directory.resolve("spill.dat");
+        try (SpillFile spillFile = SpillFile.open(file, 1024)) {
+            spillFile.append(bytes("whole"));
+            spillFile.append(bytes("cut"));
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            // Length of the second record, which starts after the 16 byte header and the 9 byte first record
+            channel.write(ByteBuffer.allocate(Integer.BYTES).putInt(0, 500), 25);
+        }
+
+        // When
+        try (SpillFile reopened = SpillFile.open(file, 1024)) {
+
+            // Then
+            assertEquals(1, reopened.size());
+            assertEquals("whole", string(reopened.poll()));
+            assertNull(reopened.poll());
+            assertTrue(reopened.append(bytes("next")));
+            assertEquals("next", string(reopened.poll()));
+        }
+    }
+
+    @Test
+    void testOpen_FileAlreadyOpen_ShouldThrowUntilClosed() throws IOException {
+        // Given
+        Path file = directory.resolve("spill.dat");
+        SpillFile spillFile = SpillFile.open(file, 1024);
+        spillFile.append(bytes("first"));
+
+        // When
+        IOException exception = assertThrows(IOException.class, () -> SpillFile.open(file, 1024));
+        spillFile.close();
+
+        // Then
+        assertTrue(exception.getMessage().contains("already in use"));
+        try (SpillFile reopened = SpillFile.open(file, 1024)) {
+            assertEquals("first", string(reopened.poll()));
+        }
+    }
+
+    @Test
+    void testOpen_SizeNotLargerThanHeader_ShouldThrow() {
+        assertThrows(IllegalArgumentException.class, () -> SpillFile.open(directory.resolve("spill.dat"), 16));
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String string(byte[] value) {
+        return new String(value, StandardCharsets.UTF_8);
+    }
+}